@@ -0,0 +1,44 @@
+package hr.fer.zemris.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Program runs image processing, neural network inference and training benchmarks with GC profiler, so allocation
+ * rate and collections are reported with throughput of every stage. Standard JMH command line options can be given
+ * as arguments, for example a benchmark name pattern or -p resolution=300DPI. Program should be run from the
+ * benchmarks project directory, otherwise dataset directory and template file have to be given with
+ * -p datasetDirectory=... and -p templateFile=....
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 2.7.2017.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Method runs benchmarks.
+     *
+     * @param args
+     *            JMH command line options
+     * @throws CommandLineOptionException
+     *             if command line options are invalid
+     * @throws RunnerException
+     *             if benchmarks cannot be run
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * Private utility class constructor.
+     */
+    private BenchmarkRunner() {
+    }
+}
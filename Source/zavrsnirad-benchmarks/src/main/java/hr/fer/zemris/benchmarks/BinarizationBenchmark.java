@@ -0,0 +1,133 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.image.ImageUtility;
+import hr.fer.zemris.image.binarization.EmptyBinarizationAlgorithm;
+import hr.fer.zemris.image.binarization.GlobalThresholdAlgorithm;
+import hr.fer.zemris.image.binarization.IBinarizationAlgorithm;
+import hr.fer.zemris.image.binarization.NiblackMethod;
+import hr.fer.zemris.image.binarization.OtsuAlgorithm;
+import hr.fer.zemris.image.binarization.SauvolaMethod;
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.grayscale.AverageAlgorithm;
+import hr.fer.zemris.image.grayscale.IGrayscaleAlgorithm;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of binarization algorithms. Algorithms are measured on grayscale form page and on the path used by the
+ * application, where grayscale and binarization algorithms are applied together with
+ * {@link ImageUtility#toBinary(BufferedImage, IGrayscaleAlgorithm, IBinarizationAlgorithm)}.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 2.7.2017.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BinarizationBenchmark {
+
+    /**
+     * Niblack method k parameter.
+     */
+    private static final double NIBLACK_K = -0.2;
+
+    /**
+     * Niblack method radius.
+     */
+    private static final int NIBLACK_RADIUS = 2;
+
+    /**
+     * Sauvola method k parameter.
+     */
+    private static final double SAUVOLA_K = 0.2;
+
+    /**
+     * Sauvola method radius.
+     */
+    private static final int SAUVOLA_RADIUS = 4;
+
+    /**
+     * Name of measured binarization algorithm.
+     */
+    @Param({ "GlobalThreshold", "Otsu", "Niblack", "Sauvola", "Empty" })
+    public String algorithm;
+
+    /**
+     * Grayscale algorithm used with binarization algorithm.
+     */
+    private final IGrayscaleAlgorithm grayAlgorithm = new AverageAlgorithm();
+
+    /**
+     * Measured binarization algorithm.
+     */
+    private IBinarizationAlgorithm binaryAlgorithm;
+
+    /**
+     * Method creates measured binarization algorithm.
+     *
+     * @throws IllegalArgumentException
+     *             if algorithm name is unknown
+     */
+    @Setup
+    public void setup() throws IllegalArgumentException {
+        switch (algorithm) {
+        case "GlobalThreshold":
+            binaryAlgorithm = new GlobalThresholdAlgorithm(FormPageState.BINARIZATION_THRESHOLD);
+            break;
+        case "Otsu":
+            binaryAlgorithm = new OtsuAlgorithm();
+            break;
+        case "Niblack":
+            binaryAlgorithm = new NiblackMethod(NIBLACK_K, NIBLACK_RADIUS);
+            break;
+        case "Sauvola":
+            binaryAlgorithm = new SauvolaMethod(SAUVOLA_K, SAUVOLA_RADIUS);
+            break;
+        case "Empty":
+            binaryAlgorithm = new EmptyBinarizationAlgorithm();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown binarization algorithm " + algorithm);
+        }
+    }
+
+    /**
+     * Method binarizes grayscale form page.
+     *
+     * @param page
+     *            form page
+     * @return binarized form page
+     */
+    @Benchmark
+    public BufferedImage toBinary(FormPageState page) {
+        return binaryAlgorithm.toBinary(page.grayImage);
+    }
+
+    /**
+     * Method converts form page to packed binary image in the same way as form loading does.
+     *
+     * @param page
+     *            form page
+     * @return binary form page
+     */
+    @Benchmark
+    public IBinaryImage toBinaryImage(FormPageState page) {
+        return ImageUtility.toBinary(page.formImage, grayAlgorithm, binaryAlgorithm);
+    }
+}
@@ -0,0 +1,100 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.form.FormNodeUtility;
+import hr.fer.zemris.form.MarkersUtility;
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
+import hr.fer.zemris.image.geometry.Point;
+import hr.fer.zemris.image.transformation.RotateImageCenterAlgorithm;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of form stages: marker detection, form rotation and extraction and segmentation of all form fields.
+ * Stages are called with the same parameters as in batch processing of forms.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 2.7.2017.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormBenchmark {
+
+    /**
+     * Filter of field segments used in batch processing.
+     */
+    private static final Predicate<ConnectedComponent> SEGMENTS_FILTER = i -> {
+        return i.getBoundingRectangle().width > 2 && i.getBoundingRectangle().height > 2 && i.getPixelCount() > 10
+                && i.getBoundingRectangle().width * i.getBoundingRectangle().height > 6;
+    };
+
+    /**
+     * Method detects form markers.
+     *
+     * @param page
+     *            form page
+     * @return marker centers
+     */
+    @Benchmark
+    public Point[] detectMarkers(FormPageState page) {
+        return MarkersUtility.findMarkersByPositions(page.binaryImage, page.template.getMarkerPositions(),
+                page.template.getExpMarkerSize() * 2);
+    }
+
+    /**
+     * Method rotates binarized form page by detected form angle.
+     *
+     * @param page
+     *            form page
+     * @return rotated form page
+     */
+    @Benchmark
+    public BufferedImage rotate(FormPageState page) {
+        return new RotateImageCenterAlgorithm(page.angle).transform(page.binaryImage.toImage());
+    }
+
+    /**
+     * Method extracts all form fields.
+     *
+     * @param page
+     *            form page
+     * @param blackhole
+     *            consumer of field images
+     */
+    @Benchmark
+    public void extractFields(FormPageState page, Blackhole blackhole) {
+        for (int i = 0, end = page.template.getPointsNumber(); i < end; i++) {
+            blackhole.consume(FormNodeUtility.extractField(page.formNode, i, FormPageState.UP_OFFSET,
+                    FormPageState.LOW_OFFSET, FormPageState.LEFT_OFFSET, FormPageState.RIGHT_OFFSET));
+        }
+    }
+
+    /**
+     * Method segments all extracted form fields into digits.
+     *
+     * @param page
+     *            form page
+     * @param blackhole
+     *            consumer of field segments
+     */
+    @Benchmark
+    public void segmentFields(FormPageState page, Blackhole blackhole) {
+        for (IBinaryImage fieldImage : page.fieldImages) {
+            blackhole.consume(FormNodeUtility.segmentField(fieldImage, SEGMENTS_FILTER));
+        }
+    }
+}
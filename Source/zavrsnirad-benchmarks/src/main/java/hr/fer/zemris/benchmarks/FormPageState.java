@@ -0,0 +1,205 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.form.FormNode;
+import hr.fer.zemris.form.FormNodeUtility;
+import hr.fer.zemris.form.FormTemplateParameters;
+import hr.fer.zemris.form.FormTemplateUtility;
+import hr.fer.zemris.form.MarkersUtility;
+import hr.fer.zemris.image.ImageUtility;
+import hr.fer.zemris.image.binarization.GlobalThresholdAlgorithm;
+import hr.fer.zemris.image.binarization.IBinarizationAlgorithm;
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.geometry.CoordinateSystem2D;
+import hr.fer.zemris.image.geometry.GeometryUtility;
+import hr.fer.zemris.image.geometry.Point;
+import hr.fer.zemris.image.grayscale.AverageAlgorithm;
+import hr.fer.zemris.image.grayscale.IGrayscaleAlgorithm;
+import hr.fer.zemris.image.transformation.RotateImageCenterAlgorithm;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state that contains one scanned form page and the results of every processing stage. Page is processed
+ * in the same way as in the batch processing of forms, so every stage can be measured on the same input it gets in
+ * the application. State is created once per trial and benchmarks shouldn't modify it.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 2.7.2017.
+ */
+@State(Scope.Benchmark)
+public class FormPageState {
+
+    /**
+     * Threshold of global threshold binarization used in batch processing.
+     */
+    public static final int BINARIZATION_THRESHOLD = 250;
+
+    /**
+     * Number of pixels that are extracted above field point.
+     */
+    public static final int UP_OFFSET = 8;
+
+    /**
+     * Number of pixels that are extracted below field point.
+     */
+    public static final int LOW_OFFSET = 2;
+
+    /**
+     * Number of pixels that are extracted left of field point.
+     */
+    public static final int LEFT_OFFSET = 5;
+
+    /**
+     * Number of pixels that are extracted right of field point.
+     */
+    public static final int RIGHT_OFFSET = 5;
+
+    /**
+     * Dataset directory with a subdirectory for every scan resolution.
+     */
+    @Param({ "../../Data/dataset" })
+    public String datasetDirectory;
+
+    /**
+     * Form template file.
+     */
+    @Param({ "../../Data/form_template(example).ftp" })
+    public String templateFile;
+
+    /**
+     * Scan resolution subdirectory.
+     */
+    @Param({ "200DPI", "300DPI" })
+    public String resolution;
+
+    /**
+     * Scanned form page file name.
+     */
+    @Param({ "p0000001.png" })
+    public String page;
+
+    /**
+     * Scanned form image.
+     */
+    public BufferedImage formImage;
+
+    /**
+     * Grayscale form image.
+     */
+    public BufferedImage grayImage;
+
+    /**
+     * Binarized form image.
+     */
+    public IBinaryImage binaryImage;
+
+    /**
+     * Form template parameters.
+     */
+    public FormTemplateParameters template;
+
+    /**
+     * Rotation angle of scanned form in relation to form template.
+     */
+    public double angle;
+
+    /**
+     * First foreground pixel of the upper left image quarter, it is the start of region edges search and of page
+     * flood fill.
+     */
+    public Point foregroundStart;
+
+    /**
+     * Centers of detected markers, they are starts of marker flood fills.
+     */
+    public Point[] markerCenters;
+
+    /**
+     * Rotated form with defined coordinate system.
+     */
+    public FormNode formNode;
+
+    /**
+     * Extracted images of all form fields.
+     */
+    public List<IBinaryImage> fieldImages;
+
+    /**
+     * Method loads form page and processes it with all stages.
+     *
+     * @throws IOException
+     *             if page or template cannot be read
+     * @throws ClassNotFoundException
+     *             if template file doesn't contain form template
+     * @throws IllegalStateException
+     *             if page markers or foreground cannot be found
+     */
+    @Setup
+    public void setup() throws IOException, ClassNotFoundException, IllegalStateException {
+        File pageFile = new File(new File(datasetDirectory, resolution), page);
+        formImage = ImageIO.read(pageFile);
+        if (formImage == null) {
+            throw new IOException("Unable to read form page " + pageFile.getAbsolutePath());
+        }
+        template = FormTemplateUtility.readTemplateFromFile(new File(templateFile));
+
+        IGrayscaleAlgorithm grayAlgorithm = new AverageAlgorithm();
+        IBinarizationAlgorithm binaryAlgorithm = new GlobalThresholdAlgorithm(BINARIZATION_THRESHOLD);
+        grayImage = grayAlgorithm.toGrayscale(formImage);
+        binaryImage = ImageUtility.toBinary(formImage, grayAlgorithm, binaryAlgorithm);
+        foregroundStart = findForeground(binaryImage);
+        markerCenters = MarkersUtility.findMarkersByPositions(binaryImage, template.getMarkerPositions(),
+                template.getExpMarkerSize() * 2);
+        for (Point center : markerCenters) {
+            if (binaryImage.getPixel(center)) {
+                throw new IllegalStateException("Marker center " + center + " isn't marker pixel.");
+            }
+        }
+
+        CoordinateSystem2D coordinateSystem = MarkersUtility.coordinateSystemFromMarkers(markerCenters);
+        angle = GeometryUtility.getAngleBetweenLines(template.getCoordinateSystem().getY(), coordinateSystem.getY());
+        BufferedImage rotatedImage = new RotateImageCenterAlgorithm(angle).transform(binaryImage.toImage());
+
+        formNode = new FormNode();
+        formNode.setFormTemplateParameters(template);
+        formNode.setBinarizedForm(ImageUtility.toBinary(rotatedImage, grayAlgorithm, binaryAlgorithm));
+        formNode.defineCoordinateSystem();
+
+        fieldImages = new ArrayList<>();
+        for (int i = 0, end = template.getPointsNumber(); i < end; i++) {
+            fieldImages.add(FormNodeUtility.extractField(formNode, i, UP_OFFSET, LOW_OFFSET, LEFT_OFFSET,
+                    RIGHT_OFFSET));
+        }
+    }
+
+    /**
+     * Method finds first foreground pixel in the upper left image quarter.
+     *
+     * @param image
+     *            binary image
+     * @return first foreground pixel
+     * @throws IllegalStateException
+     *             if quarter doesn't contain foreground pixels
+     */
+    private static Point findForeground(IBinaryImage image) throws IllegalStateException {
+        for (int y = 0, heightEnd = image.getHeight() / 2; y < heightEnd; y++) {
+            for (int x = 0, widthEnd = image.getWidth() / 2; x < widthEnd; x++) {
+                if (image.getPixel(x, y)) {
+                    return new Point(x, y);
+                }
+            }
+        }
+        throw new IllegalStateException("Form page doesn't contain foreground pixels.");
+    }
+}
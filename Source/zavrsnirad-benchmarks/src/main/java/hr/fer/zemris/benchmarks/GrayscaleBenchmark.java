@@ -0,0 +1,75 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.image.grayscale.IGrayscaleAlgorithm;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of grayscale algorithms. Every algorithm converts the whole scanned form page.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 2.7.2017.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GrayscaleBenchmark {
+
+    /**
+     * Package of grayscale algorithms.
+     */
+    private static final String ALGORITHMS_PACKAGE = "hr.fer.zemris.image.grayscale.";
+
+    /**
+     * Simple class name of measured grayscale algorithm.
+     */
+    @Param({ "AverageAlgorithm", "BlueChannelAlgorithm", "DesaturationAlgorithm", "EmptyGrayscaleAlgorithm",
+            "GreenChannelAlgorithm", "LinearGrayscaleAlgorithm", "LuminanceAlgorithm",
+            "MaximalDecompositionAlgorithm", "MinimalDecompositionAlgorithm", "RedChannelAlgorithm" })
+    public String algorithm;
+
+    /**
+     * Measured grayscale algorithm.
+     */
+    private IGrayscaleAlgorithm grayAlgorithm;
+
+    /**
+     * Method creates measured grayscale algorithm.
+     *
+     * @throws ReflectiveOperationException
+     *             if algorithm cannot be created
+     */
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        grayAlgorithm = (IGrayscaleAlgorithm) Class.forName(ALGORITHMS_PACKAGE + algorithm).getDeclaredConstructor()
+                .newInstance();
+    }
+
+    /**
+     * Method converts form page to grayscale.
+     *
+     * @param page
+     *            form page
+     * @return grayscale form page
+     */
+    @Benchmark
+    public BufferedImage toGrayscale(FormPageState page) {
+        return grayAlgorithm.toGrayscale(page.formImage);
+    }
+}
@@ -0,0 +1,125 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.neural.FloatNetwork;
+import hr.fer.zemris.neural.IInferenceEngine;
+import hr.fer.zemris.neural.QuantizedNetwork;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of neural network inference. One operation is one sample: single sample benchmarks calculate one sample
+ * per invocation and batched benchmarks are normalized by number of samples. Average time mode reports time per
+ * sample, throughput mode reports samples per second and GC profiler reports allocated bytes per sample.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 3.7.2017.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.Throughput })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InferenceBenchmark {
+
+    /**
+     * Network converted to float inference engine.
+     */
+    private IInferenceEngine floatEngine;
+
+    /**
+     * Network converted to int8 inference engine.
+     */
+    private IInferenceEngine quantizedEngine;
+
+    /**
+     * Method creates inference engines from benchmark network. Network outputs are calculated for the first sample,
+     * so error can be calculated.
+     *
+     * @param state
+     *            network state
+     */
+    @Setup
+    public void setup(NetworkState state) {
+        floatEngine = new FloatNetwork(state.network);
+        quantizedEngine = new QuantizedNetwork(state.network, state.inputs);
+        state.network.calcOutput(state.inputs[0]);
+    }
+
+    /**
+     * Method calculates network output of one sample.
+     *
+     * @param state
+     *            network state
+     * @return network output
+     */
+    @Benchmark
+    public double[] calcOutput(NetworkState state) {
+        state.network.calcOutput(state.inputs[state.nextSample()]);
+        return state.network.getNetworkOutput();
+    }
+
+    /**
+     * Method calculates network error of one sample for the current network output.
+     *
+     * @param state
+     *            network state
+     * @return weights error
+     */
+    @Benchmark
+    public double[] calcError(NetworkState state) {
+        state.network.calcError(state.expectedOutputs[state.nextSample()]);
+        return state.network.getWeightsError();
+    }
+
+    /**
+     * Method calculates network outputs of all samples with one batched call.
+     *
+     * @param state
+     *            network state
+     * @return network outputs
+     */
+    @Benchmark
+    @OperationsPerInvocation(NetworkState.SAMPLES)
+    public double[][] calcOutputs(NetworkState state) {
+        return state.network.calcOutputs(state.inputs);
+    }
+
+    /**
+     * Method calculates outputs of all samples with float inference engine.
+     *
+     * @param state
+     *            network state
+     * @return network outputs
+     */
+    @Benchmark
+    @OperationsPerInvocation(NetworkState.SAMPLES)
+    public double[][] calcOutputsFloat(NetworkState state) {
+        return floatEngine.calcOutputs(state.inputs);
+    }
+
+    /**
+     * Method calculates outputs of all samples with int8 inference engine.
+     *
+     * @param state
+     *            network state
+     * @return network outputs
+     */
+    @Benchmark
+    @OperationsPerInvocation(NetworkState.SAMPLES)
+    public double[][] calcOutputsQuantized(NetworkState state) {
+        return quantizedEngine.calcOutputs(state.inputs);
+    }
+}
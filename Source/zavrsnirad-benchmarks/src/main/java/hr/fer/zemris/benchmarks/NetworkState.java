@@ -0,0 +1,107 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.neural.FeedForwardNetwork;
+import hr.fer.zemris.neural.NeuralNetworkUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state that contains a neural network with random weights and a set of samples. Networks are created with
+ * {@link NeuralNetworkUtility#initializeNeuralNetwork(List)} in the same way as networks created in the application.
+ * Inputs are binary, like inputs of resampled digit images, and expected outputs are digit classes with one-hot
+ * encoding. Samples are generated from a fixed seed, so every run uses the same samples.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 3.7.2017.
+ */
+@State(Scope.Thread)
+public class NetworkState {
+
+    /**
+     * Number of samples, batched benchmarks process all samples in one invocation.
+     */
+    public static final int SAMPLES = 256;
+
+    /**
+     * Seed of random samples.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Probability of white input pixel, most of digit image pixels are white.
+     */
+    private static final double WHITE_PROBABILITY = 0.8;
+
+    /**
+     * Numbers of neurons in network layers separated with '-'.
+     */
+    @Param({ "400-100-11", "400-100-50-11", "784-100-11" })
+    public String shape;
+
+    /**
+     * Neural network.
+     */
+    public FeedForwardNetwork network;
+
+    /**
+     * Network inputs.
+     */
+    public double[][] inputs;
+
+    /**
+     * Expected network outputs.
+     */
+    public double[][] expectedOutputs;
+
+    /**
+     * Index of the next sample of single sample benchmarks.
+     */
+    private int nextSample;
+
+    /**
+     * Method creates network and samples.
+     *
+     * @throws IllegalArgumentException
+     *             if network shape is invalid
+     */
+    @Setup
+    public void setup() throws IllegalArgumentException {
+        List<Integer> neuronsNumber = new ArrayList<>();
+        for (String layer : shape.split("-")) {
+            neuronsNumber.add(Integer.parseInt(layer));
+        }
+        if (neuronsNumber.size() < 2) {
+            throw new IllegalArgumentException("Network needs input and output layer.");
+        }
+        network = (FeedForwardNetwork) NeuralNetworkUtility.initializeNeuralNetwork(neuronsNumber);
+
+        Random random = new Random(SEED);
+        int outputsNumber = neuronsNumber.get(neuronsNumber.size() - 1);
+        inputs = new double[SAMPLES][network.getInputSize()];
+        expectedOutputs = new double[SAMPLES][outputsNumber];
+        for (int i = 0; i < SAMPLES; i++) {
+            for (int j = 0; j < inputs[i].length; j++) {
+                inputs[i][j] = random.nextDouble() < WHITE_PROBABILITY ? 1 : 0;
+            }
+            expectedOutputs[i][random.nextInt(outputsNumber)] = 1;
+        }
+    }
+
+    /**
+     * Method obtains index of the next sample, samples are used in circular order.
+     *
+     * @return sample index
+     */
+    public int nextSample() {
+        int sample = nextSample;
+        nextSample = (nextSample + 1) % SAMPLES;
+        return sample;
+    }
+}
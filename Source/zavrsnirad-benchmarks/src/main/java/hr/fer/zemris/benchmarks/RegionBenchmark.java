@@ -0,0 +1,89 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.image.algorithms.ComponentLabelingAlgorithm;
+import hr.fer.zemris.image.algorithms.FloodFillAlgorithm;
+import hr.fer.zemris.image.edgedetection.RegionEdgeDetector;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
+import hr.fer.zemris.image.geometry.Point;
+import hr.fer.zemris.image.geometry.Region;
+import hr.fer.zemris.image.geometry.RegionEdge;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark of region algorithms on binarized form page: connected component labeling, flood fill and region edge
+ * detection. Flood fill algorithm remembers flooded pixels, so a new algorithm is created for every invocation as it
+ * is in marker detection.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 2.7.2017.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionBenchmark {
+
+    /**
+     * Method labels connected components of form page.
+     *
+     * @param page
+     *            form page
+     * @return form page regions
+     */
+    @Benchmark
+    public List<Region> componentLabeling(FormPageState page) {
+        return ComponentLabelingAlgorithm.getComponents(page.binaryImage);
+    }
+
+    /**
+     * Method floods all markers of form page from their centers.
+     *
+     * @param page
+     *            form page
+     * @param blackhole
+     *            consumer of flooded markers
+     */
+    @Benchmark
+    public void floodFillMarkers(FormPageState page, Blackhole blackhole) {
+        FloodFillAlgorithm algorithm = new FloodFillAlgorithm(page.binaryImage);
+        for (Point start : page.markerCenters) {
+            blackhole.consume(algorithm.fill(start, true));
+        }
+    }
+
+    /**
+     * Method floods foreground of form page that contains the upper left corner.
+     *
+     * @param page
+     *            form page
+     * @return flooded page region
+     */
+    @Benchmark
+    public ConnectedComponent floodFillPage(FormPageState page) {
+        return new FloodFillAlgorithm(page.binaryImage).fill(page.foregroundStart, false);
+    }
+
+    /**
+     * Method detects edges of regions of form page.
+     *
+     * @param page
+     *            form page
+     * @return regions edges
+     */
+    @Benchmark
+    public List<RegionEdge> regionEdges(FormPageState page) {
+        return new RegionEdgeDetector(page.binaryImage).getRegionsEdges(page.foregroundStart);
+    }
+}
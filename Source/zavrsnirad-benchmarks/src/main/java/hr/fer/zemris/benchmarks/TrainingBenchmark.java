@@ -0,0 +1,150 @@
+package hr.fer.zemris.benchmarks;
+
+import hr.fer.zemris.neural.trainers.AbstractNeuralNetworkTrainer;
+import hr.fer.zemris.neural.trainers.AdamTrainer;
+import hr.fer.zemris.neural.trainers.ClassicBackPropagationTrainer;
+import hr.fer.zemris.neural.trainers.MomentumTrainer;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of one training epoch over all benchmark samples. Classic back propagation trainer sums errors of all
+ * samples and updates weights once per epoch, mini-batch trainers update weights after every mini-batch. One operation
+ * is one sample, so reported values are time per sample, samples per second and allocated bytes per sample. Trainers
+ * are created with default parameters of the training dialog. Classic back propagation trainer calculates errors in
+ * the pool given by the parallelism parameter, application trains it in the common pool. Mini-batch trainers are
+ * always sequential, so their results don't depend on that parameter.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 3.7.2017.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.Throughput })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TrainingBenchmark {
+
+    /**
+     * Learning rate of classic back propagation and momentum trainers.
+     */
+    private static final double LEARNING_RATE = 0.1;
+
+    /**
+     * Momentum of momentum trainer.
+     */
+    private static final double MOMENTUM = 0.9;
+
+    /**
+     * Number of samples in one mini-batch.
+     */
+    private static final int BATCH_SIZE = 32;
+
+    /**
+     * Name of measured trainer.
+     */
+    @Param({ "Classic", "Momentum", "Adam" })
+    public String trainer;
+
+    /**
+     * Parallelism of classic back propagation trainer. Value 0 uses the common pool like the application, 1 trains
+     * sequentially and greater values use a new pool with that parallelism.
+     */
+    @Param({ "0", "1" })
+    public int parallelism;
+
+    /**
+     * Pool created for the measured parallelism or null if no pool was created.
+     */
+    private ForkJoinPool createdPool;
+
+    /**
+     * Measured trainer.
+     */
+    private AbstractNeuralNetworkTrainer networkTrainer;
+
+    /**
+     * Method creates measured trainer.
+     *
+     * @param state
+     *            network state
+     * @throws IllegalArgumentException
+     *             if trainer name is unknown or parallelism is negative
+     */
+    @Setup
+    public void setup(NetworkState state) throws IllegalArgumentException {
+        switch (trainer) {
+        case "Classic":
+            networkTrainer = new ClassicBackPropagationTrainer(state.network, LEARNING_RATE, createPool());
+            break;
+        case "Momentum":
+            networkTrainer = new MomentumTrainer(state.network, LEARNING_RATE, MOMENTUM, BATCH_SIZE);
+            break;
+        case "Adam":
+            networkTrainer = new AdamTrainer(state.network, AdamTrainer.DEFAULT_LEARNING_RATE, BATCH_SIZE);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown trainer " + trainer);
+        }
+    }
+
+    /**
+     * Method shuts down pool created for the measured parallelism.
+     */
+    @TearDown
+    public void tearDown() {
+        if (createdPool != null) {
+            createdPool.shutdown();
+            createdPool = null;
+        }
+    }
+
+    /**
+     * Method obtains pool of classic back propagation trainer for the measured parallelism.
+     *
+     * @return common pool, null for sequential training or a new pool
+     * @throws IllegalArgumentException
+     *             if parallelism is negative
+     */
+    private ForkJoinPool createPool() throws IllegalArgumentException {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism cannot be negative.");
+        }
+        if (parallelism == 0) {
+            return ForkJoinPool.commonPool();
+        }
+        if (parallelism == 1) {
+            return null;
+        }
+        createdPool = new ForkJoinPool(parallelism);
+        return createdPool;
+    }
+
+    /**
+     * Method trains network for one epoch.
+     *
+     * @param state
+     *            network state
+     */
+    @Benchmark
+    @OperationsPerInvocation(NetworkState.SAMPLES)
+    public void trainOneEpoch(NetworkState state) {
+        networkTrainer.trainOneEpoch(state.inputs, state.expectedOutputs);
+    }
+}
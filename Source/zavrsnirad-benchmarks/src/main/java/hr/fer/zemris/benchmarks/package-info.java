@@ -0,0 +1,7 @@
+/**
+ * Package contains JMH benchmarks of image processing stages that are run on scanned forms from the dataset and
+ * benchmarks of neural network inference and training on generated digit samples.
+ * @author Domagoj Pluscec
+ * @version v1.0, 2.7.2017.
+ */
+package hr.fer.zemris.benchmarks;
@@ -2,17 +2,15 @@ package hr.fer.zemris.form;
 
 import hr.fer.zemris.image.algorithms.ComponentLabelingAlgorithm;
 import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
 import hr.fer.zemris.image.geometry.CoordinateSystem2D;
 import hr.fer.zemris.image.geometry.GeometryUtility;
-import hr.fer.zemris.image.geometry.Region;
 import hr.fer.zemris.image.geometry.RegionEdge;
-import hr.fer.zemris.image.geometry.RegionUtility;
 
 import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  * Utility class for form node objects.
@@ -146,13 +144,13 @@ public class FormNodeUtility {
      *            filter for filtering segments candidates
      * @return list of numeral segments representing digits
      */
-    public static List<IBinaryImage> segmentField(IBinaryImage fieldImage, Predicate<Region> segmentsFilter) {
+    public static List<IBinaryImage> segmentField(IBinaryImage fieldImage,
+            Predicate<ConnectedComponent> segmentsFilter) {
         List<IBinaryImage> segments = new ArrayList<IBinaryImage>();
-        List<Region> components = ComponentLabelingAlgorithm.getComponents(fieldImage);
-        components = components.stream().filter(segmentsFilter).collect(Collectors.toList());
-        for (int i = 0; i < components.size(); i++) {
-            segments.add(RegionUtility.regionToBinaryImage(components.get(i)));
-
+        for (ConnectedComponent component : ComponentLabelingAlgorithm.labelComponents(fieldImage, true)) {
+            if (segmentsFilter.test(component)) {
+                segments.add(component.toBinaryImage());
+            }
         }
         return segments;
     }
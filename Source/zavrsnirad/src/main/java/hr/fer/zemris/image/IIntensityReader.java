@@ -0,0 +1,23 @@
+package hr.fer.zemris.image;
+
+/**
+ * Interface of a source of pixel intensities that can be read in bands of rows. Implementations allow different bands
+ * to be read concurrently.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 19.6.2017.
+ */
+public interface IIntensityReader {
+    /**
+     * Method reads intensities of pixels in given image rows.
+     *
+     * @param fromY
+     *            first row to read
+     * @param toY
+     *            row after the last row to read
+     * @param intensities
+     *            array of all image pixel intensities stored row by row into which intensities from 0 to 255 are
+     *            written
+     */
+    void readIntensities(int fromY, int toY, byte[] intensities);
+}
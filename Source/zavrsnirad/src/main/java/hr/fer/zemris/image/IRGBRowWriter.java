@@ -0,0 +1,20 @@
+package hr.fer.zemris.image;
+
+/**
+ * Interface of an image that can be written row by row with ARGB pixel values. Implementations allow different rows to
+ * be written concurrently.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 19.6.2017.
+ */
+public interface IRGBRowWriter {
+    /**
+     * Method writes one image row given as ARGB integers.
+     *
+     * @param y
+     *            row index
+     * @param row
+     *            array with ARGB values of row pixels
+     */
+    void setRGBRow(int y, int[] row);
+}
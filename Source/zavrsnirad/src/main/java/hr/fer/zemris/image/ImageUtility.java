@@ -1,10 +1,12 @@
 package hr.fer.zemris.image;
 
+import hr.fer.zemris.image.binarization.AbstractBandBinarizationAlgorithm;
 import hr.fer.zemris.image.binarization.GlobalThresholdAlgorithm;
 import hr.fer.zemris.image.binarization.IBinarizationAlgorithm;
-import hr.fer.zemris.image.binary.BinaryImage;
 import hr.fer.zemris.image.binary.BinaryImageUtility;
 import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.binary.PackedBinaryImage;
+import hr.fer.zemris.image.grayscale.AbstractRasterGrayscaleAlgorithm;
 import hr.fer.zemris.image.grayscale.AverageAlgorithm;
 import hr.fer.zemris.image.grayscale.IGrayscaleAlgorithm;
 
@@ -115,7 +117,11 @@ public class ImageUtility {
     }
 
     /**
-     * Method applies given grayscale and binarization algorithms to produce binarized image.
+     * Method applies given grayscale and binarization algorithms to produce binarized image. Resulting image is bit
+     * packed, see {@link PackedBinaryImage}. If grayscale algorithm is raster grayscale algorithm and binarization
+     * algorithm is band binarization algorithm, they are fused: gray intensities are calculated directly from the
+     * source raster and binarized into packed image, so no intermediate buffered image is created. Result is the same
+     * as if the algorithms were applied one after another.
      *
      * @param image
      *            original buffered image
@@ -127,7 +133,13 @@ public class ImageUtility {
      */
     public static IBinaryImage toBinary(BufferedImage image, IGrayscaleAlgorithm grayAlgorithm,
             IBinarizationAlgorithm binaryAlgorithm) {
-        return new BinaryImage(binaryAlgorithm.toBinary(grayAlgorithm.toGrayscale(image)));
+        if (grayAlgorithm instanceof AbstractRasterGrayscaleAlgorithm
+                && binaryAlgorithm instanceof AbstractBandBinarizationAlgorithm) {
+            IIntensityReader reader = ((AbstractRasterGrayscaleAlgorithm) grayAlgorithm).intensityReader(image);
+            return ((AbstractBandBinarizationAlgorithm) binaryAlgorithm).toBinaryImage(reader, image.getWidth(),
+                    image.getHeight());
+        }
+        return new PackedBinaryImage(binaryAlgorithm.toBinary(grayAlgorithm.toGrayscale(image)));
     }
 
     /**
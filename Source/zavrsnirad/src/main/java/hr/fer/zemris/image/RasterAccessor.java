@@ -0,0 +1,347 @@
+package hr.fer.zemris.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Class reads and writes buffered image pixels row by row directly through the image raster data buffer. Results are
+ * the same as the results of {@link BufferedImage#getRGB(int, int)} and {@link BufferedImage#setRGB(int, int, int)}
+ * for every pixel of the row, but for the most common image types color model isn't consulted for each pixel. Packed
+ * integer and interleaved byte images are accessed directly, and one byte gray images use lookup tables obtained from
+ * image color model. Other image types are handled with bulk row getRGB and setRGB methods.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 16.6.2017.
+ */
+public class RasterAccessor implements IRGBRowWriter {
+
+    /**
+     * Mask of alpha channel in ARGB integer.
+     */
+    private static final int ALPHA_MASK = 0xFF000000;
+
+    /**
+     * Mask of color channels in ARGB integer.
+     */
+    private static final int RGB_MASK = 0x00FFFFFF;
+
+    /**
+     * Mask of one byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Alpha channel offset in ARGB integer.
+     */
+    private static final int ALPHA_OFFSET = 24;
+
+    /**
+     * Red channel offset in ARGB integer.
+     */
+    private static final int RED_OFFSET = 16;
+
+    /**
+     * Green channel offset in ARGB integer.
+     */
+    private static final int GREEN_OFFSET = 8;
+
+    /**
+     * Number of different values of one byte.
+     */
+    private static final int BYTE_VALUES = 256;
+
+    /**
+     * Multiplier that copies one channel value to all three color channels.
+     */
+    private static final int GRAY_RGB = 0x010101;
+
+    /**
+     * Pixels are accessed with bulk getRGB and setRGB methods.
+     */
+    private static final int GENERIC = 0;
+    /**
+     * Packed integer RGB pixels without alpha.
+     */
+    private static final int INT_RGB = 1;
+    /**
+     * Packed integer ARGB pixels.
+     */
+    private static final int INT_ARGB = 2;
+    /**
+     * Interleaved byte pixels with three or four bands.
+     */
+    private static final int BYTE_INTERLEAVED = 3;
+    /**
+     * One byte per pixel gray image.
+     */
+    private static final int BYTE_GRAY = 4;
+
+    /**
+     * Accessed image.
+     */
+    private final BufferedImage image;
+
+    /**
+     * Image width.
+     */
+    private final int width;
+
+    /**
+     * Kind of image access.
+     */
+    private final int kind;
+
+    /**
+     * Integer data buffer array or null if the image isn't packed integer image.
+     */
+    private int[] intData;
+
+    /**
+     * Byte data buffer array or null if the image isn't byte image.
+     */
+    private byte[] byteData;
+
+    /**
+     * Index of the first image pixel in the data buffer.
+     */
+    private int dataOffset;
+
+    /**
+     * Distance between two rows in the data buffer.
+     */
+    private int scanlineStride;
+
+    /**
+     * Distance between two pixels in the data buffer.
+     */
+    private int pixelStride;
+
+    /**
+     * Offsets of red, green, blue and optional alpha band inside interleaved pixel.
+     */
+    private int[] bandOffsets;
+
+    /**
+     * Gray image lookup table from stored value to ARGB.
+     */
+    private int[] grayToRGB;
+
+    /**
+     * Gray image lookup table from gray ARGB channel value to stored value.
+     */
+    private byte[] rgbToGray;
+
+    /**
+     * Constructor that initializes accessor for given image.
+     *
+     * @param image
+     *            image which pixels are accessed
+     */
+    public RasterAccessor(BufferedImage image) {
+        this.image = image;
+        this.width = image.getWidth();
+        this.kind = initializeKind();
+    }
+
+    /**
+     * Method determines kind of access for current image and initializes direct access fields.
+     *
+     * @return kind of image access
+     */
+    private int initializeKind() {
+        WritableRaster raster = image.getRaster();
+        int translateX = raster.getSampleModelTranslateX();
+        int translateY = raster.getSampleModelTranslateY();
+        switch (image.getType()) {
+        case BufferedImage.TYPE_INT_RGB:
+        case BufferedImage.TYPE_INT_ARGB:
+            if (!(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+                return GENERIC;
+            }
+            intData = ((DataBufferInt) raster.getDataBuffer()).getData();
+            scanlineStride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            pixelStride = 1;
+            dataOffset = raster.getDataBuffer().getOffset() - translateY * scanlineStride - translateX;
+            return image.getType() == BufferedImage.TYPE_INT_RGB ? INT_RGB : INT_ARGB;
+        case BufferedImage.TYPE_3BYTE_BGR:
+        case BufferedImage.TYPE_4BYTE_ABGR:
+        case BufferedImage.TYPE_BYTE_GRAY:
+            if (!(raster.getSampleModel() instanceof ComponentSampleModel)) {
+                return GENERIC;
+            }
+            ComponentSampleModel sm = (ComponentSampleModel) raster.getSampleModel();
+            byteData = ((DataBufferByte) raster.getDataBuffer()).getData();
+            scanlineStride = sm.getScanlineStride();
+            pixelStride = sm.getPixelStride();
+            bandOffsets = sm.getBandOffsets();
+            dataOffset = raster.getDataBuffer().getOffset() - translateY * scanlineStride - translateX * pixelStride;
+            if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+                return BYTE_INTERLEAVED;
+            }
+            initializeGrayTables(image.getColorModel());
+            return BYTE_GRAY;
+        default:
+            return GENERIC;
+        }
+    }
+
+    /**
+     * Method initializes gray image lookup tables using image color model, so that conversion is the same as the one
+     * made by getRGB and setRGB methods.
+     *
+     * @param colorModel
+     *            gray image color model
+     */
+    private void initializeGrayTables(ColorModel colorModel) {
+        grayToRGB = new int[BYTE_VALUES];
+        rgbToGray = new byte[BYTE_VALUES];
+        byte[] element = new byte[1];
+        for (int i = 0; i < BYTE_VALUES; i++) {
+            element[0] = (byte) i;
+            grayToRGB[i] = colorModel.getRGB(element);
+            rgbToGray[i] = ((byte[]) colorModel.getDataElements(ALPHA_MASK | i * GRAY_RGB, null))[0];
+        }
+    }
+
+    /**
+     * Method reads one image row as ARGB integers.
+     *
+     * @param y
+     *            row index
+     * @param row
+     *            array with length of at least image width into which pixels are written
+     * @return given row array
+     */
+    public int[] getRGBRow(int y, int[] row) {
+        int offset = dataOffset + y * scanlineStride;
+        switch (kind) {
+        case INT_RGB:
+            for (int x = 0; x < width; x++) {
+                row[x] = ALPHA_MASK | intData[offset + x] & RGB_MASK;
+            }
+            break;
+        case INT_ARGB:
+            System.arraycopy(intData, offset, row, 0, width);
+            break;
+        case BYTE_INTERLEAVED:
+            boolean hasAlpha = bandOffsets.length > 3;
+            for (int x = 0; x < width; x++, offset += pixelStride) {
+                int alpha = hasAlpha ? byteData[offset + bandOffsets[3]] & BYTE_MASK : BYTE_MASK;
+                row[x] = alpha << ALPHA_OFFSET | (byteData[offset + bandOffsets[0]] & BYTE_MASK) << RED_OFFSET
+                        | (byteData[offset + bandOffsets[1]] & BYTE_MASK) << GREEN_OFFSET
+                        | byteData[offset + bandOffsets[2]] & BYTE_MASK;
+            }
+            break;
+        case BYTE_GRAY:
+            offset += bandOffsets[0];
+            for (int x = 0; x < width; x++, offset += pixelStride) {
+                row[x] = grayToRGB[byteData[offset] & BYTE_MASK];
+            }
+            break;
+        default:
+            image.getRGB(0, y, width, 1, row, 0, width);
+            break;
+        }
+        return row;
+    }
+
+    /**
+     * Method writes one image row given as ARGB integers. Different rows can be written concurrently.
+     *
+     * @param y
+     *            row index
+     * @param row
+     *            array with ARGB values of row pixels
+     */
+    @Override
+    public void setRGBRow(int y, int[] row) {
+        int offset = dataOffset + y * scanlineStride;
+        switch (kind) {
+        case INT_RGB:
+            for (int x = 0; x < width; x++) {
+                intData[offset + x] = row[x] & RGB_MASK;
+            }
+            break;
+        case INT_ARGB:
+            System.arraycopy(row, 0, intData, offset, width);
+            break;
+        case BYTE_INTERLEAVED:
+            boolean hasAlpha = bandOffsets.length > 3;
+            for (int x = 0; x < width; x++, offset += pixelStride) {
+                int argb = row[x];
+                byteData[offset + bandOffsets[0]] = (byte) (argb >> RED_OFFSET);
+                byteData[offset + bandOffsets[1]] = (byte) (argb >> GREEN_OFFSET);
+                byteData[offset + bandOffsets[2]] = (byte) argb;
+                if (hasAlpha) {
+                    byteData[offset + bandOffsets[3]] = (byte) (argb >>> ALPHA_OFFSET);
+                }
+            }
+            break;
+        case BYTE_GRAY:
+            offset += bandOffsets[0];
+            for (int x = 0; x < width; x++, offset += pixelStride) {
+                int argb = row[x];
+                int blue = argb & BYTE_MASK;
+                if ((argb & RGB_MASK) == blue * GRAY_RGB) {
+                    byteData[offset] = rgbToGray[blue];
+                } else {
+                    image.setRGB(x, y, argb);
+                }
+            }
+            break;
+        default:
+            image.setRGB(0, y, width, 1, row, 0, width);
+            break;
+        }
+    }
+
+    /**
+     * Method reads red channel of pixels in given image rows, which binarization algorithms use as pixel intensity of
+     * grayscale images. Different row ranges can be read concurrently.
+     *
+     * @param fromY
+     *            first row to read
+     * @param toY
+     *            row after the last row to read
+     * @param intensities
+     *            array of all image pixel intensities stored row by row into which red channel values are written
+     */
+    public void getRedChannel(int fromY, int toY, byte[] intensities) {
+        int[] row = new int[width];
+        for (int y = fromY, i = fromY * width; y < toY; y++) {
+            getRGBRow(y, row);
+            for (int x = 0; x < width; x++, i++) {
+                intensities[i] = (byte) (row[x] >> RED_OFFSET);
+            }
+        }
+    }
+
+    /**
+     * Method creates grayscale image with one byte per pixel from given intensities. Intensities are written to the
+     * raster without any color conversion.
+     *
+     * @param intensities
+     *            pixel intensities from 0 to 255 stored row by row
+     * @param width
+     *            image width
+     * @param height
+     *            image height
+     * @return gray image which raster holds given intensities
+     */
+    public static BufferedImage toGrayImage(byte[] intensities, int width, int height) {
+        BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        WritableRaster raster = gray.getRaster();
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        int stride = ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride();
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(intensities, y * width, data, y * stride, width);
+        }
+        return gray;
+    }
+
+}
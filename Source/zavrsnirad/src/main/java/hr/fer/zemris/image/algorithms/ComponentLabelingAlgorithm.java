@@ -1,22 +1,19 @@
 package hr.fer.zemris.image.algorithms;
 
 import hr.fer.zemris.image.binary.IBinaryImage;
-import hr.fer.zemris.image.geometry.Point;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
 import hr.fer.zemris.image.geometry.Region;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Class implements connected components labeling algorithm.
  *
- * Algorithm is described in @link{https://en.wikipedia.org/wiki/Connected-component_labeling .
+ * Algorithm is described in @link{https://en.wikipedia.org/wiki/Connected-component_labeling . Labels are stored in
+ * one flat array in the row major order and label equivalences are kept in union-find forest where the root of every
+ * tree is its smallest label. Components are 8-connected.
  *
  * @author Domagoj Pluscec
  * @version 9.6.2017.
@@ -29,24 +26,19 @@ public class ComponentLabelingAlgorithm {
     private static final boolean BACKGROUND = true;
 
     /**
-     * Method searches for minimal equivalent label.
-     *
-     * @param linked
-     *            map of equivalent labels
-     * @param label
-     *            current label
-     * @return minimal equivalent label
+     * Initial capacity of union-find parent array.
      */
-    private static int findMinLabel(Map<Integer, Set<Integer>> linked, int label) {
-        List<Integer> alternativeLabels = new ArrayList<Integer>();
-        for (Integer keyLabel : linked.keySet()) {
-            if (linked.get(keyLabel).contains(label)) {
-                alternativeLabels.add(keyLabel);
-            }
-        }
-        return alternativeLabels.stream().mapToInt(i -> i).min().getAsInt();
+    private static final int INITIAL_LABELS = 64;
 
-    }
+    /**
+     * Number of integers that describe one region run.
+     */
+    private static final int RUN_LENGTH = 3;
+
+    /**
+     * Initial capacity of runs array of a component.
+     */
+    private static final int INITIAL_RUNS = 4;
 
     /**
      * Method obtains detected components.
@@ -56,135 +48,196 @@ public class ComponentLabelingAlgorithm {
      * @return regions definitions of components
      */
     public static List<Region> getComponents(IBinaryImage image) {
+        List<ConnectedComponent> components = labelComponents(image, true);
+        List<Region> regions = new ArrayList<Region>(components.size());
+        for (ConnectedComponent component : components) {
+            regions.add(component.toRegion());
+        }
+        return regions;
+    }
 
-        Map<Integer, Set<Integer>> linked = new HashMap<>();
-        int[][] labels = new int[image.getHeight()][image.getWidth()]; // structure
-        // with dimensions of data, initialized
-        // with the value of Background
+    /**
+     * Method obtains descriptors of detected components. Components are sorted by x coordinate of their bounding
+     * rectangle, components with the same x coordinate are ordered by their first pixel in the row major order.
+     *
+     * @param image
+     *            image on which to search for components
+     * @param storePixels
+     *            if true component descriptors will contain component pixels
+     * @return descriptors of components
+     */
+    public static List<ConnectedComponent> labelComponents(IBinaryImage image, boolean storePixels) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] labels = new int[width * height];
+        int[] parent = new int[INITIAL_LABELS];
         int nextLabel = 1;
 
-        // First pass
-
-        for (int y = 0, height = image.getHeight(), width = image.getWidth(); y < height; y++) {
-            for (int x = 0; x < width; x++) {
+        // first pass, provisional labels from the north-east, north, north-west and west neighbors
+        for (int y = 0, i = 0; y < height; y++) {
+            for (int x = 0; x < width; x++, i++) {
                 if (image.getPixel(x, y) == BACKGROUND) {
                     continue;
                 }
-                Point currPoint = new Point(x, y);
-                List<Point> neighbors = getNeighbours(image, currPoint, labels); // connected
-                // elements with the current element's value
-
-                if (neighbors.isEmpty()) {
-                    linked.put(nextLabel, new HashSet<>());
-                    linked.get(nextLabel).add(nextLabel);
-                    labels[y][x] = nextLabel;
-                    nextLabel++;
-                } else {
-                    // Find the smallest label
-                    List<Integer> neigboursLabels = getNeighbourLabels(neighbors, labels);
-                    labels[y][x] = neigboursLabels.stream().mapToInt(i -> i).min().getAsInt();
-                    for (Integer label : neigboursLabels) {
-                        linked.get(label).addAll(neigboursLabels);
+                int label = 0;
+                if (x > 0) {
+                    label = union(parent, label, labels[i - 1]);
+                }
+                if (y > 0) {
+                    int above = i - width;
+                    if (x > 0) {
+                        label = union(parent, label, labels[above - 1]);
                     }
+                    label = union(parent, label, labels[above]);
+                    if (x < width - 1) {
+                        label = union(parent, label, labels[above + 1]);
+                    }
+                }
+                if (label == 0) {
+                    if (nextLabel == parent.length) {
+                        parent = Arrays.copyOf(parent, parent.length * 2);
+                    }
+                    label = nextLabel++;
+                    parent[label] = label;
                 }
+                labels[i] = label;
             }
         }
 
-        // transitive connection
-        for (Integer label : linked.keySet()) {
-            for (Integer equivalentLabel : linked.get(label)) {
-                linked.get(equivalentLabel).addAll(linked.get(label));
-            }
+        // resolve every label to its component index, roots are visited in order of appearance
+        int[] componentOf = new int[nextLabel];
+        int componentCount = 0;
+        for (int label = 1; label < nextLabel; label++) {
+            int root = find(parent, label);
+            componentOf[label] = root == label ? componentCount++ : componentOf[root];
         }
 
-        // Second pass
-        for (int y = 0, height = image.getHeight(), width = image.getWidth(); y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (image.getPixel(x, y) == BACKGROUND) {
+        // second pass, component statistics and horizontal runs of component pixels
+        int[] xMin = new int[componentCount];
+        int[] yMin = new int[componentCount];
+        int[] xMax = new int[componentCount];
+        int[] yMax = new int[componentCount];
+        int[] counts = new int[componentCount];
+        long[] sumX = new long[componentCount];
+        long[] sumY = new long[componentCount];
+        Arrays.fill(xMin, Integer.MAX_VALUE);
+        Arrays.fill(yMin, Integer.MAX_VALUE);
+        int[][] runs = new int[storePixels ? componentCount : 0][];
+        int[] runsLength = new int[runs.length];
+        for (int y = 0, i = 0; y < height; y++) {
+            for (int x = 0; x < width; x++, i++) {
+                if (labels[i] == 0) {
                     continue;
                 }
-                labels[y][x] = findMinLabel(linked, labels[y][x]);
+                int c = componentOf[labels[i]];
+                labels[i] = c + 1;
+                if (storePixels) {
+                    addToRun(runs, runsLength, c, x, y, x > 0 && labels[i - 1] == c + 1);
+                }
+                xMin[c] = Math.min(xMin[c], x);
+                yMin[c] = Math.min(yMin[c], y);
+                xMax[c] = Math.max(xMax[c], x);
+                yMax[c] = Math.max(yMax[c], y);
+                counts[c]++;
+                sumX[c] += x;
+                sumY[c] += y;
             }
         }
 
-        return labelsToRegions(labels);
+        List<ConnectedComponent> components = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            Region region = storePixels ? new Region(runs[c], runsLength[c] / RUN_LENGTH) : null;
+            components.add(new ConnectedComponent(xMin[c], yMin[c], xMax[c], yMax[c], counts[c], sumX[c], sumY[c],
+                    width, region));
+        }
+        components.sort((c1, c2) -> Integer.compare(c1.getBoundingRectangle().x, c2.getBoundingRectangle().x));
+        return components;
     }
 
     /**
-     * Method obtains labels for neighborhood labels.
+     * Method adds pixel to runs of its component. Pixel either extends the last run of the component or starts a new
+     * run.
      *
-     * @param neighbors
-     *            neighbors positions
-     * @param labels
-     *            labels matrix
-     * @return neigborhood labels
+     * @param runs
+     *            runs of every component, stored as triples of row, first x and last x coordinate
+     * @param runsLength
+     *            number of used elements in runs array of every component
+     * @param component
+     *            component index
+     * @param x
+     *            pixel x coordinate
+     * @param y
+     *            pixel y coordinate
+     * @param extend
+     *            true if pixel on the left belongs to the same component
      */
-    private static List<Integer> getNeighbourLabels(List<Point> neighbors, int[][] labels) {
-        List<Integer> resultLabels = new ArrayList<Integer>();
-        for (Point neighbour : neighbors) {
-            resultLabels.add(labels[neighbour.getY()][neighbour.getX()]);
+    private static void addToRun(int[][] runs, int[] runsLength, int component, int x, int y, boolean extend) {
+        int length = runsLength[component];
+        if (extend) {
+            runs[component][length - 1] = x;
+            return;
+        }
+        if (runs[component] == null) {
+            runs[component] = new int[INITIAL_RUNS * RUN_LENGTH];
+        } else if (length == runs[component].length) {
+            runs[component] = Arrays.copyOf(runs[component], length * 2);
         }
-        return resultLabels;
+        int[] componentRuns = runs[component];
+        componentRuns[length] = y;
+        componentRuns[length + 1] = x;
+        componentRuns[length + RUN_LENGTH - 1] = x;
+        runsLength[component] = length + RUN_LENGTH;
     }
 
     /**
-     * Method obtains neighbours of current position. It assumes 8-connectivity and looks for labels to the North-East,
-     * the North, the North-West and the West of the current pixel
+     * Method finds root label of given label and compresses the path to the root.
      *
-     * @param image
-     *            current image
-     * @param point
-     *            current position
-     * @param labels
-     *            labels matrix
-     * @return neighbour positions
+     * @param parent
+     *            union-find parent array
+     * @param label
+     *            label
+     * @return root label
      */
-    private static List<Point> getNeighbours(IBinaryImage image, Point point, int[][] labels) {
-
-        List<Point> neighbours = new ArrayList<Point>();
-        int[][] delta = { { 1, -1 }, { 0, -1 }, { -1, -1 }, { -1, 0 } };
-        for (int i = 0; i < delta.length; i++) {
-            int x = point.getX() + delta[i][0];
-            int y = point.getY() + delta[i][1];
-            if (x < 0 || y < 0 || x >= labels[0].length || y >= labels.length) {
-                continue;
-            }
-            if (labels[y][x] == 0) {
-                continue;
-            }
-            neighbours.add(new Point(x, y));
+    private static int find(int[] parent, int label) {
+        int root = label;
+        while (parent[root] != root) {
+            root = parent[root];
         }
-        return neighbours;
-
+        while (parent[label] != root) {
+            int next = parent[label];
+            parent[label] = root;
+            label = next;
+        }
+        return root;
     }
 
     /**
-     * Method connects labels to regions.
+     * Method merges trees of two labels, smaller root becomes the root of merged tree. Label 0 marks background and it
+     * isn't merged with anything.
      *
-     * @param labels
-     *            labels matrix
-     * @return list of connected regions
+     * @param parent
+     *            union-find parent array
+     * @param first
+     *            first label or 0
+     * @param second
+     *            second label or 0
+     * @return root of merged tree or 0 if both labels are 0
      */
-    private static List<Region> labelsToRegions(int[][] labels) {
-        Map<Integer, List<Point>> regionsPoints = new HashMap<>();
-        for (int y = 0, height = labels.length, width = labels[0].length; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (labels[y][x] == 0) {
-                    continue;
-                }
-                if (!regionsPoints.containsKey(labels[y][x])) {
-                    regionsPoints.put(labels[y][x], new LinkedList<>());
-                }
-                regionsPoints.get(labels[y][x]).add(new Point(x, y));
-            }
+    private static int union(int[] parent, int first, int second) {
+        if (second == 0) {
+            return first;
         }
-        List<Region> regions = new ArrayList<Region>();
-        for (Integer label : regionsPoints.keySet()) {
-            regions.add(new Region(regionsPoints.get(label)));
+        int secondRoot = find(parent, second);
+        if (first == 0) {
+            return secondRoot;
         }
-        Collections.sort(regions,
-                (r1, r2) -> Integer.valueOf(r1.getBoundingRectangle().x).compareTo(r2.getBoundingRectangle().x));
-        return regions;
+        int firstRoot = find(parent, first);
+        if (firstRoot < secondRoot) {
+            parent[secondRoot] = firstRoot;
+            return firstRoot;
+        }
+        parent[firstRoot] = secondRoot;
+        return secondRoot;
     }
 
     /**
@@ -1,29 +1,86 @@
 package hr.fer.zemris.image.algorithms;
 
 import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
 import hr.fer.zemris.image.geometry.Point;
 import hr.fer.zemris.image.geometry.Region;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * Class implements image flood fill algorithm that returns points contained in flooded region.
  *
+ * Flood spreads from the start point through 8-connected pixels that don't have target color. Flooded region contains
+ * all such pixels and all their neighbors, so it also contains border of target color pixels. Fill is done with
+ * horizontal spans, visited pixels are kept in bit masks and span seeds in an integer stack. Masks are allocated once
+ * per algorithm instance and cleared after every fill, so the same instance should be used for multiple fills on the
+ * same image. Instance must not be used from multiple threads at the same time.
+ *
  * @author Domagoj Pluscec
  * @version v1.0, 9.6.2017.
  */
 public class FloodFillAlgorithm {
 
+    /**
+     * Shift used for transforming pixel x coordinate to word index.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Mask used for obtaining bit index of a pixel inside a word.
+     */
+    private static final int BIT_MASK = 63;
+
+    /**
+     * Initial capacity of span seed stack.
+     */
+    private static final int INITIAL_STACK_SIZE = 64;
+
+    /**
+     * Number of integers that describe one region run.
+     */
+    private static final int RUN_LENGTH = 3;
+
+    /**
+     * Number of bits in a mask word.
+     */
+    private static final int WORD_BITS = 64;
+
     /**
      * Binary image on which to apply algorithm.
      */
     private IBinaryImage image;
 
+    /**
+     * Image width.
+     */
+    private final int width;
+
+    /**
+     * Image height.
+     */
+    private final int height;
+
+    /**
+     * Number of mask words in one image row.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * Mask of flooded pixels that don't have target color, or null if it isn't allocated yet.
+     */
+    private long[] flooded;
+
+    /**
+     * Mask of pixels contained in flooded region, or null if it isn't allocated yet.
+     */
+    private long[] region;
+
+    /**
+     * Stack of span seeds given as pixel raster indexes.
+     */
+    private int[] stack = new int[INITIAL_STACK_SIZE];
+
     /**
      * Constructor that initializes algorithm with given image.
      *
@@ -32,6 +89,9 @@ public class FloodFillAlgorithm {
      */
     public FloodFillAlgorithm(IBinaryImage image) {
         this.image = image;
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        this.wordsPerRow = (width + BIT_MASK) >>> WORD_SHIFT;
     }
 
     /**
@@ -44,58 +104,202 @@ public class FloodFillAlgorithm {
      * @return points contained in flooded region
      */
     public Region extractRegion(Point startPoint, boolean targetMark) {
+        return fill(startPoint, targetMark).toRegion();
+    }
+
+    /**
+     * Method floods region from start point and given target color. Bounding box, area and centroid of the region are
+     * calculated while the region is flooded.
+     *
+     * @param startPoint
+     *            starting point
+     * @param targetMark
+     *            target boolean representation of color
+     * @return descriptor of flooded region with region pixels
+     * @throws IllegalArgumentException
+     *             if start point has target color
+     */
+    public ConnectedComponent fill(Point startPoint, boolean targetMark) throws IllegalArgumentException {
         if (image.getPixel(startPoint.getX(), startPoint.getY()) == targetMark) {
             throw new IllegalArgumentException("Extractign region cannot start with final point.");
         }
-        Set<Point> regionPoints = new HashSet<Point>();
-        Queue<Point> openPoints = new LinkedList<>();
-        openPoints.add(startPoint);
+        if (flooded == null) {
+            flooded = new long[wordsPerRow * height];
+            region = new long[wordsPerRow * height];
+        }
+        RegionStatistics statistics = new RegionStatistics();
 
-        while (!openPoints.isEmpty()) {
-            Point currPoint = openPoints.poll();
-            if (regionPoints.contains(currPoint)) {
+        int stackSize = 0;
+        stack[stackSize++] = startPoint.getY() * width + startPoint.getX();
+        while (stackSize > 0) {
+            int seed = stack[--stackSize];
+            int y = seed / width;
+            int left = seed % width;
+            if (isSet(flooded, left, y)) {
                 continue;
             }
-            List<Point> successors = getSuccessorPoints(currPoint, targetMark);
-            regionPoints.add(currPoint);
-            for (Point s : successors) {
-                if (!regionPoints.contains(s)) {
-                    openPoints.add(s);
+            int right = left;
+            while (left > 0 && image.getPixel(left - 1, y) != targetMark && !isSet(flooded, left - 1, y)) {
+                left--;
+            }
+            while (right < width - 1 && image.getPixel(right + 1, y) != targetMark
+                    && !isSet(flooded, right + 1, y)) {
+                right++;
+            }
+            for (int x = left; x <= right; x++) {
+                flooded[y * wordsPerRow + (x >>> WORD_SHIFT)] |= 1L << x;
+            }
+
+            int spanLeft = Math.max(0, left - 1);
+            int spanRight = Math.min(width - 1, right + 1);
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+                statistics.addSpan(ny, spanLeft, spanRight);
+                if (ny == y) {
+                    continue;
+                }
+                boolean inRun = false;
+                for (int x = spanLeft; x <= spanRight; x++) {
+                    boolean open = image.getPixel(x, ny) != targetMark && !isSet(flooded, x, ny);
+                    if (open && !inRun) {
+                        if (stackSize == stack.length) {
+                            stack = Arrays.copyOf(stack, stackSize * 2);
+                        }
+                        stack[stackSize++] = ny * width + x;
+                    }
+                    inRun = open;
                 }
             }
         }
-        return new Region(regionPoints);
+        return statistics.toComponent();
     }
 
     /**
-     * Method obtains successor points of current point using 8-connection neighborhood.
+     * Method checks whether mask bit of a pixel is set.
      *
-     * @param currPoint
-     *            current point position
-     * @param targetMark
-     *            target color
-     * @return list of neighbors positions
-     */
-    private List<Point> getSuccessorPoints(Point currPoint, boolean targetMark) {
-        int[] dx = { 0, 0, 1, -1, 1, 1, -1, -1 };
-        int[] dy = { 1, -1, 0, 0, 1, -1, 1, -1 };
-        List<Point> points = new ArrayList<Point>();
-        for (int i = 0; i < dx.length; i++) {
-            int x = currPoint.getX() + dx[i];
-            int y = currPoint.getY() + dy[i];
-            if (x < 0 || x >= image.getWidth()) {
-                continue;
-            }
-            if (y < 0 || y >= image.getHeight()) {
-                continue;
-            }
-            if (image.getPixel(currPoint.getX(), currPoint.getY()) == targetMark) {
-                continue;
+     * @param mask
+     *            pixel mask
+     * @param x
+     *            pixel x coordinate
+     * @param y
+     *            pixel y coordinate
+     * @return true if bit is set, false otherwise
+     */
+    private boolean isSet(long[] mask, int x, int y) {
+        return (mask[y * wordsPerRow + (x >>> WORD_SHIFT)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Statistics of the region that is being flooded. Pixels are added to region mask in spans and only newly added
+     * pixels are counted.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 21.6.2017.
+     */
+    private class RegionStatistics {
+
+        /**
+         * Minimal x coordinate of region pixels.
+         */
+        private int xMin = Integer.MAX_VALUE;
+
+        /**
+         * Minimal y coordinate of region pixels.
+         */
+        private int yMin = Integer.MAX_VALUE;
+
+        /**
+         * Maximal x coordinate of region pixels.
+         */
+        private int xMax = -1;
+
+        /**
+         * Maximal y coordinate of region pixels.
+         */
+        private int yMax = -1;
+
+        /**
+         * Number of region pixels.
+         */
+        private int area;
+
+        /**
+         * Sum of x coordinates of region pixels.
+         */
+        private long sumX;
+
+        /**
+         * Sum of y coordinates of region pixels.
+         */
+        private long sumY;
+
+        /**
+         * Method adds span of pixels to the region.
+         *
+         * @param y
+         *            span row
+         * @param left
+         *            first span pixel x coordinate
+         * @param right
+         *            last span pixel x coordinate
+         */
+        void addSpan(int y, int left, int right) {
+            xMin = Math.min(xMin, left);
+            xMax = Math.max(xMax, right);
+            yMin = Math.min(yMin, y);
+            yMax = Math.max(yMax, y);
+            int rowStart = y * wordsPerRow;
+            for (int x = left; x <= right; x++) {
+                int index = rowStart + (x >>> WORD_SHIFT);
+                long bit = 1L << x;
+                if ((region[index] & bit) == 0) {
+                    region[index] |= bit;
+                    area++;
+                    sumX += x;
+                    sumY += y;
+                }
             }
-            points.add(new Point(x, y));
         }
-        return points;
 
+        /**
+         * Method creates region descriptor with region pixels and clears masks of flooded rows. Region runs are read
+         * from the mask words, a run that ends at the end of a word is continued in the next word.
+         *
+         * @return region descriptor
+         */
+        ConnectedComponent toComponent() {
+            int[] runs = new int[INITIAL_STACK_SIZE * RUN_LENGTH];
+            int length = 0;
+            for (int y = yMin; y <= yMax; y++) {
+                int rowStart = y * wordsPerRow;
+                int rowRunsStart = length;
+                for (int w = xMin >>> WORD_SHIFT; w <= xMax >>> WORD_SHIFT; w++) {
+                    long word = region[rowStart + w];
+                    while (word != 0) {
+                        int start = Long.numberOfTrailingZeros(word);
+                        long remaining = ~word & (-1L << start);
+                        int end = remaining == 0 ? WORD_BITS : Long.numberOfTrailingZeros(remaining);
+                        word = end == WORD_BITS ? 0 : word & (-1L << end);
+                        int runStart = (w << WORD_SHIFT) + start;
+                        int runEnd = (w << WORD_SHIFT) + end - 1;
+                        if (length > rowRunsStart && runs[length - 1] == runStart - 1) {
+                            runs[length - 1] = runEnd;
+                            continue;
+                        }
+                        if (length == runs.length) {
+                            runs = Arrays.copyOf(runs, length * 2);
+                        }
+                        runs[length] = y;
+                        runs[length + 1] = runStart;
+                        runs[length + RUN_LENGTH - 1] = runEnd;
+                        length += RUN_LENGTH;
+                    }
+                }
+                Arrays.fill(region, rowStart, rowStart + wordsPerRow, 0L);
+                Arrays.fill(flooded, rowStart, rowStart + wordsPerRow, 0L);
+            }
+            return new ConnectedComponent(xMin, yMin, xMax, yMax, area, sumX, sumY, width,
+                    new Region(runs, length / RUN_LENGTH));
+        }
     }
 
 }
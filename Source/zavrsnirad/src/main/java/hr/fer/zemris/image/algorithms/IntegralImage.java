@@ -0,0 +1,266 @@
+package hr.fer.zemris.image.algorithms;
+
+/**
+ * Class models integral image (summed-area table) of pixel intensities and of squared pixel intensities. Once the
+ * tables are built, sum, mean and variance of intensities inside any rectangle window are obtained in constant time
+ * regardless of the window size. Window is defined with inclusive lower and exclusive upper coordinates. Integral
+ * image can be built only for a band of image rows, in which case windows must lie inside the band and are still given
+ * in image coordinates.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 17.6.2017.
+ */
+public class IntegralImage {
+
+    /**
+     * Mask of one byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Mask that transforms integer to unsigned long value.
+     */
+    private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Image width.
+     */
+    private final int width;
+
+    /**
+     * First image row included in the tables.
+     */
+    private final int firstRow;
+
+    /**
+     * Row after the last image row included in the tables.
+     */
+    private final int lastRow;
+
+    /**
+     * Number of elements in one table row, one more than image width.
+     */
+    private final int stride;
+
+    /**
+     * Sums of intensities of all pixels above and to the left of each table position. Values are kept modulo 2^32 so
+     * the table fits into integers. Sum of a window with less than 2^24 pixels is smaller than 2^32, so differences of
+     * table values are exact.
+     */
+    private final int[] sums;
+
+    /**
+     * Sums of squared intensities of all pixels above and to the left of each table position.
+     */
+    private final long[] squaredSums;
+
+    /**
+     * Constructor that builds integral image of the whole image from given pixel intensities.
+     *
+     * @param intensities
+     *            pixel intensities from 0 to 255 stored row by row
+     * @param width
+     *            image width
+     * @param height
+     *            image height
+     * @throws IllegalArgumentException
+     *             if intensities array doesn't match given dimensions
+     */
+    public IntegralImage(byte[] intensities, int width, int height) throws IllegalArgumentException {
+        this(intensities, width, 0, height);
+    }
+
+    /**
+     * Constructor that builds integral image of a band of image rows from given pixel intensities.
+     *
+     * @param intensities
+     *            pixel intensities of the whole image from 0 to 255 stored row by row
+     * @param width
+     *            image width
+     * @param firstRow
+     *            first row of the band
+     * @param lastRow
+     *            row after the last row of the band
+     * @throws IllegalArgumentException
+     *             if intensities array doesn't contain given rows
+     */
+    public IntegralImage(byte[] intensities, int width, int firstRow, int lastRow) throws IllegalArgumentException {
+        if (intensities == null || width < 0 || firstRow < 0 || lastRow < firstRow
+                || intensities.length < width * lastRow) {
+            throw new IllegalArgumentException("Intensities don't match image dimensions.");
+        }
+        this.width = width;
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+        this.stride = width + 1;
+        int rows = lastRow - firstRow;
+        this.sums = new int[stride * (rows + 1)];
+        this.squaredSums = new long[stride * (rows + 1)];
+
+        for (int y = 0; y < rows; y++) {
+            int rowSum = 0;
+            long rowSquaredSum = 0;
+            int above = y * stride;
+            int current = above + stride;
+            int pixel = (firstRow + y) * width;
+            for (int x = 0; x < width; x++) {
+                int intensity = intensities[pixel + x] & BYTE_MASK;
+                rowSum += intensity;
+                rowSquaredSum += intensity * intensity;
+                sums[current + x + 1] = sums[above + x + 1] + rowSum;
+                squaredSums[current + x + 1] = squaredSums[above + x + 1] + rowSquaredSum;
+            }
+        }
+    }
+
+    /**
+     * Method obtains image width.
+     *
+     * @return image width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Method obtains first image row included in the integral image.
+     *
+     * @return first row
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * Method obtains row after the last image row included in the integral image.
+     *
+     * @return row after the last row
+     */
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    /**
+     * Method calculates sum of pixel intensities inside a window.
+     *
+     * @param xMin
+     *            inclusive minimal x coordinate
+     * @param yMin
+     *            inclusive minimal y coordinate
+     * @param xMax
+     *            exclusive maximal x coordinate
+     * @param yMax
+     *            exclusive maximal y coordinate
+     * @return sum of intensities
+     */
+    public long sum(int xMin, int yMin, int xMax, int yMax) {
+        int top = (yMin - firstRow) * stride;
+        int bottom = (yMax - firstRow) * stride;
+        return (sums[bottom + xMax] - sums[bottom + xMin] - sums[top + xMax] + sums[top + xMin]) & UNSIGNED_INT_MASK;
+    }
+
+    /**
+     * Method calculates sum of squared pixel intensities inside a window.
+     *
+     * @param xMin
+     *            inclusive minimal x coordinate
+     * @param yMin
+     *            inclusive minimal y coordinate
+     * @param xMax
+     *            exclusive maximal x coordinate
+     * @param yMax
+     *            exclusive maximal y coordinate
+     * @return sum of squared intensities
+     */
+    public long squaredSum(int xMin, int yMin, int xMax, int yMax) {
+        int top = (yMin - firstRow) * stride;
+        int bottom = (yMax - firstRow) * stride;
+        return squaredSums[bottom + xMax] - squaredSums[bottom + xMin] - squaredSums[top + xMax]
+                + squaredSums[top + xMin];
+    }
+
+    /**
+     * Method calculates mean value of pixel intensities inside a window.
+     *
+     * @param xMin
+     *            inclusive minimal x coordinate
+     * @param yMin
+     *            inclusive minimal y coordinate
+     * @param xMax
+     *            exclusive maximal x coordinate
+     * @param yMax
+     *            exclusive maximal y coordinate
+     * @return mean intensity
+     * @throws IllegalArgumentException
+     *             if window contains no pixels
+     */
+    public double mean(int xMin, int yMin, int xMax, int yMax) throws IllegalArgumentException {
+        long n = windowSize(xMin, yMin, xMax, yMax);
+        return (double) sum(xMin, yMin, xMax, yMax) / n;
+    }
+
+    /**
+     * Method calculates variance of pixel intensities inside a window. Variance is calculated from integer sums so it
+     * has no accumulated rounding error.
+     *
+     * @param xMin
+     *            inclusive minimal x coordinate
+     * @param yMin
+     *            inclusive minimal y coordinate
+     * @param xMax
+     *            exclusive maximal x coordinate
+     * @param yMax
+     *            exclusive maximal y coordinate
+     * @return intensity variance
+     * @throws IllegalArgumentException
+     *             if window contains no pixels
+     */
+    public double variance(int xMin, int yMin, int xMax, int yMax) throws IllegalArgumentException {
+        long n = windowSize(xMin, yMin, xMax, yMax);
+        long sum = sum(xMin, yMin, xMax, yMax);
+        double scaledVariance = (double) (n * squaredSum(xMin, yMin, xMax, yMax) - sum * sum);
+        return scaledVariance / n / n;
+    }
+
+    /**
+     * Method calculates standard deviation of pixel intensities inside a window.
+     *
+     * @param xMin
+     *            inclusive minimal x coordinate
+     * @param yMin
+     *            inclusive minimal y coordinate
+     * @param xMax
+     *            exclusive maximal x coordinate
+     * @param yMax
+     *            exclusive maximal y coordinate
+     * @return intensity standard deviation
+     * @throws IllegalArgumentException
+     *             if window contains no pixels
+     */
+    public double standardDeviation(int xMin, int yMin, int xMax, int yMax) throws IllegalArgumentException {
+        return Math.sqrt(variance(xMin, yMin, xMax, yMax));
+    }
+
+    /**
+     * Method calculates number of pixels inside a window.
+     *
+     * @param xMin
+     *            inclusive minimal x coordinate
+     * @param yMin
+     *            inclusive minimal y coordinate
+     * @param xMax
+     *            exclusive maximal x coordinate
+     * @param yMax
+     *            exclusive maximal y coordinate
+     * @return number of window pixels
+     * @throws IllegalArgumentException
+     *             if window contains no pixels
+     */
+    private static long windowSize(int xMin, int yMin, int xMax, int yMax) throws IllegalArgumentException {
+        if (xMax <= xMin || yMax <= yMin) {
+            throw new IllegalArgumentException("Window contains no pixels.");
+        }
+        return (long) (xMax - xMin) * (yMax - yMin);
+    }
+
+}
@@ -0,0 +1,256 @@
+package hr.fer.zemris.image.binarization;
+
+import hr.fer.zemris.image.IIntensityReader;
+import hr.fer.zemris.image.IRGBRowWriter;
+import hr.fer.zemris.image.RasterAccessor;
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.binary.PackedBinaryImage;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+/**
+ * Abstract binarization algorithm that processes image in horizontal bands of rows. Pixel intensity is the value of its
+ * red channel. If the algorithm is given a fork join pool, intensities are read and bands are binarized in parallel on
+ * that pool, otherwise the whole image is processed as one band on the calling thread. Concrete algorithms prepare
+ * {@link IBandBinarizer} for each image and can use {@link #reduceBands(int, BiFunction, BinaryOperator)} for parallel
+ * calculation of image statistics. Besides transforming buffered images, algorithm can binarize intensities from any
+ * {@link IIntensityReader} directly into {@link PackedBinaryImage}, which allows fusing it with grayscale algorithm.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 18.6.2017.
+ */
+public abstract class AbstractBandBinarizationAlgorithm implements IBinarizationAlgorithm {
+
+    /**
+     * Minimal number of rows in one band.
+     */
+    private static final int MIN_BAND_HEIGHT = 64;
+
+    /**
+     * Number of bands per pool thread, more bands than threads balance the load between threads.
+     */
+    private static final int BANDS_PER_THREAD = 4;
+
+    /**
+     * Pool used for parallel binarization or null for sequential binarization.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor that initializes pool used for binarization.
+     *
+     * @param pool
+     *            pool used for parallel binarization or null for sequential binarization
+     */
+    protected AbstractBandBinarizationAlgorithm(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Method obtains pool used for binarization.
+     *
+     * @return pool used for parallel binarization or null if binarization is sequential
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Method prepares binarizer for an image. Method is called once per image before any band is binarized. Pointwise
+     * algorithms are prepared before intensities are read.
+     *
+     * @param intensities
+     *            pixel intensities of the whole image stored row by row
+     * @param width
+     *            image width
+     * @param height
+     *            image height
+     * @return binarizer of image bands
+     */
+    protected abstract IBandBinarizer prepare(byte[] intensities, int width, int height);
+
+    /**
+     * Method checks whether binarized value of a pixel depends only on its own intensity. Such algorithms binarize
+     * each band right after its intensities are read, so the image is processed in a single pass. Other algorithms
+     * first read intensities of the whole image.
+     *
+     * @return true if pixel value depends only on its intensity, false otherwise
+     */
+    protected boolean isPointwise() {
+        return false;
+    }
+
+    @Override
+    public BufferedImage toBinary(BufferedImage original) {
+        BufferedImage binarized = new BufferedImage(original.getWidth(), original.getHeight(), original.getType());
+        binarize(new RasterAccessor(original)::getRedChannel, original.getWidth(), original.getHeight(),
+                new RasterAccessor(binarized));
+        return binarized;
+    }
+
+    /**
+     * Method binarizes intensities read from given reader into new packed binary image.
+     *
+     * @param reader
+     *            reader of pixel intensities
+     * @param width
+     *            image width
+     * @param height
+     *            image height
+     * @return binarized image
+     */
+    public IBinaryImage toBinaryImage(IIntensityReader reader, int width, int height) {
+        PackedBinaryImage binarized = new PackedBinaryImage(width, height);
+        binarize(reader, width, height, binarized);
+        return binarized;
+    }
+
+    /**
+     * Method binarizes intensities read from given reader and writes binarized rows to the output image.
+     *
+     * @param reader
+     *            reader of pixel intensities
+     * @param width
+     *            image width
+     * @param height
+     *            image height
+     * @param output
+     *            output image
+     */
+    private void binarize(IIntensityReader reader, int width, int height, IRGBRowWriter output) {
+        byte[] intensities = new byte[width * height];
+        if (isPointwise()) {
+            IBandBinarizer binarizer = prepare(intensities, width, height);
+            reduceBands(height, (fromY, toY) -> {
+                reader.readIntensities(fromY, toY, intensities);
+                binarizer.binarize(fromY, toY, output);
+                return null;
+            }, (upper, lower) -> null);
+            return;
+        }
+
+        reduceBands(height, (fromY, toY) -> {
+            reader.readIntensities(fromY, toY, intensities);
+            return null;
+        }, (upper, lower) -> null);
+        IBandBinarizer binarizer = prepare(intensities, width, height);
+        reduceBands(height, (fromY, toY) -> {
+            binarizer.binarize(fromY, toY, output);
+            return null;
+        }, (upper, lower) -> null);
+    }
+
+    /**
+     * Method applies function to every band of image rows and combines the results. Results of neighboring bands are
+     * always combined in the same order, from top to bottom, so the result doesn't depend on thread scheduling.
+     *
+     * @param height
+     *            image height
+     * @param function
+     *            function that receives first row and row after the last row of a band
+     * @param combiner
+     *            function that combines results of upper and lower bands
+     * @param <R>
+     *            result type
+     * @return combined result of all bands
+     */
+    protected <R> R reduceBands(int height, BiFunction<Integer, Integer, R> function, BinaryOperator<R> combiner) {
+        if (pool == null || height <= MIN_BAND_HEIGHT) {
+            return function.apply(0, height);
+        }
+        int bands = pool.getParallelism() * BANDS_PER_THREAD;
+        int bandHeight = Math.max(MIN_BAND_HEIGHT, (height + bands - 1) / bands);
+        int bandCount = (height + bandHeight - 1) / bandHeight;
+        return pool.invoke(new BandTask<>(height, bandHeight, 0, bandCount, function, combiner));
+    }
+
+    /**
+     * Task that processes a range of bands by recursively splitting it in half.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 18.6.2017.
+     * @param <R>
+     *            band result type
+     */
+    private static class BandTask<R> extends RecursiveTask<R> {
+
+        /**
+         * Number that JVM uses for serialization.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Image height.
+         */
+        private final int height;
+
+        /**
+         * Number of rows in one band.
+         */
+        private final int bandHeight;
+
+        /**
+         * First band of the range.
+         */
+        private final int fromBand;
+
+        /**
+         * Band after the last band of the range.
+         */
+        private final int toBand;
+
+        /**
+         * Function applied to every band.
+         */
+        private final BiFunction<Integer, Integer, R> function;
+
+        /**
+         * Function that combines band results.
+         */
+        private final BinaryOperator<R> combiner;
+
+        /**
+         * Constructor that initializes task for a range of bands.
+         *
+         * @param height
+         *            image height
+         * @param bandHeight
+         *            number of rows in one band
+         * @param fromBand
+         *            first band of the range
+         * @param toBand
+         *            band after the last band of the range
+         * @param function
+         *            function applied to every band
+         * @param combiner
+         *            function that combines band results
+         */
+        BandTask(int height, int bandHeight, int fromBand, int toBand, BiFunction<Integer, Integer, R> function,
+                BinaryOperator<R> combiner) {
+            this.height = height;
+            this.bandHeight = bandHeight;
+            this.fromBand = fromBand;
+            this.toBand = toBand;
+            this.function = function;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (toBand - fromBand == 1) {
+                return function.apply(fromBand * bandHeight, Math.min(height, toBand * bandHeight));
+            }
+            int middle = (fromBand + toBand) >>> 1;
+            BandTask<R> upper = new BandTask<>(height, bandHeight, fromBand, middle, function, combiner);
+            BandTask<R> lower = new BandTask<>(height, bandHeight, middle, toBand, function, combiner);
+            upper.fork();
+            R lowerResult = lower.compute();
+            return combiner.apply(upper.join(), lowerResult);
+        }
+    }
+
+}
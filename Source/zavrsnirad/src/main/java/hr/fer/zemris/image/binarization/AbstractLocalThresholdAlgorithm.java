@@ -0,0 +1,112 @@
+package hr.fer.zemris.image.binarization;
+
+import hr.fer.zemris.image.IRGBRowWriter;
+import hr.fer.zemris.image.algorithms.IntegralImage;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Abstract binarization algorithm that calculates threshold of every pixel from mean value and standard deviation of
+ * pixel intensities in its neighborhood window. Pixel intensity is the value of its red channel. Window statistics are
+ * obtained from {@link IntegralImage}, so binarization time doesn't depend on neighborhood radius. Every band builds
+ * integral image of its own rows extended with radius halo rows above and below, so bands don't share any state.
+ * Concrete algorithms only define threshold formula.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 17.6.2017.
+ */
+public abstract class AbstractLocalThresholdAlgorithm extends AbstractBandBinarizationAlgorithm {
+
+    /**
+     * Opaque white pixel.
+     */
+    private static final int WHITE = 0xFFFFFFFF;
+
+    /**
+     * Opaque black pixel.
+     */
+    private static final int BLACK = 0xFF000000;
+
+    /**
+     * Mask of one byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Neighborhood distance parameter.
+     */
+    protected final int radius;
+
+    /**
+     * Constructor that initializes neighborhood radius and pool used for binarization.
+     *
+     * @param radius
+     *            neighborhood radius
+     * @param pool
+     *            pool used for parallel binarization or null for sequential binarization
+     */
+    protected AbstractLocalThresholdAlgorithm(int radius, ForkJoinPool pool) {
+        super(pool);
+        this.radius = radius;
+    }
+
+    /**
+     * Method calculates pixel threshold from statistics of its neighborhood.
+     *
+     * @param mean
+     *            mean intensity of neighborhood pixels
+     * @param deviation
+     *            standard deviation of neighborhood pixel intensities
+     * @return threshold value
+     */
+    protected abstract double threshold(double mean, double deviation);
+
+    @Override
+    protected IBandBinarizer prepare(byte[] intensities, int width, int height) {
+        int halo = Math.max(radius, 0);
+        return (fromY, toY, output) -> {
+            IntegralImage integral = new IntegralImage(intensities, width, Math.max(0, fromY - halo),
+                    Math.min(height, toY + halo));
+            binarizeRows(intensities, integral, height, fromY, toY, output);
+        };
+    }
+
+    /**
+     * Method binarizes image rows from given range and writes them to the output image. Neighborhood window of a pixel
+     * (x, y) spans from max(0, x - radius) inclusive to min(x + radius, width - 1) exclusive, and the same on y axis.
+     * Pixel is white if its intensity is greater than or equal to its threshold.
+     *
+     * @param intensities
+     *            pixel intensities of the whole image stored row by row
+     * @param integral
+     *            integral image that contains neighborhood windows of all band pixels
+     * @param height
+     *            image height
+     * @param fromY
+     *            first row to binarize
+     * @param toY
+     *            row after the last row to binarize
+     * @param output
+     *            output image
+     * @throws IllegalArgumentException
+     *             if neighborhood window of a pixel contains no pixels
+     */
+    private void binarizeRows(byte[] intensities, IntegralImage integral, int height, int fromY, int toY,
+            IRGBRowWriter output) throws IllegalArgumentException {
+        int width = integral.getWidth();
+        int[] row = new int[width];
+        for (int y = fromY; y < toY; y++) {
+            int yMin = Math.max(0, y - radius);
+            int yMax = Math.min(y + radius, height - 1);
+            for (int x = 0, i = y * width; x < width; x++, i++) {
+                int xMin = Math.max(0, x - radius);
+                int xMax = Math.min(x + radius, width - 1);
+                double mean = integral.mean(xMin, yMin, xMax, yMax);
+                double deviation = integral.standardDeviation(xMin, yMin, xMax, yMax);
+                row[x] = (intensities[i] & BYTE_MASK) >= threshold(mean, deviation) ? WHITE : BLACK;
+            }
+            output.setRGBRow(y, row);
+        }
+    }
+
+}
@@ -1,9 +1,6 @@
 package hr.fer.zemris.image.binarization;
 
-import hr.fer.zemris.image.ImageUtility;
-
-import java.awt.Color;
-import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Binarization algorithm that uses fixed global threshold.
@@ -11,7 +8,7 @@ import java.awt.image.BufferedImage;
  * @author Domagoj Pluscec
  * @version v1.0, 20.5.2017.
  */
-public class GlobalThresholdAlgorithm implements IBinarizationAlgorithm {
+public class GlobalThresholdAlgorithm extends AbstractBandBinarizationAlgorithm {
 
     /**
      * Threshold value.
@@ -25,36 +22,30 @@ public class GlobalThresholdAlgorithm implements IBinarizationAlgorithm {
      *            threshold value
      */
     public GlobalThresholdAlgorithm(int threshold) {
+        this(threshold, null);
+    }
+
+    /**
+     * Constructor initializes algorithm with given threshold value and pool used for parallel binarization.
+     *
+     * @param threshold
+     *            threshold value
+     * @param pool
+     *            pool used for parallel binarization or null for sequential binarization
+     */
+    public GlobalThresholdAlgorithm(int threshold, ForkJoinPool pool) {
+        super(pool);
         this.threshold = threshold;
     }
 
     @Override
-    public BufferedImage toBinary(BufferedImage original) {
-
-        int red;
-        int newPixel;
-
-        BufferedImage binarized = new BufferedImage(original.getWidth(), original.getHeight(), original.getType());
-        final int maxPixelValue = 255;
-        for (int i = 0; i < original.getWidth(); i++) {
-            for (int j = 0; j < original.getHeight(); j++) {
-
-                // Get pixels
-                red = new Color(original.getRGB(i, j)).getRed();
-                int alpha = new Color(original.getRGB(i, j)).getAlpha();
-                if (red > threshold) {
-                    newPixel = maxPixelValue;
-                } else {
-                    newPixel = 0;
-                }
-                newPixel = ImageUtility.colorToRGB(alpha, newPixel, newPixel, newPixel);
-                binarized.setRGB(i, j, newPixel);
-
-            }
-        }
-
-        return binarized;
+    protected boolean isPointwise() {
+        return true;
+    }
 
+    @Override
+    protected IBandBinarizer prepare(byte[] intensities, int width, int height) {
+        return new ThresholdBandBinarizer(intensities, width, threshold);
     }
 
     @Override
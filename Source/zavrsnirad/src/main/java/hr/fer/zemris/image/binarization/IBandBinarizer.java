@@ -0,0 +1,24 @@
+package hr.fer.zemris.image.binarization;
+
+import hr.fer.zemris.image.IRGBRowWriter;
+
+/**
+ * Interface of an object that binarizes a band of image rows. Binarizer is prepared for one image and it can binarize
+ * different bands of that image concurrently.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 18.6.2017.
+ */
+public interface IBandBinarizer {
+    /**
+     * Method binarizes image rows from given range and writes them to the output image.
+     *
+     * @param fromY
+     *            first row to binarize
+     * @param toY
+     *            row after the last row to binarize
+     * @param output
+     *            output image
+     */
+    void binarize(int fromY, int toY, IRGBRowWriter output);
+}
@@ -1,9 +1,6 @@
 package hr.fer.zemris.image.binarization;
 
-import hr.fer.zemris.image.ImageUtility;
-
-import java.awt.Color;
-import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Binarization algorithm that uses otsu binarization method.
@@ -11,23 +8,69 @@ import java.awt.image.BufferedImage;
  * @author Domagoj Pluscec
  * @version v1.0, 20.5.2017.
  */
-public class OtsuAlgorithm implements IBinarizationAlgorithm {
+public class OtsuAlgorithm extends AbstractBandBinarizationAlgorithm {
 
     /**
-     * Method calculates threshold using Otsu's method.
+     * Number of different pixel intensities.
+     */
+    private static final int INTENSITIES = 256;
+
+    /**
+     * Mask of one byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Constructor that initializes sequential Otsu algorithm.
+     */
+    public OtsuAlgorithm() {
+        this(null);
+    }
+
+    /**
+     * Constructor that initializes Otsu algorithm with pool used for parallel binarization. Intensity histogram is then
+     * also calculated in parallel, each band calculates its own histogram and histograms are summed.
      *
-     * @param original
-     *            original image
-     * @return otsu threshold
+     * @param pool
+     *            pool used for parallel binarization or null for sequential binarization
      */
-    private static int otsuTreshold(BufferedImage original) {
+    public OtsuAlgorithm(ForkJoinPool pool) {
+        super(pool);
+    }
 
-        int[] histogram = ImageUtility.imageHistogram(original);
-        int total = original.getHeight() * original.getWidth();
+    /**
+     * Method calculates histogram of pixel intensities in given rows.
+     *
+     * @param intensities
+     *            pixel intensities of the whole image stored row by row
+     * @param width
+     *            image width
+     * @param fromY
+     *            first row
+     * @param toY
+     *            row after the last row
+     * @return intensity histogram
+     */
+    private static int[] histogram(byte[] intensities, int width, int fromY, int toY) {
+        int[] histogram = new int[INTENSITIES];
+        for (int i = fromY * width, end = toY * width; i < end; i++) {
+            histogram[intensities[i] & BYTE_MASK]++;
+        }
+        return histogram;
+    }
 
+    /**
+     * Method calculates threshold using Otsu's method.
+     *
+     * @param histogram
+     *            histogram of pixel intensities
+     * @param total
+     *            total number of pixels
+     * @return otsu threshold
+     */
+    private static int otsuTreshold(int[] histogram, int total) {
         float sum = 0;
-        final int maxIntensityLength = 256;
-        for (int i = 0; i < maxIntensityLength; i++) {
+        for (int i = 0; i < INTENSITIES; i++) {
             sum += i * histogram[i];
         }
 
@@ -38,7 +81,7 @@ public class OtsuAlgorithm implements IBinarizationAlgorithm {
         float varMax = 0;
         int threshold = 0;
 
-        for (int i = 0; i < maxIntensityLength; i++) {
+        for (int i = 0; i < INTENSITIES; i++) {
             wB += histogram[i];
             if (wB == 0) {
                 continue;
@@ -66,32 +109,15 @@ public class OtsuAlgorithm implements IBinarizationAlgorithm {
     }
 
     @Override
-    public BufferedImage toBinary(BufferedImage original) {
-
-        int red;
-        int newPixel;
-
-        int threshold = otsuTreshold(original);
-        BufferedImage binarized = new BufferedImage(original.getWidth(), original.getHeight(), original.getType());
-        final int maxIntensity = 255;
-        for (int i = 0; i < original.getWidth(); i++) {
-            for (int j = 0; j < original.getHeight(); j++) {
-
-                // Get pixels
-                red = new Color(original.getRGB(i, j)).getRed();
-                int alpha = new Color(original.getRGB(i, j)).getAlpha();
-                if (red > threshold) {
-                    newPixel = maxIntensity;
-                } else {
-                    newPixel = 0;
-                }
-                newPixel = ImageUtility.colorToRGB(alpha, newPixel, newPixel, newPixel);
-                binarized.setRGB(i, j, newPixel);
-
-            }
-        }
-
-        return binarized;
+    protected IBandBinarizer prepare(byte[] intensities, int width, int height) {
+        int[] histogram = reduceBands(height, (fromY, toY) -> histogram(intensities, width, fromY, toY),
+                (upper, lower) -> {
+                    for (int i = 0; i < INTENSITIES; i++) {
+                        upper[i] += lower[i];
+                    }
+                    return upper;
+                });
+        return new ThresholdBandBinarizer(intensities, width, otsuTreshold(histogram, width * height));
     }
 
     @Override
@@ -0,0 +1,71 @@
+package hr.fer.zemris.image.binarization;
+
+import hr.fer.zemris.image.IRGBRowWriter;
+
+/**
+ * Band binarizer that compares every pixel intensity with the same threshold. Pixel is white if its intensity is
+ * greater than threshold.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 18.6.2017.
+ */
+class ThresholdBandBinarizer implements IBandBinarizer {
+
+    /**
+     * Opaque white pixel.
+     */
+    private static final int WHITE = 0xFFFFFFFF;
+
+    /**
+     * Opaque black pixel.
+     */
+    private static final int BLACK = 0xFF000000;
+
+    /**
+     * Mask of one byte.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Pixel intensities of the whole image stored row by row.
+     */
+    private final byte[] intensities;
+
+    /**
+     * Image width.
+     */
+    private final int width;
+
+    /**
+     * Threshold value.
+     */
+    private final int threshold;
+
+    /**
+     * Constructor that initializes binarizer for an image.
+     *
+     * @param intensities
+     *            pixel intensities of the whole image stored row by row
+     * @param width
+     *            image width
+     * @param threshold
+     *            threshold value
+     */
+    ThresholdBandBinarizer(byte[] intensities, int width, int threshold) {
+        this.intensities = intensities;
+        this.width = width;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void binarize(int fromY, int toY, IRGBRowWriter output) {
+        int[] row = new int[width];
+        for (int y = fromY; y < toY; y++) {
+            for (int x = 0, i = y * width; x < width; x++, i++) {
+                row[x] = (intensities[i] & BYTE_MASK) > threshold ? WHITE : BLACK;
+            }
+            output.setRGBRow(y, row);
+        }
+    }
+
+}
@@ -0,0 +1,283 @@
+package hr.fer.zemris.image.binary;
+
+/**
+ * Class resamples binary images to square vectors of white pixel coverage. Image is fitted inside a square in the same
+ * way as in {@link hr.fer.zemris.image.transformation.ScaleInSquareAlgorithm}, it keeps its aspect ratio, it is
+ * centered and the rest of the square is white. Every value of the result is the fraction of the square cell area
+ * covered with white pixels, calculated as an area average of image pixels.
+ *
+ * Area averaging is separable, so a row pass and a column pass use lookup tables with weights of image columns and
+ * rows for every cell column and cell row. Tables depend only on image size and they are calculated again only when
+ * image size changes. Resampler keeps tables and intermediate rows between calls, so one resampler shouldn't be used
+ * from multiple threads at once.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 1.7.2017.
+ */
+public class BinaryImageResampler {
+
+    /**
+     * Coverage above which cell is white in network input. Scaling with {@code Graphics2D} samples the image near cell
+     * centers without averaging, so half of the cell area gives inputs closest to the inputs networks were trained
+     * with.
+     */
+    public static final double INPUT_WHITE_THRESHOLD = 0.5;
+
+    /**
+     * Square dimension.
+     */
+    private final int dimension;
+
+    /**
+     * Table of image columns of every cell column.
+     */
+    private final AxisTable columns;
+
+    /**
+     * Table of image rows of every cell row.
+     */
+    private final AxisTable rows;
+
+    /**
+     * Coverage of cell columns in every image row.
+     */
+    private double[] rowCoverage = new double[0];
+
+    /**
+     * Pixels of the current image row.
+     */
+    private double[] rowPixels = new double[0];
+
+    /**
+     * Constructor that initializes resampler with square dimension.
+     *
+     * @param dimension
+     *            square dimension
+     * @throws IllegalArgumentException
+     *             if dimension isn't positive
+     */
+    public BinaryImageResampler(int dimension) throws IllegalArgumentException {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Square dimension must be positive.");
+        }
+        this.dimension = dimension;
+        this.columns = new AxisTable(dimension);
+        this.rows = new AxisTable(dimension);
+    }
+
+    /**
+     * Method obtains square dimension.
+     *
+     * @return square dimension
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Method resamples binary image to the square and writes white coverage of every cell to given buffer in row
+     * major order.
+     *
+     * @param image
+     *            binary image
+     * @param output
+     *            buffer with at least dimension * dimension values
+     * @throws IllegalArgumentException
+     *             if buffer is too small
+     */
+    public void resample(IBinaryImage image, double[] output) throws IllegalArgumentException {
+        if (output.length < dimension * dimension) {
+            throw new IllegalArgumentException("Output buffer must have at least " + dimension * dimension
+                    + " values.");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width < 1 || height < 1) {
+            for (int i = 0, end = dimension * dimension; i < end; i++) {
+                output[i] = 1;
+            }
+            return;
+        }
+        int maxDim = Math.max(width, height);
+        double scalingFactor = ((double) dimension) / maxDim;
+        // thin images keep at least one cell, so they aren't lost
+        columns.prepare(width, Math.max(1, (int) Math.round(width * scalingFactor)));
+        rows.prepare(height, Math.max(1, (int) Math.round(height * scalingFactor)));
+
+        if (rowCoverage.length < height * dimension) {
+            rowCoverage = new double[height * dimension];
+        }
+        if (rowPixels.length < width) {
+            rowPixels = new double[width];
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                rowPixels[x] = image.getPixel(x, y) ? 1 : 0;
+            }
+            int rowStart = y * dimension;
+            for (int cell = 0; cell < dimension; cell++) {
+                rowCoverage[rowStart + cell] = columns.average(cell, rowPixels, 0, 1);
+            }
+        }
+        for (int cellRow = 0, index = 0; cellRow < dimension; cellRow++) {
+            double rowInside = rows.getCoverage(cellRow);
+            for (int cell = 0; cell < dimension; cell++, index++) {
+                // part of the cell outside of the image is white
+                double outside = 1 - rowInside * columns.getCoverage(cell);
+                output[index] = rows.average(cellRow, rowCoverage, cell, dimension) + outside;
+            }
+        }
+    }
+
+    /**
+     * Method resamples binary image to network input. Cells with white coverage above
+     * {@link #INPUT_WHITE_THRESHOLD} are 1 and other cells are 0.
+     *
+     * @param image
+     *            binary image
+     * @param output
+     *            buffer with at least dimension * dimension values
+     * @throws IllegalArgumentException
+     *             if buffer is too small
+     */
+    public void toNetworkInput(IBinaryImage image, double[] output) throws IllegalArgumentException {
+        resample(image, output);
+        for (int i = 0, end = dimension * dimension; i < end; i++) {
+            output[i] = output[i] > INPUT_WHITE_THRESHOLD ? 1 : 0;
+        }
+    }
+
+    /**
+     * Lookup table of one axis. For every cell it contains the first image pixel that overlaps the cell and weights of
+     * all overlapping pixels, weight is the fraction of cell length covered by the pixel.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 1.7.2017.
+     */
+    private static class AxisTable {
+
+        /**
+         * Number of cells.
+         */
+        private final int cells;
+
+        /**
+         * First overlapping pixel of every cell.
+         */
+        private final int[] first;
+
+        /**
+         * Index of the first weight of every cell and index after the last weight of the last cell.
+         */
+        private final int[] weightsStart;
+
+        /**
+         * Fraction of every cell covered by the image.
+         */
+        private final double[] coverage;
+
+        /**
+         * Weights of overlapping pixels of all cells.
+         */
+        private double[] weights = new double[0];
+
+        /**
+         * Image length for which the table was prepared.
+         */
+        private int length = -1;
+
+        /**
+         * Scaled image length for which the table was prepared.
+         */
+        private int scaledLength = -1;
+
+        /**
+         * Constructor that initializes table for given number of cells.
+         *
+         * @param cells
+         *            number of cells
+         */
+        AxisTable(int cells) {
+            this.cells = cells;
+            this.first = new int[cells];
+            this.weightsStart = new int[cells + 1];
+            this.coverage = new double[cells];
+        }
+
+        /**
+         * Method calculates table for image length. Image is scaled to given length and centered among cells.
+         *
+         * @param length
+         *            image length in pixels
+         * @param scaledLength
+         *            scaled image length in cells
+         */
+        void prepare(int length, int scaledLength) {
+            if (this.length == length && this.scaledLength == scaledLength) {
+                return;
+            }
+            this.length = length;
+            this.scaledLength = scaledLength;
+            int offset = (cells - scaledLength) / 2;
+            double scale = ((double) scaledLength) / length;
+
+            int weightsNumber = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                double start = Math.max(0, (cell - offset) / scale);
+                double end = Math.min(length, (cell + 1 - offset) / scale);
+                first[cell] = (int) Math.floor(start);
+                weightsStart[cell] = weightsNumber;
+                if (end > start) {
+                    weightsNumber += (int) Math.ceil(end) - first[cell];
+                }
+            }
+            weightsStart[cells] = weightsNumber;
+            if (weights.length < weightsNumber) {
+                weights = new double[weightsNumber];
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                double start = Math.max(0, (cell - offset) / scale);
+                double end = Math.min(length, (cell + 1 - offset) / scale);
+                double sum = 0;
+                for (int i = weightsStart[cell], pixel = first[cell]; i < weightsStart[cell + 1]; i++, pixel++) {
+                    weights[i] = (Math.min(end, pixel + 1) - Math.max(start, pixel)) * scale;
+                    sum += weights[i];
+                }
+                coverage[cell] = sum;
+            }
+        }
+
+        /**
+         * Method calculates weighted sum of pixels that overlap a cell.
+         *
+         * @param cell
+         *            cell index
+         * @param values
+         *            pixel values
+         * @param offset
+         *            index of the first pixel value
+         * @param stride
+         *            distance between values of two neighbouring pixels
+         * @return weighted sum of pixels
+         */
+        double average(int cell, double[] values, int offset, int stride) {
+            double sum = 0;
+            for (int i = weightsStart[cell], index = offset + first[cell] * stride; i < weightsStart[cell + 1]; i++) {
+                sum += weights[i] * values[index];
+                index += stride;
+            }
+            return sum;
+        }
+
+        /**
+         * Method obtains fraction of a cell covered by the image.
+         *
+         * @param cell
+         *            cell index
+         * @return covered fraction of the cell
+         */
+        double getCoverage(int cell) {
+            return coverage[cell];
+        }
+    }
+}
@@ -16,6 +16,9 @@ public class BinaryImageUtility {
      * @return histogram of pixels on image width
      */
     public static int[] calcHorizontalHistogram(IBinaryImage image) {
+        if (image instanceof PackedBinaryImage) {
+            return ((PackedBinaryImage) image).calcHorizontalHistogram();
+        }
         int[] histogram = new int[image.getWidth()];
 
         for (int y = 0; y < image.getHeight(); y++) {
@@ -36,6 +39,9 @@ public class BinaryImageUtility {
      * @return histogram of pixels on image height
      */
     public static int[] calcVerticalHistogram(IBinaryImage image) {
+        if (image instanceof PackedBinaryImage) {
+            return ((PackedBinaryImage) image).calcVerticalHistogram();
+        }
         int[] histogram = new int[image.getHeight()];
 
         for (int y = 0; y < image.getHeight(); y++) {
@@ -0,0 +1,375 @@
+package hr.fer.zemris.image.binary;
+
+import hr.fer.zemris.image.IRGBRowWriter;
+import hr.fer.zemris.image.RasterAccessor;
+import hr.fer.zemris.image.geometry.Point;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary image implementation that packs 64 pixels in one long word. Every image row starts with a new word and bit i
+ * of a word holds pixel with x coordinate (word index * 64 + i). Set bit represents white pixel. Compared to
+ * {@link BinaryImage} it uses one bit instead of one byte per pixel, which makes it suitable for holding many scanned
+ * forms in memory. Image can also be written row by row with ARGB pixel values, which allows binarization algorithms to
+ * write their result directly into packed image.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 15.6.2017.
+ */
+public class PackedBinaryImage extends AbstractBinaryImage implements IRGBRowWriter {
+
+    /**
+     * Number that JVM uses for serialization.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of pixels stored in one word.
+     */
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * Shift used for transforming pixel x coordinate to word index.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Mask used for obtaining bit index of a pixel inside a word.
+     */
+    private static final int BIT_MASK = WORD_SIZE - 1;
+
+    /**
+     * Image pixels packed row by row.
+     */
+    private long[] words;
+
+    /**
+     * Number of words in one image row.
+     */
+    private int wordsPerRow;
+
+    /**
+     * Image height.
+     */
+    private int height;
+
+    /**
+     * Image width.
+     */
+    private int width;
+
+    /**
+     * Constructor that initializes completely black image with given dimensions.
+     *
+     * @param width
+     *            image width
+     * @param height
+     *            image height
+     * @throws IllegalArgumentException
+     *             if any of the dimensions is negative
+     */
+    public PackedBinaryImage(int width, int height) throws IllegalArgumentException {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Image dimensions must not be negative.");
+        }
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + BIT_MASK) >>> WORD_SHIFT;
+        this.words = new long[wordsPerRow * height];
+    }
+
+    /**
+     * Constructor that initializes binary image from binarized buffered image. Pixel is white if the sum of its color
+     * channels is greater than half of maximal sum, same as in {@link BinaryImage}.
+     *
+     * @param binarizedImage
+     *            binarized buffered image
+     * @throws IllegalArgumentException
+     *             if given image is null
+     */
+    public PackedBinaryImage(BufferedImage binarizedImage) throws IllegalArgumentException {
+        this(checkNotNull(binarizedImage).getWidth(), binarizedImage.getHeight());
+        RasterAccessor accessor = new RasterAccessor(binarizedImage);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            setRGBRow(y, accessor.getRGBRow(y, row));
+        }
+    }
+
+    /**
+     * Constructor that creates packed copy of given binary image.
+     *
+     * @param image
+     *            binary image to copy
+     * @throws IllegalArgumentException
+     *             if given image is null
+     */
+    public PackedBinaryImage(IBinaryImage image) throws IllegalArgumentException {
+        this(checkNotNull(image).getWidth(), image.getHeight());
+        if (image instanceof PackedBinaryImage) {
+            System.arraycopy(((PackedBinaryImage) image).words, 0, words, 0, words.length);
+            return;
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (image.getPixel(x, y)) {
+                    words[y * wordsPerRow + (x >>> WORD_SHIFT)] |= 1L << x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method checks that given argument isn't null.
+     *
+     * @param argument
+     *            argument to check
+     * @param <T>
+     *            argument type
+     * @return given argument
+     * @throws IllegalArgumentException
+     *             if given argument is null
+     */
+    private static <T> T checkNotNull(T argument) throws IllegalArgumentException {
+        if (argument == null) {
+            throw new IllegalArgumentException("Source image must not be null.");
+        }
+        return argument;
+    }
+
+    /**
+     * Method obtains mask of valid pixel bits in the last word of a row.
+     *
+     * @return mask of used bits in the last row word
+     */
+    private long lastWordMask() {
+        int usedBits = width & BIT_MASK;
+        return usedBits == 0 ? -1L : (1L << usedBits) - 1;
+    }
+
+    /**
+     * Method calculates histogram of black pixels on horizontal axis by examining only words that contain black pixels.
+     *
+     * @return number of black pixels in every image column
+     */
+    public int[] calcHorizontalHistogram() {
+        int[] histogram = new int[width];
+        long lastMask = lastWordMask();
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long black = ~words[rowStart + w];
+                if (w == wordsPerRow - 1) {
+                    black &= lastMask;
+                }
+                int xOffset = w << WORD_SHIFT;
+                while (black != 0) {
+                    histogram[xOffset + Long.numberOfTrailingZeros(black)]++;
+                    black &= black - 1;
+                }
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Method calculates histogram of black pixels on vertical axis using bit count of each row word.
+     *
+     * @return number of black pixels in every image row
+     */
+    public int[] calcVerticalHistogram() {
+        int[] histogram = new int[height];
+        for (int y = 0; y < height; y++) {
+            histogram[y] = width - countWhitePixels(y);
+        }
+        return histogram;
+    }
+
+    /**
+     * Method counts white pixels in an image row.
+     *
+     * @param y
+     *            row index
+     * @return number of white pixels in a row
+     */
+    private int countWhitePixels(int y) {
+        int rowStart = y * wordsPerRow;
+        int count = 0;
+        for (int w = 0; w < wordsPerRow - 1; w++) {
+            count += Long.bitCount(words[rowStart + w]);
+        }
+        if (wordsPerRow > 0) {
+            count += Long.bitCount(words[rowStart + wordsPerRow - 1] & lastWordMask());
+        }
+        return count;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean getPixel(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") is outside of the image.");
+        }
+        return (words[y * wordsPerRow + (x >>> WORD_SHIFT)] & (1L << x)) != 0;
+    }
+
+    @Override
+    public double[] getPixels() {
+        double[] pixels = new double[width * height];
+        long lastMask = lastWordMask();
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * wordsPerRow;
+            int pixelsRowStart = y * width;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long white = words[rowStart + w];
+                if (w == wordsPerRow - 1) {
+                    white &= lastMask;
+                }
+                int xOffset = pixelsRowStart + (w << WORD_SHIFT);
+                while (white != 0) {
+                    pixels[xOffset + Long.numberOfTrailingZeros(white)] = 1;
+                    white &= white - 1;
+                }
+            }
+        }
+        return pixels;
+    }
+
+    @Override
+    public List<Point> getPixels(boolean pixelValue) {
+        List<Point> pixels = new ArrayList<>();
+        long lastMask = lastWordMask();
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long selected = pixelValue ? words[rowStart + w] : ~words[rowStart + w];
+                if (w == wordsPerRow - 1) {
+                    selected &= lastMask;
+                }
+                int xOffset = w << WORD_SHIFT;
+                while (selected != 0) {
+                    pixels.add(new Point(xOffset + Long.numberOfTrailingZeros(selected), y));
+                    selected &= selected - 1;
+                }
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Method obtains packed copy of the image part. Unlike the view returned by {@link AbstractBinaryImage}, copy
+     * doesn't keep reference to the original image, so the original image can be released while the subimage is in use.
+     * Rows are copied word by word using shifts.
+     */
+    @Override
+    public IBinaryImage getSubimage(int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || x >= getWidth() || y >= getHeight() || x + width > getWidth() || y + height > getHeight()
+                || width < 0 || height < 0) {
+            throw new IllegalArgumentException();
+        }
+        PackedBinaryImage subimage = new PackedBinaryImage(width, height);
+        int shift = x & BIT_MASK;
+        int firstWord = x >>> WORD_SHIFT;
+        for (int row = 0; row < height; row++) {
+            int srcStart = (y + row) * wordsPerRow + firstWord;
+            int dstStart = row * subimage.wordsPerRow;
+            for (int w = 0; w < subimage.wordsPerRow; w++) {
+                long word = words[srcStart + w] >>> shift;
+                if (shift != 0 && firstWord + w + 1 < wordsPerRow) {
+                    word |= words[srcStart + w + 1] << (WORD_SIZE - shift);
+                }
+                subimage.words[dstStart + w] = word;
+            }
+            if (subimage.wordsPerRow > 0) {
+                subimage.words[dstStart + subimage.wordsPerRow - 1] &= subimage.lastWordMask();
+            }
+        }
+        return subimage;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Method sets pixel value.
+     *
+     * @param x
+     *            pixel x coordinate
+     * @param y
+     *            pixel y coordinate
+     * @param value
+     *            true for white pixel, false for black pixel
+     */
+    public void setPixel(int x, int y, boolean value) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") is outside of the image.");
+        }
+        int index = y * wordsPerRow + (x >>> WORD_SHIFT);
+        if (value) {
+            words[index] |= 1L << x;
+        } else {
+            words[index] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Method sets pixels of one image row from ARGB values. Pixel is white if the sum of its color channels is greater
+     * than half of maximal sum, same as in {@link BinaryImage}. Different rows can be set concurrently because every row
+     * starts with a new word.
+     */
+    @Override
+    public void setRGBRow(int y, int[] row) {
+        final int maxSumThreshold = 255 * 3 / 2;
+        final int bMask = 0xFF;
+        final int gOffset = 8;
+        final int rOffset = 16;
+
+        int rowStart = y * wordsPerRow;
+        for (int w = 0; w < wordsPerRow; w++) {
+            long word = 0;
+            int xOffset = w << WORD_SHIFT;
+            int wordWidth = Math.min(WORD_SIZE, width - xOffset);
+            for (int bit = 0; bit < wordWidth; bit++) {
+                int rgb = row[xOffset + bit];
+                int sum = ((rgb >> rOffset) & bMask) + ((rgb >> gOffset) & bMask) + (rgb & bMask);
+                if (sum > maxSumThreshold) {
+                    word |= 1L << bit;
+                }
+            }
+            words[rowStart + w] = word;
+        }
+    }
+
+    /**
+     * Method transforms binary image to buffered image by writing packed rows directly to the raster of one bit per
+     * pixel image.
+     */
+    @Override
+    public BufferedImage toImage() {
+        final int byteSize = 8;
+        final int byteMask = 0xFF;
+        BufferedImage bi = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        byte[] data = ((DataBufferByte) bi.getRaster().getDataBuffer()).getData();
+        int stride = (width + byteSize - 1) / byteSize;
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * wordsPerRow;
+            int dataStart = y * stride;
+            for (int b = 0; b < stride; b++) {
+                int bits = (int) (words[rowStart + (b >>> 3)] >>> ((b & 7) * byteSize)) & byteMask;
+                // raster stores first pixel in the most significant bit
+                data[dataStart + b] = (byte) (Integer.reverse(bits) >>> (Integer.SIZE - byteSize));
+            }
+        }
+        return bi;
+    }
+
+}
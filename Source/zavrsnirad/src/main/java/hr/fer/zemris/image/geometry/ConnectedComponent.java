@@ -0,0 +1,238 @@
+package hr.fer.zemris.image.geometry;
+
+import hr.fer.zemris.image.binary.BinaryImage;
+import hr.fer.zemris.image.binary.IBinaryImage;
+
+import java.awt.Rectangle;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Class models compact descriptor of a connected component of an image. Descriptor holds bounding box, number of pixels
+ * and sums of pixel coordinates. Component pixels are optional and they are stored as a run length {@link Region}.
+ * Bounding rectangle and center are calculated the same way as in {@link Region}.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 20.6.2017.
+ */
+public class ConnectedComponent implements Serializable {
+
+    /**
+     * Number that JVM uses for serialization.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Minimal x coordinate of component pixels.
+     */
+    private final int xMin;
+
+    /**
+     * Minimal y coordinate of component pixels.
+     */
+    private final int yMin;
+
+    /**
+     * Maximal x coordinate of component pixels.
+     */
+    private final int xMax;
+
+    /**
+     * Maximal y coordinate of component pixels.
+     */
+    private final int yMax;
+
+    /**
+     * Number of component pixels.
+     */
+    private final int pixelCount;
+
+    /**
+     * Sum of x coordinates of component pixels.
+     */
+    private final long sumX;
+
+    /**
+     * Sum of y coordinates of component pixels.
+     */
+    private final long sumY;
+
+    /**
+     * Width of the image that contains component.
+     */
+    private final int imageWidth;
+
+    /**
+     * Region of component pixels or null if pixels aren't stored.
+     */
+    private final Region region;
+
+    /**
+     * Constructor that initializes component descriptor.
+     *
+     * @param xMin
+     *            minimal x coordinate of component pixels
+     * @param yMin
+     *            minimal y coordinate of component pixels
+     * @param xMax
+     *            maximal x coordinate of component pixels
+     * @param yMax
+     *            maximal y coordinate of component pixels
+     * @param pixelCount
+     *            number of component pixels
+     * @param sumX
+     *            sum of x coordinates of component pixels
+     * @param sumY
+     *            sum of y coordinates of component pixels
+     * @param imageWidth
+     *            width of the image that contains component
+     * @param region
+     *            region of component pixels or null if pixels aren't stored
+     * @throws IllegalArgumentException
+     *             if component has no pixels
+     */
+    public ConnectedComponent(int xMin, int yMin, int xMax, int yMax, int pixelCount, long sumX, long sumY,
+            int imageWidth, Region region) throws IllegalArgumentException {
+        if (pixelCount <= 0) {
+            throw new IllegalArgumentException("Component must contain at least one pixel.");
+        }
+        this.xMin = xMin;
+        this.yMin = yMin;
+        this.xMax = xMax;
+        this.yMax = yMax;
+        this.pixelCount = pixelCount;
+        this.sumX = sumX;
+        this.sumY = sumY;
+        this.imageWidth = imageWidth;
+        this.region = region;
+    }
+
+    /**
+     * Method obtains component bounding rectangle. As in {@link Region}, width and height are differences between
+     * maximal and minimal coordinates.
+     *
+     * @return component bounding rectangle
+     */
+    public Rectangle getBoundingRectangle() {
+        return new Rectangle(xMin, yMin, xMax - xMin, yMax - yMin);
+    }
+
+    /**
+     * Method obtains number of component pixels.
+     *
+     * @return number of pixels
+     */
+    public int getPixelCount() {
+        return pixelCount;
+    }
+
+    /**
+     * Method obtains x coordinate of component centroid.
+     *
+     * @return centroid x coordinate
+     */
+    public double getCentroidX() {
+        return (double) sumX / pixelCount;
+    }
+
+    /**
+     * Method obtains y coordinate of component centroid.
+     *
+     * @return centroid y coordinate
+     */
+    public double getCentroidY() {
+        return (double) sumY / pixelCount;
+    }
+
+    /**
+     * Method obtains center point of a component rounded down to integer coordinates, same as
+     * {@link Region#getRegionCenter()}.
+     *
+     * @return center of mass of a component
+     */
+    public Point getRegionCenter() {
+        return new Point((int) (sumX / pixelCount), (int) (sumY / pixelCount));
+    }
+
+    /**
+     * Method checks whether component pixels are stored.
+     *
+     * @return true if pixels are stored, false otherwise
+     */
+    public boolean hasPixels() {
+        return region != null;
+    }
+
+    /**
+     * Method obtains raster indexes of component pixels. Pixel coordinates are obtained as (index % image width, index
+     * / image width).
+     *
+     * @return pixel indexes in the row major order
+     * @throws UnsupportedOperationException
+     *             if pixels aren't stored
+     */
+    public int[] getPixels() throws UnsupportedOperationException {
+        Region pixels = checkPixels();
+        int[] indexes = new int[pixelCount];
+        for (int run = 0, i = 0, runs = pixels.getRunCount(); run < runs; run++) {
+            int rowStart = pixels.getRunY(run) * imageWidth;
+            for (int x = pixels.getRunStart(run), end = pixels.getRunEnd(run); x <= end; x++) {
+                indexes[i++] = rowStart + x;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Method obtains width of the image that contains component.
+     *
+     * @return image width
+     */
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    /**
+     * Method obtains region of component pixels. Region is shared, it isn't copied.
+     *
+     * @return region with component points
+     * @throws UnsupportedOperationException
+     *             if pixels aren't stored
+     */
+    public Region toRegion() throws UnsupportedOperationException {
+        return checkPixels();
+    }
+
+    /**
+     * Method transforms component to binary image of its bounding rectangle, with black component pixels on white
+     * background. Result is the same as {@link RegionUtility#regionToBinaryImage(Region)} of the component region.
+     *
+     * @return binary image of a component
+     * @throws UnsupportedOperationException
+     *             if pixels aren't stored
+     */
+    public IBinaryImage toBinaryImage() throws UnsupportedOperationException {
+        Region pixels = checkPixels();
+        boolean[][] matrix = new boolean[yMax - yMin + 1][xMax - xMin + 1];
+        for (boolean[] row : matrix) {
+            Arrays.fill(row, true);
+        }
+        pixels.fill(matrix, false);
+        return new BinaryImage(matrix, false);
+    }
+
+    /**
+     * Method checks that component pixels are stored.
+     *
+     * @return component pixels region
+     * @throws UnsupportedOperationException
+     *             if pixels aren't stored
+     */
+    private Region checkPixels() throws UnsupportedOperationException {
+        if (region == null) {
+            throw new UnsupportedOperationException("Component pixels aren't stored.");
+        }
+        return region;
+    }
+
+}
@@ -1,15 +1,24 @@
 package hr.fer.zemris.image.geometry;
 
+import hr.fer.zemris.image.binary.AbstractBinaryImage;
+import hr.fer.zemris.image.binary.IBinaryImage;
+
 import java.awt.Rectangle;
 import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
  * Class models image region.
  *
+ * Region points are stored as horizontal runs in the row major order. Every run takes three integers: row, x
+ * coordinate of the first run point and x coordinate of the last run point. Runs of the same row don't overlap and
+ * they aren't adjacent. Points are created only when they are requested through {@link #getPoints()}.
+ *
  * @author Domagoj Pluscec
  * @version v1.0, 9.6.2017.
  */
@@ -18,21 +27,62 @@ public class Region implements Serializable {
     /**
      * Number that JVM uses for serialization.
      */
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+
+    /**
+     * Number of integers that describe one run.
+     */
+    private static final int RUN_LENGTH = 3;
+
+    /**
+     * Offset of the last run point x coordinate inside a run.
+     */
+    private static final int RUN_END = 2;
+
+    /**
+     * Offset added to x coordinate so that packed coordinates are sorted by x as unsigned values.
+     */
+    private static final long X_OFFSET = 0x80000000L;
+
+    /**
+     * Mask of lower 32 bits of a long value.
+     */
+    private static final long LOWER_BITS = 0xFFFFFFFFL;
+
+    /**
+     * Number of bits that packed y coordinate is shifted.
+     */
+    private static final int Y_SHIFT = 32;
+
     /**
-     * Points contained in a region.
+     * Region runs in the row major order.
      */
-    private Set<Point> regionPoints;
+    private final int[] runs;
 
     /**
-     * Center of a region.
+     * Index of the first run of every bounding rectangle row, last element is the number of runs.
      */
-    private Point regionCenter;
+    private final int[] rowStarts;
 
     /**
-     * Region bounding rectangle.
+     * Number of points contained in a region.
      */
-    private Rectangle boundingRectangle;
+    private final int pointCount;
+
+    /**
+     * Minimal and maximal x coordinates of region points.
+     */
+    private final int xMin, xMax;
+
+    /**
+     * Minimal and maximal y coordinates of region points.
+     */
+    private final int yMin, yMax;
+
+    /**
+     * Sums of x and y coordinates of region points.
+     */
+    private final long sumX, sumY;
 
     /**
      * Constructor initializes region with points contained in a region.
@@ -41,50 +91,267 @@ public class Region implements Serializable {
      *            collection of points contained in a region
      */
     public Region(Collection<Point> regionPoints) {
-        this.regionPoints = new HashSet<>();
-        this.regionPoints.addAll(regionPoints);
+        this(toRuns(regionPoints));
     }
 
     /**
-     * Method obtains region bounding rectangle.
+     * Constructor initializes region with horizontal runs. Runs are given as triples of row, first run x coordinate and
+     * last run x coordinate. Runs have to be sorted in the row major order and runs of the same row must not overlap.
+     * Adjacent runs are joined.
      *
-     * @return region bounding rectangle.
+     * @param runs
+     *            region runs, array is copied
+     * @param runCount
+     *            number of runs
+     * @throws IllegalArgumentException
+     *             if runs aren't sorted or if a run is empty
      */
-    public Rectangle getBoundingRectangle() {
-        if (boundingRectangle != null) {
-            return boundingRectangle;
-        }
-        int xMax, xMin;
-        int yMax, yMin;
-        Point tempSetPoint = regionPoints.iterator().next();
-        xMax = xMin = tempSetPoint.getX();
-        yMax = yMin = tempSetPoint.getY();
-        for (Point p : regionPoints) {
-            if (p.getX() > xMax) {
-                xMax = p.getX();
+    public Region(int[] runs, int runCount) throws IllegalArgumentException {
+        if (runCount < 0 || runs.length < runCount * RUN_LENGTH) {
+            throw new IllegalArgumentException("Runs array contains less than " + runCount + " runs.");
+        }
+        int[] joined = new int[runCount * RUN_LENGTH];
+        int length = 0;
+        int count = 0;
+        long xSum = 0;
+        long ySum = 0;
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        for (int i = 0; i < runCount * RUN_LENGTH; i += RUN_LENGTH) {
+            int y = runs[i];
+            int start = runs[i + 1];
+            int end = runs[i + RUN_END];
+            if (end < start) {
+                throw new IllegalArgumentException("Run " + i / RUN_LENGTH + " is empty.");
             }
-            if (p.getX() < xMin) {
-                xMin = p.getX();
+            if (length > 0 && (y < joined[length - RUN_LENGTH]
+                    || y == joined[length - RUN_LENGTH] && start <= joined[length - 1])) {
+                throw new IllegalArgumentException("Runs aren't sorted in the row major order.");
             }
-            if (p.getY() > yMax) {
-                yMax = p.getY();
+            if (length > 0 && y == joined[length - RUN_LENGTH] && start == joined[length - 1] + 1) {
+                joined[length - 1] = end;
+            } else {
+                joined[length] = y;
+                joined[length + 1] = start;
+                joined[length + RUN_END] = end;
+                length += RUN_LENGTH;
             }
-            if (p.getY() < yMin) {
-                yMin = p.getY();
+            long runPoints = (long) end - start + 1;
+            count += runPoints;
+            xSum += ((long) start + end) * runPoints / 2;
+            ySum += y * runPoints;
+            minX = Math.min(minX, start);
+            maxX = Math.max(maxX, end);
+        }
+        this.runs = length == joined.length ? joined : Arrays.copyOf(joined, length);
+        this.pointCount = count;
+        this.sumX = xSum;
+        this.sumY = ySum;
+        this.xMin = minX;
+        this.xMax = maxX;
+        if (length == 0) {
+            this.yMin = 0;
+            this.yMax = -1;
+            this.rowStarts = new int[1];
+            return;
+        }
+        this.yMin = this.runs[0];
+        this.yMax = this.runs[length - RUN_LENGTH];
+        this.rowStarts = new int[yMax - yMin + 2];
+        int run = 0;
+        for (int row = 0; row < rowStarts.length; row++) {
+            while (run < length / RUN_LENGTH && this.runs[run * RUN_LENGTH] < yMin + row) {
+                run++;
             }
+            rowStarts[row] = run;
         }
-        boundingRectangle = new Rectangle(xMin, yMin, xMax - xMin, yMax - yMin);
-        return boundingRectangle;
     }
 
     /**
-     * Method obtains unmodifiable view of region points.
+     * Constructor initializes region with all runs contained in given array.
+     *
+     * @param runs
+     *            region runs
+     */
+    private Region(int[] runs) {
+        this(runs, runs.length / RUN_LENGTH);
+    }
+
+    /**
+     * Method transforms points into sorted runs.
+     *
+     * @param points
+     *            region points, duplicates are allowed
+     * @return runs of given points
+     */
+    private static int[] toRuns(Collection<Point> points) {
+        long[] packed = new long[points.size()];
+        int size = 0;
+        for (Point p : points) {
+            packed[size++] = ((long) p.getY() << Y_SHIFT) | (p.getX() + X_OFFSET);
+        }
+        Arrays.sort(packed);
+
+        int[] runs = new int[size * RUN_LENGTH];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            int y = (int) (packed[i] >> Y_SHIFT);
+            int x = (int) ((packed[i] & LOWER_BITS) - X_OFFSET);
+            if (length > 0 && runs[length - RUN_LENGTH] == y && runs[length - 1] >= x - 1) {
+                runs[length - 1] = x;
+                continue;
+            }
+            runs[length] = y;
+            runs[length + 1] = x;
+            runs[length + RUN_END] = x;
+            length += RUN_LENGTH;
+        }
+        return Arrays.copyOf(runs, length);
+    }
+
+    /**
+     * Method merges two regions. Runs of both regions are merged row by row without creating points.
+     *
+     * @param first
+     *            first region
+     * @param second
+     *            second region
+     * @return region that contains points of both regions
+     */
+    static Region union(Region first, Region second) {
+        int[] a = first.runs;
+        int[] b = second.runs;
+        int[] merged = new int[a.length + b.length];
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            int[] source;
+            int index;
+            if (j >= b.length || i < a.length && (a[i] < b[j] || a[i] == b[j] && a[i + 1] <= b[j + 1])) {
+                source = a;
+                index = i;
+                i += RUN_LENGTH;
+            } else {
+                source = b;
+                index = j;
+                j += RUN_LENGTH;
+            }
+            int y = source[index];
+            if (length > 0 && merged[length - RUN_LENGTH] == y && merged[length - 1] >= source[index + 1] - 1) {
+                merged[length - 1] = Math.max(merged[length - 1], source[index + RUN_END]);
+                continue;
+            }
+            merged[length] = y;
+            merged[length + 1] = source[index + 1];
+            merged[length + RUN_END] = source[index + RUN_END];
+            length += RUN_LENGTH;
+        }
+        return new Region(Arrays.copyOf(merged, length));
+    }
+
+    /**
+     * Method obtains region bounding rectangle.
+     *
+     * @return region bounding rectangle.
+     * @throws NoSuchElementException
+     *             if region contains no points
+     */
+    public Rectangle getBoundingRectangle() throws NoSuchElementException {
+        if (pointCount == 0) {
+            throw new NoSuchElementException("Region contains no points.");
+        }
+        return new Rectangle(xMin, yMin, xMax - xMin, yMax - yMin);
+    }
+
+    /**
+     * Method obtains unmodifiable view of region points. Points are created while the view is iterated, so iteration
+     * returns a new point object every time.
      *
      * @return unmodifiable view of region points
      */
     public Set<Point> getPoints() {
+        return new PointSet();
+    }
+
+    /**
+     * Method obtains number of points contained in a region.
+     *
+     * @return number of region points
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Method obtains number of region runs.
+     *
+     * @return number of runs
+     */
+    public int getRunCount() {
+        return runs.length / RUN_LENGTH;
+    }
+
+    /**
+     * Method obtains row of a run.
+     *
+     * @param run
+     *            run index
+     * @return run y coordinate
+     */
+    public int getRunY(int run) {
+        return runs[run * RUN_LENGTH];
+    }
 
-        return Collections.unmodifiableSet(regionPoints);
+    /**
+     * Method obtains x coordinate of the first point of a run.
+     *
+     * @param run
+     *            run index
+     * @return first run point x coordinate
+     */
+    public int getRunStart(int run) {
+        return runs[run * RUN_LENGTH + 1];
+    }
+
+    /**
+     * Method obtains x coordinate of the last point of a run.
+     *
+     * @param run
+     *            run index
+     * @return last run point x coordinate
+     */
+    public int getRunEnd(int run) {
+        return runs[run * RUN_LENGTH + RUN_END];
+    }
+
+    /**
+     * Method checks if region contains a point.
+     *
+     * @param x
+     *            point x coordinate
+     * @param y
+     *            point y coordinate
+     * @return true if point is contained in a region, false otherwise
+     */
+    public boolean contains(int x, int y) {
+        if (y < yMin || y > yMax || x < xMin || x > xMax) {
+            return false;
+        }
+        int low = rowStarts[y - yMin];
+        int high = rowStarts[y - yMin + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int index = middle * RUN_LENGTH;
+            if (x < runs[index + 1]) {
+                high = middle - 1;
+            } else if (x > runs[index + RUN_END]) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -93,20 +360,160 @@ public class Region implements Serializable {
      * @return center of mass of a region
      */
     public Point getRegionCenter() {
-        if (regionCenter != null) {
-            return regionCenter;
-        }
-        if (regionPoints.size() == 0) {
+        if (pointCount == 0) {
             throw new UnsupportedOperationException("Cannot calculate center when there are no points.");
         }
-        int sumX, sumY;
-        sumX = sumY = 0;
-        for (Point p : regionPoints) {
-            sumX += p.getX();
-            sumY += p.getY();
+        return new Point((int) (sumX / pointCount), (int) (sumY / pointCount));
+    }
+
+    /**
+     * Method obtains binary image view of region bounding rectangle. Image is one pixel wider and higher than the
+     * bounding rectangle, same as {@link RegionUtility#regionToBooleanArray(Region, boolean, boolean)}. Image reads
+     * region runs directly, pixels aren't copied.
+     *
+     * @param background
+     *            value of pixels that aren't contained in a region
+     * @param foreground
+     *            value of region pixels
+     * @return region mask
+     * @throws NoSuchElementException
+     *             if region contains no points
+     */
+    public IBinaryImage getMask(boolean background, boolean foreground) throws NoSuchElementException {
+        return new RegionMask(getBoundingRectangle(), background, foreground);
+    }
+
+    /**
+     * Method writes region runs to a boolean matrix that covers region bounding rectangle.
+     *
+     * @param matrix
+     *            matrix with at least bounding rectangle height rows, every row at least bounding rectangle width long
+     * @param foreground
+     *            value written to region pixels
+     */
+    public void fill(boolean[][] matrix, boolean foreground) {
+        for (int i = 0; i < runs.length; i += RUN_LENGTH) {
+            Arrays.fill(matrix[runs[i] - yMin], runs[i + 1] - xMin, runs[i + RUN_END] - xMin + 1, foreground);
+        }
+    }
+
+    /**
+     * Set view of region points.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 22.6.2017.
+     */
+    private class PointSet extends AbstractSet<Point> {
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Point)) {
+                return false;
+            }
+            Point p = (Point) o;
+            return Region.this.contains(p.getX(), p.getY());
+        }
+
+        @Override
+        public Iterator<Point> iterator() {
+            return new Iterator<Point>() {
+
+                /**
+                 * Index of current run.
+                 */
+                private int index;
+
+                /**
+                 * X coordinate of the next point.
+                 */
+                private int x = runs.length > 0 ? runs[1] : 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < runs.length;
+                }
+
+                @Override
+                public Point next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Point p = new Point(x, runs[index]);
+                    if (x++ == runs[index + RUN_END]) {
+                        index += RUN_LENGTH;
+                        if (index < runs.length) {
+                            x = runs[index + 1];
+                        }
+                    }
+                    return p;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return pointCount;
+        }
+    }
+
+    /**
+     * Binary image that reads pixels from region runs.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 22.6.2017.
+     */
+    private class RegionMask extends AbstractBinaryImage {
+
+        /**
+         * Number that JVM uses for serialization.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Region bounding rectangle.
+         */
+        private final Rectangle bounds;
+
+        /**
+         * Value of pixels that aren't contained in a region.
+         */
+        private final boolean background;
+
+        /**
+         * Value of region pixels.
+         */
+        private final boolean foreground;
+
+        /**
+         * Constructor that initializes mask.
+         *
+         * @param bounds
+         *            region bounding rectangle
+         * @param background
+         *            value of pixels that aren't contained in a region
+         * @param foreground
+         *            value of region pixels
+         */
+        RegionMask(Rectangle bounds, boolean background, boolean foreground) {
+            this.bounds = bounds;
+            this.background = background;
+            this.foreground = foreground;
+        }
+
+        @Override
+        public int getHeight() {
+            return bounds.height + 1;
+        }
+
+        @Override
+        public boolean getPixel(int x, int y) {
+            return contains(bounds.x + x, bounds.y + y) ? foreground : background;
+        }
+
+        @Override
+        public int getWidth() {
+            return bounds.width + 1;
         }
-        regionCenter = new Point(sumX / regionPoints.size(), sumY / regionPoints.size());
-        return regionCenter;
     }
 
 }
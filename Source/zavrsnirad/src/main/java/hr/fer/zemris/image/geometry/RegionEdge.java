@@ -2,14 +2,20 @@ package hr.fer.zemris.image.geometry;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Class models region edge defined with points.
  *
+ * Edge points are kept in a run length {@link Region}. Serialized form still contains edge points as a set of points,
+ * so region edges saved in older form templates can be read.
+ *
  * @author Domagoj Pluscec
  * @version v1.0, 9.6.2017.
  */
@@ -20,9 +26,17 @@ public class RegionEdge implements IRegionEdge {
     private static final long serialVersionUID = 1L;
 
     /**
-     * Points contained in region edge.
+     * Serialized fields of region edge.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("edgePoints", Set.class), new ObjectStreamField("dim", Dimension.class),
+        new ObjectStreamField("minX", Integer.TYPE), new ObjectStreamField("maxX", Integer.TYPE),
+        new ObjectStreamField("minY", Integer.TYPE), new ObjectStreamField("maxY", Integer.TYPE) };
+
+    /**
+     * Region of points contained in region edge or null if edge isn't defined with points.
      */
-    private Set<Point> edgePoints;
+    private transient Region edgeRegion;
     /**
      * Dimensions of bound rectangle of region edge.
      */
@@ -50,8 +64,17 @@ public class RegionEdge implements IRegionEdge {
      *            edge points collection
      */
     public RegionEdge(Collection<Point> edgePoints) {
-        this.edgePoints = new HashSet<>();
-        this.edgePoints.addAll(edgePoints);
+        this(new Region(edgePoints));
+    }
+
+    /**
+     * Method initializes region edge with a region of edge points.
+     *
+     * @param edgeRegion
+     *            region of edge points
+     */
+    public RegionEdge(Region edgeRegion) {
+        this.edgeRegion = edgeRegion;
         calcRegionDimension();
     }
 
@@ -59,30 +82,21 @@ public class RegionEdge implements IRegionEdge {
      * Method calculates region edge dimension.
      */
     private void calcRegionDimension() {
-        int xMax, xMin;
-        int yMax, yMin;
-        Point tempSetPoint = edgePoints.iterator().next();
-        xMax = xMin = tempSetPoint.getX();
-        yMax = yMin = tempSetPoint.getY();
-        for (Point p : edgePoints) {
-            if (p.getX() > xMax) {
-                xMax = p.getX();
-            }
-            if (p.getX() < xMin) {
-                xMin = p.getX();
-            }
-            if (p.getY() > yMax) {
-                yMax = p.getY();
-            }
-            if (p.getY() < yMin) {
-                yMin = p.getY();
-            }
-        }
-        this.dim = new Dimension(Math.abs(xMax - xMin), Math.abs(yMax - yMin));
-        this.maxX = xMax;
-        this.maxY = yMax;
-        this.minX = xMin;
-        this.minY = yMin;
+        Rectangle bounds = edgeRegion.getBoundingRectangle();
+        this.dim = new Dimension(bounds.width, bounds.height);
+        this.maxX = bounds.x + bounds.width;
+        this.maxY = bounds.y + bounds.height;
+        this.minX = bounds.x;
+        this.minY = bounds.y;
+    }
+
+    /**
+     * Method obtains region of edge points.
+     *
+     * @return region of edge points or null if edge isn't defined with points
+     */
+    public Region getRegion() {
+        return edgeRegion;
     }
 
     @Override
@@ -122,11 +136,11 @@ public class RegionEdge implements IRegionEdge {
         } else if (!dim.equals(other.dim)) {
             return false;
         }
-        if (edgePoints == null) {
-            if (other.edgePoints != null) {
+        if (edgeRegion == null) {
+            if (other.edgeRegion != null) {
                 return false;
             }
-        } else if (!edgePoints.equals(other.edgePoints)) {
+        } else if (other.edgeRegion == null || !edgeRegion.getPoints().equals(other.edgeRegion.getPoints())) {
             return false;
         }
         if (maxX != other.maxX) {
@@ -161,7 +175,7 @@ public class RegionEdge implements IRegionEdge {
 
     @Override
     public Set<Point> getPoints() {
-        return Collections.unmodifiableSet(this.edgePoints);
+        return edgeRegion.getPoints();
     }
 
     @Override
@@ -169,7 +183,7 @@ public class RegionEdge implements IRegionEdge {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((dim == null) ? 0 : dim.hashCode());
-        result = prime * result + ((edgePoints == null) ? 0 : edgePoints.hashCode());
+        result = prime * result + ((edgeRegion == null) ? 0 : edgeRegion.getPoints().hashCode());
         result = prime * result + maxX;
         result = prime * result + maxY;
         result = prime * result + minX;
@@ -177,4 +191,45 @@ public class RegionEdge implements IRegionEdge {
         return result;
     }
 
+    /**
+     * Method writes region edge to the stream. Edge points are written as a set of points.
+     *
+     * @param out
+     *            output stream
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("edgePoints", edgeRegion == null ? null : new HashSet<>(edgeRegion.getPoints()));
+        fields.put("dim", dim);
+        fields.put("minX", minX);
+        fields.put("maxX", maxX);
+        fields.put("minY", minY);
+        fields.put("maxY", maxY);
+        out.writeFields();
+    }
+
+    /**
+     * Method reads region edge from the stream and transforms edge points to region.
+     *
+     * @param in
+     *            input stream
+     * @throws IOException
+     *             if an I/O error occurs
+     * @throws ClassNotFoundException
+     *             if class of a serialized object cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Set<Point> edgePoints = (Set<Point>) fields.get("edgePoints", null);
+        this.edgeRegion = edgePoints == null ? null : new Region(edgePoints);
+        this.dim = (Dimension) fields.get("dim", null);
+        this.minX = fields.get("minX", 0);
+        this.maxX = fields.get("maxX", 0);
+        this.minY = fields.get("minY", 0);
+        this.maxY = fields.get("maxY", 0);
+    }
+
 }
@@ -6,8 +6,6 @@ import hr.fer.zemris.image.binary.IBinaryImage;
 
 import java.awt.Rectangle;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Utility class for working with image regions.
@@ -44,11 +42,7 @@ public class RegionUtility {
      * @return new merged region
      */
     public static Region mergeRegions(Region firstRegion, Region secondRegion) {
-        Set<Point> regionPoints = new HashSet<Point>();
-        regionPoints.addAll(firstRegion.getPoints());
-
-        regionPoints.addAll(secondRegion.getPoints());
-        return new Region(regionPoints);
+        return Region.union(firstRegion, secondRegion);
     }
 
     /**
@@ -88,10 +82,7 @@ public class RegionUtility {
         for (int i = 0; i < regionMatrix.length; i++) {
             Arrays.fill(regionMatrix[i], background);
         }
-        Set<Point> points = region.getPoints();
-        for (Point point : points) {
-            regionMatrix[point.getY() - dim.y][point.getX() - dim.x] = foreground;
-        }
+        region.fill(regionMatrix, foreground);
         return regionMatrix;
     }
 
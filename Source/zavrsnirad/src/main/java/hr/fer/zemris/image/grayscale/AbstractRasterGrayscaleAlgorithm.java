@@ -0,0 +1,177 @@
+package hr.fer.zemris.image.grayscale;
+
+import hr.fer.zemris.image.IIntensityReader;
+import hr.fer.zemris.image.RasterAccessor;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Abstract grayscale algorithm that calculates gray intensity of each pixel only from its color channels. Image is
+ * processed row by row in memory order and pixels are read and written directly through the image raster, so no
+ * objects are created for individual pixels. Concrete algorithms only define intensity function.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 16.6.2017.
+ */
+public abstract class AbstractRasterGrayscaleAlgorithm implements IGrayscaleAlgorithm {
+
+    /**
+     * Mask of one color channel.
+     */
+    private static final int CHANNEL_MASK = 0xFF;
+
+    /**
+     * Red channel offset in RGB integer.
+     */
+    private static final int RED_OFFSET = 16;
+
+    /**
+     * Green channel offset in RGB integer.
+     */
+    private static final int GREEN_OFFSET = 8;
+
+    /**
+     * Opaque alpha channel of a pixel.
+     */
+    private static final int OPAQUE = 0xFF000000;
+
+    /**
+     * Multiplier that copies intensity to all three color channels.
+     */
+    private static final int GRAY_RGB = 0x010101;
+
+    /**
+     * Number of different gray intensities.
+     */
+    private static final int GRAY_LEVELS = 256;
+
+    /**
+     * Method calculates gray intensity of a pixel.
+     *
+     * @param red
+     *            red channel value from 0 to 255
+     * @param green
+     *            green channel value from 0 to 255
+     * @param blue
+     *            blue channel value from 0 to 255
+     * @return gray intensity from 0 to 255
+     */
+    protected abstract int intensity(int red, int green, int blue);
+
+    /**
+     * Method calculates gray intensity of a pixel given as RGB integer.
+     *
+     * @param rgb
+     *            pixel RGB value as obtained from {@link BufferedImage#getRGB(int, int)}
+     * @return gray intensity from 0 to 255
+     */
+    public int intensity(int rgb) {
+        return intensity((rgb >> RED_OFFSET) & CHANNEL_MASK, (rgb >> GREEN_OFFSET) & CHANNEL_MASK, rgb & CHANNEL_MASK);
+    }
+
+    /**
+     * Method calculates gray intensities of all image pixels.
+     *
+     * @param source
+     *            source image
+     * @return pixel intensities from 0 to 255 stored row by row
+     */
+    public byte[] toIntensities(BufferedImage source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        byte[] intensities = new byte[width * height];
+        RasterAccessor sourceAccessor = new RasterAccessor(source);
+        int[] row = new int[width];
+        for (int y = 0, i = 0; y < height; y++) {
+            sourceAccessor.getRGBRow(y, row);
+            for (int x = 0; x < width; x++, i++) {
+                intensities[i] = (byte) intensity(row[x]);
+            }
+        }
+        return intensities;
+    }
+
+    /**
+     * Method creates reader of intensities that binarization algorithms would read from the image returned by
+     * {@link #toGrayscale(BufferedImage)}, but without creating that image. Since grayscale image has the same type as
+     * the source image, every intensity is mapped the same way as it would be when stored to and read from the image of
+     * that type.
+     *
+     * @param source
+     *            source image
+     * @return reader of grayscale intensities of the source image
+     */
+    public IIntensityReader intensityReader(BufferedImage source) {
+        int width = source.getWidth();
+        RasterAccessor sourceAccessor = new RasterAccessor(source);
+        byte[] levels = storedGrayLevels(source.getType());
+        return (fromY, toY, intensities) -> {
+            int[] row = new int[width];
+            for (int y = fromY, i = fromY * width; y < toY; y++) {
+                sourceAccessor.getRGBRow(y, row);
+                for (int x = 0; x < width; x++, i++) {
+                    intensities[i] = levels[intensity(row[x])];
+                }
+            }
+        };
+    }
+
+    /**
+     * Method obtains red channel of every gray level after it is stored to and read from the image of given type.
+     *
+     * @param imageType
+     *            buffered image type
+     * @return red channel of stored gray levels
+     */
+    private static byte[] storedGrayLevels(int imageType) {
+        BufferedImage image = new BufferedImage(GRAY_LEVELS, 1, imageType);
+        RasterAccessor accessor = new RasterAccessor(image);
+        int[] row = new int[GRAY_LEVELS];
+        for (int i = 0; i < GRAY_LEVELS; i++) {
+            row[i] = OPAQUE | i * GRAY_RGB;
+        }
+        accessor.setRGBRow(0, row);
+        accessor.getRGBRow(0, row);
+
+        byte[] levels = new byte[GRAY_LEVELS];
+        for (int i = 0; i < GRAY_LEVELS; i++) {
+            levels[i] = (byte) (row[i] >> RED_OFFSET);
+        }
+        return levels;
+    }
+
+    /**
+     * Method transforms source image to new one byte per pixel grayscale image. Image raster holds calculated
+     * intensities.
+     *
+     * @param source
+     *            buffered image to be transformed
+     * @return grayscale buffered image of type {@link BufferedImage#TYPE_BYTE_GRAY}
+     */
+    public BufferedImage toGrayImage(BufferedImage source) {
+        return RasterAccessor.toGrayImage(toIntensities(source), source.getWidth(), source.getHeight());
+    }
+
+    /**
+     * Method transforms source buffered image to new grayscale buffered image of the same type as the source image.
+     * Every color channel of resulting pixel holds calculated intensity and alpha channel is opaque.
+     */
+    @Override
+    public BufferedImage toGrayscale(BufferedImage original) {
+        int width = original.getWidth();
+        int height = original.getHeight();
+        BufferedImage gray = new BufferedImage(width, height, original.getType());
+        RasterAccessor sourceAccessor = new RasterAccessor(original);
+        RasterAccessor grayAccessor = new RasterAccessor(gray);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            sourceAccessor.getRGBRow(y, row);
+            for (int x = 0; x < width; x++) {
+                row[x] = OPAQUE | intensity(row[x]) * GRAY_RGB;
+            }
+            grayAccessor.setRGBRow(y, row);
+        }
+        return gray;
+    }
+
+}
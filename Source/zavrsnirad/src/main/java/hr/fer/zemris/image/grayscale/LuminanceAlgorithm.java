@@ -1,50 +1,20 @@
 package hr.fer.zemris.image.grayscale;
 
-import hr.fer.zemris.image.ImageUtility;
-
-import java.awt.Color;
-import java.awt.image.BufferedImage;
-
 /**
  * Algorithm uses luminance method for gray intensity.
  *
  * @author Domagoj Pluscec
  * @version v1.0, 9.6.2017.
  */
-public class LuminanceAlgorithm implements IGrayscaleAlgorithm {
+public class LuminanceAlgorithm extends AbstractRasterGrayscaleAlgorithm {
 
     @Override
-    public BufferedImage toGrayscale(BufferedImage original) {
-        int alpha, red, green, blue;
-        int newPixel;
-
-        BufferedImage lum = new BufferedImage(original.getWidth(), original.getHeight(), original.getType());
-
-        for (int i = 0; i < original.getWidth(); i++) {
-            for (int j = 0; j < original.getHeight(); j++) {
-
-                // Get pixels by R, G, B
-                alpha = new Color(original.getRGB(i, j)).getAlpha();
-                red = new Color(original.getRGB(i, j)).getRed();
-                green = new Color(original.getRGB(i, j)).getGreen();
-                blue = new Color(original.getRGB(i, j)).getBlue();
-
-                red = (int) (0.21 * red + 0.71 * green + 0.07 * blue);
-                // Return back to original format
-                newPixel = ImageUtility.colorToRGB(alpha, red, red, red);
-
-                // Write pixels into image
-                lum.setRGB(i, j, newPixel);
-
-            }
-        }
-
-        return lum;
+    protected int intensity(int red, int green, int blue) {
+        return (int) (0.21 * red + 0.71 * green + 0.07 * blue);
     }
 
     @Override
     public String toString() {
         return "Luminance";
     }
-
 }
@@ -1,13 +1,30 @@
 package hr.fer.zemris.neural;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.lang.invoke.SerializedLambda;
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Class models feed forward neural network.
  *
+ * Weights, threshold weights and neuron outputs are stored in contiguous double arrays. Weights of connections between
+ * two layers form one block of the weights array, stored as a matrix with one row for every neuron of the previous
+ * layer. Neuron transition function is the logistic sigmoid. Output of every neuron is kept in a buffer that is
+ * allocated when the layer is added, so calculating network output allocates no memory.
+ *
+ * Network is serialized in the same form as the older list based implementation, so networks saved by older versions
+ * can be read.
+ *
  * @author Domagoj Pluscec
  * @version v1.0, 9.6.2017.
  */
@@ -17,167 +34,389 @@ public class FeedForwardNetwork implements INeuralNetwork {
      * Number that JVM uses for serialization.
      */
     private static final long serialVersionUID = 1L;
+
+    /**
+     * Serialized fields of neural network.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("numberOfNeurons", List.class), new ObjectStreamField("outputError", double[].class),
+        new ObjectStreamField("outputLayerIndex", List.class), new ObjectStreamField("outputs", List.class),
+        new ObjectStreamField("thresholdError", double[].class),
+        new ObjectStreamField("thresholdWeights", List.class),
+        new ObjectStreamField("transitionFunction", ITransitionFunction.class),
+        new ObjectStreamField("weightError", double[].class), new ObjectStreamField("weights", List.class),
+        new ObjectStreamField("weightsLayerIndex", List.class) };
+
+    /**
+     * Number of samples in one block of batch calculation.
+     */
+    private static final int SAMPLE_BLOCK = 32;
+
+    /**
+     * Number of input neurons in one block of batch calculation.
+     */
+    private static final int INPUT_BLOCK = 128;
+
+    /**
+     * Number of samples calculated together inside a block.
+     */
+    private static final int SAMPLE_GROUP = 4;
+
     /**
      * Number of neurons in each layer.
      */
-    private List<Integer> numberOfNeurons = new ArrayList<>();
+    private transient int[] numberOfNeurons = new int[0];
     /**
      * Neurons outputs error.
      */
-    private double[] outputError;
+    private transient double[] outputError;
     /**
      * Start index of a neuron in each layer.
      */
-    private List<Integer> outputLayerIndex = new ArrayList<Integer>();
+    private transient int[] outputLayerIndex = new int[0];
 
     /**
      * Neurons outputs.
      */
-    private List<Double> outputs = new ArrayList<>();
+    private transient double[] outputs = new double[0];
     /**
      * Neurons thresholds error.
      */
-    private double[] thresholdError;
+    private transient double[] thresholdError;
     /**
      * Neurons threshold weights.
      */
-    private List<Double> thresholdWeights = new ArrayList<>();
+    private transient double[] thresholdWeights = new double[0];
 
     /**
-     * Transfer function.
+     * Neurons weights error.
      */
-    private ITransitionFunction<Double, Double> transitionFunction = (x) -> {
-        return 1. / (1 + Math.exp(-x));
+    private transient double[] weightError;
 
-    };
+    /**
+     * Neruons weights.
+     */
+    private transient double[] weights = new double[0];
 
     /**
-     * Neurons weights error.
+     * Index of starting weight of connections from every layer to the next layer.
      */
-    private double[] weightError;
+    private transient int[] weightsLayerIndex = new int[0];
 
     /**
-     * Neruons weights.
+     * {@inheritDoc} Copy has the same layers, weights and threshold weights, neuron outputs and errors aren't copied.
      */
-    private List<Double> weights = new ArrayList<>();
+    @Override
+    public FeedForwardNetwork copy() {
+        FeedForwardNetwork copy = new FeedForwardNetwork();
+        for (int layerNeurons : numberOfNeurons) {
+            copy.addLayer(layerNeurons);
+        }
+        System.arraycopy(weights, 0, copy.weights, 0, weights.length);
+        System.arraycopy(thresholdWeights, 0, copy.thresholdWeights, 0, thresholdWeights.length);
+        return copy;
+    }
 
     /**
-     * Index of starting weight for every layer.
+     * Method obtains number of neurons in every layer.
+     *
+     * @return array with number of neurons of every layer
      */
-    private List<Integer> weightsLayerIndex = new ArrayList<>();
+    int[] getLayerSizes() {
+        return numberOfNeurons.clone();
+    }
+
+    @Override
+    public void readParameters(DoubleBuffer weightsBuffer, DoubleBuffer thresholdsBuffer) {
+        weightsBuffer.get(weights);
+        thresholdsBuffer.get(thresholdWeights);
+    }
+
+    @Override
+    public void writeParameters(DoubleBuffer weightsBuffer, DoubleBuffer thresholdsBuffer) {
+        weightsBuffer.put(weights);
+        thresholdsBuffer.put(thresholdWeights);
+    }
 
     @Override
     public void addLayer(int numberOfNeurons) {
-        this.numberOfNeurons.add(numberOfNeurons);
-        int numOfWeightsPerNeuron = this.numberOfNeurons.size() == 1 ? 0 : this.numberOfNeurons
-                .get(this.numberOfNeurons.size() - 2);
-        outputLayerIndex.add(outputs.size());
-
-        for (int i = 0; i < numberOfNeurons; i++) {
-            outputs.add(0.);
-            for (int j = 0; j < numOfWeightsPerNeuron; j++) {
-                weights.add(0.);
-            }
+        int layersNum = this.numberOfNeurons.length;
+        int numOfWeightsPerNeuron = layersNum == 0 ? 0 : this.numberOfNeurons[layersNum - 1];
+
+        this.numberOfNeurons = Arrays.copyOf(this.numberOfNeurons, layersNum + 1);
+        this.numberOfNeurons[layersNum] = numberOfNeurons;
+        outputLayerIndex = Arrays.copyOf(outputLayerIndex, layersNum + 1);
+        outputLayerIndex[layersNum] = outputs.length;
+
+        outputs = Arrays.copyOf(outputs, outputs.length + numberOfNeurons);
+        weights = Arrays.copyOf(weights, weights.length + numberOfNeurons * numOfWeightsPerNeuron);
+        if (layersNum > 0) {
+            thresholdWeights = Arrays.copyOf(thresholdWeights, thresholdWeights.length + numberOfNeurons);
         }
-        if (this.numberOfNeurons.size() > 1) {
-            for (int i = 0; i < numberOfNeurons; i++) {
-                thresholdWeights.add(0.);
+        weightsLayerIndex = Arrays.copyOf(weightsLayerIndex, layersNum + 1);
+        weightsLayerIndex[layersNum] = weights.length;
+    }
+
+    /**
+     * {@inheritDoc} Neuron outputs and errors are calculated in given buffers, so network state isn't changed and
+     * method can be called from multiple threads while network weights aren't changed.
+     *
+     * @throws IllegalArgumentException
+     *             if input size doesn't match number of input neurons
+     */
+    @Override
+    public void addError(double[] input, double[] expectedOutput, double[] neuronOutputs, double[] neuronErrors,
+            double[] weightsError, double[] thresholdError) throws IllegalArgumentException {
+        forward(input, neuronOutputs);
+        backward(expectedOutput, neuronOutputs, neuronErrors);
+        for (int layer = 1, layersNum = numberOfNeurons.length; layer < layersNum; layer++) {
+            int currNeurons = numberOfNeurons[layer];
+            int currOutputStart = outputLayerIndex[layer];
+            int prevOutputStart = outputLayerIndex[layer - 1];
+            for (int prevNeuron = 0, prevNeurons = numberOfNeurons[layer - 1]; prevNeuron < prevNeurons; prevNeuron++) {
+                double prevOutput = neuronOutputs[prevOutputStart + prevNeuron];
+                int weightInd = weightsLayerIndex[layer - 1] + currNeurons * prevNeuron;
+                for (int currNeuron = 0; currNeuron < currNeurons; currNeuron++) {
+                    weightsError[weightInd + currNeuron] += prevOutput * neuronErrors[currOutputStart + currNeuron];
+                }
             }
         }
-        weightsLayerIndex.add(weights.size());
-
+        for (int i = 0, inputNeurons = numberOfNeurons[0]; i < thresholdWeights.length; i++) {
+            thresholdError[i] += neuronErrors[inputNeurons + i];
+        }
     }
 
+    /**
+     * {@inheritDoc} Error arrays are reused, so arrays obtained by {@link #getWeightsError()},
+     * {@link #getThresholdError()} and {@link #getOutputsError()} are overwritten by the next call.
+     */
     @Override
     public void calcError(double[] expectedOutput) {
-        weightError = new double[weights.size()];
-        thresholdError = new double[thresholdWeights.size()];
-
-        calcOutputError(expectedOutput);
-        int layersNum = numberOfNeurons.size();
+        // every element of error arrays is overwritten, so arrays are allocated only when network size changes
+        if (weightError == null || weightError.length != weights.length) {
+            weightError = new double[weights.length];
+        }
+        if (thresholdError == null || thresholdError.length != thresholdWeights.length) {
+            thresholdError = new double[thresholdWeights.length];
+        }
+        if (outputError == null || outputError.length != outputs.length) {
+            outputError = new double[outputs.length];
+        }
+        backward(expectedOutput, outputs, outputError);
+        int layersNum = numberOfNeurons.length;
 
         for (int layer = 1; layer < layersNum; layer++) {
-            for (int currNeuron = 0, endCurrNeuron = numberOfNeurons.get(layer); currNeuron < endCurrNeuron; currNeuron++) {
-                for (int prevNeuron = 0, endPrevNeuron = numberOfNeurons.get(layer - 1); prevNeuron < endPrevNeuron; prevNeuron++) {
-                    int weightInd = weightsLayerIndex.get(layer - 1) + numberOfNeurons.get(layer) * prevNeuron
-                            + currNeuron;
-
-                    weightError[weightInd] = getNeuronOutput(layer - 1, prevNeuron)
-                            * (outputError[outputLayerIndex.get(layer) + currNeuron]);
+            int currNeurons = numberOfNeurons[layer];
+            int currOutputStart = outputLayerIndex[layer];
+            int prevOutputStart = outputLayerIndex[layer - 1];
+            for (int prevNeuron = 0, prevNeurons = numberOfNeurons[layer - 1]; prevNeuron < prevNeurons; prevNeuron++) {
+                double prevOutput = outputs[prevOutputStart + prevNeuron];
+                int weightInd = weightsLayerIndex[layer - 1] + currNeurons * prevNeuron;
+                for (int currNeuron = 0; currNeuron < currNeurons; currNeuron++) {
+                    weightError[weightInd + currNeuron] = prevOutput * outputError[currOutputStart + currNeuron];
                 }
             }
         }
-        for (int i = 0, end = outputError.length - numberOfNeurons.get(0); i < end; i++) {
-            thresholdError[i] = outputError[numberOfNeurons.get(0) + i];
-        }
-
+        System.arraycopy(outputError, numberOfNeurons[0], thresholdError, 0, thresholdError.length);
     }
 
     @Override
     public void calcOutput(double[] input) {
-        if (input.length != numberOfNeurons.get(0)) {
+        forward(input, outputs);
+    }
+
+    /**
+     * Method calculates outputs of all neurons for given input.
+     *
+     * @param input
+     *            neural network input
+     * @param neuronOutputs
+     *            buffer for outputs of all neurons
+     * @throws IllegalArgumentException
+     *             if input size doesn't match number of input neurons
+     */
+    private void forward(double[] input, double[] neuronOutputs) throws IllegalArgumentException {
+        if (input.length != numberOfNeurons[0]) {
             throw new IllegalArgumentException("Illegal input size");
         }
-        for (int i = 0; i < numberOfNeurons.get(0); i++) {
-            outputs.set(i, input[i]);
-        }
-        int neuronsNum = 0;
-        int weightsNum = 0;
-        for (int i = 1, layersNum = numberOfNeurons.size(); i < layersNum; i++) {
-            int outputNum = neuronsNum + numberOfNeurons.get(i - 1);
-            for (int j = 0, thisLayerNeurons = numberOfNeurons.get(i); j < thisLayerNeurons; j++) {
-                int x = j;
-                double sum = 0;
-                for (int k = 0, inputNeurons = numberOfNeurons.get(i - 1); k < inputNeurons; k++) {
-                    sum += weights.get(weightsNum + x) * outputs.get(neuronsNum + k);
-                    x += numberOfNeurons.get(i);
+        System.arraycopy(input, 0, neuronOutputs, 0, input.length);
+        for (int layer = 1, layersNum = numberOfNeurons.length; layer < layersNum; layer++) {
+            int inputNeurons = numberOfNeurons[layer - 1];
+            int layerNeurons = numberOfNeurons[layer];
+            int inputStart = outputLayerIndex[layer - 1];
+            int outputStart = outputLayerIndex[layer];
+            int weightsStart = weightsLayerIndex[layer - 1];
+
+            // weights of one input neuron are contiguous, so sums of all layer neurons are accumulated together
+            Arrays.fill(neuronOutputs, outputStart, outputStart + layerNeurons, 0);
+            for (int k = 0; k < inputNeurons; k++) {
+                double neuronOutput = neuronOutputs[inputStart + k];
+                int weightInd = weightsStart + k * layerNeurons;
+                for (int j = 0; j < layerNeurons; j++) {
+                    neuronOutputs[outputStart + j] += weights[weightInd + j] * neuronOutput;
                 }
-                sum += thresholdWeights.get(outputNum + j - numberOfNeurons.get(0));
-                outputs.set(outputNum + j, transitionFunction.apply(sum));
             }
-            neuronsNum += numberOfNeurons.get(i - 1);
-            weightsNum = weightsLayerIndex.get(i); // +=numberOfNeurons.get(i - 1) + numberOfNeurons.get(i) + 1;
+            int thresholdStart = outputStart - numberOfNeurons[0];
+            for (int j = 0; j < layerNeurons; j++) {
+                neuronOutputs[outputStart + j] = transition(neuronOutputs[outputStart + j]
+                        + thresholdWeights[thresholdStart + j]);
+            }
         }
-
     }
 
     /**
-     * Method calculates output error of a neural network.
+     * Method calculates error of every neuron from neuron outputs and expected network output.
      *
      * @param expectedOutput
      *            expected network output
+     * @param neuronOutputs
+     *            outputs of all neurons
+     * @param neuronErrors
+     *            buffer for errors of all neurons, errors of input neurons aren't changed
      */
-    private void calcOutputError(double[] expectedOutput) {
-
-        int neuronsNum = outputs.size();
-        int layersNum = numberOfNeurons.size();
+    private void backward(double[] expectedOutput, double[] neuronOutputs, double[] neuronErrors) {
+        int layersNum = numberOfNeurons.length;
 
         // calc output error delta of output neuron layer
-        outputError = new double[outputs.size()];
-        double[] networkOutput = getNetworkOutput();
+        int outputStart = outputLayerIndex[layersNum - 1];
+        for (int neuron = 0, end = numberOfNeurons[layersNum - 1]; neuron < end; neuron++) {
+            double output = neuronOutputs[outputStart + neuron];
+            neuronErrors[outputStart + neuron] = output * (1 - output) * (expectedOutput[neuron] - output);
+        }
 
-        for (int currLayer = 0, currLayerEnd = numberOfNeurons.get(layersNum - 1); currLayer < currLayerEnd; currLayer++) {
-            int outputInd = outputLayerIndex.get(layersNum - 1) + currLayer;
-            outputError[outputInd] = networkOutput[currLayer] * (1 - networkOutput[currLayer])
-                    * (expectedOutput[currLayer] - networkOutput[currLayer]);
+        for (int layer = layersNum - 2; layer > 0; layer--) {
+            int nextNeurons = numberOfNeurons[layer + 1];
+            int nextOutputStart = outputLayerIndex[layer + 1];
+            for (int neuronInd = 0, endInd = numberOfNeurons[layer]; neuronInd < endInd; neuronInd++) {
+                double nextLayerError = 0;
+                int weightInd = weightsLayerIndex[layer] + nextNeurons * neuronInd;
+                for (int nextNeuronInd = 0; nextNeuronInd < nextNeurons; nextNeuronInd++) {
+                    nextLayerError += weights[weightInd + nextNeuronInd]
+                            * neuronErrors[nextOutputStart + nextNeuronInd];
+                }
+                int outputInd = outputLayerIndex[layer] + neuronInd;
+                neuronErrors[outputInd] = neuronOutputs[outputInd] * (1 - neuronOutputs[outputInd]) * nextLayerError;
+            }
+        }
+    }
 
+    /**
+     * {@inheritDoc} Inputs of all layers are stored as row major matrices and every layer is calculated as a blocked
+     * product of input matrix and layer weights matrix. Weights of each neuron are accumulated in the same order as in
+     * {@link #calcOutput(double[])}, so both methods give equal outputs.
+     *
+     * @throws IllegalArgumentException
+     *             if an input row doesn't have one value for every input neuron
+     */
+    @Override
+    public double[][] calcOutputs(double[][] inputs) throws IllegalArgumentException {
+        int samples = inputs.length;
+        int inputSize = numberOfNeurons[0];
+        double[] layerInputs = new double[samples * inputSize];
+        for (int i = 0; i < samples; i++) {
+            if (inputs[i].length != inputSize) {
+                throw new IllegalArgumentException("Illegal input size");
+            }
+            System.arraycopy(inputs[i], 0, layerInputs, i * inputSize, inputSize);
         }
 
-        for (int layer = numberOfNeurons.size() - 2; layer > 0; layer--) {
-            for (int neuronInd = 0, endInd = numberOfNeurons.get(layer); neuronInd < endInd; neuronInd++) {
+        for (int layer = 1, layersNum = numberOfNeurons.length; layer < layersNum; layer++) {
+            int inputNeurons = numberOfNeurons[layer - 1];
+            int layerNeurons = numberOfNeurons[layer];
+            double[] layerOutputs = new double[samples * layerNeurons];
+            multiplyWeights(layerInputs, samples, inputNeurons, weightsLayerIndex[layer - 1], layerNeurons,
+                    layerOutputs);
+            int thresholdStart = outputLayerIndex[layer] - inputSize;
+            for (int i = 0, index = 0; i < samples; i++) {
+                for (int j = 0; j < layerNeurons; j++, index++) {
+                    layerOutputs[index] = transition(layerOutputs[index] + thresholdWeights[thresholdStart + j]);
+                }
+            }
+            layerInputs = layerOutputs;
+        }
 
-                double nextLayerError = 0;
-                for (int nextNeuronInd = 0, nextNeuronEnd = numberOfNeurons.get(layer + 1); nextNeuronInd < nextNeuronEnd; nextNeuronInd++) {
-                    nextLayerError += getConnectionWeight(layer, neuronInd, nextNeuronInd)
-                            * outputError[outputLayerIndex.get(layer + 1) + nextNeuronInd];
+        int outputSize = numberOfNeurons[numberOfNeurons.length - 1];
+        double[][] outputs = new double[samples][];
+        for (int i = 0; i < samples; i++) {
+            outputs[i] = Arrays.copyOfRange(layerInputs, i * outputSize, (i + 1) * outputSize);
+        }
+        return outputs;
+    }
 
+    /**
+     * Method multiplies matrix of layer inputs with matrix of layer weights and adds products to output matrix.
+     * Multiplication is done in blocks of samples and input neurons, so weight rows of one block stay in the cache
+     * while they are used for all samples of the block. Inside a block four samples are calculated together, so every
+     * loaded weight is used four times.
+     *
+     * @param inputs
+     *            row major matrix with inputs of every sample
+     * @param samples
+     *            number of samples
+     * @param inputNeurons
+     *            number of input neurons
+     * @param weightsStart
+     *            index of the first layer weight
+     * @param layerNeurons
+     *            number of layer neurons
+     * @param outputs
+     *            row major matrix with sums of every sample
+     */
+    private void multiplyWeights(double[] inputs, int samples, int inputNeurons, int weightsStart, int layerNeurons,
+            double[] outputs) {
+        for (int sampleBlock = 0; sampleBlock < samples; sampleBlock += SAMPLE_BLOCK) {
+            int sampleEnd = Math.min(samples, sampleBlock + SAMPLE_BLOCK);
+            for (int inputBlock = 0; inputBlock < inputNeurons; inputBlock += INPUT_BLOCK) {
+                int inputEnd = Math.min(inputNeurons, inputBlock + INPUT_BLOCK);
+                int i = sampleBlock;
+                for (; i + SAMPLE_GROUP <= sampleEnd; i += SAMPLE_GROUP) {
+                    int in0 = i * inputNeurons;
+                    int in1 = in0 + inputNeurons;
+                    int in2 = in1 + inputNeurons;
+                    int in3 = in2 + inputNeurons;
+                    int out0 = i * layerNeurons;
+                    int out1 = out0 + layerNeurons;
+                    int out2 = out1 + layerNeurons;
+                    int out3 = out2 + layerNeurons;
+                    for (int k = inputBlock; k < inputEnd; k++) {
+                        double a0 = inputs[in0 + k];
+                        double a1 = inputs[in1 + k];
+                        double a2 = inputs[in2 + k];
+                        double a3 = inputs[in3 + k];
+                        int weightInd = weightsStart + k * layerNeurons;
+                        for (int j = 0; j < layerNeurons; j++) {
+                            double weight = weights[weightInd + j];
+                            outputs[out0 + j] += weight * a0;
+                            outputs[out1 + j] += weight * a1;
+                            outputs[out2 + j] += weight * a2;
+                            outputs[out3 + j] += weight * a3;
+                        }
+                    }
+                }
+                for (; i < sampleEnd; i++) {
+                    int inputRow = i * inputNeurons;
+                    int outputRow = i * layerNeurons;
+                    for (int k = inputBlock; k < inputEnd; k++) {
+                        double neuronOutput = inputs[inputRow + k];
+                        int weightInd = weightsStart + k * layerNeurons;
+                        for (int j = 0; j < layerNeurons; j++) {
+                            outputs[outputRow + j] += weights[weightInd + j] * neuronOutput;
+                        }
+                    }
                 }
-                int outputInd = outputLayerIndex.get(layer) + neuronInd;
-                outputError[outputInd] = getNeuronOutput(layer, neuronInd) * (1 - getNeuronOutput(layer, neuronInd))
-                        * nextLayerError;
             }
         }
+    }
 
+    /**
+     * Method calculates neuron transition function, logistic sigmoid.
+     *
+     * @param x
+     *            neuron input sum
+     * @return neuron output
+     */
+    private static double transition(double x) {
+        return 1. / (1 + Math.exp(-x));
     }
 
     /**
@@ -192,23 +431,27 @@ public class FeedForwardNetwork implements INeuralNetwork {
      * @return value of connection weight
      */
     public double getConnectionWeight(int outputLayer, int outputNeuron, int inputNeuron) {
-        return weights.get(weightsLayerIndex.get(outputLayer) + numberOfNeurons.get(outputLayer + 1) * outputNeuron
-                + inputNeuron);
+        return weights[weightsLayerIndex[outputLayer] + numberOfNeurons[outputLayer + 1] * outputNeuron + inputNeuron];
+    }
+
+    @Override
+    public int getInputSize() {
+        return numberOfNeurons[0];
+    }
+
+    @Override
+    public int getNeuronsNumber() {
+        return outputs.length;
     }
 
     @Override
     public double getLayerNeruonsNumber(int layerIndex) {
-        return numberOfNeurons.get(layerIndex);
+        return numberOfNeurons[layerIndex];
     }
 
     @Override
     public double[] getNetworkOutput() {
-        double[] output = new double[numberOfNeurons.get(numberOfNeurons.size() - 1)];
-        for (int i = outputs.size() - output.length, end = outputs.size(), j = 0; i < end; i++, j++) {
-
-            output[j] = outputs.get(i);
-        }
-        return output;
+        return Arrays.copyOfRange(outputs, outputLayerIndex[numberOfNeurons.length - 1], outputs.length);
     }
 
     /**
@@ -221,7 +464,7 @@ public class FeedForwardNetwork implements INeuralNetwork {
      * @return value of neuron output
      */
     public double getNeuronOutput(int layer, int neuron) {
-        return outputs.get(outputLayerIndex.get(layer) + neuron);
+        return outputs[outputLayerIndex[layer] + neuron];
     }
 
     /**
@@ -238,14 +481,20 @@ public class FeedForwardNetwork implements INeuralNetwork {
         return thresholdError;
     }
 
+    /**
+     * {@inheritDoc} Returned list is a view of network threshold weights, changes of list elements change the network.
+     */
     @Override
     public List<Double> getThresholdWeights() {
-        return thresholdWeights;
+        return new WeightsView(true);
     }
 
+    /**
+     * {@inheritDoc} Returned list is a view of network weights, changes of list elements change the network.
+     */
     @Override
     public List<Double> getWeights() {
-        return weights;
+        return new WeightsView(false);
     }
 
     @Override
@@ -256,12 +505,12 @@ public class FeedForwardNetwork implements INeuralNetwork {
     @Override
     public void setRandomWeights() {
         Random random = ThreadLocalRandom.current();
-        final double factor = 2.4 / (numberOfNeurons.get(0) + 1);
-        for (int i = 0, end = weights.size(); i < end; i++) {
-            weights.set(i, (random.nextDouble() * 2 - 1) * factor);
+        final double factor = 2.4 / (numberOfNeurons[0] + 1);
+        for (int i = 0, end = weights.length; i < end; i++) {
+            weights[i] = (random.nextDouble() * 2 - 1) * factor;
         }
-        for (int i = 0, end = thresholdWeights.size(); i < end; i++) {
-            thresholdWeights.set(i, (random.nextDouble() * 2 - 1) * factor);
+        for (int i = 0, end = thresholdWeights.length; i < end; i++) {
+            thresholdWeights[i] = (random.nextDouble() * 2 - 1) * factor;
         }
     }
 
@@ -274,12 +523,18 @@ public class FeedForwardNetwork implements INeuralNetwork {
      *            new weight value
      */
     public void setThresholdWeight(int neuronIndex, double weight) {
-        thresholdWeights.set(neuronIndex - numberOfNeurons.get(0), weight);
+        thresholdWeights[neuronIndex - numberOfNeurons[0]] = weight;
     }
 
+    /**
+     * {@inheritDoc} Values are copied into the network.
+     *
+     * @throws IllegalArgumentException
+     *             if number of values doesn't match number of threshold weights
+     */
     @Override
-    public void setThresholdWeights(List<Double> thresholdWeights) {
-        this.thresholdWeights = thresholdWeights;
+    public void setThresholdWeights(List<Double> thresholdWeights) throws IllegalArgumentException {
+        copyValues(thresholdWeights, this.thresholdWeights);
     }
 
     /**
@@ -291,12 +546,226 @@ public class FeedForwardNetwork implements INeuralNetwork {
      *            new weight value
      */
     public void setWeight(int weightIndex, double weight) {
-        weights.set(weightIndex, weight);
+        weights[weightIndex] = weight;
     }
 
+    /**
+     * {@inheritDoc} Values are copied into the network.
+     *
+     * @throws IllegalArgumentException
+     *             if number of values doesn't match number of weights
+     */
     @Override
-    public void setWeights(List<Double> weights) {
-        this.weights = weights;
+    public void setWeights(List<Double> weights) throws IllegalArgumentException {
+        copyValues(weights, this.weights);
+    }
+
+    /**
+     * Method copies list values to network array.
+     *
+     * @param values
+     *            list of values
+     * @param destination
+     *            network array
+     * @throws IllegalArgumentException
+     *             if list and array sizes differ
+     */
+    private void copyValues(List<Double> values, double[] destination) throws IllegalArgumentException {
+        if (values instanceof WeightsView && ((WeightsView) values).getNetwork() == this) {
+            return;
+        }
+        if (values.size() != destination.length) {
+            throw new IllegalArgumentException("Expected " + destination.length + " values, got " + values.size()
+                    + ".");
+        }
+        if (values instanceof WeightsView) {
+            System.arraycopy(((WeightsView) values).values(), 0, destination, 0, destination.length);
+            return;
+        }
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = values.get(i);
+        }
+    }
+
+    /**
+     * Method writes network to the stream in the form of older list based implementation.
+     *
+     * @param out
+     *            output stream
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("numberOfNeurons", toList(numberOfNeurons));
+        fields.put("outputError", outputError);
+        fields.put("outputLayerIndex", toList(outputLayerIndex));
+        fields.put("outputs", toList(outputs));
+        fields.put("thresholdError", thresholdError);
+        fields.put("thresholdWeights", toList(thresholdWeights));
+        fields.put("transitionFunction", null);
+        fields.put("weightError", weightError);
+        fields.put("weights", toList(weights));
+        fields.put("weightsLayerIndex", toList(weightsLayerIndex));
+        out.writeFields();
+    }
+
+    /**
+     * Method reads network from the stream. Stored transition function is ignored.
+     *
+     * @param in
+     *            input stream
+     * @throws IOException
+     *             if an I/O error occurs
+     * @throws ClassNotFoundException
+     *             if class of a serialized object cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        numberOfNeurons = toIntArray((List<Integer>) fields.get("numberOfNeurons", null));
+        outputLayerIndex = toIntArray((List<Integer>) fields.get("outputLayerIndex", null));
+        weightsLayerIndex = toIntArray((List<Integer>) fields.get("weightsLayerIndex", null));
+        outputs = toDoubleArray((List<Double>) fields.get("outputs", null));
+        weights = toDoubleArray((List<Double>) fields.get("weights", null));
+        thresholdWeights = toDoubleArray((List<Double>) fields.get("thresholdWeights", null));
+        outputError = (double[]) fields.get("outputError", null);
+        thresholdError = (double[]) fields.get("thresholdError", null);
+        weightError = (double[]) fields.get("weightError", null);
+    }
+
+    /**
+     * Method resolves transition function lambda stored by older versions of the network. Older versions stored the
+     * sigmoid transition function as a serializable lambda. Transition function is now fixed, so the stored lambda is
+     * resolved to null and ignored.
+     *
+     * @param lambda
+     *            serialized lambda
+     * @return null
+     */
+    @SuppressWarnings("unused")
+    private static Object $deserializeLambda$(SerializedLambda lambda) {
+        return null;
+    }
+
+    /**
+     * Method transforms integer array to list.
+     *
+     * @param array
+     *            integer array
+     * @return list of array values
+     */
+    private static List<Integer> toList(int[] array) {
+        List<Integer> list = new ArrayList<>(array.length);
+        for (int value : array) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * Method transforms double array to list.
+     *
+     * @param array
+     *            double array
+     * @return list of array values
+     */
+    private static List<Double> toList(double[] array) {
+        List<Double> list = new ArrayList<>(array.length);
+        for (double value : array) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * Method transforms list of integers to array.
+     *
+     * @param list
+     *            list of integers
+     * @return integer array
+     */
+    private static int[] toIntArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Method transforms list of doubles to array.
+     *
+     * @param list
+     *            list of doubles
+     * @return double array
+     */
+    private static double[] toDoubleArray(List<Double> list) {
+        double[] array = new double[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * List view of network weights or threshold weights.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 23.6.2017.
+     */
+    private class WeightsView extends AbstractList<Double> implements RandomAccess {
+
+        /**
+         * True if view shows threshold weights, false if it shows connection weights.
+         */
+        private final boolean thresholds;
+
+        /**
+         * Constructor that initializes view.
+         *
+         * @param thresholds
+         *            true for view of threshold weights, false for view of connection weights
+         */
+        WeightsView(boolean thresholds) {
+            this.thresholds = thresholds;
+        }
+
+        /**
+         * Method obtains network which weights are shown.
+         *
+         * @return network
+         */
+        FeedForwardNetwork getNetwork() {
+            return FeedForwardNetwork.this;
+        }
+
+        /**
+         * Method obtains array of shown values.
+         *
+         * @return weights array
+         */
+        private double[] values() {
+            return thresholds ? thresholdWeights : weights;
+        }
+
+        @Override
+        public Double get(int index) {
+            return values()[index];
+        }
+
+        @Override
+        public Double set(int index, Double element) {
+            double[] values = values();
+            double previous = values[index];
+            values[index] = element;
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return values().length;
+        }
     }
 
 }
@@ -0,0 +1,174 @@
+package hr.fer.zemris.neural;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Class implements inference engine that calculates outputs of a feed forward network with 32 bit floating point
+ * weights and neuron outputs. Weights are stored in the same layout as in {@link FeedForwardNetwork}, so weights of
+ * the whole network take half of the memory of the double network.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 28.6.2017.
+ */
+public class FloatNetwork implements IInferenceEngine {
+
+    /**
+     * Number of samples calculated together.
+     */
+    private static final int SAMPLE_GROUP = 4;
+
+    /**
+     * Number of neurons in every layer.
+     */
+    private final int[] layers;
+
+    /**
+     * Index of starting weight of connections from every layer to the next layer.
+     */
+    private final int[] weightsLayerIndex;
+
+    /**
+     * Network weights.
+     */
+    private final float[] weights;
+
+    /**
+     * Threshold weights of all neurons except input neurons.
+     */
+    private final float[] thresholdWeights;
+
+    /**
+     * Constructor that initializes engine with rounded weights of given network.
+     *
+     * @param network
+     *            feed forward network
+     */
+    public FloatNetwork(FeedForwardNetwork network) {
+        layers = network.getLayerSizes();
+        double[] networkWeights = new double[network.getWeights().size()];
+        double[] networkThresholds = new double[network.getThresholdWeights().size()];
+        network.writeParameters(DoubleBuffer.wrap(networkWeights), DoubleBuffer.wrap(networkThresholds));
+
+        weights = new float[networkWeights.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (float) networkWeights[i];
+        }
+        thresholdWeights = new float[networkThresholds.length];
+        for (int i = 0; i < thresholdWeights.length; i++) {
+            thresholdWeights[i] = (float) networkThresholds[i];
+        }
+        weightsLayerIndex = new int[layers.length];
+        for (int layer = 1; layer < layers.length; layer++) {
+            weightsLayerIndex[layer] = weightsLayerIndex[layer - 1] + layers[layer - 1] * layers[layer];
+        }
+    }
+
+    /**
+     * {@inheritDoc} Layers are calculated in the same way as in {@link FeedForwardNetwork#calcOutputs(double[][])},
+     * inputs of a layer are stored as a row major matrix and multiplied with weights in groups of samples.
+     *
+     * @throws IllegalArgumentException
+     *             if an input row doesn't have one value for every input neuron
+     */
+    @Override
+    public double[][] calcOutputs(double[][] inputs) throws IllegalArgumentException {
+        int samples = inputs.length;
+        int inputSize = layers[0];
+        float[] layerInputs = new float[samples * inputSize];
+        for (int i = 0, index = 0; i < samples; i++) {
+            if (inputs[i].length != inputSize) {
+                throw new IllegalArgumentException("Illegal input size");
+            }
+            for (int k = 0; k < inputSize; k++, index++) {
+                layerInputs[index] = (float) inputs[i][k];
+            }
+        }
+
+        int thresholdStart = 0;
+        for (int layer = 1; layer < layers.length; layer++) {
+            int layerNeurons = layers[layer];
+            float[] layerOutputs = new float[samples * layerNeurons];
+            multiplyWeights(layerInputs, samples, layers[layer - 1], weightsLayerIndex[layer - 1], layerNeurons,
+                    layerOutputs);
+            for (int i = 0, index = 0; i < samples; i++) {
+                for (int j = 0; j < layerNeurons; j++, index++) {
+                    layerOutputs[index] = 1f / (1f + (float) Math.exp(-(layerOutputs[index]
+                            + thresholdWeights[thresholdStart + j])));
+                }
+            }
+            thresholdStart += layerNeurons;
+            layerInputs = layerOutputs;
+        }
+
+        int outputSize = layers[layers.length - 1];
+        double[][] outputs = new double[samples][outputSize];
+        for (int i = 0, index = 0; i < samples; i++) {
+            for (int j = 0; j < outputSize; j++, index++) {
+                outputs[i][j] = layerInputs[index];
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * Method multiplies matrix of layer inputs with matrix of layer weights and adds products to output matrix. Four
+     * samples are calculated together, so every loaded weight is used four times.
+     *
+     * @param inputs
+     *            row major matrix with inputs of every sample
+     * @param samples
+     *            number of samples
+     * @param inputNeurons
+     *            number of input neurons
+     * @param weightsStart
+     *            index of the first layer weight
+     * @param layerNeurons
+     *            number of layer neurons
+     * @param outputs
+     *            row major matrix with sums of every sample
+     */
+    private void multiplyWeights(float[] inputs, int samples, int inputNeurons, int weightsStart, int layerNeurons,
+            float[] outputs) {
+        int i = 0;
+        for (; i + SAMPLE_GROUP <= samples; i += SAMPLE_GROUP) {
+            int in0 = i * inputNeurons;
+            int in1 = in0 + inputNeurons;
+            int in2 = in1 + inputNeurons;
+            int in3 = in2 + inputNeurons;
+            int out0 = i * layerNeurons;
+            int out1 = out0 + layerNeurons;
+            int out2 = out1 + layerNeurons;
+            int out3 = out2 + layerNeurons;
+            for (int k = 0; k < inputNeurons; k++) {
+                float a0 = inputs[in0 + k];
+                float a1 = inputs[in1 + k];
+                float a2 = inputs[in2 + k];
+                float a3 = inputs[in3 + k];
+                int weightInd = weightsStart + k * layerNeurons;
+                for (int j = 0; j < layerNeurons; j++) {
+                    float weight = weights[weightInd + j];
+                    outputs[out0 + j] += weight * a0;
+                    outputs[out1 + j] += weight * a1;
+                    outputs[out2 + j] += weight * a2;
+                    outputs[out3 + j] += weight * a3;
+                }
+            }
+        }
+        for (; i < samples; i++) {
+            int inputRow = i * inputNeurons;
+            int outputRow = i * layerNeurons;
+            for (int k = 0; k < inputNeurons; k++) {
+                float neuronOutput = inputs[inputRow + k];
+                int weightInd = weightsStart + k * layerNeurons;
+                for (int j = 0; j < layerNeurons; j++) {
+                    outputs[outputRow + j] += weights[weightInd + j] * neuronOutput;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getInputSize() {
+        return layers[0];
+    }
+}
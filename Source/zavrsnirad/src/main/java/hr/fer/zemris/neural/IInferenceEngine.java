@@ -0,0 +1,27 @@
+package hr.fer.zemris.neural;
+
+/**
+ * Interface defines engine that calculates outputs of a trained neural network.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 28.6.2017.
+ */
+public interface IInferenceEngine {
+
+    /**
+     * Method calculates outputs of a neural network for multiple inputs at once. Method doesn't change engine state,
+     * so it can be called from multiple threads.
+     *
+     * @param inputs
+     *            matrix with one neural network input in every row
+     * @return matrix with neural network output for every input row
+     */
+    double[][] calcOutputs(double[][] inputs);
+
+    /**
+     * Method obtains number of network inputs.
+     *
+     * @return number of input neurons
+     */
+    int getInputSize();
+}
@@ -1,6 +1,7 @@
 package hr.fer.zemris.neural;
 
 import java.io.Serializable;
+import java.nio.DoubleBuffer;
 import java.util.List;
 
 /**
@@ -9,7 +10,7 @@ import java.util.List;
  * @author Domagoj Pluscec
  * @version v1.0, 27.5.2017.
  */
-public interface INeuralNetwork extends Serializable {
+public interface INeuralNetwork extends IInferenceEngine, Serializable {
 
     /**
      * Method adds layer to neural network.
@@ -19,6 +20,34 @@ public interface INeuralNetwork extends Serializable {
      */
     void addLayer(int numberOfNeurons);
 
+    /**
+     * Method calculates neural network error for one example and adds it to given error arrays. Weight and threshold
+     * errors are added in the same form as the errors obtained with {@link #getWeightsError()} and
+     * {@link #getThresholdError()}.
+     *
+     * @param input
+     *            neural network input
+     * @param expectedOutput
+     *            expected neural network output
+     * @param neuronOutputs
+     *            buffer for outputs of all neurons, with {@link #getNeuronsNumber()} elements
+     * @param neuronErrors
+     *            buffer for errors of all neurons, with {@link #getNeuronsNumber()} elements
+     * @param weightsError
+     *            array to which weight errors are added
+     * @param thresholdError
+     *            array to which threshold errors are added
+     */
+    void addError(double[] input, double[] expectedOutput, double[] neuronOutputs, double[] neuronErrors,
+            double[] weightsError, double[] thresholdError);
+
+    /**
+     * Method creates independent copy of neural network with the same structure and weights.
+     *
+     * @return neural network copy
+     */
+    INeuralNetwork copy();
+
     /**
      * Method calculates neural network error.
      *
@@ -44,6 +73,13 @@ public interface INeuralNetwork extends Serializable {
      */
     double getLayerNeruonsNumber(int layerIndex);
 
+    /**
+     * Method obtains number of neurons in all layers.
+     *
+     * @return total number of neurons
+     */
+    int getNeuronsNumber();
+
     // TODO double to int
 
     /**
@@ -66,4 +102,27 @@ public interface INeuralNetwork extends Serializable {
 
     void setWeights(List<Double> weights);
 
+    /**
+     * Method reads weights and threshold weights from given buffers, in the same order as in {@link #getWeights()}
+     * and {@link #getThresholdWeights()}. Values are copied without boxing, so trainers use this method to set
+     * parameters they update in primitive arrays.
+     *
+     * @param weightsBuffer
+     *            buffer with weights
+     * @param thresholdsBuffer
+     *            buffer with threshold weights
+     */
+    void readParameters(DoubleBuffer weightsBuffer, DoubleBuffer thresholdsBuffer);
+
+    /**
+     * Method writes weights and threshold weights to given buffers, in the same order as in {@link #getWeights()}
+     * and {@link #getThresholdWeights()}.
+     *
+     * @param weightsBuffer
+     *            buffer for weights
+     * @param thresholdsBuffer
+     *            buffer for threshold weights
+     */
+    void writeParameters(DoubleBuffer weightsBuffer, DoubleBuffer thresholdsBuffer);
+
 }
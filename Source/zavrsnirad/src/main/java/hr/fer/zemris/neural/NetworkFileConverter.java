@@ -0,0 +1,85 @@
+package hr.fer.zemris.neural;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Program converts neural networks saved as serialized objects to binary network format described in
+ * {@link NetworkFileFormat}.
+ *
+ * Program is started with path of a network file and optional path of the output file. If output file isn't given
+ * network file is converted in place. If given path is a directory, all serialized networks with extension ann in the
+ * directory are converted in place.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 27.6.2017.
+ */
+public class NetworkFileConverter {
+
+    /**
+     * Method starts with program run.
+     *
+     * @param args
+     *            path of a network file or a directory and optional path of the output file
+     * @throws IOException
+     *             if there was a problem while reading or writing files
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: NetworkFileConverter <network file or directory> [output file]");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        if (Files.isDirectory(input)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(input, "*.ann")) {
+                for (Path file : files) {
+                    if (!NetworkFileFormat.isNetworkFile(file)) {
+                        convert(file, file);
+                    }
+                }
+            }
+            return;
+        }
+        convert(input, args.length == 2 ? Paths.get(args[1]) : input);
+    }
+
+    /**
+     * Method converts one network file. Network is written to a temporary file next to the output file which then
+     * replaces the output file, so the original network isn't lost if writing fails while a file is converted in
+     * place.
+     *
+     * @param input
+     *            network file
+     * @param output
+     *            output file
+     * @throws IOException
+     *             if network cannot be read or if it isn't a feed forward network
+     */
+    private static void convert(Path input, Path output) throws IOException {
+        File inputFile = input.toFile();
+        INeuralNetwork network = NeuralNetworkUtility.readNeuralNetworkFromFile(inputFile);
+        if (!(network instanceof FeedForwardNetwork)) {
+            throw new IOException("File " + input + " doesn't contain a feed forward network.");
+        }
+        long oldSize = Files.size(input);
+        Path temporary = output.resolveSibling(output.getFileName() + ".tmp");
+        try {
+            NetworkFileFormat.write((FeedForwardNetwork) network, temporary);
+            Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        System.out.println(input + " (" + oldSize + " B) -> " + output + " (" + Files.size(output) + " B)");
+    }
+
+    /**
+     * Private utility class constructor.
+     */
+    private NetworkFileConverter() {
+    }
+}
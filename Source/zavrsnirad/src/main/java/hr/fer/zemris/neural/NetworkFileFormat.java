@@ -0,0 +1,230 @@
+package hr.fer.zemris.neural;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class implements binary file format of feed forward neural networks.
+ *
+ * All values are little-endian. File starts with a header: magic bytes "SFNN", format version, activation function
+ * code, weights data type code, number of layers, number of neurons of every layer, number of weights and number of
+ * threshold weights, all stored as 32 bit integers. Header is padded with zeros to a multiple of 8 bytes and it is
+ * followed by a contiguous block of weights and a contiguous block of threshold weights. Weights are stored in the
+ * same order as in {@link FeedForwardNetwork}, connections between two layers form a matrix with one row for every
+ * neuron of the previous layer. Threshold weights are stored for every neuron except input neurons.
+ *
+ * Files are read into one heap buffer, so weights are copied from the buffer to the network in one bulk operation
+ * without intermediate objects. Files aren't memory mapped, because a live mapping keeps the file locked on some
+ * systems until the buffer is garbage collected and the network file couldn't be overwritten.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 27.6.2017.
+ */
+public final class NetworkFileFormat {
+
+    /**
+     * Magic bytes at the start of every network file.
+     */
+    private static final byte[] MAGIC = { 'S', 'F', 'N', 'N' };
+
+    /**
+     * Current format version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Code of logistic sigmoid activation function.
+     */
+    public static final int ACTIVATION_SIGMOID = 0;
+
+    /**
+     * Code of 64 bit floating point weights data type.
+     */
+    public static final int DTYPE_FLOAT64 = 0;
+
+    /**
+     * Number of header integers that precede layer sizes.
+     */
+    private static final int HEADER_FIELDS = 4;
+
+    /**
+     * Number of header integers that follow layer sizes.
+     */
+    private static final int COUNT_FIELDS = 2;
+
+    /**
+     * Alignment of the weights block in bytes.
+     */
+    private static final int ALIGNMENT = Double.BYTES;
+
+    /**
+     * Method checks whether file starts with magic bytes of the binary network format.
+     *
+     * @param file
+     *            network file
+     * @return true if file is in binary network format, false otherwise
+     * @throws IOException
+     *             if file cannot be read
+     */
+    public static boolean isNetworkFile(Path file) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read = 0;
+            while (read < magic.length) {
+                int count = is.read(magic, read, magic.length - read);
+                if (count < 0) {
+                    return false;
+                }
+                read += count;
+            }
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method reads neural network from a binary network file.
+     *
+     * @param file
+     *            network file
+     * @return neural network
+     * @throws IOException
+     *             if file cannot be read or if it isn't a valid network file
+     */
+    public static FeedForwardNetwork read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Network file is too large.");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+            buffer.flip();
+            if (buffer.remaining() < (MAGIC.length + Integer.BYTES * HEADER_FIELDS)) {
+                throw new IOException("Network file is too short.");
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get() != MAGIC[i]) {
+                    throw new IOException("File isn't a network file.");
+                }
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported network file version " + version + ".");
+            }
+            int activation = buffer.getInt();
+            if (activation != ACTIVATION_SIGMOID) {
+                throw new IOException("Unsupported activation function " + activation + ".");
+            }
+            int dtype = buffer.getInt();
+            if (dtype != DTYPE_FLOAT64) {
+                throw new IOException("Unsupported weights data type " + dtype + ".");
+            }
+            int layersNumber = buffer.getInt();
+            if (layersNumber < 1 || buffer.remaining() < (long) Integer.BYTES * (layersNumber + COUNT_FIELDS)) {
+                throw new IOException("Invalid number of layers " + layersNumber + ".");
+            }
+
+            FeedForwardNetwork network = new FeedForwardNetwork();
+            for (int i = 0; i < layersNumber; i++) {
+                int neurons = buffer.getInt();
+                if (neurons < 1) {
+                    throw new IOException("Invalid number of neurons " + neurons + ".");
+                }
+                network.addLayer(neurons);
+            }
+            int weightsNumber = buffer.getInt();
+            int thresholdsNumber = buffer.getInt();
+            if (weightsNumber != network.getWeights().size()
+                    || thresholdsNumber != network.getThresholdWeights().size()) {
+                throw new IOException("Number of weights doesn't match network layers.");
+            }
+            int dataStart = headerSize(layersNumber);
+            if (buffer.limit() - dataStart < (long) Double.BYTES * (weightsNumber + thresholdsNumber)) {
+                throw new IOException("Network file is too short.");
+            }
+
+            buffer.position(dataStart);
+            DoubleBuffer weights = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            DoubleBuffer thresholds = weights.duplicate();
+            weights.limit(weightsNumber);
+            thresholds.position(weightsNumber);
+            network.readParameters(weights, thresholds.slice());
+            return network;
+        }
+    }
+
+    /**
+     * Method writes neural network to a binary network file. Existing file is overwritten.
+     *
+     * @param network
+     *            neural network
+     * @param file
+     *            network file
+     * @throws IOException
+     *             if file cannot be written
+     */
+    public static void write(FeedForwardNetwork network, Path file) throws IOException {
+        int[] layers = network.getLayerSizes();
+        int weightsNumber = network.getWeights().size();
+        int thresholdsNumber = network.getThresholdWeights().size();
+        int dataStart = headerSize(layers.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(dataStart + Double.BYTES * (weightsNumber + thresholdsNumber)).order(
+                ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(ACTIVATION_SIGMOID);
+        buffer.putInt(DTYPE_FLOAT64);
+        buffer.putInt(layers.length);
+        for (int neurons : layers) {
+            buffer.putInt(neurons);
+        }
+        buffer.putInt(weightsNumber);
+        buffer.putInt(thresholdsNumber);
+
+        buffer.position(dataStart);
+        DoubleBuffer weights = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        // threshold weights block directly follows weights block
+        network.writeParameters(weights, weights);
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Method calculates size of the header with padding.
+     *
+     * @param layersNumber
+     *            number of network layers
+     * @return header size in bytes
+     */
+    private static int headerSize(int layersNumber) {
+        int size = MAGIC.length + Integer.BYTES * (HEADER_FIELDS + layersNumber + COUNT_FIELDS);
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Private utility class constructor.
+     */
+    private NetworkFileFormat() {
+    }
+}
@@ -1,6 +1,7 @@
 package hr.fer.zemris.neural;
 
 import hr.fer.zemris.neural.datastructures.TrainingRecord;
+import hr.fer.zemris.neural.trainers.EarlyStopping;
 import hr.fer.zemris.neural.trainers.INeuralNetworkTrainer;
 
 import java.io.File;
@@ -51,7 +52,23 @@ public class NeuralNetworkUtility {
         return network;
     }
 
+    /**
+     * Method reads neural network from file. File can be in binary network format described in
+     * {@link NetworkFileFormat} or it can contain serialized network object.
+     *
+     * @param networkFile
+     *            network file
+     * @return neural network or null if file cannot be read
+     */
     public static INeuralNetwork readNeuralNetworkFromFile(File networkFile) {
+        try {
+            if (NetworkFileFormat.isNetworkFile(networkFile.toPath())) {
+                return NetworkFileFormat.read(networkFile.toPath());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
         try (ObjectInputStream ons = new ObjectInputStream(Files.newInputStream(networkFile.toPath(),
                 StandardOpenOption.READ))) {
             INeuralNetwork ftp = (INeuralNetwork) ons.readObject();
@@ -74,9 +91,54 @@ public class NeuralNetworkUtility {
                 epochsNumber, refreshInterval);
     }
 
+    /**
+     * Method trains neural network with early stopping.
+     *
+     * @param trainer
+     *            neural network trainer
+     * @param trainingRecords
+     *            records used for training
+     * @param evaluationRecords
+     *            records used for validation
+     * @param epochsNumber
+     *            maximal number of epochs
+     * @param refreshInterval
+     *            number of epochs between training progress updates
+     * @param earlyStopping
+     *            early stopping controller or null if training should run for all epochs
+     */
+    public static void train(INeuralNetworkTrainer trainer, List<TrainingRecord> trainingRecords,
+            List<TrainingRecord> evaluationRecords, Integer epochsNumber, int refreshInterval,
+            EarlyStopping earlyStopping) {
+        if (earlyStopping == null) {
+            train(trainer, trainingRecords, evaluationRecords, epochsNumber, refreshInterval);
+            return;
+        }
+        trainer.train(extractInputFromRecords(trainingRecords), extractExpectedOutputFromRecords(trainingRecords),
+                extractInputFromRecords(evaluationRecords), extractExpectedOutputFromRecords(evaluationRecords),
+                epochsNumber, refreshInterval, earlyStopping);
+    }
+
+    /**
+     * Method writes neural network to file. Feed forward networks are written in binary network format described in
+     * {@link NetworkFileFormat}, other networks are serialized.
+     *
+     * @param outputFile
+     *            network file
+     * @param network
+     *            neural network
+     */
     public static void writeNeuralNetworkToFile(File outputFile, INeuralNetwork network) {
+        if (network instanceof FeedForwardNetwork) {
+            try {
+                NetworkFileFormat.write((FeedForwardNetwork) network, outputFile.toPath());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
         try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(outputFile.toPath(),
-                StandardOpenOption.WRITE, StandardOpenOption.CREATE))) {
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))) {
             oos.writeObject(network);
         } catch (IOException e) {
             // TODO Auto-generated catch block
@@ -0,0 +1,237 @@
+package hr.fer.zemris.neural;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Class implements inference engine that calculates outputs of a feed forward network with weights and layer inputs
+ * quantized to 8 bit integers.
+ *
+ * Quantization is symmetric. Weights of connections between two layers share one scale, the largest absolute weight
+ * is mapped to 127. Inputs of every layer share one scale calibrated on a sample of network inputs, the largest
+ * absolute neuron output of the layer over the sample is mapped to 127. Dot products are accumulated in integers and
+ * every neuron sum is scaled back to floating point before threshold weight and transition function are applied, so
+ * only weights and layer inputs are rounded. Weights are stored in the same layout as in {@link FeedForwardNetwork} and
+ * inputs quantized to zero are skipped, which is common for binary images of digits.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 28.6.2017.
+ */
+public class QuantizedNetwork implements IInferenceEngine {
+
+    /**
+     * Largest quantized value.
+     */
+    private static final int QUANTIZED_MAX = 127;
+
+    /**
+     * Number of neurons in every layer.
+     */
+    private final int[] layers;
+
+    /**
+     * Index of starting weight of connections from every layer to the next layer.
+     */
+    private final int[] weightsLayerIndex;
+
+    /**
+     * Quantized network weights.
+     */
+    private final byte[] weights;
+
+    /**
+     * Scale of quantized weights of connections from every layer to the next layer.
+     */
+    private final double[] weightScales;
+
+    /**
+     * Scale of quantized outputs of every layer except the output layer.
+     */
+    private final double[] inputScales;
+
+    /**
+     * Threshold weights of all neurons except input neurons.
+     */
+    private final double[] thresholdWeights;
+
+    /**
+     * Number of neurons in the largest layer.
+     */
+    private final int maxLayerNeurons;
+
+    /**
+     * Constructor that quantizes given network. Layer input scales are calibrated on given inputs, network state isn't
+     * changed.
+     *
+     * @param network
+     *            feed forward network
+     * @param calibrationInputs
+     *            sample of network inputs used for calibration
+     * @throws IllegalArgumentException
+     *             if there are no calibration inputs
+     */
+    public QuantizedNetwork(FeedForwardNetwork network, double[][] calibrationInputs)
+            throws IllegalArgumentException {
+        if (calibrationInputs.length == 0) {
+            throw new IllegalArgumentException("At least one calibration input is needed.");
+        }
+        layers = network.getLayerSizes();
+        double[] networkWeights = new double[network.getWeights().size()];
+        thresholdWeights = new double[network.getThresholdWeights().size()];
+        network.writeParameters(DoubleBuffer.wrap(networkWeights), DoubleBuffer.wrap(thresholdWeights));
+
+        weightsLayerIndex = new int[layers.length];
+        weights = new byte[networkWeights.length];
+        weightScales = new double[layers.length - 1];
+        int maxNeurons = layers[0];
+        for (int layer = 1; layer < layers.length; layer++) {
+            int start = weightsLayerIndex[layer - 1];
+            int end = start + layers[layer - 1] * layers[layer];
+            weightsLayerIndex[layer] = end;
+            double maxWeight = 0;
+            for (int i = start; i < end; i++) {
+                maxWeight = Math.max(maxWeight, Math.abs(networkWeights[i]));
+            }
+            weightScales[layer - 1] = scale(maxWeight);
+            for (int i = start; i < end; i++) {
+                weights[i] = (byte) quantize(networkWeights[i], 1 / weightScales[layer - 1]);
+            }
+            maxNeurons = Math.max(maxNeurons, layers[layer]);
+        }
+        maxLayerNeurons = maxNeurons;
+        inputScales = calibrate(network, calibrationInputs);
+    }
+
+    /**
+     * Method calculates scales of layer inputs from the largest absolute neuron outputs of a double network.
+     *
+     * @param network
+     *            feed forward network
+     * @param calibrationInputs
+     *            sample of network inputs
+     * @return scale of every layer except the output layer
+     */
+    private double[] calibrate(FeedForwardNetwork network, double[][] calibrationInputs) {
+        FeedForwardNetwork copy = network.copy();
+        double[] maxOutputs = new double[layers.length - 1];
+        for (double[] input : calibrationInputs) {
+            copy.calcOutput(input);
+            for (int layer = 0; layer < maxOutputs.length; layer++) {
+                for (int neuron = 0; neuron < layers[layer]; neuron++) {
+                    maxOutputs[layer] = Math.max(maxOutputs[layer], Math.abs(copy.getNeuronOutput(layer, neuron)));
+                }
+            }
+        }
+        double[] scales = new double[maxOutputs.length];
+        for (int layer = 0; layer < scales.length; layer++) {
+            scales[layer] = scale(maxOutputs[layer]);
+        }
+        return scales;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException
+     *             if an input row doesn't have one value for every input neuron
+     */
+    @Override
+    public double[][] calcOutputs(double[][] inputs) throws IllegalArgumentException {
+        double[] inverseScales = new double[inputScales.length];
+        for (int layer = 0; layer < inverseScales.length; layer++) {
+            inverseScales[layer] = 1 / inputScales[layer];
+        }
+        int[] quantized = new int[maxLayerNeurons];
+        int[] sums = new int[maxLayerNeurons];
+        double[][] outputs = new double[inputs.length][];
+        int outputLayer = layers.length - 1;
+        for (int sample = 0; sample < inputs.length; sample++) {
+            double[] input = inputs[sample];
+            if (input.length != layers[0]) {
+                throw new IllegalArgumentException("Illegal input size");
+            }
+            for (int i = 0; i < input.length; i++) {
+                quantized[i] = quantize(input[i], inverseScales[0]);
+            }
+            double[] output = new double[layers[outputLayer]];
+            int thresholdStart = 0;
+            for (int layer = 1; layer <= outputLayer; layer++) {
+                int inputNeurons = layers[layer - 1];
+                int layerNeurons = layers[layer];
+                multiplyWeights(quantized, inputNeurons, weightsLayerIndex[layer - 1], layerNeurons, sums);
+                double sumScale = weightScales[layer - 1] * inputScales[layer - 1];
+                for (int j = 0; j < layerNeurons; j++) {
+                    double value = 1 / (1 + Math.exp(-(sums[j] * sumScale + thresholdWeights[thresholdStart + j])));
+                    if (layer == outputLayer) {
+                        output[j] = value;
+                    } else {
+                        quantized[j] = quantize(value, inverseScales[layer]);
+                    }
+                }
+                thresholdStart += layerNeurons;
+            }
+            outputs[sample] = output;
+        }
+        return outputs;
+    }
+
+    /**
+     * Method multiplies quantized layer inputs with quantized layer weights. Inputs equal to zero are skipped.
+     *
+     * @param quantized
+     *            quantized layer inputs
+     * @param inputNeurons
+     *            number of input neurons
+     * @param weightsStart
+     *            index of the first layer weight
+     * @param layerNeurons
+     *            number of layer neurons
+     * @param sums
+     *            array in which sums of layer neurons are stored
+     */
+    private void multiplyWeights(int[] quantized, int inputNeurons, int weightsStart, int layerNeurons, int[] sums) {
+        for (int j = 0; j < layerNeurons; j++) {
+            sums[j] = 0;
+        }
+        for (int k = 0; k < inputNeurons; k++) {
+            int neuronOutput = quantized[k];
+            if (neuronOutput == 0) {
+                continue;
+            }
+            int weightInd = weightsStart + k * layerNeurons;
+            for (int j = 0; j < layerNeurons; j++) {
+                sums[j] += weights[weightInd + j] * neuronOutput;
+            }
+        }
+    }
+
+    @Override
+    public int getInputSize() {
+        return layers[0];
+    }
+
+    /**
+     * Method calculates scale that maps given largest absolute value to the largest quantized value.
+     *
+     * @param maxValue
+     *            largest absolute value
+     * @return quantization scale
+     */
+    private static double scale(double maxValue) {
+        return maxValue == 0 ? 1 : maxValue / QUANTIZED_MAX;
+    }
+
+    /**
+     * Method quantizes value with given inverse of the scale. Inverse is used because multiplication is much faster
+     * than division. Values out of range are clamped.
+     *
+     * @param value
+     *            value
+     * @param inverseScale
+     *            inverse of the quantization scale
+     * @return quantized value
+     */
+    private static int quantize(double value, double inverseScale) {
+        long quantized = Math.round(value * inverseScale);
+        return (int) Math.max(-QUANTIZED_MAX, Math.min(QUANTIZED_MAX, quantized));
+    }
+}
@@ -0,0 +1,20 @@
+package hr.fer.zemris.neural.datastructures;
+
+/**
+ * Interface defines listener of training set loading progress.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 30.6.2017.
+ */
+public interface ITrainingRecordLoadListener {
+
+    /**
+     * Method is invoked when more training records are loaded.
+     *
+     * @param loaded
+     *            number of loaded records
+     * @param total
+     *            number of all records of the training set
+     */
+    void recordsLoaded(int loaded, int total);
+}
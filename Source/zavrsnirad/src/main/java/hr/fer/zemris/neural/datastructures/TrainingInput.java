@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -63,7 +65,8 @@ public class TrainingInput {
     }
 
     /**
-     * Method transforms training input to list of training records.
+     * Method transforms training input to list of training records. Records are ordered by file names, same as in
+     * {@link TrainingRecordUtility#fromFile(File, Integer, ITrainingRecordLoadListener)}.
      *
      * @param dimension
      *            dimension of training record image size
@@ -75,6 +78,7 @@ public class TrainingInput {
         List<TrainingRecord> records = new ArrayList<TrainingRecord>();
 
         File[] files = getTrainingInputDirectory().toFile().listFiles();
+        Arrays.sort(files, Comparator.comparing(File::getName));
         for (int i = 0; i < files.length; i++) {
             TrainingRecord record = new TrainingRecord(files[i].toPath(), TrainingRecordUtility.loadImageData(files[i],
                     dimension), getExpectedOutput());
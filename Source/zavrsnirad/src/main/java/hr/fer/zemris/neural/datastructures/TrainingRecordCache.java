@@ -0,0 +1,321 @@
+package hr.fer.zemris.neural.datastructures;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class implements on-disk cache of preprocessed training images. Every image is stored as a bit-packed vector of its
+ * binary pixels together with the image path, last modification time and size, so an image is decoded again only if
+ * its file was changed. Cache file contains images of one square dimension.
+ *
+ * All values are little-endian. Cache file starts with magic bytes "SFTC", format version, square dimension and number
+ * of entries, stored as 32 bit integers. Every entry contains length of the path, UTF-8 bytes of the absolute path,
+ * modification time in milliseconds and file size as 64 bit integers and packed pixels, eight pixels in a byte with
+ * the first pixel in the lowest bit.
+ *
+ * Whole cache file is read with one sequential read when cache is created. Entries of images that weren't requested
+ * are dropped when cache is saved, so cache follows changes of the training set. Images can be loaded from multiple
+ * threads, cache is saved after all images are loaded.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 29.6.2017.
+ */
+public class TrainingRecordCache {
+
+    /**
+     * Magic bytes at the start of every cache file.
+     */
+    private static final byte[] MAGIC = { 'S', 'F', 'T', 'C' };
+
+    /**
+     * Current cache format version.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Number of header integers that follow magic bytes.
+     */
+    private static final int HEADER_FIELDS = 3;
+
+    /**
+     * Extension of cache files.
+     */
+    private static final String EXTENSION = ".cache";
+
+    /**
+     * Cache file.
+     */
+    private final Path cacheFile;
+
+    /**
+     * Square dimension of cached images.
+     */
+    private final int dimension;
+
+    /**
+     * Number of bytes of one packed image.
+     */
+    private final int packedSize;
+
+    /**
+     * Entries read from the cache file mapped by image path.
+     */
+    private final Map<String, Entry> cachedEntries = new HashMap<>();
+
+    /**
+     * Entries of requested images mapped by image path.
+     */
+    private final Map<String, Entry> usedEntries = new ConcurrentHashMap<>();
+
+    /**
+     * Flag that shows whether an image was decoded because it wasn't in the cache.
+     */
+    private volatile boolean modified;
+
+    /**
+     * Constructor that initializes cache with entries read from the cache file. If the file doesn't exist or if it
+     * isn't a valid cache file of given dimension, cache starts empty.
+     *
+     * @param cacheFile
+     *            cache file
+     * @param dimension
+     *            square dimension of cached images
+     * @throws IllegalArgumentException
+     *             if dimension isn't positive
+     */
+    public TrainingRecordCache(Path cacheFile, int dimension) throws IllegalArgumentException {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Square dimension must be positive.");
+        }
+        this.cacheFile = cacheFile;
+        this.dimension = dimension;
+        this.packedSize = (dimension * dimension + Byte.SIZE - 1) / Byte.SIZE;
+        try {
+            readEntries();
+        } catch (IOException | RuntimeException e) {
+            // damaged or outdated cache is rebuilt from images
+            cachedEntries.clear();
+        }
+    }
+
+    /**
+     * Method obtains path of the cache file of a training set file for given square dimension.
+     *
+     * @param trainingSetFile
+     *            training set file
+     * @param dimension
+     *            square dimension of images
+     * @return path of the cache file
+     */
+    public static Path cacheFileFor(File trainingSetFile, int dimension) {
+        return trainingSetFile.toPath().resolveSibling(trainingSetFile.getName() + "." + dimension + EXTENSION);
+    }
+
+    /**
+     * Method obtains preprocessed image data. Data is taken from the cache if the image file wasn't changed since it
+     * was cached, otherwise image is decoded and added to the cache.
+     *
+     * @param file
+     *            image file
+     * @return image pixels
+     * @throws IOException
+     *             if there was a problem while reading image
+     */
+    public double[] loadImageData(File file) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        String key = path.toString();
+        long modificationTime = Files.getLastModifiedTime(path).toMillis();
+        long size = Files.size(path);
+
+        Entry entry = cachedEntries.get(key);
+        if (entry == null || entry.modificationTime != modificationTime || entry.size != size) {
+            double[] pixels = TrainingRecordUtility.loadImageData(file, dimension);
+            if (pixels.length != dimension * dimension) {
+                return pixels;
+            }
+            entry = new Entry(modificationTime, size, pack(pixels));
+            modified = true;
+        }
+        usedEntries.put(key, entry);
+        return unpack(entry.pixels);
+    }
+
+    /**
+     * Method writes cache file if an image was decoded or if a cached image wasn't requested since the cache was
+     * created. New cache file contains only requested images. File is written to a temporary file first, so a
+     * partially written cache is never read.
+     *
+     * @throws IOException
+     *             if cache file cannot be written
+     */
+    public void save() throws IOException {
+        if (!modified && usedEntries.keySet().equals(cachedEntries.keySet())) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(usedEntries.entrySet());
+        byte[][] paths = new byte[entries.size()][];
+        int size = MAGIC.length + Integer.BYTES * HEADER_FIELDS;
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = entries.get(i).getKey().getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + paths[i].length + 2 * Long.BYTES + packedSize;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(dimension);
+        buffer.putInt(paths.length);
+        for (int i = 0; i < paths.length; i++) {
+            Entry entry = entries.get(i).getValue();
+            buffer.putInt(paths[i].length);
+            buffer.put(paths[i]);
+            buffer.putLong(entry.modificationTime);
+            buffer.putLong(entry.size);
+            buffer.put(entry.pixels);
+        }
+        buffer.flip();
+
+        Path temporary = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        cachedEntries.clear();
+        cachedEntries.putAll(usedEntries);
+        modified = false;
+    }
+
+    /**
+     * Method reads all entries of the cache file.
+     *
+     * @throws IOException
+     *             if cache file cannot be read or if it isn't a valid cache file of current dimension
+     */
+    private void readEntries() throws IOException {
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Cache file is too large.");
+            }
+            buffer = ByteBuffer.allocate((int) fileSize);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Cache file is too short.");
+                }
+            }
+        }
+        buffer.flip();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get() != MAGIC[i]) {
+                throw new IOException("File isn't a training cache file.");
+            }
+        }
+        if (buffer.getInt() != VERSION || buffer.getInt() != dimension) {
+            throw new IOException("Cache file has different version or dimension.");
+        }
+        int entries = buffer.getInt();
+        for (int i = 0; i < entries; i++) {
+            byte[] path = new byte[buffer.getInt()];
+            buffer.get(path);
+            long modificationTime = buffer.getLong();
+            long size = buffer.getLong();
+            byte[] pixels = new byte[packedSize];
+            buffer.get(pixels);
+            cachedEntries.put(new String(path, StandardCharsets.UTF_8), new Entry(modificationTime, size, pixels));
+        }
+    }
+
+    /**
+     * Method packs binary pixels to bits.
+     *
+     * @param pixels
+     *            pixels with values 0 and 1
+     * @return packed pixels
+     */
+    private byte[] pack(double[] pixels) {
+        byte[] packed = new byte[packedSize];
+        for (int i = 0; i < pixels.length; i++) {
+            if (pixels[i] != 0) {
+                packed[i / Byte.SIZE] |= 1 << (i % Byte.SIZE);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Method unpacks bits to binary pixels.
+     *
+     * @param packed
+     *            packed pixels
+     * @return pixels with values 0 and 1
+     */
+    private double[] unpack(byte[] packed) {
+        double[] pixels = new double[dimension * dimension];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (packed[i / Byte.SIZE] >> (i % Byte.SIZE)) & 1;
+        }
+        return pixels;
+    }
+
+    /**
+     * Cache entry of one image.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 29.6.2017.
+     */
+    private static class Entry {
+
+        /**
+         * Modification time of the image file in milliseconds.
+         */
+        private final long modificationTime;
+
+        /**
+         * Size of the image file.
+         */
+        private final long size;
+
+        /**
+         * Packed image pixels.
+         */
+        private final byte[] pixels;
+
+        /**
+         * Constructor that initializes cache entry.
+         *
+         * @param modificationTime
+         *            modification time of the image file in milliseconds
+         * @param size
+         *            size of the image file
+         * @param pixels
+         *            packed image pixels
+         */
+        Entry(long modificationTime, long size, byte[] pixels) {
+            this.modificationTime = modificationTime;
+            this.size = size;
+            this.pixels = pixels;
+        }
+    }
+}
@@ -6,63 +6,297 @@ import hr.fer.zemris.image.transformation.I2DTransformationAlgorithm;
 import hr.fer.zemris.image.transformation.ScaleInSquareAlgorithm;
 
 import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import javax.imageio.ImageIO;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 public class TrainingRecordUtility {
 
+    /**
+     * Number of images decoded ahead for every decoding thread.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Number of progress steps reported while training set is loaded.
+     */
+    private static final int PERCENT = 100;
+
+    /**
+     * Start tag of the synthetic root element of training set file.
+     */
+    private static final String ROOT_START = "<training_set>";
+
+    /**
+     * End tag of the synthetic root element of training set file.
+     */
+    private static final String ROOT_END = "</training_set>";
+
     /**
      * Utility class private constructor.
      */
     private TrainingRecordUtility() {
     }
 
+    /**
+     * Method loads training records from a training set file. Images are decoded in parallel and records are returned
+     * in the order of training inputs in the file and of files in every training input directory.
+     *
+     * @param trainingSetFile
+     *            training set file
+     * @param squareDimension
+     *            square dimension of record images
+     * @return list of training records
+     * @throws IOException
+     *             if there was a problem while reading training set file or training examples
+     */
     public static List<TrainingRecord> fromFile(File trainingSetFile, Integer squareDimension) throws IOException {
-        String[] lines = new String(Files.readAllBytes(trainingSetFile.toPath())).replace("\r", "")
-                .replaceAll("\n{2,}", "\n").split("\n");
-        List<TrainingInput> trainingInputs = new ArrayList<TrainingInput>();
-        TrainingInput current = null;
-        for (String line : lines) {
-            String trimmedLine = line.trim();
-            if (trimmedLine.isEmpty()) {
-                continue;
-            }
-            if (trimmedLine.startsWith("#")) {
-                continue;
-            }
-            if (trimmedLine.toLowerCase().equals("<training_input>")) {
-                current = new TrainingInput();
+        return fromFile(trainingSetFile, squareDimension, null);
+    }
+
+    /**
+     * Method loads training records from a training set file. Training set file is parsed with a streaming parser and
+     * images are decoded in a fixed pool with one thread for every processor. Only a limited number of images is
+     * decoded ahead of the oldest image that isn't finished yet and records are collected in the order of training
+     * inputs in the file and of file names in every training input directory, so the order doesn't depend on the
+     * number of threads or on the file system. Preprocessed images are cached in a {@link TrainingRecordCache}.
+     *
+     * @param trainingSetFile
+     *            training set file
+     * @param squareDimension
+     *            square dimension of record images
+     * @param listener
+     *            listener notified about loading progress, or null
+     * @return list of training records
+     * @throws IOException
+     *             if there was a problem while reading training set file or training examples
+     */
+    public static List<TrainingRecord> fromFile(File trainingSetFile, Integer squareDimension,
+            ITrainingRecordLoadListener listener) throws IOException {
+        List<TrainingInput> trainingInputs = parseTrainingInputs(trainingSetFile);
+        List<File> files = new ArrayList<>();
+        List<String> expectedOutputs = new ArrayList<>();
+        for (TrainingInput trainingInput : trainingInputs) {
+            File[] inputFiles = trainingInput.getTrainingInputDirectory().toFile().listFiles();
+            if (inputFiles == null) {
+                throw new IOException("Cannot read directory " + trainingInput.getTrainingInputDirectory());
             }
-            if (trimmedLine.toLowerCase().equals("</training_input>")) {
-                trainingInputs.add(current);
-                current = null;
+            // listing order depends on the file system, so files are sorted by name to get the same records everywhere
+            Arrays.sort(inputFiles, Comparator.comparing(File::getName));
+            for (File file : inputFiles) {
+                files.add(file);
+                expectedOutputs.add(trainingInput.getExpectedOutput());
             }
-            if (trimmedLine.toLowerCase().startsWith("<dir>")) {
-                if (current == null) {
-                    throw new IllegalArgumentException("File in wrong format");
+        }
+
+        TrainingRecordCache cache = new TrainingRecordCache(TrainingRecordCache.cacheFileFor(trainingSetFile,
+                squareDimension), squareDimension);
+        int threads = Runtime.getRuntime().availableProcessors();
+        int window = threads * TASKS_PER_THREAD;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<TrainingRecord> trainingRecords = new ArrayList<TrainingRecord>(files.size());
+        try {
+            Deque<Future<double[]>> pending = new ArrayDeque<>();
+            int submitted = 0;
+            int reportedPercent = -1;
+            for (int i = 0; i < files.size(); i++) {
+                for (; submitted < files.size() && submitted - i < window; submitted++) {
+                    File file = files.get(submitted);
+                    pending.add(executor.submit(() -> cache.loadImageData(file)));
+                }
+                double[] input = waitFor(pending.poll());
+                trainingRecords.add(new TrainingRecord(files.get(i).toPath(), input, expectedOutputs.get(i)));
+
+                int percent = (int) ((long) PERCENT * (i + 1) / files.size());
+                if (listener != null && percent != reportedPercent) {
+                    reportedPercent = percent;
+                    listener.recordsLoaded(i + 1, files.size());
                 }
-                current.setTrainingInputDirectory(Paths.get(trimmedLine.replaceAll("<[^<>]*>", "").trim()));
             }
-            if (trimmedLine.toLowerCase().startsWith("<expected_output>")) {
-                if (current == null) {
-                    throw new IllegalArgumentException("File in wrong format");
+        } finally {
+            executor.shutdownNow();
+        }
+        try {
+            cache.save();
+        } catch (IOException e) {
+            // records are loaded, cache is only rebuilt on the next load
+        }
+        return trainingRecords;
+    }
+
+    /**
+     * Method parses training inputs from a training set file. Training set file contains a sequence of training_input
+     * elements, each with a dir element and an expected_output element. Sequence isn't enclosed in a root element, so
+     * the file is parsed as content of a synthetic root element. Lines starting with # are comments and they are
+     * skipped before parsing, and an &amp; that doesn't start an entity reference is read as a plain character, so
+     * training set files written for the older line based parser are still read. Character &lt; inside element text
+     * has to be written as &amp;lt;.
+     *
+     * @param trainingSetFile
+     *            training set file
+     * @return list of training inputs
+     * @throws IOException
+     *             if file cannot be read or if it isn't a valid training set file
+     */
+    private static List<TrainingInput> parseTrainingInputs(File trainingSetFile) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        List<TrainingInput> trainingInputs = new ArrayList<TrainingInput>();
+        try (Reader in = new TrainingSetReader(Files.newBufferedReader(trainingSetFile.toPath(),
+                StandardCharsets.UTF_8))) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            TrainingInput current = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName().toLowerCase();
+                    if (name.equals("training_input")) {
+                        current = new TrainingInput();
+                    } else if (name.equals("dir") || name.equals("expected_output")) {
+                        if (current == null) {
+                            throw new IllegalArgumentException("File in wrong format");
+                        }
+                        String text = reader.getElementText().trim();
+                        if (name.equals("dir")) {
+                            current.setTrainingInputDirectory(Paths.get(text));
+                        } else {
+                            current.setExpectedOutput(text);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT
+                        && reader.getLocalName().toLowerCase().equals("training_input")) {
+                    if (current == null) {
+                        throw new IllegalArgumentException("File in wrong format");
+                    }
+                    trainingInputs.add(current);
+                    current = null;
                 }
-                current.setExpectedOutput(trimmedLine.replaceAll("<[^<>]*>", "").trim());
             }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Training set file " + trainingSetFile + " is in wrong format", e);
+        }
+        return trainingInputs;
+    }
+
+    /**
+     * Reader of training set file content for the XML parser. Reader reads the file line by line, skips comment lines,
+     * escapes ampersands that don't start an entity reference and encloses the content in the synthetic root element.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 2.7.2017.
+     */
+    private static class TrainingSetReader extends Reader {
+
+        /**
+         * Ampersand that doesn't start an entity or character reference.
+         */
+        private static final Pattern BARE_AMPERSAND = Pattern.compile(
+                "&(?!(amp|lt|gt|quot|apos|#[0-9]+|#x[0-9a-fA-F]+);)");
+
+        /**
+         * Reader of training set file.
+         */
+        private final BufferedReader file;
+
+        /**
+         * Text that is currently read.
+         */
+        private String text = ROOT_START;
+
+        /**
+         * Position of the next character of current text.
+         */
+        private int position;
 
+        /**
+         * Flag that shows if the end of the root element was read.
+         */
+        private boolean ended;
+
+        /**
+         * Constructor that initializes reader with training set file reader.
+         *
+         * @param file
+         *            reader of training set file
+         */
+        TrainingSetReader(BufferedReader file) {
+            this.file = file;
         }
-        List<TrainingRecord> trainingRecords = new ArrayList<TrainingRecord>();
-        for (TrainingInput trainingInput : trainingInputs) {
-            trainingRecords.addAll(trainingInput.toTrainingRecords(squareDimension));
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            while (position == text.length()) {
+                if (ended) {
+                    return -1;
+                }
+                String line = file.readLine();
+                if (line == null) {
+                    text = ROOT_END;
+                    ended = true;
+                } else if (line.trim().startsWith("#")) {
+                    continue;
+                } else {
+                    text = BARE_AMPERSAND.matcher(line).replaceAll("&amp;") + "\n";
+                }
+                position = 0;
+            }
+            int count = Math.min(length, text.length() - position);
+            text.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
         }
-        return trainingRecords;
 
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    /**
+     * Method waits for decoding of an image.
+     *
+     * @param future
+     *            decoding task
+     * @return image pixels
+     * @throws IOException
+     *             if there was a problem while reading image or if thread was interrupted
+     */
+    private static double[] waitFor(Future<double[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Loading of training set was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Training example cannot be loaded", e.getCause());
+        }
     }
 
     private static BufferedImage loadImage(File file) throws IOException {
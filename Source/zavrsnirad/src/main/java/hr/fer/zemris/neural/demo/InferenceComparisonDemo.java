@@ -0,0 +1,134 @@
+package hr.fer.zemris.neural.demo;
+
+import hr.fer.zemris.neural.FeedForwardNetwork;
+import hr.fer.zemris.neural.FloatNetwork;
+import hr.fer.zemris.neural.IInferenceEngine;
+import hr.fer.zemris.neural.INeuralNetwork;
+import hr.fer.zemris.neural.NeuralNetworkUtility;
+import hr.fer.zemris.neural.QuantizedNetwork;
+import hr.fer.zemris.neural.datastructures.TrainingRecord;
+import hr.fer.zemris.neural.datastructures.TrainingRecordUtility;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Program compares accuracy and speed of double, float and 8 bit quantized inference of a digit classification network.
+ *
+ * Program is started with path of a network file, path of a training set file and optional number of records used
+ * for calibration of the quantized network. Directories in the training set file are resolved relative to the working
+ * directory, so program should be started in the Data directory. Calibration records are chosen randomly with
+ * repetition and all records are classified by every engine. For every engine program prints classification accuracy,
+ * agreement with the double network, the largest output difference from the double network and time needed to
+ * classify one record.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 28.6.2017.
+ */
+public class InferenceComparisonDemo {
+
+    /**
+     * Default number of calibration records.
+     */
+    private static final int DEFAULT_CALIBRATION_SIZE = 200;
+
+    /**
+     * Number of timed classification runs of every engine.
+     */
+    private static final int TIMED_RUNS = 5;
+
+    /**
+     * Seed used for choosing calibration records.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Method starts with program run.
+     *
+     * @param args
+     *            network file, training set file and optional number of calibration records
+     * @throws IOException
+     *             if there was a problem while reading network or training set
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: InferenceComparisonDemo <network file> <training set file> [calibration size]");
+            System.exit(1);
+        }
+        INeuralNetwork loaded = NeuralNetworkUtility.readNeuralNetworkFromFile(new File(args[0]));
+        if (!(loaded instanceof FeedForwardNetwork)) {
+            throw new IOException("File " + args[0] + " doesn't contain a feed forward network.");
+        }
+        FeedForwardNetwork network = (FeedForwardNetwork) loaded;
+        int calibrationSize = args.length == 3 ? Integer.parseInt(args[2]) : DEFAULT_CALIBRATION_SIZE;
+
+        int dimension = (int) Math.sqrt(network.getInputSize());
+        List<TrainingRecord> records = TrainingRecordUtility.fromFile(new File(args[1]), dimension);
+        double[][] inputs = NeuralNetworkUtility.extractInputFromRecords(records);
+
+        Random random = new Random(SEED);
+        double[][] calibrationInputs = new double[calibrationSize][];
+        for (int i = 0; i < calibrationSize; i++) {
+            calibrationInputs[i] = inputs[random.nextInt(inputs.length)];
+        }
+
+        double[][] reference = network.calcOutputs(inputs);
+        System.out.println("Records: " + records.size() + ", calibration records: " + calibrationSize);
+        System.out.println("engine   accuracy  agreement  max difference  us/record");
+        report("double", network, inputs, records, reference);
+        report("float", new FloatNetwork(network), inputs, records, reference);
+        report("int8", new QuantizedNetwork(network, calibrationInputs), inputs, records, reference);
+    }
+
+    /**
+     * Method classifies all records with given engine and prints comparison with the double network.
+     *
+     * @param name
+     *            engine name
+     * @param engine
+     *            inference engine
+     * @param inputs
+     *            inputs of all records
+     * @param records
+     *            records with expected outputs
+     * @param reference
+     *            outputs of the double network
+     */
+    private static void report(String name, IInferenceEngine engine, double[][] inputs, List<TrainingRecord> records,
+            double[][] reference) {
+        double[][] outputs = engine.calcOutputs(inputs);
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            outputs = engine.calcOutputs(inputs);
+        }
+        final double nanosPerMicro = 1e3;
+        double micros = (System.nanoTime() - start) / nanosPerMicro / TIMED_RUNS / inputs.length;
+
+        int correct = 0;
+        int agreeing = 0;
+        double maxDifference = 0;
+        for (int i = 0; i < inputs.length; i++) {
+            String classified = NeuralNetworkUtility.encodeOutput(outputs[i]);
+            if (classified.trim().equalsIgnoreCase(records.get(i).getExpectedOutput().trim())) {
+                correct++;
+            }
+            if (classified.equals(NeuralNetworkUtility.encodeOutput(reference[i]))) {
+                agreeing++;
+            }
+            for (int j = 0; j < outputs[i].length; j++) {
+                maxDifference = Math.max(maxDifference, Math.abs(outputs[i][j] - reference[i][j]));
+            }
+        }
+        final double percent = 100.0;
+        System.out.printf("%-8s %8.2f%% %9.2f%% %15.6f %10.2f%n", name, percent * correct / inputs.length, percent
+                * agreeing / inputs.length, maxDifference, micros);
+    }
+
+    /**
+     * Private utility class constructor.
+     */
+    private InferenceComparisonDemo() {
+    }
+}
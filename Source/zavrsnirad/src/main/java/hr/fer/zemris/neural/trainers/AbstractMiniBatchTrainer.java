@@ -0,0 +1,186 @@
+package hr.fer.zemris.neural.trainers;
+
+import hr.fer.zemris.neural.INeuralNetwork;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Class models neural network trainer that updates network weights after every mini-batch of training samples.
+ *
+ * Before every epoch training samples are shuffled by permuting an array of sample indexes, so sample arrays are never
+ * copied. Errors of a mini-batch are summed into buffers that are allocated once per trainer and the way weights are
+ * changed with summed errors is defined by subclasses. Errors are added in the form given by
+ * {@link INeuralNetwork#addError(double[], double[], double[], double[], double[], double[])}, so adding them to the
+ * weights moves the network toward expected outputs.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 25.6.2017.
+ */
+public abstract class AbstractMiniBatchTrainer extends AbstractNeuralNetworkTrainer {
+
+    /**
+     * Index of the group of weights between neurons.
+     */
+    protected static final int WEIGHTS_GROUP = 0;
+
+    /**
+     * Index of the group of neurons threshold weights.
+     */
+    protected static final int THRESHOLDS_GROUP = 1;
+
+    /**
+     * Number of parameter groups.
+     */
+    protected static final int GROUPS_NUMBER = 2;
+
+    /**
+     * Number of samples in one mini-batch.
+     */
+    private final int batchSize;
+
+    /**
+     * Random number generator used for shuffling samples.
+     */
+    private final Random random;
+
+    /**
+     * Permutation of training sample indexes.
+     */
+    private int[] permutation = new int[0];
+
+    /**
+     * Outputs of all network neurons for the current sample.
+     */
+    private final double[] neuronOutputs;
+
+    /**
+     * Errors of all network neurons for the current sample.
+     */
+    private final double[] neuronErrors;
+
+    /**
+     * Summed weights error of the current mini-batch.
+     */
+    private final double[] weightsError;
+
+    /**
+     * Summed thresholds error of the current mini-batch.
+     */
+    private final double[] thresholdError;
+
+    /**
+     * Network weights between neurons that are updated in place.
+     */
+    private final double[] weights;
+
+    /**
+     * Neurons threshold weights that are updated in place.
+     */
+    private final double[] thresholdWeights;
+
+    /**
+     * Constructor that initializes trainer with neural network, mini-batch size and random number generator.
+     *
+     * @param network
+     *            neural network
+     * @param batchSize
+     *            number of samples in one mini-batch
+     * @param random
+     *            random number generator used for shuffling samples
+     * @throws IllegalArgumentException
+     *             if network or random is null or batch size isn't positive
+     */
+    protected AbstractMiniBatchTrainer(INeuralNetwork network, int batchSize, Random random)
+            throws IllegalArgumentException {
+        super(network, null);
+        if (random == null) {
+            throw new IllegalArgumentException("Random number generator cannot be null.");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0.");
+        }
+        this.batchSize = batchSize;
+        this.random = random;
+        neuronOutputs = new double[network.getNeuronsNumber()];
+        neuronErrors = new double[neuronOutputs.length];
+        weightsError = new double[network.getWeights().size()];
+        thresholdError = new double[network.getThresholdWeights().size()];
+        weights = new double[weightsError.length];
+        thresholdWeights = new double[thresholdError.length];
+    }
+
+    /**
+     * Method trains neural network for one epoch. Samples are visited in a new random order and weights are updated
+     * after every mini-batch, last mini-batch contains remaining samples.
+     *
+     * @param inputs
+     *            network inputs
+     * @param expectedOutputs
+     *            expected network outputs
+     * @throws IllegalArgumentException
+     *             if number of inputs and expected outputs differs
+     */
+    @Override
+    public void trainOneEpoch(double[][] inputs, double[][] expectedOutputs) throws IllegalArgumentException {
+        INeuralNetwork network = getNetwork();
+        if (inputs.length != expectedOutputs.length) {
+            throw new IllegalArgumentException("Input and output array must be of same size.");
+        }
+        shuffle(inputs.length);
+
+        network.writeParameters(DoubleBuffer.wrap(weights), DoubleBuffer.wrap(thresholdWeights));
+        for (int batchStart = 0; batchStart < inputs.length; batchStart += batchSize) {
+            int batchEnd = Math.min(inputs.length, batchStart + batchSize);
+            for (int i = batchStart; i < batchEnd; i++) {
+                int sample = permutation[i];
+                network.addError(inputs[sample], expectedOutputs[sample], neuronOutputs, neuronErrors, weightsError,
+                        thresholdError);
+            }
+            updateWeights(weights, weightsError, batchEnd - batchStart, WEIGHTS_GROUP);
+            updateWeights(thresholdWeights, thresholdError, batchEnd - batchStart, THRESHOLDS_GROUP);
+            network.readParameters(DoubleBuffer.wrap(weights), DoubleBuffer.wrap(thresholdWeights));
+            Arrays.fill(weightsError, 0);
+            Arrays.fill(thresholdError, 0);
+        }
+    }
+
+    /**
+     * Method updates one group of network parameters with summed errors of a mini-batch. Weights between neurons are
+     * updated first and neurons threshold weights second. Parameters are changed in place and set to the network
+     * after both groups are updated.
+     *
+     * @param parameters
+     *            network parameters that are updated
+     * @param errors
+     *            summed errors of parameters
+     * @param numberOfSamples
+     *            number of samples in the mini-batch
+     * @param group
+     *            parameters group, {@link #WEIGHTS_GROUP} or {@link #THRESHOLDS_GROUP}
+     */
+    protected abstract void updateWeights(double[] parameters, double[] errors, int numberOfSamples, int group);
+
+    /**
+     * Method shuffles permutation of sample indexes with Fisher-Yates algorithm. Permutation is reallocated only if
+     * number of samples changes.
+     *
+     * @param samples
+     *            number of training samples
+     */
+    private void shuffle(int samples) {
+        if (permutation.length != samples) {
+            permutation = new int[samples];
+            for (int i = 0; i < samples; i++) {
+                permutation[i] = i;
+            }
+        }
+        for (int i = samples - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+    }
+}
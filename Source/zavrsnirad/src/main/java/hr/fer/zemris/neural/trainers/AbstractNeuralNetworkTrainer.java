@@ -0,0 +1,229 @@
+package hr.fer.zemris.neural.trainers;
+
+import hr.fer.zemris.neural.INeuralNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Class implements parts of neural network trainer that don't depend on the way weights are changed in one epoch.
+ *
+ * Training with early stopping evaluates network errors on a copy of the trained network. After an epoch is trained
+ * its weights are copied and errors of the copy are calculated in the pool while the next epoch is trained, so
+ * decision to stop is made one epoch later and the extra epoch is discarded when the best weights are restored.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 26.6.2017.
+ */
+public abstract class AbstractNeuralNetworkTrainer implements INeuralNetworkTrainer {
+
+    /**
+     * Neural network that is trained.
+     */
+    private final INeuralNetwork network;
+
+    /**
+     * Pool in which network errors are calculated during training with early stopping.
+     */
+    private final ForkJoinPool validationPool;
+
+    /**
+     * List of training listeners.
+     */
+    private final List<INeuralTrainerListener> listeners = new ArrayList<INeuralTrainerListener>();
+
+    /**
+     * Training set error.
+     */
+    private final List<Double> trainingError = new ArrayList<Double>();
+
+    /**
+     * Validation set error.
+     */
+    private final List<Double> validationError = new ArrayList<Double>();
+
+    /**
+     * Constructor that initializes trainer with neural network and validation pool.
+     *
+     * @param network
+     *            neural network
+     * @param validationPool
+     *            pool in which network errors are calculated during training with early stopping, or null for common
+     *            pool
+     * @throws IllegalArgumentException
+     *             if network is null
+     */
+    protected AbstractNeuralNetworkTrainer(INeuralNetwork network, ForkJoinPool validationPool)
+            throws IllegalArgumentException {
+        if (network == null) {
+            throw new IllegalArgumentException("Neural network cannot be null.");
+        }
+        this.network = network;
+        this.validationPool = validationPool == null ? ForkJoinPool.commonPool() : validationPool;
+    }
+
+    @Override
+    public void addTrainerListener(INeuralTrainerListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void detachTrainerListener(INeuralTrainerListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void train(double[][] inputs, double[][] expectedOutputs, double[][] validationInputs,
+            double[][] validationExpectedOutputs) {
+        final double trainingStopFactor = 2;
+        while (true) {
+            trainOneEpoch(inputs, expectedOutputs);
+
+            trainingError.add(calcAverageTotalNetworkError(network, inputs, expectedOutputs));
+            validationError.add(calcAverageTotalNetworkError(network, validationInputs, validationExpectedOutputs));
+
+            if (trainingError.get(trainingError.size() - 1) * trainingStopFactor < validationError
+                    .get(validationError.size() - 1)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void train(double[][] inputs, double[][] expectedOutputs, double[][] validationInputs,
+            double[][] validationExpectedOutputs, int numOfEpochs, int refreshInterval) {
+        for (int i = 0; i < numOfEpochs; i++) {
+            trainOneEpoch(inputs, expectedOutputs);
+            if (i % refreshInterval == 0) {
+                trainingError.add(calcAverageTotalNetworkError(network, inputs, expectedOutputs));
+                validationError.add(calcAverageTotalNetworkError(network, validationInputs,
+                        validationExpectedOutputs));
+                fire(i);
+            }
+        }
+    }
+
+    @Override
+    public void train(double[][] inputs, double[][] expectedOutputs, double[][] validationInputs,
+            double[][] validationExpectedOutputs, int numOfEpochs, int refreshInterval, EarlyStopping earlyStopping) {
+        earlyStopping.reset();
+        INeuralNetwork copy = network.copy();
+        ForkJoinTask<double[]> pending = null;
+        int pendingEpoch = -1;
+        boolean stop = false;
+        for (int i = 0; i < numOfEpochs; i++) {
+            trainOneEpoch(inputs, expectedOutputs);
+            if (pending != null) {
+                stop = finishEvaluation(pending.join(), pendingEpoch, copy, earlyStopping);
+                if (stop) {
+                    break;
+                }
+            }
+            // copy isn't used by the finished evaluation anymore, so it can take weights of this epoch
+            copy.setWeights(network.getWeights());
+            copy.setThresholdWeights(network.getThresholdWeights());
+            boolean refresh = i % refreshInterval == 0;
+            pending = validationPool.submit(() -> new double[] {
+                refresh ? calcAverageTotalNetworkError(copy, inputs, expectedOutputs) : Double.NaN,
+                calcAverageTotalNetworkError(copy, validationInputs, validationExpectedOutputs) });
+            pendingEpoch = i;
+        }
+        if (pending != null && !stop) {
+            finishEvaluation(pending.join(), pendingEpoch, copy, earlyStopping);
+        }
+        earlyStopping.restoreBestWeights(network);
+    }
+
+    @Override
+    public void train(double[][] inputs, double[][] expectedOutputs, int numOfEpochs) {
+        for (int i = 0; i < numOfEpochs; i++) {
+            trainOneEpoch(inputs, expectedOutputs);
+        }
+    }
+
+    /**
+     * Method trains neural network for one epoch.
+     *
+     * @param inputs
+     *            network inputs
+     * @param expectedOutputs
+     *            expected network outputs
+     */
+    public abstract void trainOneEpoch(double[][] inputs, double[][] expectedOutputs);
+
+    /**
+     * Method obtains trained neural network.
+     *
+     * @return neural network
+     */
+    protected INeuralNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Method records calculated errors of an epoch and passes validation error to early stopping controller.
+     *
+     * @param errors
+     *            training error, NaN if it wasn't calculated, and validation error
+     * @param epoch
+     *            epoch index
+     * @param copy
+     *            network copy with weights of the epoch
+     * @param earlyStopping
+     *            early stopping controller
+     * @return true if training should stop, false otherwise
+     */
+    private boolean finishEvaluation(double[] errors, int epoch, INeuralNetwork copy, EarlyStopping earlyStopping) {
+        if (!Double.isNaN(errors[0])) {
+            trainingError.add(errors[0]);
+            validationError.add(errors[1]);
+            fire(epoch);
+        }
+        return earlyStopping.update(errors[1], epoch, copy);
+    }
+
+    /**
+     * Method calculates average network error for n examples.
+     *
+     * @param network
+     *            network which error is calculated
+     * @param inputs
+     *            array with input examples
+     * @param expectedOutputs
+     *            array with expected outputs
+     * @return average network error
+     */
+    private static double calcAverageTotalNetworkError(INeuralNetwork network, double[][] inputs,
+            double[][] expectedOutputs) {
+        if (inputs.length != expectedOutputs.length || inputs.length < 1 || inputs[0].length < 1) {
+            throw new IllegalArgumentException(
+                    "Input and output array must be of same size and size must be greater than 0.");
+        }
+        double[][] outputs = network.calcOutputs(inputs);
+        double sum = 0;
+        for (int i = 0; i < inputs.length; i++) {
+            if (outputs[i].length != expectedOutputs[i].length) {
+                throw new IllegalArgumentException("Given arguments must be of same length.");
+            }
+            double totalError = 0;
+            for (int j = 0; j < outputs[i].length; j++) {
+                totalError += Math.pow(expectedOutputs[i][j] - outputs[i][j], 2);
+            }
+            sum += totalError / 2;
+        }
+        return sum / inputs.length;
+    }
+
+    /**
+     * Method notifies all training listeners.
+     *
+     * @param epoch
+     *            current epoch
+     */
+    private void fire(int epoch) {
+        listeners.forEach(i -> i.stateChanged(trainingError.get(trainingError.size() - 1),
+                validationError.get(validationError.size() - 1), epoch));
+    }
+}
@@ -0,0 +1,143 @@
+package hr.fer.zemris.neural.trainers;
+
+import hr.fer.zemris.neural.INeuralNetwork;
+
+import java.util.Random;
+
+/**
+ * Class models mini-batch trainer that uses Adam algorithm. Every weight keeps exponential moving averages of its
+ * average mini-batch error and of the squared error, and it is changed by the learning rate multiplied by bias corrected
+ * first average divided by square root of bias corrected second average. Algorithm is described in Kingma, Ba: Adam: A
+ * Method for Stochastic Optimization.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 25.6.2017.
+ */
+public class AdamTrainer extends AbstractMiniBatchTrainer {
+
+    /**
+     * Default learning rate.
+     */
+    public static final double DEFAULT_LEARNING_RATE = 0.001;
+
+    /**
+     * Default decay rate of the first moment average.
+     */
+    public static final double DEFAULT_BETA1 = 0.9;
+
+    /**
+     * Default decay rate of the second moment average.
+     */
+    public static final double DEFAULT_BETA2 = 0.999;
+
+    /**
+     * Default value added to denominator to avoid division by zero.
+     */
+    public static final double DEFAULT_EPSILON = 1e-8;
+
+    /**
+     * Training learning rate.
+     */
+    private final double learningRate;
+
+    /**
+     * Decay rate of the first moment average.
+     */
+    private final double beta1;
+
+    /**
+     * Decay rate of the second moment average.
+     */
+    private final double beta2;
+
+    /**
+     * Value added to denominator to avoid division by zero.
+     */
+    private final double epsilon;
+
+    /**
+     * First moment averages for every parameters group.
+     */
+    private final double[][] firstMoment = new double[GROUPS_NUMBER][];
+
+    /**
+     * Second moment averages for every parameters group.
+     */
+    private final double[][] secondMoment = new double[GROUPS_NUMBER][];
+
+    /**
+     * Number of performed updates for every parameters group.
+     */
+    private final int[] steps = new int[GROUPS_NUMBER];
+
+    /**
+     * Constructor that initializes trainer with neural network, learning rate and default decay rates.
+     *
+     * @param network
+     *            neural network
+     * @param learningRate
+     *            learning rate
+     * @param batchSize
+     *            number of samples in one mini-batch
+     */
+    public AdamTrainer(INeuralNetwork network, double learningRate, int batchSize) {
+        this(network, learningRate, batchSize, DEFAULT_BETA1, DEFAULT_BETA2, DEFAULT_EPSILON, new Random());
+    }
+
+    /**
+     * Constructor that initializes trainer with neural network and all training parameters.
+     *
+     * @param network
+     *            neural network
+     * @param learningRate
+     *            learning rate
+     * @param batchSize
+     *            number of samples in one mini-batch
+     * @param beta1
+     *            decay rate of the first moment average from interval [0, 1)
+     * @param beta2
+     *            decay rate of the second moment average from interval [0, 1)
+     * @param epsilon
+     *            positive value added to denominator to avoid division by zero
+     * @param random
+     *            random number generator used for shuffling samples
+     * @throws IllegalArgumentException
+     *             if decay rates or epsilon are out of range or other arguments are invalid
+     */
+    public AdamTrainer(INeuralNetwork network, double learningRate, int batchSize, double beta1, double beta2,
+            double epsilon, Random random) throws IllegalArgumentException {
+        super(network, batchSize, random);
+        if (beta1 < 0 || beta1 >= 1 || beta2 < 0 || beta2 >= 1) {
+            throw new IllegalArgumentException("Decay rates must be from interval [0, 1).");
+        }
+        if (epsilon <= 0) {
+            throw new IllegalArgumentException("Epsilon must be greater than 0.");
+        }
+        this.learningRate = learningRate;
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+        int[] sizes = new int[GROUPS_NUMBER];
+        sizes[WEIGHTS_GROUP] = network.getWeights().size();
+        sizes[THRESHOLDS_GROUP] = network.getThresholdWeights().size();
+        for (int group = 0; group < GROUPS_NUMBER; group++) {
+            firstMoment[group] = new double[sizes[group]];
+            secondMoment[group] = new double[sizes[group]];
+        }
+    }
+
+    @Override
+    protected void updateWeights(double[] parameters, double[] errors, int numberOfSamples, int group) {
+        double[] m = firstMoment[group];
+        double[] v = secondMoment[group];
+        int step = ++steps[group];
+        double stepSize = learningRate * Math.sqrt(1 - Math.pow(beta2, step)) / (1 - Math.pow(beta1, step));
+        double correctedEpsilon = epsilon * Math.sqrt(1 - Math.pow(beta2, step));
+        for (int i = 0; i < m.length; i++) {
+            double error = errors[i] / numberOfSamples;
+            m[i] = beta1 * m[i] + (1 - beta1) * error;
+            v[i] = beta2 * v[i] + (1 - beta2) * error * error;
+            parameters[i] += stepSize * m[i] / (Math.sqrt(v[i]) + correctedEpsilon);
+        }
+    }
+}
@@ -2,42 +2,49 @@ package hr.fer.zemris.neural.trainers;
 
 import hr.fer.zemris.neural.INeuralNetwork;
 
-import java.util.ArrayList;
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Class models classic backpropagation training system.
  *
+ * Errors of all samples are summed into primitive buffers that are allocated once and reused in every epoch. Trainer
+ * can calculate errors of one epoch in parallel. Training samples are then divided into one shard per pool thread,
+ * every shard sums errors of its samples into its own buffers while network weights are only read, and shard errors
+ * are summed in a fixed binary tree. Order of all additions depends only on number of samples and pool
+ * parallelism, so training with the same number of threads always gives the same weights.
+ *
  * @author Domagoj Pluscec
  * @version v1.0, 10.6.2017.
  */
-public class ClassicBackPropagationTrainer implements INeuralNetworkTrainer {
+public class ClassicBackPropagationTrainer extends AbstractNeuralNetworkTrainer {
 
-    /**
-     * Neural network that is trained.
-     */
-    private INeuralNetwork network;
     /**
      * Training learning rate.
      */
     private double learningRate;
 
     /**
-     * List of training listeners.
+     * Pool used for parallel error calculation or null for sequential training.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Error buffers of every shard, reused in every epoch.
      */
-    private List<INeuralTrainerListener> listeners;
+    private NetworkError[] buffers;
 
     /**
-     * Training set error.
+     * Buffer of network weights between neurons, reused in every epoch.
      */
-    private List<Double> trainingError = new ArrayList<Double>();
+    private double[] weights;
 
     /**
-     * Validation set error.
+     * Buffer of neurons threshold weights, reused in every epoch.
      */
-    private List<Double> validationError = new ArrayList<Double>();
+    private double[] thresholdWeights;
 
     /**
      * Constructor that initializes trainer with neural network and learning rate.
@@ -48,193 +55,283 @@ public class ClassicBackPropagationTrainer implements INeuralNetworkTrainer {
      *            learning rate
      */
     public ClassicBackPropagationTrainer(INeuralNetwork network, double leariningRate) {
-        this.network = network;
-        this.learningRate = leariningRate;
-        listeners = new ArrayList<INeuralTrainerListener>();
+        this(network, leariningRate, null);
     }
 
     /**
-     * Method adds values from double array to list of doubles.
+     * Constructor that initializes trainer with neural network, learning rate and pool used for training.
      *
-     * @param list
-     *            list of doubles
-     * @param array
-     *            double array
+     * @param network
+     *            neural network
+     * @param leariningRate
+     *            learning rate
+     * @param pool
+     *            pool used for parallel error calculation and validation, or null for sequential training
      */
-    private void addArrayValuesToList(List<Double> list, double[] array) {
-
-        for (int i = 0; i < array.length; i++) {
-            list.set(i, list.get(i) + array[i]);
-        }
-    }
-
-    @Override
-    public void addTrainerListener(INeuralTrainerListener listener) {
-        listeners.add(listener);
+    public ClassicBackPropagationTrainer(INeuralNetwork network, double leariningRate, ForkJoinPool pool) {
+        super(network, pool);
+        this.learningRate = leariningRate;
+        this.pool = pool;
     }
 
     /**
-     * Method calculates average network error for n examples.
+     * MEthod trains neural network for one epoch. Errors are summed into primitive buffers that are kept by the trainer
+     * and reused in every epoch.
      *
      * @param inputs
-     *            array with input examples
+     *            network inputs
      * @param expectedOutputs
-     *            array with expected outputs
-     * @return average network error
+     *            expected network outputs
      */
-    private Double calcAverageTotalNetworkError(double[][] inputs, double[][] expectedOutputs) {
-        if (inputs.length != expectedOutputs.length || inputs.length < 1 || inputs[0].length < 1) {
-            throw new IllegalArgumentException(
-                    "Input and output array must be of same size and size must be greater than 0.");
+    @Override
+    public void trainOneEpoch(double[][] inputs, double[][] expectedOutputs) {
+        INeuralNetwork network = getNetwork();
+        NetworkError error;
+        if (pool != null && inputs.length > 1) {
+            int shards = Math.min(inputs.length, pool.getParallelism());
+            error = pool.invoke(new ErrorTask(network, inputs, expectedOutputs, obtainBuffers(shards), 0, shards));
+        } else {
+            error = obtainBuffers(1)[0];
+            error.clear();
+            for (int j = 0; j < inputs.length; j++) {
+                network.addError(inputs[j], expectedOutputs[j], error.neuronOutputs, error.neuronErrors,
+                        error.weightsError, error.thresholdError);
+            }
         }
 
-        double sum = 0;
-
-        for (int i = 0; i < inputs.length; i++) {
-            network.calcOutput(inputs[i]);
-            sum += calculateNetworkTotalError(network.getNetworkOutput(), expectedOutputs[i]);
+        if (weights == null || weights.length != error.weightsError.length
+                || thresholdWeights.length != error.thresholdError.length) {
+            weights = new double[error.weightsError.length];
+            thresholdWeights = new double[error.thresholdError.length];
         }
-
-        return sum / inputs.length;
+        network.writeParameters(DoubleBuffer.wrap(weights), DoubleBuffer.wrap(thresholdWeights));
+        updateWeights(weights, thresholdWeights, error.weightsError, error.thresholdError, inputs.length);
+        network.readParameters(DoubleBuffer.wrap(weights), DoubleBuffer.wrap(thresholdWeights));
     }
 
     /**
-     * Method calculates total neural network error.
+     * Method obtains error buffers for given number of shards. Buffers are allocated again only if number of shards or
+     * size of the network changes.
      *
-     * @param givenOutput
-     *            network output
-     * @param expectedOutput
-     *            expected network output
-     * @return network error
+     * @param shards
+     *            number of shards
+     * @return error buffers of every shard
      */
-    private double calculateNetworkTotalError(double[] givenOutput, double[] expectedOutput) {
-        if (givenOutput.length != expectedOutput.length) {
-            System.out.println(Arrays.toString(givenOutput));
-            System.out.println(Arrays.toString(expectedOutput));
-            throw new IllegalArgumentException("Given arguments must be of same length.");
-        }
-        double totalError = 0;
-        for (int i = 0; i < givenOutput.length; i++) {
-            totalError += Math.pow(expectedOutput[i] - givenOutput[i], 2);
+    private NetworkError[] obtainBuffers(int shards) {
+        INeuralNetwork network = getNetwork();
+        int weightsNumber = network.getWeights().size();
+        int thresholdsNumber = network.getThresholdWeights().size();
+        int neuronsNumber = network.getNeuronsNumber();
+        if (buffers == null || buffers.length != shards || buffers[0].weightsError.length != weightsNumber
+                || buffers[0].thresholdError.length != thresholdsNumber
+                || buffers[0].neuronOutputs.length != neuronsNumber) {
+            buffers = new NetworkError[shards];
+            for (int i = 0; i < shards; i++) {
+                buffers[i] = new NetworkError(weightsNumber, thresholdsNumber, neuronsNumber);
+            }
         }
-        return totalError / 2;
-    }
-
-    @Override
-    public void detachTrainerListener(INeuralTrainerListener listener) {
-        listeners.remove(listener);
+        return buffers;
     }
 
     /**
-     * Method notifies all training listeners.
+     * Method updates neural network weights.
      *
-     * @param epoch
-     *            current epoch
+     * @param weights
+     *            weights between neurons
+     * @param thresholdWeights
+     *            neurons threshold weight
+     * @param weightsError
+     *            weights error
+     * @param thresholdError
+     *            neurons threshold error
+     * @param numberOfSamples
+     *            number of training samples
      */
-    private void fire(int epoch) {
-        listeners.forEach(i -> i.stateChanged(trainingError.get(trainingError.size() - 1),
-                validationError.get(validationError.size() - 1), epoch));
-    }
+    private void updateWeights(double[] weights, double[] thresholdWeights, double[] weightsError,
+            double[] thresholdError, int numberOfSamples) {
 
-    @Override
-    public void train(double[][] inputs, double[][] expectedOutputs, double[][] validationInputs,
-            double[][] validationExpectedOutputs) {
-        final double trainingStopFactor = 2;
-        while (true) {
-            trainOneEpoch(inputs, expectedOutputs);
-
-            trainingError.add(calcAverageTotalNetworkError(inputs, expectedOutputs));
-            validationError.add(calcAverageTotalNetworkError(validationInputs, validationExpectedOutputs));
-
-            if (trainingError.get(trainingError.size() - 1) * trainingStopFactor < validationError.get(trainingError
-                    .size() - 1)) {
-                return;
-            }
+        double eta = learningRate / numberOfSamples;
+        for (int i = 0, end = weights.length; i < end; i++) {
+            weights[i] += eta * weightsError[i];
         }
-    }
 
-    @Override
-    public void train(double[][] inputs, double[][] expectedOutputs, double[][] validationInputs,
-            double[][] validationExpectedOutputs, int numOfEpochs, int refreshInterval) {
-
-        for (int i = 0; i < numOfEpochs; i++) {
-
-            trainOneEpoch(inputs, expectedOutputs);
-            if (i % refreshInterval == 0) {
-                trainingError.add(calcAverageTotalNetworkError(inputs, expectedOutputs));
-                validationError.add(calcAverageTotalNetworkError(validationInputs, validationExpectedOutputs));
-                fire(i);
-            }
+        for (int i = 0, end = thresholdWeights.length; i < end; i++) {
+            thresholdWeights[i] += eta * thresholdError[i];
 
         }
 
     }
 
-    @Override
-    public void train(double[][] inputs, double[][] expectedOutputs, int numOfEpochs) {
-        for (int i = 0; i < numOfEpochs; i++) {
-            trainOneEpoch(inputs, expectedOutputs);
-        }
-    }
-
     /**
-     * MEthod trains neural network for one epoch.
+     * Summed weight and threshold errors of training samples together with neuron buffers used while errors are
+     * calculated.
      *
-     * @param inputs
-     *            network inputs
-     * @param expectedOutputs
-     *            expected network outputs
+     * @author Domagoj Pluscec
+     * @version v1.0, 24.6.2017.
      */
-    public void trainOneEpoch(double[][] inputs, double[][] expectedOutputs) {
-
-        List<Double> weights = network.getWeights();
-        List<Double> thresholdWeights = network.getThresholdWeights();
-        List<Double> weightsError = new ArrayList<>(Collections.nCopies(weights.size(), 0.));
-        List<Double> thresholdError = new ArrayList<>(Collections.nCopies(thresholdWeights.size(), 0.));
-        for (int j = 0; j < inputs.length; j++) {
-
-            network.calcOutput(inputs[j]);
-            network.calcError(expectedOutputs[j]);
+    private static class NetworkError {
+
+        /**
+         * Summed weights error.
+         */
+        private final double[] weightsError;
+
+        /**
+         * Summed thresholds error.
+         */
+        private final double[] thresholdError;
+
+        /**
+         * Outputs of all network neurons for the current sample.
+         */
+        private final double[] neuronOutputs;
+
+        /**
+         * Errors of all network neurons for the current sample.
+         */
+        private final double[] neuronErrors;
+
+        /**
+         * Constructor that initializes zero errors.
+         *
+         * @param weightsNumber
+         *            number of network weights
+         * @param thresholdsNumber
+         *            number of network threshold weights
+         * @param neuronsNumber
+         *            number of network neurons
+         */
+        NetworkError(int weightsNumber, int thresholdsNumber, int neuronsNumber) {
+            weightsError = new double[weightsNumber];
+            thresholdError = new double[thresholdsNumber];
+            neuronOutputs = new double[neuronsNumber];
+            neuronErrors = new double[neuronsNumber];
+        }
 
-            addArrayValuesToList(weightsError, network.getWeightsError());
-            addArrayValuesToList(thresholdError, network.getThresholdError());
+        /**
+         * Method sets all summed errors to zero.
+         */
+        void clear() {
+            Arrays.fill(weightsError, 0);
+            Arrays.fill(thresholdError, 0);
         }
 
-        try {
-            updateWeights(weights, thresholdWeights, weightsError, thresholdError, inputs.length);
-        } catch (Exception e) {
-            e.printStackTrace();
+        /**
+         * Method adds other errors to this errors.
+         *
+         * @param other
+         *            errors to add
+         * @return this errors
+         */
+        NetworkError add(NetworkError other) {
+            for (int i = 0; i < weightsError.length; i++) {
+                weightsError[i] += other.weightsError[i];
+            }
+            for (int i = 0; i < thresholdError.length; i++) {
+                thresholdError[i] += other.thresholdError[i];
+            }
+            return this;
         }
-        network.setWeights(weights);
-        network.setThresholdWeights(thresholdWeights);
     }
 
     /**
-     * Method updates neural network weights.
+     * Task that sums errors of a range of sample shards. Range is split in half until it contains one shard, so shard
+     * errors are always summed in the same order.
      *
-     * @param weights
-     *            weights between neurons
-     * @param thresholdWeights
-     *            neurons threshold weight
-     * @param weightsError
-     *            weights error
-     * @param thresholdError
-     *            neurons threshold error
-     * @param numberOfSamples
-     *            number of training samples
+     * @author Domagoj Pluscec
+     * @version v1.0, 24.6.2017.
      */
-    private void updateWeights(List<Double> weights, List<Double> thresholdWeights, List<Double> weightsError,
-            List<Double> thresholdError, int numberOfSamples) {
-
-        double eta = learningRate / numberOfSamples;
-        for (int i = 0, end = weights.size(); i < end; i++) {
-            weights.set(i, weights.get(i) + eta * weightsError.get(i));
+    private static class ErrorTask extends RecursiveTask<NetworkError> {
+
+        /**
+         * Number that JVM uses for serialization.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Trained neural network.
+         */
+        private final INeuralNetwork network;
+
+        /**
+         * Network inputs.
+         */
+        private final double[][] inputs;
+
+        /**
+         * Expected network outputs.
+         */
+        private final double[][] expectedOutputs;
+
+        /**
+         * Error buffers of every shard.
+         */
+        private final NetworkError[] buffers;
+
+        /**
+         * First shard of the range.
+         */
+        private final int fromShard;
+
+        /**
+         * Shard after the last shard of the range.
+         */
+        private final int toShard;
+
+        /**
+         * Constructor that initializes task for a range of shards.
+         *
+         * @param network
+         *            trained neural network
+         * @param inputs
+         *            network inputs
+         * @param expectedOutputs
+         *            expected network outputs
+         * @param buffers
+         *            error buffers of every shard
+         * @param fromShard
+         *            first shard of the range
+         * @param toShard
+         *            shard after the last shard of the range
+         */
+        ErrorTask(INeuralNetwork network, double[][] inputs, double[][] expectedOutputs, NetworkError[] buffers,
+                int fromShard, int toShard) {
+            this.network = network;
+            this.inputs = inputs;
+            this.expectedOutputs = expectedOutputs;
+            this.buffers = buffers;
+            this.fromShard = fromShard;
+            this.toShard = toShard;
         }
 
-        for (int i = 0, end = thresholdWeights.size(); i < end; i++) {
-            thresholdWeights.set(i, thresholdWeights.get(i) + eta * thresholdError.get(i));
-
+        @Override
+        protected NetworkError compute() {
+            if (toShard - fromShard == 1) {
+                return computeShard();
+            }
+            int middle = (fromShard + toShard) >>> 1;
+            ErrorTask upper = new ErrorTask(network, inputs, expectedOutputs, buffers, fromShard, middle);
+            ErrorTask lower = new ErrorTask(network, inputs, expectedOutputs, buffers, middle, toShard);
+            upper.fork();
+            NetworkError lowerResult = lower.compute();
+            return upper.join().add(lowerResult);
         }
 
+        /**
+         * Method sums errors of all samples of one shard into shard buffers.
+         *
+         * @return shard errors
+         */
+        private NetworkError computeShard() {
+            NetworkError error = buffers[fromShard];
+            error.clear();
+            int from = (int) ((long) inputs.length * fromShard / buffers.length);
+            int to = (int) ((long) inputs.length * toShard / buffers.length);
+            for (int i = from; i < to; i++) {
+                network.addError(inputs[i], expectedOutputs[i], error.neuronOutputs, error.neuronErrors,
+                        error.weightsError, error.thresholdError);
+            }
+            return error;
+        }
     }
 }
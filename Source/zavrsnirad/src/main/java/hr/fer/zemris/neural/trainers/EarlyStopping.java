@@ -0,0 +1,144 @@
+package hr.fer.zemris.neural.trainers;
+
+import hr.fer.zemris.neural.INeuralNetwork;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Class models early stopping of neural network training. Controller keeps the smallest validation error and a copy of
+ * weights with which it was reached. Error is improved only if it is smaller than the best error by more than minimal
+ * delta and training should stop when error wasn't improved for patience number of consecutive epochs.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 26.6.2017.
+ */
+public class EarlyStopping {
+
+    /**
+     * Number of epochs without improvement after which training stops.
+     */
+    private final int patience;
+
+    /**
+     * Minimal decrease of validation error that counts as improvement.
+     */
+    private final double minDelta;
+
+    /**
+     * Smallest validation error.
+     */
+    private double bestError;
+
+    /**
+     * Epoch in which the smallest validation error was reached.
+     */
+    private int bestEpoch;
+
+    /**
+     * Number of consecutive epochs without improvement.
+     */
+    private int epochsWithoutImprovement;
+
+    /**
+     * Weights of the best network or null if no error has been given.
+     */
+    private double[] bestWeights;
+
+    /**
+     * Threshold weights of the best network or null if no error has been given.
+     */
+    private double[] bestThresholdWeights;
+
+    /**
+     * Constructor that initializes early stopping parameters.
+     *
+     * @param patience
+     *            number of epochs without improvement after which training stops
+     * @param minDelta
+     *            minimal decrease of validation error that counts as improvement
+     * @throws IllegalArgumentException
+     *             if patience isn't positive or minimal delta is negative
+     */
+    public EarlyStopping(int patience, double minDelta) throws IllegalArgumentException {
+        if (patience < 1) {
+            throw new IllegalArgumentException("Patience must be greater than 0.");
+        }
+        if (minDelta < 0) {
+            throw new IllegalArgumentException("Minimal delta cannot be negative.");
+        }
+        this.patience = patience;
+        this.minDelta = minDelta;
+        reset();
+    }
+
+    /**
+     * Method resets controller state so it can be used for new training.
+     */
+    public void reset() {
+        bestError = Double.POSITIVE_INFINITY;
+        bestEpoch = -1;
+        epochsWithoutImprovement = 0;
+    }
+
+    /**
+     * Method records validation error of an epoch. If error is improved network weights are copied.
+     *
+     * @param validationError
+     *            validation error
+     * @param epoch
+     *            epoch index
+     * @param network
+     *            network which has given validation error
+     * @return true if training should stop, false otherwise
+     */
+    public boolean update(double validationError, int epoch, INeuralNetwork network) {
+        if (validationError < bestError - minDelta) {
+            bestError = validationError;
+            bestEpoch = epoch;
+            epochsWithoutImprovement = 0;
+            int weightsNumber = network.getWeights().size();
+            int thresholdsNumber = network.getThresholdWeights().size();
+            if (bestWeights == null || bestWeights.length != weightsNumber
+                    || bestThresholdWeights.length != thresholdsNumber) {
+                bestWeights = new double[weightsNumber];
+                bestThresholdWeights = new double[thresholdsNumber];
+            }
+            network.writeParameters(DoubleBuffer.wrap(bestWeights), DoubleBuffer.wrap(bestThresholdWeights));
+            return false;
+        }
+        epochsWithoutImprovement++;
+        return epochsWithoutImprovement >= patience;
+    }
+
+    /**
+     * Method sets network weights to the weights with the smallest validation error. Nothing is changed if no error has
+     * been recorded since the last reset.
+     *
+     * @param network
+     *            network which weights are restored
+     */
+    public void restoreBestWeights(INeuralNetwork network) {
+        if (bestEpoch < 0) {
+            return;
+        }
+        network.readParameters(DoubleBuffer.wrap(bestWeights), DoubleBuffer.wrap(bestThresholdWeights));
+    }
+
+    /**
+     * Method obtains the smallest validation error.
+     *
+     * @return smallest validation error
+     */
+    public double getBestError() {
+        return bestError;
+    }
+
+    /**
+     * Method obtains epoch in which the smallest validation error was reached.
+     *
+     * @return epoch index or -1 if no error has been recorded
+     */
+    public int getBestEpoch() {
+        return bestEpoch;
+    }
+}
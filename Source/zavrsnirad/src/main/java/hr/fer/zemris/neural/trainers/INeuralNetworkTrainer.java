@@ -58,6 +58,28 @@ public interface INeuralNetworkTrainer {
     void train(double[][] inputs, double[][] expectedOutputs, double[][] validationInputs,
             double[][] validationExpectedOutputs, int numOfEpochs, int refreshInterval);
 
+    /**
+     * Method trains neural network until early stopping controller stops training or given number of epochs is
+     * reached. At the end network weights are set to the weights with the smallest validation error.
+     *
+     * @param inputs
+     *            neural network inputs
+     * @param expectedOutputs
+     *            neural network expected outputs
+     * @param validationInputs
+     *            validation set inputs
+     * @param validationExpectedOutputs
+     *            validation set expected outputs
+     * @param numOfEpochs
+     *            maximal number of training epochs
+     * @param refreshInterval
+     *            each refresh interval epoch all listeners should be notified about training progress
+     * @param earlyStopping
+     *            early stopping controller
+     */
+    void train(double[][] inputs, double[][] expectedOutputs, double[][] validationInputs,
+            double[][] validationExpectedOutputs, int numOfEpochs, int refreshInterval, EarlyStopping earlyStopping);
+
     /**
      * Method trains neural network.
      *
@@ -0,0 +1,85 @@
+package hr.fer.zemris.neural.trainers;
+
+import hr.fer.zemris.neural.INeuralNetwork;
+
+import java.util.Random;
+
+/**
+ * Class models mini-batch gradient descent trainer with momentum. Every weight keeps its last change and the new change
+ * is the learning rate multiplied by average mini-batch error plus the last change multiplied by momentum. With
+ * momentum 0 trainer performs plain mini-batch stochastic gradient descent.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 25.6.2017.
+ */
+public class MomentumTrainer extends AbstractMiniBatchTrainer {
+
+    /**
+     * Training learning rate.
+     */
+    private final double learningRate;
+
+    /**
+     * Momentum, part of the last weight change added to the current change.
+     */
+    private final double momentum;
+
+    /**
+     * Last changes of network parameters for every parameters group.
+     */
+    private final double[][] velocity = new double[GROUPS_NUMBER][];
+
+    /**
+     * Constructor that initializes trainer with neural network and training parameters.
+     *
+     * @param network
+     *            neural network
+     * @param learningRate
+     *            learning rate
+     * @param momentum
+     *            momentum from interval [0, 1)
+     * @param batchSize
+     *            number of samples in one mini-batch
+     */
+    public MomentumTrainer(INeuralNetwork network, double learningRate, double momentum, int batchSize) {
+        this(network, learningRate, momentum, batchSize, new Random());
+    }
+
+    /**
+     * Constructor that initializes trainer with neural network, training parameters and random number generator.
+     *
+     * @param network
+     *            neural network
+     * @param learningRate
+     *            learning rate
+     * @param momentum
+     *            momentum from interval [0, 1)
+     * @param batchSize
+     *            number of samples in one mini-batch
+     * @param random
+     *            random number generator used for shuffling samples
+     * @throws IllegalArgumentException
+     *             if momentum isn't from interval [0, 1) or other arguments are invalid
+     */
+    public MomentumTrainer(INeuralNetwork network, double learningRate, double momentum, int batchSize,
+            Random random) throws IllegalArgumentException {
+        super(network, batchSize, random);
+        if (momentum < 0 || momentum >= 1) {
+            throw new IllegalArgumentException("Momentum must be from interval [0, 1).");
+        }
+        this.learningRate = learningRate;
+        this.momentum = momentum;
+        velocity[WEIGHTS_GROUP] = new double[network.getWeights().size()];
+        velocity[THRESHOLDS_GROUP] = new double[network.getThresholdWeights().size()];
+    }
+
+    @Override
+    protected void updateWeights(double[] parameters, double[] errors, int numberOfSamples, int group) {
+        double[] change = velocity[group];
+        double eta = learningRate / numberOfSamples;
+        for (int i = 0; i < change.length; i++) {
+            change[i] = momentum * change[i] + eta * errors[i];
+            parameters[i] += change[i];
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package hr.fer.zemris.studentforms.classification;
+
+/**
+ * Algorithm used for training neural network.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 25.6.2017.
+ */
+public enum TrainingAlgorithm {
+    /**
+     * Backpropagation that updates weights once per epoch.
+     */
+    BACKPROPAGATION("Backpropagation"),
+    /**
+     * Mini-batch gradient descent with momentum.
+     */
+    MOMENTUM("Mini-batch with momentum"),
+    /**
+     * Mini-batch Adam algorithm.
+     */
+    ADAM("Mini-batch Adam");
+
+    /**
+     * Algorithm name shown to user.
+     */
+    private final String name;
+
+    /**
+     * Constructor that initializes algorithm with its name.
+     *
+     * @param name
+     *            algorithm name shown to user
+     */
+    TrainingAlgorithm(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -4,10 +4,14 @@ import hr.fer.zemris.neural.INeuralNetwork;
 import hr.fer.zemris.neural.NeuralNetworkUtility;
 import hr.fer.zemris.neural.datastructures.TrainingRecord;
 import hr.fer.zemris.neural.datastructures.TrainingRecordUtility;
+import hr.fer.zemris.neural.trainers.AdamTrainer;
 import hr.fer.zemris.neural.trainers.ClassicBackPropagationTrainer;
+import hr.fer.zemris.neural.trainers.EarlyStopping;
 import hr.fer.zemris.neural.trainers.INeuralNetworkTrainer;
 import hr.fer.zemris.neural.trainers.INeuralTrainerListener;
+import hr.fer.zemris.neural.trainers.MomentumTrainer;
 import hr.fer.zemris.studentforms.classification.ClassificationStatus;
+import hr.fer.zemris.studentforms.classification.TrainingAlgorithm;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -17,6 +21,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
@@ -56,6 +61,11 @@ public class ClassificationDataModel {
 
         private int refreshInterval;
 
+        /**
+         * Early stopping controller or null if training runs for all epochs.
+         */
+        private EarlyStopping earlyStopping;
+
         /**
          * Constructor that initializes training worker with training parameters.
          *
@@ -67,15 +77,20 @@ public class ClassificationDataModel {
          *            training set
          * @param evaluationRecords
          *            evaluation set
+         * @param refreshInterval
+         *            number of epochs between training progress updates
+         * @param earlyStopping
+         *            early stopping controller or null if training runs for all epochs
          */
         TrainingWorker(INeuralNetworkTrainer trainer, Integer epochsNumber, List<TrainingRecord> trainingRecords,
-                List<TrainingRecord> evaluationRecords, int refreshInterval) {
+                List<TrainingRecord> evaluationRecords, int refreshInterval, EarlyStopping earlyStopping) {
             super();
             this.trainer = trainer;
             this.epochsNumber = epochsNumber;
             this.trainingRecords = trainingRecords;
             this.evaluationRecords = evaluationRecords;
             this.refreshInterval = refreshInterval;
+            this.earlyStopping = earlyStopping;
 
         }
 
@@ -93,7 +108,8 @@ public class ClassificationDataModel {
             };
 
             trainer.addTrainerListener(trainerListener);
-            NeuralNetworkUtility.train(trainer, trainingRecords, evaluationRecords, epochsNumber, refreshInterval);
+            NeuralNetworkUtility.train(trainer, trainingRecords, evaluationRecords, epochsNumber, refreshInterval,
+                    earlyStopping);
 
             return null;
         }
@@ -184,6 +200,18 @@ public class ClassificationDataModel {
         listeners.forEach(i -> i.trainingProgressUpdate(trainingError, validationError, epoch));
     }
 
+    /**
+     * Method notifies listeners for examples loading progress update.
+     *
+     * @param loaded
+     *            number of loaded records
+     * @param total
+     *            number of all records
+     */
+    private void fireExamplesLoadingProgressUpdate(int loaded, int total) {
+        listeners.forEach(i -> i.examplesLoadingProgressUpdate(loaded, total));
+    }
+
     /**
      * Method obtains data model neural network.
      *
@@ -194,7 +222,8 @@ public class ClassificationDataModel {
     }
 
     /**
-     * Method loads training file. File loading is done in separate thread.
+     * Method loads training file. File loading is done in separate thread and listeners are notified about loading
+     * progress. If loading fails listeners are notified with zero loaded and zero total records.
      *
      * @param trainingFile
      *            file containing evaluation training records details
@@ -204,12 +233,18 @@ public class ClassificationDataModel {
             @Override
             public void run() {
                 try {
-                    List<TrainingRecord> records = TrainingRecordUtility.fromFile(examplesFile, imageSquareDimension);
+                    List<TrainingRecord> records = TrainingRecordUtility.fromFile(examplesFile, imageSquareDimension,
+                            (loaded, total) -> SwingUtilities.invokeLater(() -> fireExamplesLoadingProgressUpdate(
+                                    loaded, total)));
 
                     SwingUtilities.invokeLater(() -> setExamples(records));
-                } catch (IOException | NullPointerException e) {
-                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, "Couldn't load file",
-                            "Load training set error\n" + e.getMessage(), JOptionPane.ERROR_MESSAGE));
+                } catch (IOException | IllegalArgumentException | NullPointerException e) {
+                    SwingUtilities.invokeLater(() -> {
+                        // loading stopped, so listeners hide progress
+                        fireExamplesLoadingProgressUpdate(0, 0);
+                        JOptionPane.showMessageDialog(null, "Couldn't load file", "Load training set error\n"
+                                + e.getMessage(), JOptionPane.ERROR_MESSAGE);
+                    });
                 }
 
             }
@@ -380,6 +415,31 @@ public class ClassificationDataModel {
      *             if neural netowrk or examples are not defined.
      */
     public void train(Double learningRate, Integer epochsNumber, Integer refreshInterval) throws IllegalStateException {
+        train(TrainingAlgorithm.BACKPROPAGATION, learningRate, 1, 0., epochsNumber, refreshInterval, null);
+    }
+
+    /**
+     * Method trains neural network with given training algorithm and parameters.
+     *
+     * @param algorithm
+     *            training algorithm
+     * @param learningRate
+     *            training learning rate
+     * @param batchSize
+     *            number of samples in one mini-batch, used by mini-batch algorithms
+     * @param momentum
+     *            momentum, used by mini-batch algorithm with momentum
+     * @param epochsNumber
+     *            number of epochs
+     * @param refreshInterval
+     *            number of epochs between training progress updates
+     * @param earlyStopping
+     *            early stopping controller or null if training should run for all epochs
+     * @throws IllegalStateException
+     *             if neural netowrk or examples are not defined.
+     */
+    public void train(TrainingAlgorithm algorithm, Double learningRate, Integer batchSize, Double momentum,
+            Integer epochsNumber, Integer refreshInterval, EarlyStopping earlyStopping) throws IllegalStateException {
 
         if (network == null || trainingSet == null || evaluationSet == null) {
             throw new IllegalStateException(
@@ -389,7 +449,7 @@ public class ClassificationDataModel {
         currentStatus = ClassificationStatus.TRAINING;
         fireChangeStatus();
 
-        INeuralNetworkTrainer trainer = new ClassicBackPropagationTrainer(network, learningRate);
+        INeuralNetworkTrainer trainer = createTrainer(algorithm, learningRate, batchSize, momentum);
         INeuralTrainerListener trainerListener = new INeuralTrainerListener() {
             @Override
             public void stateChanged(double trainingSetError, double validationSetError, int epoch) {
@@ -402,11 +462,36 @@ public class ClassificationDataModel {
         currentStatus = ClassificationStatus.LOADED_EXAMPLES;
         fireChangeStatus();
         TrainingWorker trainingWorker = new TrainingWorker(trainer, epochsNumber, trainingSet, evaluationSet,
-                refreshInterval);
+                refreshInterval, earlyStopping);
         trainingWorker.execute();
 
     }
 
+    /**
+     * Method creates trainer of current neural network.
+     *
+     * @param algorithm
+     *            training algorithm
+     * @param learningRate
+     *            training learning rate
+     * @param batchSize
+     *            number of samples in one mini-batch
+     * @param momentum
+     *            momentum
+     * @return neural network trainer
+     */
+    private INeuralNetworkTrainer createTrainer(TrainingAlgorithm algorithm, double learningRate, int batchSize,
+            double momentum) {
+        switch (algorithm) {
+        case MOMENTUM:
+            return new MomentumTrainer(network, learningRate, momentum, batchSize);
+        case ADAM:
+            return new AdamTrainer(network, learningRate, batchSize);
+        default:
+            return new ClassicBackPropagationTrainer(network, learningRate, ForkJoinPool.commonPool());
+        }
+    }
+
     /**
      * Method obtains error on test set.
      *
@@ -25,4 +25,9 @@ public class ClassificationDataModelAdapter implements ClassificationDataModelLi
 
     }
 
+    @Override
+    public void examplesLoadingProgressUpdate(int loaded, int total) {
+
+    }
+
 }
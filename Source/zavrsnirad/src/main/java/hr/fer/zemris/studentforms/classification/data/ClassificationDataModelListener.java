@@ -32,4 +32,15 @@ public interface ClassificationDataModelListener {
      * @param epoch
      */
     void trainingProgressUpdate(double trainingError, double validationError, int epoch);
+
+    /**
+     * Method is invoked when more records of the examples file are loaded. Loading is finished when number of loaded
+     * records equals number of all records, both numbers are zero if loading failed.
+     *
+     * @param loaded
+     *            number of loaded records
+     * @param total
+     *            number of all records of the examples file
+     */
+    void examplesLoadingProgressUpdate(int loaded, int total);
 }
@@ -1,5 +1,8 @@
 package hr.fer.zemris.studentforms.classification.dialogs;
 
+import hr.fer.zemris.neural.trainers.EarlyStopping;
+import hr.fer.zemris.studentforms.classification.TrainingAlgorithm;
+
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.GridLayout;
@@ -7,6 +10,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowListener;
 
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -41,6 +45,26 @@ public class TrainNetworkDialog extends JDialog {
 
     private static final int DEFAULT_REFRESH_INTERVAL = 5;
 
+    /**
+     * Default number of samples in one mini-batch.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 32;
+
+    /**
+     * Default momentum.
+     */
+    private static final double DEFAULT_MOMENTUM = 0.9;
+
+    /**
+     * Default early stopping patience, 0 disables early stopping.
+     */
+    private static final int DEFAULT_PATIENCE = 0;
+
+    /**
+     * Default minimal validation error decrease.
+     */
+    private static final double DEFAULT_MIN_DELTA = 1e-4;
+
     /**
      * Window listener that sets dialog status on closing event.
      */
@@ -76,6 +100,26 @@ public class TrainNetworkDialog extends JDialog {
      */
     private Double learningRate;
 
+    /**
+     * Number of samples in one mini-batch.
+     */
+    private Integer batchSize;
+
+    /**
+     * Momentum value.
+     */
+    private Double momentum;
+
+    /**
+     * Early stopping patience, 0 if early stopping is disabled.
+     */
+    private Integer patience;
+
+    /**
+     * Minimal validation error decrease for early stopping.
+     */
+    private Double minDelta;
+
     /**
      * Document listener that listens to fields change and validates dialog.
      */
@@ -107,6 +151,31 @@ public class TrainNetworkDialog extends JDialog {
      */
     private JTextField tfLearningRate;
     private JTextField tfRefreshInterval;
+
+    /**
+     * Combo box for choosing training algorithm.
+     */
+    private JComboBox<TrainingAlgorithm> cbAlgorithm;
+
+    /**
+     * Text field for entering mini-batch size.
+     */
+    private JTextField tfBatchSize;
+
+    /**
+     * Text field for entering momentum.
+     */
+    private JTextField tfMomentum;
+
+    /**
+     * Text field for entering early stopping patience.
+     */
+    private JTextField tfPatience;
+
+    /**
+     * Text field for entering minimal validation error decrease.
+     */
+    private JTextField tfMinDelta;
     /**
      * Panel with ok and cancel button.
      */
@@ -122,7 +191,7 @@ public class TrainNetworkDialog extends JDialog {
         status = false;
         initGUI();
         pack();
-        final Dimension defaultDimension = new Dimension(500, 200);
+        final Dimension defaultDimension = new Dimension(500, 320);
         setSize(defaultDimension);
 
     }
@@ -156,6 +225,62 @@ public class TrainNetworkDialog extends JDialog {
 
     }
 
+    /**
+     * Method obtains training algorithm.
+     *
+     * @return training algorithm
+     * @throws IllegalStateException
+     *             if training parameters haven't been set
+     */
+    public TrainingAlgorithm getAlgorithm() throws IllegalStateException {
+        if (!status) {
+            throw new IllegalStateException("Cannot obtain training algorithm when return status is false");
+        }
+        return (TrainingAlgorithm) cbAlgorithm.getSelectedItem();
+    }
+
+    /**
+     * Method obtains number of samples in one mini-batch.
+     *
+     * @return mini-batch size
+     * @throws IllegalStateException
+     *             if training parameters haven't been set
+     */
+    public Integer getBatchSize() throws IllegalStateException {
+        if (!status) {
+            throw new IllegalStateException("Cannot obtain batch size when return status is false");
+        }
+        return batchSize;
+    }
+
+    /**
+     * Method obtains momentum for training.
+     *
+     * @return momentum
+     * @throws IllegalStateException
+     *             if training parameters haven't been set
+     */
+    public Double getMomentum() throws IllegalStateException {
+        if (!status) {
+            throw new IllegalStateException("Cannot obtain momentum when return status is false");
+        }
+        return momentum;
+    }
+
+    /**
+     * Method obtains early stopping controller for training.
+     *
+     * @return early stopping controller or null if early stopping is disabled
+     * @throws IllegalStateException
+     *             if training parameters haven't been set
+     */
+    public EarlyStopping getEarlyStopping() throws IllegalStateException {
+        if (!status) {
+            throw new IllegalStateException("Cannot obtain early stopping when return status is false");
+        }
+        return patience == 0 ? null : new EarlyStopping(patience, minDelta);
+    }
+
     /**
      * Method returns dialog definition status.
      *
@@ -208,6 +333,11 @@ public class TrainNetworkDialog extends JDialog {
         tfEpochNumber.setText(String.valueOf(DEFAULT_EPOCH_NUMBER));
         tfLearningRate.setText(String.valueOf(DEFUALT_LEARNING_RATE));
         tfRefreshInterval.setText(String.valueOf(DEFAULT_REFRESH_INTERVAL));
+        tfBatchSize.setText(String.valueOf(DEFAULT_BATCH_SIZE));
+        tfMomentum.setText(String.valueOf(DEFAULT_MOMENTUM));
+        tfPatience.setText(String.valueOf(DEFAULT_PATIENCE));
+        tfMinDelta.setText(String.valueOf(DEFAULT_MIN_DELTA));
+        updateAlgorithmFields();
     }
 
     /**
@@ -216,6 +346,16 @@ public class TrainNetworkDialog extends JDialog {
     private void initOptionsPanel() {
         final GridLayout layout = new GridLayout(0, 2, 3, 5);
         optionsPanel.setLayout(layout);
+        JLabel lAlgorithm = new JLabel("Algorithm:", SwingConstants.CENTER);
+        optionsPanel.add(lAlgorithm);
+
+        cbAlgorithm = new JComboBox<>(TrainingAlgorithm.values());
+        cbAlgorithm.addActionListener(e -> {
+            updateAlgorithmFields();
+            validateDialog();
+        });
+        optionsPanel.add(cbAlgorithm);
+
         JLabel lLearningRate = new JLabel("Learning rate:", SwingConstants.CENTER);
         optionsPanel.add(lLearningRate);
 
@@ -235,6 +375,39 @@ public class TrainNetworkDialog extends JDialog {
         tfRefreshInterval = new JTextField();
         tfRefreshInterval.getDocument().addDocumentListener(fieldsListener);
         optionsPanel.add(tfRefreshInterval);
+
+        JLabel lBatchSize = new JLabel("Batch size:", SwingConstants.CENTER);
+        optionsPanel.add(lBatchSize);
+        tfBatchSize = new JTextField();
+        tfBatchSize.getDocument().addDocumentListener(fieldsListener);
+        optionsPanel.add(tfBatchSize);
+
+        JLabel lMomentum = new JLabel("Momentum:", SwingConstants.CENTER);
+        optionsPanel.add(lMomentum);
+        tfMomentum = new JTextField();
+        tfMomentum.getDocument().addDocumentListener(fieldsListener);
+        optionsPanel.add(tfMomentum);
+
+        JLabel lPatience = new JLabel("Early stopping patience (0 = off):", SwingConstants.CENTER);
+        optionsPanel.add(lPatience);
+        tfPatience = new JTextField();
+        tfPatience.getDocument().addDocumentListener(fieldsListener);
+        optionsPanel.add(tfPatience);
+
+        JLabel lMinDelta = new JLabel("Early stopping min delta:", SwingConstants.CENTER);
+        optionsPanel.add(lMinDelta);
+        tfMinDelta = new JTextField();
+        tfMinDelta.getDocument().addDocumentListener(fieldsListener);
+        optionsPanel.add(tfMinDelta);
+    }
+
+    /**
+     * Method enables only fields used by selected training algorithm.
+     */
+    private void updateAlgorithmFields() {
+        TrainingAlgorithm algorithm = (TrainingAlgorithm) cbAlgorithm.getSelectedItem();
+        tfBatchSize.setEnabled(algorithm != TrainingAlgorithm.BACKPROPAGATION);
+        tfMomentum.setEnabled(algorithm == TrainingAlgorithm.MOMENTUM);
     }
 
     /**
@@ -262,6 +435,28 @@ public class TrainNetworkDialog extends JDialog {
         refreshInterval = Integer.parseInt(tfRefreshInterval.getText().trim());
     }
 
+    /**
+     * Function sets mini-batch size and momentum to inputed values.
+     *
+     * @throws NumberFormatException
+     *             if inputed values cannot be parsed
+     */
+    private void processMiniBatchFields() throws NumberFormatException {
+        batchSize = Integer.parseInt(tfBatchSize.getText().trim());
+        momentum = Double.parseDouble(tfMomentum.getText().trim());
+    }
+
+    /**
+     * Function sets early stopping patience and minimal delta to inputed values.
+     *
+     * @throws NumberFormatException
+     *             if inputed values cannot be parsed
+     */
+    private void processEarlyStoppingFields() throws NumberFormatException {
+        patience = Integer.parseInt(tfPatience.getText().trim());
+        minDelta = Double.parseDouble(tfMinDelta.getText().trim());
+    }
+
     /**
      * Function tries to process and validate all fields in dialog.
      */
@@ -270,7 +465,10 @@ public class TrainNetworkDialog extends JDialog {
             processLearningRateField();
             processEpochNumberField();
             processRefreshInterval();
-            if (learningRate < 0 || learningRate > 1 || epochsNumber < 1 || refreshInterval < 0) {
+            processMiniBatchFields();
+            processEarlyStoppingFields();
+            if (learningRate < 0 || learningRate > 1 || epochsNumber < 1 || refreshInterval < 0 || batchSize < 1
+                    || momentum < 0 || momentum >= 1 || patience < 0 || minDelta < 0) {
                 status = false;
             } else {
                 status = true;
@@ -20,6 +20,7 @@ import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
@@ -66,6 +67,10 @@ public class ControlPanel extends JPanel {
      * Button for creating new neural network.
      */
     private JButton btnNew;
+    /**
+     * Progress bar that shows progress of examples file loading.
+     */
+    private JProgressBar loadingProgress;
     /**
      * Neural network input set file filter.
      */
@@ -162,6 +167,15 @@ public class ControlPanel extends JPanel {
         }
     };
 
+    private ClassificationDataModelListener loadingProgressDataListener = new ClassificationDataModelAdapter() {
+        @Override
+        public void examplesLoadingProgressUpdate(int loaded, int total) {
+            loadingProgress.setMaximum(total);
+            loadingProgress.setValue(loaded);
+            loadingProgress.setVisible(loaded < total);
+        }
+    };
+
     public ControlPanel(ClassificationDataModel dataModel) {
         this.dataModel = dataModel;
         dataModel.addListener(btnNewDataListener);
@@ -170,6 +184,7 @@ public class ControlPanel extends JPanel {
         dataModel.addListener(btnSelectTrainingFileDataListener);
         dataModel.addListener(btnTrainDataListener);
         dataModel.addListener(btnClassifyDataListener);
+        dataModel.addListener(loadingProgressDataListener);
         initGUI();
     }
 
@@ -228,6 +243,10 @@ public class ControlPanel extends JPanel {
         add(btnLoad);
 
         add(btnSelectTrainingFile);
+        loadingProgress = new JProgressBar();
+        loadingProgress.setStringPainted(true);
+        loadingProgress.setVisible(false);
+        add(loadingProgress);
 
         add(btnSave);
         add(btnTrain);
@@ -360,7 +379,9 @@ public class ControlPanel extends JPanel {
                 if (!dialog.getReturnStatus()) {
                     return;
                 }
-                dataModel.train(dialog.getLearningRate(), dialog.getEpochsNumber(), dialog.getRefreshInterval());
+                dataModel.train(dialog.getAlgorithm(), dialog.getLearningRate(), dialog.getBatchSize(),
+                        dialog.getMomentum(), dialog.getEpochsNumber(), dialog.getRefreshInterval(),
+                        dialog.getEarlyStopping());
             }
         });
     }
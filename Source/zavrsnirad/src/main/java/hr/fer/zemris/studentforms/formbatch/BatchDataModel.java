@@ -1,39 +1,28 @@
 package hr.fer.zemris.studentforms.formbatch;
 
-import hr.fer.zemris.form.FormNode;
-import hr.fer.zemris.form.FormNodeUtility;
 import hr.fer.zemris.form.FormTemplateParameters;
-import hr.fer.zemris.form.MarkersUtility;
-import hr.fer.zemris.image.ImageUtility;
 import hr.fer.zemris.image.binarization.GlobalThresholdAlgorithm;
 import hr.fer.zemris.image.binarization.IBinarizationAlgorithm;
-import hr.fer.zemris.image.binary.IBinaryImage;
-import hr.fer.zemris.image.geometry.CoordinateSystem2D;
-import hr.fer.zemris.image.geometry.GeometryUtility;
-import hr.fer.zemris.image.geometry.Region;
 import hr.fer.zemris.image.grayscale.AverageAlgorithm;
 import hr.fer.zemris.image.grayscale.IGrayscaleAlgorithm;
-import hr.fer.zemris.image.transformation.RotateImageCenterAlgorithm;
+import hr.fer.zemris.neural.IInferenceEngine;
 import hr.fer.zemris.neural.INeuralNetwork;
-import hr.fer.zemris.neural.NeuralNetworkUtility;
-import hr.fer.zemris.neural.datastructures.TrainingRecordUtility;
 
-import java.awt.image.BufferedImage;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 /**
- * Data model for batch form processing.
+ * Data model for batch form processing. Forms are processed with {@link BatchPipeline} in a background thread, every
+ * stage of the pipeline has configurable number of threads. Model keeps only paths of scanned forms, form images and
+ * results exist only while forms are processed.
  *
  * @author Domagoj Pluscec
  * @version v1.0, 9.6.2017.
@@ -41,9 +30,14 @@ import javax.swing.SwingUtilities;
 public class BatchDataModel {
 
     /**
-     * Loaded forms list.
+     * Threshold of global threshold binarization.
      */
-    private List<FormNode> forms;
+    private static final int BINARIZATION_THRESHOLD = 250;
+
+    /**
+     * Scanned form files.
+     */
+    private List<File> forms = new ArrayList<>();
     /**
      * Form template parameters.
      */
@@ -54,9 +48,9 @@ public class BatchDataModel {
      */
     private File resultDir;
     /**
-     * Neural netowrk for digit classification.
+     * Engine that calculates outputs of digit classification network.
      */
-    private INeuralNetwork network;
+    private IInferenceEngine network;
 
     /**
      * Algorithm used for image grayscale.
@@ -64,9 +58,44 @@ public class BatchDataModel {
     private IGrayscaleAlgorithm grayAlgorithm = new AverageAlgorithm();
 
     /**
-     * Algorithm used for image binarization.
+     * Algorithm used for image binarization. Binarization is sequential, forms are binarized in parallel by threads
+     * of the binarization stage.
+     */
+    private IBinarizationAlgorithm binaryAlgorithm = new GlobalThresholdAlgorithm(BINARIZATION_THRESHOLD);
+
+    /**
+     * Number of threads of every pipeline stage.
+     */
+    private final Map<BatchStage, Integer> stageParallelism = new EnumMap<>(BatchStage.class);
+
+    /**
+     * Capacity of queues between pipeline stages.
+     */
+    private int queueCapacity = BatchPipeline.DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Batch progress listeners.
+     */
+    private final List<IBatchProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Flag that shows if forms are being processed.
      */
-    private IBinarizationAlgorithm binaryAlgorithm = new GlobalThresholdAlgorithm(250);
+    private volatile boolean processing;
+
+    /**
+     * Source of forms from watched directory, null if no directory is watched.
+     */
+    private volatile HotFolderSource watchedForms;
+
+    /**
+     * Constructor that initializes model with default number of threads of every stage.
+     */
+    public BatchDataModel() {
+        for (BatchStage stage : BatchStage.values()) {
+            stageParallelism.put(stage, stage.getDefaultParallelism());
+        }
+    }
 
     /**
      * Method sets neural network for digit classification.
@@ -78,6 +107,17 @@ public class BatchDataModel {
         this.network = network;
     }
 
+    /**
+     * Method sets engine used for digit classification, for example a {@link hr.fer.zemris.neural.FloatNetwork} or a
+     * {@link hr.fer.zemris.neural.QuantizedNetwork} created from the neural network.
+     *
+     * @param engine
+     *            inference engine
+     */
+    public void setInferenceEngine(IInferenceEngine engine) {
+        this.network = engine;
+    }
+
     /**
      * Method sets form template.
      *
@@ -89,172 +129,232 @@ public class BatchDataModel {
     }
 
     /**
-     * Method sets form files to batch model.
+     * Method sets form files to batch model. Forms are read when they are processed.
      *
      * @param inputForms
      *            list of input form files
      */
     public void setForms(List<File> inputForms) {
-        Thread t = new Thread() {
-            @Override
-            public void run() {
-                try {
-                    List<FormNode> formsList = new ArrayList<FormNode>();
-
-                    for (File form : inputForms) {
-                        FormNode formNode = new FormNode();
-                        formNode.setFormTemplateParameters(ftp);
-                        BufferedImage formImage;
-
-                        formImage = ImageIO.read(form);
-                        IBinaryImage binImg = ImageUtility.toBinary(formImage, grayAlgorithm, binaryAlgorithm);
-
-                        CoordinateSystem2D coordinateSystem = MarkersUtility.coordinateSystemFromMarkers(MarkersUtility
-                                .findMarkersByPositions(binImg, ftp.getMarkerPositions(), ftp.getExpMarkerSize() * 2));
-
-                        double angle = GeometryUtility.getAngleBetweenLines(ftp.getCoordinateSystem().getY(),
-                                coordinateSystem.getY());
-                        RotateImageCenterAlgorithm rica = new RotateImageCenterAlgorithm(angle);
-                        BufferedImage rotatedImage = rica.transform(binImg.toImage());
-                        binImg = ImageUtility.toBinary(rotatedImage, grayAlgorithm, binaryAlgorithm);
-                        formNode.setBinarizedForm(binImg);
-                        formNode.defineCoordinateSystem();
-                        String name = form.getName();
-                        if (name.contains(".")) {
-                            name = name.substring(0, name.lastIndexOf('.'));
-                        }
-                        formNode.setFormName(name);
-                        formsList.add(formNode);
-                    }
-                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, "Loaded " + formsList.size()
-                            + " forms", "Forms loaded", JOptionPane.INFORMATION_MESSAGE));
-                    SwingUtilities.invokeLater(() -> (setFormsList(formsList)));
-                } catch (IOException e) {
-                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
-                            "Error while readining scanned forms", "Error", JOptionPane.ERROR_MESSAGE));
-                }
-
-            }
-
-        };
-        t.start();
+        forms = new ArrayList<>(inputForms);
     }
 
     /**
-     * Method sets list of form nodes.
+     * Method sets number of threads of a pipeline stage.
      *
-     * @param formsList
-     *            list of nodes that represent forms
+     * @param stage
+     *            batch stage
+     * @param threads
+     *            number of stage threads
+     * @throws IllegalArgumentException
+     *             if number of threads isn't positive
      */
-    private void setFormsList(List<FormNode> formsList) {
-        forms = formsList;
-        System.out.println(forms);
+    public void setStageParallelism(BatchStage stage, int threads) throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Stage must have at least one thread.");
+        }
+        stageParallelism.put(stage, threads);
     }
 
     /**
-     * Field top offset.
+     * Method obtains number of threads of a pipeline stage.
+     *
+     * @param stage
+     *            batch stage
+     * @return number of stage threads
      */
-    private static final int UP_OFFSET = 8;
+    public int getStageParallelism(BatchStage stage) {
+        return stageParallelism.get(stage);
+    }
+
     /**
-     * Field bottom offset.
+     * Method sets capacity of queues between pipeline stages.
+     *
+     * @param queueCapacity
+     *            number of forms that can wait in front of a stage
+     * @throws IllegalArgumentException
+     *             if capacity isn't positive
      */
-    private static final int LOW_OFFSET = 2;
+    public void setQueueCapacity(int queueCapacity) throws IllegalArgumentException {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
     /**
-     * Field left offset.
+     * Method adds batch progress listener. Listener is notified from processing threads.
+     *
+     * @param listener
+     *            progress listener
      */
-    private static final int LEFT_OFFSET = 5;
+    public void addProgressListener(IBatchProgressListener listener) {
+        progressListeners.add(listener);
+    }
+
     /**
-     * Field right offset.
+     * Method removes batch progress listener.
+     *
+     * @param listener
+     *            progress listener
      */
-    private static final int RIGHT_OFFSET = 5;
+    public void removeProgressListener(IBatchProgressListener listener) {
+        progressListeners.remove(listener);
+    }
 
     /**
-     * Method process all forms and saves result to resulting directory.
+     * Method starts processing of all forms in a background thread. Forms are streamed through the pipeline: every
+     * form is read, processed and written and then released, so memory doesn't grow with the number of forms.
+     * Results of every form are saved to resulting directory, results of all forms are appended to
+     * {@link BatchResultWriter#RESULTS_FILE_NAME} as forms are completed and a message is displayed when processing
+     * is finished.
      */
     public void processForms() {
-        List<List<String>> formFields = new ArrayList<>();
-        for (FormNode formNode : forms) {
-            List<String> fields = processForm(formNode);
-            try (BufferedWriter bw = Files.newBufferedWriter(resultDir.toPath()
-                    .resolve(formNode.getFormName() + ".txt"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
-                bw.write(String.format("%-12s\t%-20s\t%-100s\n", "Field number", "Number of points", "Error message"));
-                for (int i = 0, end = fields.size(); i < end; i++) {
-                    bw.write(String.format("%12d\t%-20s", i, fields.get(i).replace("..", ".")));
-
-                    String error = checkField(fields.get(i));
-                    if (error != null) {
-                        bw.write(String.format("\t%-100s", error));
-                    }
-                    bw.write("\n");
+        if (processing) {
+            JOptionPane.showMessageDialog(null, "Forms are already being processed.", "Processing forms",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        if (ftp == null || network == null || resultDir == null || forms.isEmpty()) {
+            JOptionPane.showMessageDialog(null,
+                    "Form template, neural network, scanned forms and results directory have to be selected.",
+                    "Processing forms error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        BatchPipeline pipeline = createPipeline(new FormProcessor(ftp, network, resultDir, grayAlgorithm,
+                binaryAlgorithm));
+        List<File> batchForms = forms;
+        processing = true;
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try (BatchResultWriter results = new BatchResultWriter(resultDir)) {
+                    pipeline.process(batchForms, results);
+                    String message = results.getSummary();
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, message,
+                            "Forms processed", JOptionPane.INFORMATION_MESSAGE));
+                } catch (IOException | InterruptedException | IllegalStateException e) {
+                    String message = errorMessage(e);
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, message,
+                            "Processing forms error", JOptionPane.ERROR_MESSAGE));
+                } finally {
+                    processing = false;
                 }
-                formFields.add(fields);
-
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(null, "Error while processing form " + formNode.getFormName(),
-                        "Processing form error", JOptionPane.ERROR_MESSAGE);
             }
+        };
+        t.start();
+    }
 
+    /**
+     * Method starts watching a directory for scanned forms in a background thread. Forms that are already in the
+     * directory and don't have results newer than the images are processed first, after that every new form is
+     * processed as soon as scanner finishes writing it, also a form that is scanned again under the same name. Results
+     * of every form are saved to resulting directory and rows of completed forms are appended to batch results file,
+     * so results are available seconds after forms are scanned. Directory is watched until {@link #stopWatching()} is
+     * invoked or until the directory is deleted.
+     *
+     * @param directory
+     *            watched directory with scanned forms
+     * @param stopListener
+     *            action that is run on event dispatch thread when watching stops, for any reason
+     * @return true if watching started, false otherwise
+     */
+    public boolean watchForms(File directory, Runnable stopListener) {
+        if (processing) {
+            JOptionPane.showMessageDialog(null, "Forms are already being processed.", "Watching forms",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return false;
+        }
+        if (ftp == null || network == null || resultDir == null) {
+            JOptionPane.showMessageDialog(null,
+                    "Form template, neural network and results directory have to be selected.",
+                    "Watching forms error", JOptionPane.ERROR_MESSAGE);
+            return false;
         }
-        for (int i = 0, end = formFields.get(0).size(); i < end; i++) {
-            for (int j = 0, endj = formFields.size(); j < endj; j++) {
-                System.out.print(formFields.get(j).get(i) + "\t");
+        FormProcessor processor = new FormProcessor(ftp, network, resultDir, grayAlgorithm, binaryAlgorithm);
+        HotFolderSource source;
+        try {
+            source = new HotFolderSource(directory, HotFolderSource.withoutCurrentResult(processor::getResultFile),
+                    HotFolderSource.DEFAULT_SETTLE_MILLIS);
+        } catch (IOException | IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(null, "Directory " + directory + " cannot be watched.",
+                    "Watching forms error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        BatchPipeline pipeline = createPipeline(processor);
+        processing = true;
+        watchedForms = source;
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try (BatchResultWriter results = new BatchResultWriter(resultDir, ResultFormat.TXT, true)) {
+                    pipeline.process(source, results);
+                    String message = results.getSummary();
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, message,
+                            "Watching forms stopped", JOptionPane.INFORMATION_MESSAGE));
+                } catch (IOException | InterruptedException | IllegalStateException e) {
+                    String message = errorMessage(e);
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, message,
+                            "Watching forms error", JOptionPane.ERROR_MESSAGE));
+                } finally {
+                    source.close();
+                    watchedForms = null;
+                    processing = false;
+                    SwingUtilities.invokeLater(stopListener);
+                }
             }
-            System.out.println();
+        };
+        t.start();
+        return true;
+    }
+
+    /**
+     * Method stops watching the directory. Forms that are already being processed are completed.
+     */
+    public void stopWatching() {
+        HotFolderSource source = watchedForms;
+        if (source != null) {
+            source.close();
         }
     }
 
     /**
-     * Method creates error message for table field if some error has been detected.
+     * Method checks if a directory is watched for scanned forms.
      *
-     * @param string
-     *            field string
-     * @return error or warning message if there is something wrong with the given field, empty string otherwise
+     * @return true if a directory is watched
      */
-    private String checkField(String string) {
-        char[] characters = string.toCharArray();
-        int dotNum = 0;
-        for (int i = 0; i < characters.length; i++) {
-            if (characters[i] == '.') {
-                dotNum++;
-            }
-        }
-        if (dotNum > 1) {
-            return "ERROR: Multiple decimal separators";
-        }
-        if (characters.length > 2 && characters[0] == '0' && characters[1] != '.') {
-            return "WARNING: Possible missclassification leading zero detected";
-        }
-        return null;
+    public boolean isWatching() {
+        return watchedForms != null;
     }
 
     /**
-     * Method process form given form.
+     * Method creates message of an error that stopped form processing. Pipeline wraps the exception that stopped it,
+     * so the cause is shown if there is one.
      *
-     * @param formNode
-     *            form to process.
-     * @return string representation of processed form
+     * @param e
+     *            exception that stopped processing
+     * @return error message
      */
-    private List<String> processForm(FormNode formNode) {
-        Predicate<Region> segmentsFilter = i -> {
-            return i.getBoundingRectangle().width > 2 && i.getBoundingRectangle().height > 2
-                    && i.getPoints().size() > 10
-                    && i.getBoundingRectangle().width * i.getBoundingRectangle().height > 6;
-        };
-        List<String> fieldString = new ArrayList<String>();
-        for (int i = 0; i < formNode.getFormTemplate().getPointsNumber(); i++) {
-            IBinaryImage fieldImage = FormNodeUtility.extractField(formNode, i, UP_OFFSET, LOW_OFFSET, LEFT_OFFSET,
-                    RIGHT_OFFSET);
-            List<IBinaryImage> segments = FormNodeUtility.segmentField(fieldImage, segmentsFilter);
-            List<String> processedSegments = new ArrayList<String>();
-            for (IBinaryImage segment : segments) {
-                double[] input = TrainingRecordUtility.convertImageData(segment.toImage(),
-                        (int) Math.sqrt(network.getLayerNeruonsNumber(0)));
-                network.calcOutput(input);
-                processedSegments.add(NeuralNetworkUtility.encodeOutput(network.getNetworkOutput()));
-            }
-            fieldString.add(String.join("", processedSegments));
+    private static String errorMessage(Exception e) {
+        return "Error while processing forms: " + (e.getCause() != null ? e.getCause() : e);
+    }
+
+    /**
+     * Method creates pipeline with model settings.
+     *
+     * @param processor
+     *            processor that implements stages
+     * @return batch pipeline
+     */
+    private BatchPipeline createPipeline(FormProcessor processor) {
+        BatchPipeline pipeline = new BatchPipeline(processor);
+        for (BatchStage stage : BatchStage.values()) {
+            pipeline.setParallelism(stage, stageParallelism.get(stage));
+        }
+        pipeline.setQueueCapacity(queueCapacity);
+        for (IBatchProgressListener listener : progressListeners) {
+            pipeline.addProgressListener(listener);
         }
-        return fieldString;
+        return pipeline;
     }
 
     /**
@@ -16,8 +16,10 @@ import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
@@ -33,12 +35,28 @@ public class BatchPanel extends JPanel {
      */
     private BatchDataModel dataModel;
 
+    /**
+     * Text of the button that starts watching scanned forms directory.
+     */
+    private static final String WATCH_TEXT = "Watch scanned forms directory";
+
+    /**
+     * Progress bar of form processing.
+     */
+    private JProgressBar processingProgress;
+
+    /**
+     * Label with throughput and estimated remaining time of form processing.
+     */
+    private JLabel processingStatus;
+
     /**
      * Constructor that initializes panel model and gui.
      *
      */
     public BatchPanel() {
         dataModel = new BatchDataModel();
+        dataModel.addProgressListener(progress -> SwingUtilities.invokeLater(() -> updateProgress(progress)));
         initGUI();
     }
 
@@ -87,7 +105,70 @@ public class BatchPanel extends JPanel {
         btnProcessForms.addActionListener(l -> dataModel.processForms());
         btnProcessForms.setAlignmentX(CENTER_ALIGNMENT);
         centerPanel.add(btnProcessForms);
+        centerPanel.add(Box.createVerticalStrut(20));
+
+        JButton btnWatchForms = new JButton(WATCH_TEXT);
+        btnWatchForms.addActionListener(l -> toggleWatching(btnWatchForms));
+        btnWatchForms.setAlignmentX(CENTER_ALIGNMENT);
+        centerPanel.add(btnWatchForms);
+        centerPanel.add(Box.createVerticalStrut(20));
+
+        processingProgress = new JProgressBar();
+        processingProgress.setStringPainted(true);
+        processingProgress.setVisible(false);
+        centerPanel.add(processingProgress);
+        processingStatus = new JLabel(" ");
+        processingStatus.setAlignmentX(CENTER_ALIGNMENT);
+        centerPanel.add(processingStatus);
+
+    }
 
+    /**
+     * Method displays batch progress. Label tooltip shows state of every pipeline stage.
+     *
+     * @param progress
+     *            batch progress
+     */
+    private void updateProgress(BatchProgress progress) {
+        processingProgress.setMaximum(progress.getTotal());
+        processingProgress.setValue(progress.getCompleted());
+        processingProgress.setVisible(!progress.isFinished());
+        processingStatus.setText(progress.toString());
+
+        StringBuilder stages = new StringBuilder("<html>");
+        for (BatchStage stage : BatchStage.values()) {
+            stages.append(String.format("%s: %d forms, %.1f ms/form, %d waiting<br>", stage,
+                    progress.getStageProcessed(stage), progress.getStageAverageMillis(stage),
+                    progress.getStageQueued(stage)));
+        }
+        processingStatus.setToolTipText(stages.append("</html>").toString());
+    }
+
+    /**
+     * Method asks user to select directory that is watched for scanned forms or stops watching if a directory is
+     * already watched. Button text is reset when watching stops, also when it stops on its own.
+     *
+     * @param button
+     *            button that starts and stops watching
+     */
+    private void toggleWatching(JButton button) {
+        if (dataModel.isWatching()) {
+            dataModel.stopWatching();
+            button.setText(WATCH_TEXT);
+            return;
+        }
+        Runnable stopListener = () -> {
+            // watching of another directory could have been started in the meantime
+            if (!dataModel.isWatching()) {
+                button.setText(WATCH_TEXT);
+            }
+        };
+        File directory = selectDirectory();
+        if (directory != null && dataModel.watchForms(directory, stopListener)) {
+            button.setText("Stop watching " + directory.getName());
+        } else {
+            button.setText(WATCH_TEXT);
+        }
     }
 
     /**
@@ -216,7 +297,7 @@ public class BatchPanel extends JPanel {
             @Override
             public void run() {
                 network = NeuralNetworkUtility.readNeuralNetworkFromFile(file);
-                SwingUtilities.invokeLater(() -> (dataModel.setNeuralNetwork(network)));
+                SwingUtilities.invokeLater(() -> dataModel.setNeuralNetwork(network));
 
             }
 
@@ -0,0 +1,513 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Staged pipeline for batch form processing. Every {@link BatchStage} has its own group of threads and stages are
+ * connected with bounded queues. When a queue is full, threads of the previous stage wait, so a slow stage slows down
+ * the stages in front of it instead of letting forms pile up in memory, and the number of forms in flight is bounded
+ * by queue capacity and number of threads. Different forms are processed by different stages at the same time, so
+ * decoding of one form overlaps with binarization, segmentation and classification of other forms.
+ *
+ * A form that fails in some stage skips the remaining stages and is reported as failed, other forms are processed
+ * normally.
+ *
+ * Pipeline can stream results: completed forms are passed to a consumer as soon as they are written and pipeline
+ * doesn't keep any reference to them, so memory used by a batch depends on {@link #getMaxFormsInFlight()} and not on
+ * the number of forms in the batch.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 4.7.2017.
+ */
+public class BatchPipeline {
+
+    /**
+     * Default capacity of queues between stages.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    /**
+     * Job that marks the end of forms in a queue.
+     */
+    private static final FormJob END = new FormJob(-1, null);
+
+    /**
+     * Processor that implements stages.
+     */
+    private final FormProcessor processor;
+
+    /**
+     * Number of threads of every stage.
+     */
+    private final Map<BatchStage, Integer> parallelism = new EnumMap<>(BatchStage.class);
+
+    /**
+     * Capacity of queues between stages.
+     */
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * Progress listeners.
+     */
+    private final List<IBatchProgressListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor that initializes pipeline with form processor. Every stage has its default number of threads.
+     *
+     * @param processor
+     *            processor that implements stages
+     */
+    public BatchPipeline(FormProcessor processor) {
+        this.processor = processor;
+        for (BatchStage stage : BatchStage.values()) {
+            parallelism.put(stage, stage.getDefaultParallelism());
+        }
+    }
+
+    /**
+     * Method sets number of threads of a stage.
+     *
+     * @param stage
+     *            batch stage
+     * @param threads
+     *            number of stage threads
+     * @throws IllegalArgumentException
+     *             if number of threads isn't positive
+     */
+    public void setParallelism(BatchStage stage, int threads) throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Stage must have at least one thread.");
+        }
+        parallelism.put(stage, threads);
+    }
+
+    /**
+     * Method obtains number of threads of a stage.
+     *
+     * @param stage
+     *            batch stage
+     * @return number of stage threads
+     */
+    public int getParallelism(BatchStage stage) {
+        return parallelism.get(stage);
+    }
+
+    /**
+     * Method sets capacity of queues between stages.
+     *
+     * @param queueCapacity
+     *            number of forms that can wait in front of a stage
+     * @throws IllegalArgumentException
+     *             if capacity isn't positive
+     */
+    public void setQueueCapacity(int queueCapacity) throws IllegalArgumentException {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Method obtains capacity of queues between stages.
+     *
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Method obtains maximal number of forms that are processed at once. Every stage thread can hold one form and
+     * every queue can hold its capacity of forms.
+     *
+     * @return maximal number of forms in flight
+     */
+    public int getMaxFormsInFlight() {
+        int forms = 0;
+        for (BatchStage stage : BatchStage.values()) {
+            forms += parallelism.get(stage) + queueCapacity;
+        }
+        return forms;
+    }
+
+    /**
+     * Method adds progress listener.
+     *
+     * @param listener
+     *            progress listener
+     */
+    public void addProgressListener(IBatchProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Method removes progress listener.
+     *
+     * @param listener
+     *            progress listener
+     */
+    public void removeProgressListener(IBatchProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Method processes forms and waits until all forms are completed. All completed jobs are kept in memory, so this
+     * method is meant for small batches, large batches should be processed with
+     * {@link #process(List, Consumer)}.
+     *
+     * @param forms
+     *            scanned form files
+     * @return completed jobs in the order of form files, including failed jobs
+     * @throws InterruptedException
+     *             if waiting thread is interrupted, processing is stopped in that case
+     * @throws IllegalStateException
+     *             if some processing thread stopped because of an error
+     */
+    public List<FormJob> process(List<File> forms) throws InterruptedException, IllegalStateException {
+        List<FormJob> jobs = new ArrayList<>();
+        process(forms, jobs::add);
+        jobs.sort(Comparator.comparingInt(FormJob::getIndex));
+        return jobs;
+    }
+
+    /**
+     * Method processes forms, passes every completed job to the consumer and waits until all forms are completed.
+     * Jobs are passed in the order of completion, which can differ from the order of form files. Consumer is called
+     * from processing threads, but never from two threads at once. If consumer throws an exception, processing is
+     * stopped.
+     *
+     * @param forms
+     *            scanned form files
+     * @param consumer
+     *            consumer of completed jobs, including failed jobs
+     * @return final batch progress
+     * @throws InterruptedException
+     *             if waiting thread is interrupted, processing is stopped in that case
+     * @throws IllegalStateException
+     *             if some processing thread or consumer stopped because of an error
+     */
+    public BatchProgress process(List<File> forms, Consumer<FormJob> consumer) throws InterruptedException,
+            IllegalStateException {
+        return process(new ListSource(forms), consumer);
+    }
+
+    /**
+     * Method processes forms obtained from the source until the source has no more forms, passes every completed job
+     * to the consumer and waits until all forms are completed. Forms are processed as soon as the source provides
+     * them, so a source that waits for new forms keeps the pipeline running. Consumer is called in the same way as
+     * in {@link #process(List, Consumer)}.
+     *
+     * @param source
+     *            source of scanned forms
+     * @param consumer
+     *            consumer of completed jobs, including failed jobs
+     * @return final batch progress
+     * @throws InterruptedException
+     *             if waiting thread is interrupted, processing is stopped in that case
+     * @throws IllegalStateException
+     *             if some processing thread or consumer stopped because of an error
+     */
+    public BatchProgress process(IFormSource source, Consumer<FormJob> consumer) throws InterruptedException,
+            IllegalStateException {
+        return new Run(source, consumer).execute();
+    }
+
+    /**
+     * Source of forms from a list.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 7.7.2017.
+     */
+    private static class ListSource implements IFormSource {
+
+        /**
+         * Scanned form files.
+         */
+        private final List<File> forms;
+
+        /**
+         * Index of the next form.
+         */
+        private int next;
+
+        /**
+         * Constructor that initializes source with form files.
+         *
+         * @param forms
+         *            scanned form files
+         */
+        ListSource(List<File> forms) {
+            this.forms = forms;
+        }
+
+        @Override
+        public File nextForm() {
+            return next < forms.size() ? forms.get(next++) : null;
+        }
+
+        @Override
+        public int getKnownForms() {
+            return forms.size();
+        }
+    }
+
+    /**
+     * One execution of the pipeline.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 4.7.2017.
+     */
+    private class Run {
+
+        /**
+         * Batch stages.
+         */
+        private final BatchStage[] stages = BatchStage.values();
+
+        /**
+         * Source of scanned forms.
+         */
+        private final IFormSource source;
+
+        /**
+         * Number of forms passed to the first stage.
+         */
+        private final AtomicInteger fed = new AtomicInteger();
+
+        /**
+         * Input queue of every stage.
+         */
+        private final List<BlockingQueue<FormJob>> queues = new ArrayList<>();
+
+        /**
+         * Number of threads of every stage that didn't receive end of forms.
+         */
+        private final AtomicInteger[] activeWorkers = new AtomicInteger[stages.length];
+
+        /**
+         * Number of forms processed by every stage.
+         */
+        private final AtomicLongArray stageProcessed = new AtomicLongArray(stages.length);
+
+        /**
+         * Processing time of every stage in nanoseconds.
+         */
+        private final AtomicLongArray stageNanos = new AtomicLongArray(stages.length);
+
+        /**
+         * Consumer of completed jobs.
+         */
+        private final Consumer<FormJob> consumer;
+
+        /**
+         * Number of completed forms.
+         */
+        private int completed;
+
+        /**
+         * Number of failed forms.
+         */
+        private int failed;
+
+        /**
+         * Error that stopped some processing thread.
+         */
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /**
+         * Start of processing.
+         */
+        private long startTime;
+
+        /**
+         * Executor that runs feeding and stage threads.
+         */
+        private ExecutorService executor;
+
+        /**
+         * Constructor that initializes run with form source and consumer of completed jobs.
+         *
+         * @param source
+         *            source of scanned forms
+         * @param consumer
+         *            consumer of completed jobs
+         */
+        Run(IFormSource source, Consumer<FormJob> consumer) {
+            this.source = source;
+            this.consumer = consumer;
+            for (int s = 0; s < stages.length; s++) {
+                queues.add(new ArrayBlockingQueue<>(queueCapacity));
+                activeWorkers[s] = new AtomicInteger(parallelism.get(stages[s]));
+            }
+        }
+
+        /**
+         * Method starts all threads and waits until they finish.
+         *
+         * @return final batch progress
+         * @throws InterruptedException
+         *             if waiting thread is interrupted
+         * @throws IllegalStateException
+         *             if some processing thread stopped because of an error
+         */
+        BatchProgress execute() throws InterruptedException, IllegalStateException {
+            int threads = 1;
+            for (BatchStage stage : stages) {
+                threads += parallelism.get(stage);
+            }
+            AtomicInteger threadNumber = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "form-batch-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            startTime = System.nanoTime();
+            executor.execute(guarded(this::feed));
+            for (int s = 0; s < stages.length; s++) {
+                final int stageIndex = s;
+                for (int i = 0, end = parallelism.get(stages[s]); i < end; i++) {
+                    executor.execute(guarded(() -> work(stageIndex)));
+                }
+            }
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                throw e;
+            }
+            if (failure.get() != null) {
+                throw new IllegalStateException("Batch processing stopped.", failure.get());
+            }
+            return snapshot();
+        }
+
+        /**
+         * Method wraps a thread task, so an unexpected error stops the whole run instead of leaving other threads
+         * waiting for forms forever.
+         *
+         * @param task
+         *            thread task
+         * @return guarded task
+         */
+        private Runnable guarded(Runnable task) {
+            return () -> {
+                try {
+                    task.run();
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                    executor.shutdownNow();
+                }
+            };
+        }
+
+        /**
+         * Method puts all forms from the source into the queue of the first stage, followed by end of forms.
+         */
+        private void feed() {
+            try {
+                for (File form = source.nextForm(); form != null; form = source.nextForm()) {
+                    queues.get(0).put(new FormJob(fed.getAndIncrement(), form));
+                }
+                queues.get(0).put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Method processes forms from stage queue until it receives end of forms. Last thread of the stage passes
+         * end of forms to the next stage.
+         *
+         * @param stageIndex
+         *            index of the stage
+         */
+        private void work(int stageIndex) {
+            BatchStage stage = stages[stageIndex];
+            BlockingQueue<FormJob> input = queues.get(stageIndex);
+            BlockingQueue<FormJob> output = stageIndex + 1 < stages.length ? queues.get(stageIndex + 1) : null;
+            try {
+                while (true) {
+                    FormJob job = input.take();
+                    if (job == END) {
+                        // other threads of the stage have to receive end of forms too
+                        input.put(END);
+                        if (activeWorkers[stageIndex].decrementAndGet() == 0 && output != null) {
+                            output.put(END);
+                        }
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        processor.process(stage, job);
+                    } catch (IOException | RuntimeException e) {
+                        job.fail(stage + ": " + (e.getMessage() != null ? e.getMessage() : e.getClass()
+                                .getSimpleName()));
+                    }
+                    stageNanos.addAndGet(stageIndex, System.nanoTime() - start);
+                    stageProcessed.incrementAndGet(stageIndex);
+                    if (job.isFailed() || output == null) {
+                        complete(job);
+                    } else {
+                        output.put(job);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Method passes completed job to the consumer and notifies listeners about progress.
+         *
+         * @param job
+         *            completed job
+         */
+        private synchronized void complete(FormJob job) {
+            completed++;
+            if (job.isFailed()) {
+                failed++;
+            }
+            consumer.accept(job);
+            BatchProgress progress = snapshot();
+            for (IBatchProgressListener listener : listeners) {
+                listener.progressUpdate(progress);
+            }
+        }
+
+        /**
+         * Method creates snapshot of current progress.
+         *
+         * @return batch progress
+         */
+        private synchronized BatchProgress snapshot() {
+            long[] processed = new long[stages.length];
+            long[] nanos = new long[stages.length];
+            int[] queued = new int[stages.length];
+            for (int s = 0; s < stages.length; s++) {
+                processed[s] = stageProcessed.get(s);
+                nanos[s] = stageNanos.get(s);
+                queued[s] = queues.get(s).size();
+            }
+            int total = Math.max(source.getKnownForms(), fed.get());
+            return new BatchProgress(total, completed, failed, System.nanoTime() - startTime, processed, nanos,
+                    queued);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of batch processing progress. Besides number of processed forms, throughput and estimated remaining time,
+ * it contains number of forms processed by every stage, average time a stage spends on one form and number of forms
+ * waiting in front of every stage. Stage with the longest average time and full queue in front of it is the
+ * bottleneck of the batch.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 4.7.2017.
+ */
+public class BatchProgress {
+
+    /**
+     * Number of seconds in a minute.
+     */
+    private static final int SECONDS_IN_MINUTE = 60;
+
+    /**
+     * Number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_IN_MILLI = 1e6;
+
+    /**
+     * Total number of forms in the batch.
+     */
+    private final int total;
+
+    /**
+     * Number of completed forms, including failed forms.
+     */
+    private final int completed;
+
+    /**
+     * Number of failed forms.
+     */
+    private final int failed;
+
+    /**
+     * Time elapsed from the start of processing in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Number of forms processed by every stage.
+     */
+    private final long[] stageProcessed;
+
+    /**
+     * Time every stage spent processing forms in nanoseconds, summed over all stage threads.
+     */
+    private final long[] stageNanos;
+
+    /**
+     * Number of forms waiting in front of every stage.
+     */
+    private final int[] stageQueued;
+
+    /**
+     * Constructor that initializes progress snapshot.
+     *
+     * @param total
+     *            total number of forms
+     * @param completed
+     *            number of completed forms
+     * @param failed
+     *            number of failed forms
+     * @param elapsedNanos
+     *            time elapsed from the start of processing in nanoseconds
+     * @param stageProcessed
+     *            number of forms processed by every stage, indexed by stage ordinal
+     * @param stageNanos
+     *            processing time of every stage in nanoseconds, indexed by stage ordinal
+     * @param stageQueued
+     *            number of forms waiting in front of every stage, indexed by stage ordinal
+     */
+    public BatchProgress(int total, int completed, int failed, long elapsedNanos, long[] stageProcessed,
+            long[] stageNanos, int[] stageQueued) {
+        this.total = total;
+        this.completed = completed;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+        this.stageProcessed = stageProcessed;
+        this.stageNanos = stageNanos;
+        this.stageQueued = stageQueued;
+    }
+
+    /**
+     * Method obtains total number of forms in the batch.
+     *
+     * @return total number of forms
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Method obtains number of completed forms, including failed forms.
+     *
+     * @return number of completed forms
+     */
+    public int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Method obtains number of failed forms.
+     *
+     * @return number of failed forms
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Method checks if all forms are completed.
+     *
+     * @return true if all forms are completed, false otherwise
+     */
+    public boolean isFinished() {
+        return completed == total;
+    }
+
+    /**
+     * Method obtains time elapsed from the start of processing.
+     *
+     * @return elapsed time in seconds
+     */
+    public double getElapsedSeconds() {
+        return elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Method obtains average number of completed forms per second.
+     *
+     * @return throughput in forms per second
+     */
+    public double getThroughput() {
+        double seconds = getElapsedSeconds();
+        return seconds > 0 ? completed / seconds : 0;
+    }
+
+    /**
+     * Method estimates time needed to complete the remaining forms with current throughput.
+     *
+     * @return estimated remaining time in seconds or -1 if no form is completed yet
+     */
+    public double getEstimatedRemainingSeconds() {
+        double throughput = getThroughput();
+        if (throughput <= 0) {
+            return -1;
+        }
+        return (total - completed) / throughput;
+    }
+
+    /**
+     * Method obtains number of forms processed by a stage.
+     *
+     * @param stage
+     *            batch stage
+     * @return number of processed forms
+     */
+    public long getStageProcessed(BatchStage stage) {
+        return stageProcessed[stage.ordinal()];
+    }
+
+    /**
+     * Method obtains average time a stage spends processing one form.
+     *
+     * @param stage
+     *            batch stage
+     * @return average processing time in milliseconds or 0 if stage didn't process any form
+     */
+    public double getStageAverageMillis(BatchStage stage) {
+        long processed = stageProcessed[stage.ordinal()];
+        return processed == 0 ? 0 : stageNanos[stage.ordinal()] / NANOS_IN_MILLI / processed;
+    }
+
+    /**
+     * Method obtains number of forms waiting in front of a stage.
+     *
+     * @param stage
+     *            batch stage
+     * @return number of waiting forms
+     */
+    public int getStageQueued(BatchStage stage) {
+        return stageQueued[stage.ordinal()];
+    }
+
+    /**
+     * Method formats time as minutes and seconds.
+     *
+     * @param seconds
+     *            time in seconds
+     * @return formatted time
+     */
+    private static String formatTime(double seconds) {
+        long rounded = Math.round(seconds);
+        return String.format("%d:%02d", rounded / SECONDS_IN_MINUTE, rounded % SECONDS_IN_MINUTE);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d/%d forms, %d failed, %.2f forms/s, elapsed %s", completed, total, failed,
+                getThroughput(), formatTime(getElapsedSeconds())));
+        double remaining = getEstimatedRemainingSeconds();
+        if (!isFinished() && remaining >= 0) {
+            sb.append(", ETA ").append(formatTime(remaining));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,198 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Consumer of completed batch jobs that aggregates results incrementally. Every completed form is appended as one row
+ * to the batch results file in the result directory and only counters and a limited number of failure messages are
+ * kept in memory, so a batch of any size can be aggregated. Rows are written in the order of completion, every row
+ * starts with form index in the batch, form name and status, followed by values of all form fields.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 5.7.2017.
+ */
+public class BatchResultWriter implements Consumer<FormJob>, Closeable {
+
+    /**
+     * Name of batch results file without extension.
+     */
+    public static final String RESULTS_FILE_NAME = "batch_results";
+
+    /**
+     * Maximal number of failure messages kept for the summary.
+     */
+    private static final int MAX_KEPT_FAILURES = 10;
+
+    /**
+     * Status of successfully processed form.
+     */
+    private static final String STATUS_OK = "OK";
+
+    /**
+     * Status of failed form.
+     */
+    private static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * Writer of batch results file.
+     */
+    private final BufferedWriter writer;
+
+    /**
+     * Format of batch results file.
+     */
+    private final ResultFormat format;
+
+    /**
+     * Number of written forms.
+     */
+    private int written;
+
+    /**
+     * Number of failed forms.
+     */
+    private int failed;
+
+    /**
+     * First failure messages.
+     */
+    private final List<String> failures = new ArrayList<>();
+
+    /**
+     * Constructor that creates text batch results file in given directory. Existing results file is overwritten.
+     *
+     * @param resultDir
+     *            result directory
+     * @throws IOException
+     *             if results file cannot be created
+     */
+    public BatchResultWriter(File resultDir) throws IOException {
+        this(resultDir, ResultFormat.TXT);
+    }
+
+    /**
+     * Constructor that creates batch results file with given format in given directory. Existing results file is
+     * overwritten.
+     *
+     * @param resultDir
+     *            result directory
+     * @param format
+     *            format of results file
+     * @throws IOException
+     *             if results file cannot be created
+     */
+    public BatchResultWriter(File resultDir, ResultFormat format) throws IOException {
+        this(resultDir, format, false);
+    }
+
+    /**
+     * Constructor that creates or opens batch results file with given format in given directory. When results are
+     * appended, rows are added after rows of earlier batches, which is used when a directory is watched for new
+     * forms and processing is restarted.
+     *
+     * @param resultDir
+     *            result directory
+     * @param format
+     *            format of results file
+     * @param append
+     *            true if rows are appended to existing results file, false if existing file is overwritten
+     * @throws IOException
+     *             if results file cannot be created
+     */
+    public BatchResultWriter(File resultDir, ResultFormat format, boolean append) throws IOException {
+        this.format = format;
+        Path resultsFile = resultDir.toPath().resolve(RESULTS_FILE_NAME + "." + format.getExtension());
+        boolean header = !append || !Files.exists(resultsFile) || Files.size(resultsFile) == 0;
+        writer = Files.newBufferedWriter(resultsFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        if (header) {
+            writer.write(format.formatRow(Arrays.asList("Index", "Form", "Status", "Fields")));
+            writer.write("\n");
+            writer.flush();
+        }
+    }
+
+    /**
+     * {@inheritDoc} Row is flushed immediately, so results of completed forms are kept if the batch is stopped.
+     *
+     * @throws UncheckedIOException
+     *             if row cannot be written
+     */
+    @Override
+    public void accept(FormJob job) throws UncheckedIOException {
+        try {
+            List<String> row = new ArrayList<>();
+            row.add(String.valueOf(job.getIndex()));
+            row.add(job.getName());
+            row.add(job.isFailed() ? STATUS_FAILED : STATUS_OK);
+            if (job.isFailed()) {
+                row.add(job.getError());
+                failed++;
+                if (failures.size() < MAX_KEPT_FAILURES) {
+                    failures.add(job.getFile().getName() + " - " + job.getError());
+                }
+            } else {
+                for (String field : job.getFields()) {
+                    row.add(field.replace("..", "."));
+                }
+            }
+            writer.write(format.formatRow(row));
+            writer.write("\n");
+            writer.flush();
+            written++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method obtains number of written forms.
+     *
+     * @return number of written forms
+     */
+    public int getWritten() {
+        return written;
+    }
+
+    /**
+     * Method obtains number of failed forms.
+     *
+     * @return number of failed forms
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Method creates message with number of processed forms and first failures.
+     *
+     * @return summary message
+     */
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Processed ").append(written - failed).append(" of ").append(written).append(" forms.");
+        for (String failure : failures) {
+            sb.append("\n").append(failure);
+        }
+        if (failed > failures.size()) {
+            sb.append("\n...");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
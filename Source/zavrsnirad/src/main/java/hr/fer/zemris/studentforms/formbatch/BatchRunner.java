@@ -0,0 +1,441 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import hr.fer.zemris.form.FormTemplateParameters;
+import hr.fer.zemris.form.FormTemplateUtility;
+import hr.fer.zemris.image.binarization.GlobalThresholdAlgorithm;
+import hr.fer.zemris.image.binarization.IBinarizationAlgorithm;
+import hr.fer.zemris.image.binarization.NiblackMethod;
+import hr.fer.zemris.image.binarization.OtsuAlgorithm;
+import hr.fer.zemris.image.binarization.SauvolaMethod;
+import hr.fer.zemris.image.grayscale.AverageAlgorithm;
+import hr.fer.zemris.neural.INeuralNetwork;
+import hr.fer.zemris.neural.NeuralNetworkUtility;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Program processes a batch of scanned forms without graphical user interface, so grading can be run on headless
+ * servers. Program is started with form template file, neural network file, directory with scanned forms and result
+ * directory, followed by options:
+ * <ul>
+ * <li>--threads n - number of threads of every processing stage, default is number of processors, forms are always
+ * written by one thread</li>
+ * <li>--queue n - number of forms that can wait in front of every stage</li>
+ * <li>--binarization algorithm - global[:threshold], otsu, niblack[:k:radius] or sauvola[:k:radius]</li>
+ * <li>--format format - txt or csv format of result files</li>
+ * <li>--watch - forms directory is watched and new forms are processed as they are scanned, until program is
+ * stopped</li>
+ * </ul>
+ * Progress is printed to standard error. Program exits with 0 if all forms are processed, with 2 if some forms failed
+ * and with 1 if the batch couldn't be started. In watch mode forms with results newer than the images are skipped,
+ * rows of new forms are appended to batch results file and forms that are being processed are completed when program
+ * is stopped.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 6.7.2017.
+ */
+public class BatchRunner {
+
+    /**
+     * Usage message.
+     */
+    private static final String USAGE = "Usage: BatchRunner <template.ftp> <network.ann> <forms directory> "
+            + "<results directory> [--threads n] [--queue n] "
+            + "[--binarization global[:t]|otsu|niblack[:k:r]|sauvola[:k:r]] [--format txt|csv] [--watch]";
+
+    /**
+     * Exit status of a batch that couldn't be started.
+     */
+    private static final int STATUS_ERROR = 1;
+
+    /**
+     * Exit status of a batch with failed forms.
+     */
+    private static final int STATUS_FAILED_FORMS = 2;
+
+    /**
+     * Number of positional arguments.
+     */
+    private static final int POSITIONAL_ARGUMENTS = 4;
+
+    /**
+     * Minimal time between two progress reports in milliseconds.
+     */
+    private static final long REPORT_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Time in milliseconds that forms in flight have to complete when watching is stopped.
+     */
+    private static final long SHUTDOWN_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Flag that shows if program is being stopped by the system.
+     */
+    private static volatile boolean stopping;
+
+    /**
+     * Latch that is released when batch processing returns, shutdown hook waits for it instead of the main thread
+     * because the main thread waits for shutdown hooks when it exits on its own.
+     */
+    private static final CountDownLatch FINISHED = new CountDownLatch(1);
+
+    /**
+     * Default threshold of global threshold binarization.
+     */
+    private static final int DEFAULT_THRESHOLD = 250;
+
+    /**
+     * Maximal threshold of global threshold binarization.
+     */
+    private static final int MAX_INTENSITY = 255;
+
+    /**
+     * Default k parameter of Niblack method.
+     */
+    private static final double DEFAULT_NIBLACK_K = -0.2;
+
+    /**
+     * Default radius of Niblack method.
+     */
+    private static final int DEFAULT_NIBLACK_RADIUS = 2;
+
+    /**
+     * Default k parameter of Sauvola method.
+     */
+    private static final double DEFAULT_SAUVOLA_K = 0.2;
+
+    /**
+     * Default radius of Sauvola method.
+     */
+    private static final int DEFAULT_SAUVOLA_RADIUS = 4;
+
+    /**
+     * Method starts with program run.
+     *
+     * @param args
+     *            template file, network file, forms directory, results directory and options
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int status;
+        try {
+            status = run(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            status = STATUS_ERROR;
+        } finally {
+            FINISHED.countDown();
+        }
+        // exit can't be invoked while shutdown hooks are running
+        if (!stopping) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Method processes the batch described with program arguments.
+     *
+     * @param args
+     *            program arguments
+     * @return program exit status
+     * @throws IllegalArgumentException
+     *             if arguments are invalid
+     */
+    private static int run(String[] args) throws IllegalArgumentException {
+        List<String> positional = new ArrayList<>();
+        Integer threads = null;
+        int queueCapacity = BatchPipeline.DEFAULT_QUEUE_CAPACITY;
+        IBinarizationAlgorithm binaryAlgorithm = new GlobalThresholdAlgorithm(DEFAULT_THRESHOLD);
+        ResultFormat format = ResultFormat.TXT;
+        boolean watch = false;
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                positional.add(args[i]);
+                continue;
+            }
+            if (args[i].equals("--watch")) {
+                watch = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value of option " + args[i]);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+            case "--threads":
+                threads = parsePositive(value, "Number of threads");
+                break;
+            case "--queue":
+                queueCapacity = parsePositive(value, "Queue capacity");
+                break;
+            case "--binarization":
+                binaryAlgorithm = parseBinarization(value);
+                break;
+            case "--format":
+                try {
+                    format = ResultFormat.valueOf(value.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown result format " + value);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+        if (positional.size() != POSITIONAL_ARGUMENTS) {
+            throw new IllegalArgumentException("Template, network, forms directory and results directory are "
+                    + "required.");
+        }
+        File formsDir = new File(positional.get(2));
+        File resultDir = new File(positional.get(3));
+        if (!formsDir.isDirectory()) {
+            throw new IllegalArgumentException("Forms directory " + formsDir + " doesn't exist.");
+        }
+        if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+            System.err.println("Results directory " + resultDir + " cannot be created.");
+            return STATUS_ERROR;
+        }
+
+        FormTemplateParameters ftp;
+        try {
+            ftp = FormTemplateUtility.readTemplateFromFile(new File(positional.get(0)));
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println("Form template " + positional.get(0) + " cannot be read.");
+            return STATUS_ERROR;
+        }
+        INeuralNetwork network = NeuralNetworkUtility.readNeuralNetworkFromFile(new File(positional.get(1)));
+        if (network == null) {
+            System.err.println("Neural network " + positional.get(1) + " cannot be read.");
+            return STATUS_ERROR;
+        }
+
+        FormProcessor processor = new FormProcessor(ftp, network, resultDir, new AverageAlgorithm(), binaryAlgorithm,
+                format);
+        BatchPipeline pipeline = new BatchPipeline(processor);
+        if (threads != null) {
+            for (BatchStage stage : BatchStage.values()) {
+                if (stage != BatchStage.WRITE) {
+                    pipeline.setParallelism(stage, threads);
+                }
+            }
+        }
+        pipeline.setQueueCapacity(queueCapacity);
+        long[] lastReport = { System.currentTimeMillis() };
+        pipeline.addProgressListener(progress -> {
+            long now = System.currentTimeMillis();
+            if (progress.isFinished() || now - lastReport[0] >= REPORT_INTERVAL) {
+                lastReport[0] = now;
+                System.err.println(progress);
+            }
+        });
+
+        HotFolderSource watchedForms = null;
+        List<File> forms = null;
+        if (watch) {
+            try {
+                watchedForms = watchForms(formsDir, processor);
+            } catch (IOException e) {
+                System.err.println("Forms directory " + formsDir + " cannot be watched.");
+                return STATUS_ERROR;
+            }
+            System.err.println("Watching " + formsDir + " for scanned forms");
+        } else {
+            forms = listForms(formsDir);
+            System.err.println("Processing " + forms.size() + " forms from " + formsDir);
+        }
+        try (BatchResultWriter results = new BatchResultWriter(resultDir, format, watch)) {
+            if (watchedForms != null) {
+                pipeline.process(watchedForms, results);
+            } else {
+                pipeline.process(forms, results);
+            }
+            System.err.println(results.getSummary());
+            return results.getFailed() == 0 ? 0 : STATUS_FAILED_FORMS;
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Batch processing stopped: " + (e.getCause() != null ? e.getCause() : e));
+            return STATUS_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return STATUS_ERROR;
+        }
+    }
+
+    /**
+     * Method starts watching forms directory. Forms whose result files are newer than the images are skipped, so
+     * forms that are scanned again under the same name are processed again. Watching is stopped when program is
+     * stopped and batch processing then has some time to complete forms in flight. If processing has already
+     * returned, shutdown isn't delayed.
+     *
+     * @param formsDir
+     *            forms directory
+     * @param processor
+     *            form processor that knows result files of forms
+     * @return source of forms from watched directory
+     * @throws IOException
+     *             if directory cannot be watched
+     */
+    private static HotFolderSource watchForms(File formsDir, FormProcessor processor) throws IOException {
+        HotFolderSource source = new HotFolderSource(formsDir,
+                HotFolderSource.withoutCurrentResult(processor::getResultFile), HotFolderSource.DEFAULT_SETTLE_MILLIS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stopping = true;
+            source.close();
+            try {
+                FINISHED.await(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        return source;
+    }
+
+    /**
+     * Method lists readable images in forms directory sorted by name.
+     *
+     * @param formsDir
+     *            forms directory
+     * @return scanned form files
+     */
+    private static List<File> listForms(File formsDir) {
+        List<File> forms = new ArrayList<>();
+        File[] files = formsDir.listFiles();
+        if (files == null) {
+            return forms;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isFile() && file.canRead() && HotFolderSource.isImageFile(file)) {
+                forms.add(file);
+            }
+        }
+        return forms;
+    }
+
+    /**
+     * Method parses positive integer option.
+     *
+     * @param value
+     *            option value
+     * @param name
+     *            option name used in error message
+     * @return parsed value
+     * @throws IllegalArgumentException
+     *             if value isn't a positive integer
+     */
+    private static int parsePositive(String value, String name) throws IllegalArgumentException {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be a positive integer.");
+    }
+
+    /**
+     * Method creates binarization algorithm from option value. Algorithms are sequential, forms are binarized in
+     * parallel by threads of the binarization stage.
+     *
+     * @param value
+     *            algorithm name optionally followed by parameters separated with ':'
+     * @return binarization algorithm
+     * @throws IllegalArgumentException
+     *             if algorithm or its parameters are invalid
+     */
+    private static IBinarizationAlgorithm parseBinarization(String value) throws IllegalArgumentException {
+        String[] parts = value.toLowerCase(Locale.ROOT).split(":", -1);
+        try {
+            switch (parts[0]) {
+            case "global":
+                checkPartsNumber(value, parts, 1, 2);
+                return new GlobalThresholdAlgorithm(parts.length > 1 ? parseThreshold(parts[1]) : DEFAULT_THRESHOLD);
+            case "otsu":
+                checkPartsNumber(value, parts, 1, 1);
+                return new OtsuAlgorithm();
+            case "niblack":
+                checkPartsNumber(value, parts, 1, 3);
+                return parts.length > 1 ? new NiblackMethod(Double.parseDouble(parts[1]), parseRadius(parts[2]))
+                        : new NiblackMethod(DEFAULT_NIBLACK_K, DEFAULT_NIBLACK_RADIUS);
+            case "sauvola":
+                checkPartsNumber(value, parts, 1, 3);
+                return parts.length > 1 ? new SauvolaMethod(Double.parseDouble(parts[1]), parseRadius(parts[2]))
+                        : new SauvolaMethod(DEFAULT_SAUVOLA_K, DEFAULT_SAUVOLA_RADIUS);
+            default:
+                throw new IllegalArgumentException("Unknown binarization algorithm " + parts[0]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid binarization parameters " + value);
+        }
+    }
+
+    /**
+     * Method checks that binarization option has one of the allowed numbers of parts.
+     *
+     * @param value
+     *            binarization option value
+     * @param parts
+     *            option parts separated with ':'
+     * @param withoutParameters
+     *            number of parts when algorithm is given without parameters
+     * @param withParameters
+     *            number of parts when all algorithm parameters are given
+     * @throws IllegalArgumentException
+     *             if number of parts is different
+     */
+    private static void checkPartsNumber(String value, String[] parts, int withoutParameters, int withParameters)
+            throws IllegalArgumentException {
+        if (parts.length != withoutParameters && parts.length != withParameters) {
+            throw new IllegalArgumentException("Invalid number of binarization parameters " + value);
+        }
+    }
+
+    /**
+     * Method parses threshold of global threshold binarization.
+     *
+     * @param value
+     *            threshold
+     * @return threshold from 0 to 255
+     * @throws IllegalArgumentException
+     *             if threshold isn't an integer from 0 to 255
+     */
+    private static int parseThreshold(String value) throws IllegalArgumentException {
+        int threshold = Integer.parseInt(value);
+        if (threshold < 0 || threshold > MAX_INTENSITY) {
+            throw new IllegalArgumentException("Binarization threshold must be from 0 to " + MAX_INTENSITY + ".");
+        }
+        return threshold;
+    }
+
+    /**
+     * Method parses radius of local binarization.
+     *
+     * @param value
+     *            radius
+     * @return positive radius
+     * @throws IllegalArgumentException
+     *             if radius isn't a positive integer
+     */
+    private static int parseRadius(String value) throws IllegalArgumentException {
+        int radius = Integer.parseInt(value);
+        if (radius < 1) {
+            throw new IllegalArgumentException("Binarization radius must be a positive integer.");
+        }
+        return radius;
+    }
+
+    /**
+     * Private utility class constructor.
+     */
+    private BatchRunner() {
+    }
+}
@@ -0,0 +1,80 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+/**
+ * Stages of batch form processing in the order in which every form passes through them.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 4.7.2017.
+ */
+public enum BatchStage {
+
+    /**
+     * Reading and decoding of scanned form image.
+     */
+    DECODE("Decode"),
+
+    /**
+     * Grayscale and binarization of form image.
+     */
+    BINARIZE("Binarize"),
+
+    /**
+     * Detection of form markers and form coordinate system.
+     */
+    LOCATE_MARKERS("Locate markers"),
+
+    /**
+     * Rotation of form to template orientation.
+     */
+    ALIGN("Align"),
+
+    /**
+     * Extraction of form fields.
+     */
+    EXTRACT_FIELDS("Extract fields"),
+
+    /**
+     * Segmentation of fields into digits and creation of network inputs.
+     */
+    SEGMENT("Segment"),
+
+    /**
+     * Classification of digits with neural network.
+     */
+    CLASSIFY("Classify"),
+
+    /**
+     * Writing of form results.
+     */
+    WRITE("Write");
+
+    /**
+     * Stage name displayed to user.
+     */
+    private final String displayName;
+
+    /**
+     * Constructor that initializes stage with displayed name.
+     *
+     * @param displayName
+     *            stage name displayed to user
+     */
+    BatchStage(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Method obtains default number of threads of the stage. Writing is done by one thread, so result files are
+     * written one at a time, other stages use all available processors.
+     *
+     * @return default number of stage threads
+     */
+    public int getDefaultParallelism() {
+        return this == WRITE ? 1 : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,307 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import hr.fer.zemris.form.FormNode;
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.geometry.CoordinateSystem2D;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Class describes one form during batch processing. Every stage stores its result in the job and releases the data
+ * that later stages don't need, so only data of the current stage is kept while the form waits between stages.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 4.7.2017.
+ */
+public class FormJob {
+
+    /**
+     * Index of the form in the batch.
+     */
+    private final int index;
+
+    /**
+     * Scanned form file.
+     */
+    private final File file;
+
+    /**
+     * Decoded form image.
+     */
+    private BufferedImage image;
+
+    /**
+     * Binarized form image.
+     */
+    private IBinaryImage binaryImage;
+
+    /**
+     * Coordinate system defined by detected form markers.
+     */
+    private CoordinateSystem2D coordinateSystem;
+
+    /**
+     * Aligned form.
+     */
+    private FormNode formNode;
+
+    /**
+     * Images of form fields.
+     */
+    private List<IBinaryImage> fieldImages;
+
+    /**
+     * Network inputs of all digits of the form.
+     */
+    private double[][] inputs;
+
+    /**
+     * Number of digits in every field.
+     */
+    private int[] fieldSegments;
+
+    /**
+     * Recognized field values.
+     */
+    private List<String> fields;
+
+    /**
+     * Processing error message or null if form is processed without error.
+     */
+    private String error;
+
+    /**
+     * Constructor that initializes job with form index and file.
+     *
+     * @param index
+     *            index of the form in the batch
+     * @param file
+     *            scanned form file
+     */
+    public FormJob(int index, File file) {
+        this.index = index;
+        this.file = file;
+    }
+
+    /**
+     * Method obtains index of the form in the batch.
+     *
+     * @return form index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Method obtains scanned form file.
+     *
+     * @return form file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Method obtains form name, it is file name without extension.
+     *
+     * @return form name
+     */
+    public String getName() {
+        return getName(file);
+    }
+
+    /**
+     * Method obtains name of a form file, it is file name without extension.
+     *
+     * @param file
+     *            form file
+     * @return form name
+     */
+    static String getName(File file) {
+        String name = file.getName();
+        if (name.contains(".")) {
+            name = name.substring(0, name.lastIndexOf('.'));
+        }
+        return name;
+    }
+
+    /**
+     * Method obtains decoded form image.
+     *
+     * @return form image
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Method sets decoded form image.
+     *
+     * @param image
+     *            form image or null to release the image
+     */
+    public void setImage(BufferedImage image) {
+        this.image = image;
+    }
+
+    /**
+     * Method obtains binarized form image.
+     *
+     * @return binary form image
+     */
+    public IBinaryImage getBinaryImage() {
+        return binaryImage;
+    }
+
+    /**
+     * Method sets binarized form image.
+     *
+     * @param binaryImage
+     *            binary form image or null to release the image
+     */
+    public void setBinaryImage(IBinaryImage binaryImage) {
+        this.binaryImage = binaryImage;
+    }
+
+    /**
+     * Method obtains coordinate system defined by form markers.
+     *
+     * @return markers coordinate system
+     */
+    public CoordinateSystem2D getCoordinateSystem() {
+        return coordinateSystem;
+    }
+
+    /**
+     * Method sets coordinate system defined by form markers.
+     *
+     * @param coordinateSystem
+     *            markers coordinate system
+     */
+    public void setCoordinateSystem(CoordinateSystem2D coordinateSystem) {
+        this.coordinateSystem = coordinateSystem;
+    }
+
+    /**
+     * Method obtains aligned form.
+     *
+     * @return form node
+     */
+    public FormNode getFormNode() {
+        return formNode;
+    }
+
+    /**
+     * Method sets aligned form.
+     *
+     * @param formNode
+     *            form node or null to release the form
+     */
+    public void setFormNode(FormNode formNode) {
+        this.formNode = formNode;
+    }
+
+    /**
+     * Method obtains images of form fields.
+     *
+     * @return field images
+     */
+    public List<IBinaryImage> getFieldImages() {
+        return fieldImages;
+    }
+
+    /**
+     * Method sets images of form fields.
+     *
+     * @param fieldImages
+     *            field images or null to release the images
+     */
+    public void setFieldImages(List<IBinaryImage> fieldImages) {
+        this.fieldImages = fieldImages;
+    }
+
+    /**
+     * Method obtains network inputs of all digits of the form.
+     *
+     * @return network inputs
+     */
+    public double[][] getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Method obtains number of digits in every field.
+     *
+     * @return number of digits of every field
+     */
+    public int[] getFieldSegments() {
+        return fieldSegments;
+    }
+
+    /**
+     * Method sets network inputs of form digits and number of digits in every field.
+     *
+     * @param inputs
+     *            network inputs or null to release the inputs
+     * @param fieldSegments
+     *            number of digits of every field
+     */
+    public void setInputs(double[][] inputs, int[] fieldSegments) {
+        this.inputs = inputs;
+        this.fieldSegments = fieldSegments;
+    }
+
+    /**
+     * Method obtains recognized field values.
+     *
+     * @return field values
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Method sets recognized field values.
+     *
+     * @param fields
+     *            field values
+     */
+    public void setFields(List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Method obtains processing error message.
+     *
+     * @return error message or null if form is processed without error
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Method marks job as failed and releases all form data.
+     *
+     * @param error
+     *            error message
+     */
+    public void fail(String error) {
+        this.error = error;
+        image = null;
+        binaryImage = null;
+        formNode = null;
+        fieldImages = null;
+        inputs = null;
+    }
+
+    /**
+     * Method checks if form processing failed.
+     *
+     * @return true if processing failed, false otherwise
+     */
+    public boolean isFailed() {
+        return error != null;
+    }
+}
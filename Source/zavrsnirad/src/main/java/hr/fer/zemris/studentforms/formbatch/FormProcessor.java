@@ -0,0 +1,390 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import hr.fer.zemris.form.FormNode;
+import hr.fer.zemris.form.FormNodeUtility;
+import hr.fer.zemris.form.FormTemplateParameters;
+import hr.fer.zemris.form.MarkersUtility;
+import hr.fer.zemris.image.ImageUtility;
+import hr.fer.zemris.image.binarization.IBinarizationAlgorithm;
+import hr.fer.zemris.image.binary.BinaryImageResampler;
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
+import hr.fer.zemris.image.geometry.GeometryUtility;
+import hr.fer.zemris.image.grayscale.IGrayscaleAlgorithm;
+import hr.fer.zemris.image.transformation.RotateImageCenterAlgorithm;
+import hr.fer.zemris.neural.IInferenceEngine;
+import hr.fer.zemris.neural.NeuralNetworkUtility;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class implements stages of batch form processing. Processor doesn't keep state of processed forms, all form data is
+ * stored in {@link FormJob}, so stages can be called for different forms from multiple threads at once.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 4.7.2017.
+ */
+public class FormProcessor {
+
+    /**
+     * Field top offset.
+     */
+    private static final int UP_OFFSET = 8;
+    /**
+     * Field bottom offset.
+     */
+    private static final int LOW_OFFSET = 2;
+    /**
+     * Field left offset.
+     */
+    private static final int LEFT_OFFSET = 5;
+    /**
+     * Field right offset.
+     */
+    private static final int RIGHT_OFFSET = 5;
+
+    /**
+     * Filter of field segments that can be digits.
+     */
+    private static final Predicate<ConnectedComponent> SEGMENTS_FILTER = i -> {
+        return i.getBoundingRectangle().width > 2 && i.getBoundingRectangle().height > 2 && i.getPixelCount() > 10
+                && i.getBoundingRectangle().width * i.getBoundingRectangle().height > 6;
+    };
+
+    /**
+     * Form template parameters.
+     */
+    private final FormTemplateParameters ftp;
+
+    /**
+     * Engine that calculates outputs of digit classification network.
+     */
+    private final IInferenceEngine network;
+
+    /**
+     * Batch result directory.
+     */
+    private final File resultDir;
+
+    /**
+     * Algorithm used for image grayscale.
+     */
+    private final IGrayscaleAlgorithm grayAlgorithm;
+
+    /**
+     * Algorithm used for image binarization.
+     */
+    private final IBinarizationAlgorithm binaryAlgorithm;
+
+    /**
+     * Format of form result files.
+     */
+    private final ResultFormat format;
+
+    /**
+     * Resampler of digits to network inputs for every thread, resampler can't be shared between threads.
+     */
+    private final ThreadLocal<BinaryImageResampler> resamplers;
+
+    /**
+     * Constructor that initializes processor with form template, classification engine, result directory and image
+     * algorithms. Form results are written as text tables.
+     *
+     * @param ftp
+     *            form template parameters
+     * @param network
+     *            engine used for digit classification
+     * @param resultDir
+     *            directory for result files
+     * @param grayAlgorithm
+     *            algorithm used for image grayscale
+     * @param binaryAlgorithm
+     *            algorithm used for image binarization
+     * @throws IllegalArgumentException
+     *             if some of the arguments is null
+     */
+    public FormProcessor(FormTemplateParameters ftp, IInferenceEngine network, File resultDir,
+            IGrayscaleAlgorithm grayAlgorithm, IBinarizationAlgorithm binaryAlgorithm)
+            throws IllegalArgumentException {
+        this(ftp, network, resultDir, grayAlgorithm, binaryAlgorithm, ResultFormat.TXT);
+    }
+
+    /**
+     * Constructor that initializes processor with form template, classification engine, result directory, image
+     * algorithms and format of result files.
+     *
+     * @param ftp
+     *            form template parameters
+     * @param network
+     *            engine used for digit classification
+     * @param resultDir
+     *            directory for result files
+     * @param grayAlgorithm
+     *            algorithm used for image grayscale
+     * @param binaryAlgorithm
+     *            algorithm used for image binarization
+     * @param format
+     *            format of form result files
+     * @throws IllegalArgumentException
+     *             if some of the arguments is null
+     */
+    public FormProcessor(FormTemplateParameters ftp, IInferenceEngine network, File resultDir,
+            IGrayscaleAlgorithm grayAlgorithm, IBinarizationAlgorithm binaryAlgorithm, ResultFormat format)
+            throws IllegalArgumentException {
+        if (ftp == null || network == null || resultDir == null || grayAlgorithm == null
+                || binaryAlgorithm == null || format == null) {
+            throw new IllegalArgumentException("Form template, network, result directory and algorithms must be set.");
+        }
+        this.ftp = ftp;
+        this.network = network;
+        this.resultDir = resultDir;
+        this.grayAlgorithm = grayAlgorithm;
+        this.binaryAlgorithm = binaryAlgorithm;
+        this.format = format;
+        int dimension = (int) Math.sqrt(network.getInputSize());
+        this.resamplers = ThreadLocal.withInitial(() -> new BinaryImageResampler(dimension));
+    }
+
+    /**
+     * Method obtains result file of a scanned form. Result file exists only if the form was successfully processed.
+     *
+     * @param form
+     *            scanned form file
+     * @return form result file
+     */
+    public File getResultFile(File form) {
+        return new File(resultDir, FormJob.getName(form) + "." + format.getExtension());
+    }
+
+    /**
+     * Method applies given stage to the form.
+     *
+     * @param stage
+     *            processing stage
+     * @param job
+     *            processed form
+     * @throws IOException
+     *             if form image cannot be read or result cannot be written
+     */
+    public void process(BatchStage stage, FormJob job) throws IOException {
+        switch (stage) {
+        case DECODE:
+            decode(job);
+            break;
+        case BINARIZE:
+            binarize(job);
+            break;
+        case LOCATE_MARKERS:
+            locateMarkers(job);
+            break;
+        case ALIGN:
+            align(job);
+            break;
+        case EXTRACT_FIELDS:
+            extractFields(job);
+            break;
+        case SEGMENT:
+            segment(job);
+            break;
+        case CLASSIFY:
+            classify(job);
+            break;
+        case WRITE:
+            write(job);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown stage " + stage);
+        }
+    }
+
+    /**
+     * Method reads form image.
+     *
+     * @param job
+     *            processed form
+     * @throws IOException
+     *             if image cannot be read
+     */
+    private void decode(FormJob job) throws IOException {
+        BufferedImage image = ImageIO.read(job.getFile());
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        job.setImage(image);
+    }
+
+    /**
+     * Method binarizes form image.
+     *
+     * @param job
+     *            processed form
+     */
+    private void binarize(FormJob job) {
+        job.setBinaryImage(ImageUtility.toBinary(job.getImage(), grayAlgorithm, binaryAlgorithm));
+        job.setImage(null);
+    }
+
+    /**
+     * Method detects form markers and defines coordinate system of the scanned form.
+     *
+     * @param job
+     *            processed form
+     */
+    private void locateMarkers(FormJob job) {
+        job.setCoordinateSystem(MarkersUtility.coordinateSystemFromMarkers(MarkersUtility.findMarkersByPositions(
+                job.getBinaryImage(), ftp.getMarkerPositions(), ftp.getExpMarkerSize() * 2)));
+    }
+
+    /**
+     * Method rotates form to template orientation and defines coordinate system of rotated form.
+     *
+     * @param job
+     *            processed form
+     */
+    private void align(FormJob job) {
+        double angle = GeometryUtility.getAngleBetweenLines(ftp.getCoordinateSystem().getY(), job
+                .getCoordinateSystem().getY());
+        RotateImageCenterAlgorithm rica = new RotateImageCenterAlgorithm(angle);
+        BufferedImage rotatedImage = rica.transform(job.getBinaryImage().toImage());
+        job.setBinaryImage(null);
+
+        FormNode formNode = new FormNode();
+        formNode.setFormTemplateParameters(ftp);
+        formNode.setBinarizedForm(ImageUtility.toBinary(rotatedImage, grayAlgorithm, binaryAlgorithm));
+        formNode.defineCoordinateSystem();
+        formNode.setFormName(job.getName());
+        job.setFormNode(formNode);
+    }
+
+    /**
+     * Method extracts images of all form fields.
+     *
+     * @param job
+     *            processed form
+     */
+    private void extractFields(FormJob job) {
+        List<IBinaryImage> fieldImages = new ArrayList<>();
+        for (int i = 0, end = ftp.getPointsNumber(); i < end; i++) {
+            fieldImages.add(FormNodeUtility.extractField(job.getFormNode(), i, UP_OFFSET, LOW_OFFSET, LEFT_OFFSET,
+                    RIGHT_OFFSET));
+        }
+        job.setFieldImages(fieldImages);
+        job.setFormNode(null);
+    }
+
+    /**
+     * Method segments fields into digits and resamples digits to network inputs.
+     *
+     * @param job
+     *            processed form
+     */
+    private void segment(FormJob job) {
+        BinaryImageResampler resampler = resamplers.get();
+        int dimension = resampler.getDimension();
+        List<IBinaryImage> fieldImages = job.getFieldImages();
+        int[] fieldSegments = new int[fieldImages.size()];
+        List<double[]> inputs = new ArrayList<>();
+        for (int i = 0; i < fieldSegments.length; i++) {
+            List<IBinaryImage> segments = FormNodeUtility.segmentField(fieldImages.get(i), SEGMENTS_FILTER);
+            for (IBinaryImage segment : segments) {
+                double[] input = new double[dimension * dimension];
+                resampler.toNetworkInput(segment, input);
+                inputs.add(input);
+            }
+            fieldSegments[i] = segments.size();
+        }
+        job.setInputs(inputs.toArray(new double[inputs.size()][]), fieldSegments);
+        job.setFieldImages(null);
+    }
+
+    /**
+     * Method classifies all digits of the form with one batch network call and creates field values.
+     *
+     * @param job
+     *            processed form
+     */
+    private void classify(FormJob job) {
+        double[][] outputs = network.calcOutputs(job.getInputs());
+        int[] fieldSegments = job.getFieldSegments();
+        List<String> fields = new ArrayList<>(fieldSegments.length);
+        for (int i = 0, segment = 0; i < fieldSegments.length; i++) {
+            StringBuilder processedSegments = new StringBuilder();
+            for (int end = segment + fieldSegments[i]; segment < end; segment++) {
+                processedSegments.append(NeuralNetworkUtility.encodeOutput(outputs[segment]));
+            }
+            fields.add(processedSegments.toString());
+        }
+        job.setFields(fields);
+        job.setInputs(null, null);
+    }
+
+    /**
+     * Method writes form fields with error messages to the form result file.
+     *
+     * @param job
+     *            processed form
+     * @throws IOException
+     *             if result file cannot be written
+     */
+    private void write(FormJob job) throws IOException {
+        List<String> fields = job.getFields();
+        try (BufferedWriter bw = Files.newBufferedWriter(getResultFile(job.getFile()).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (format == ResultFormat.TXT) {
+                bw.write(String.format("%-12s\t%-20s\t%-100s\n", "Field number", "Number of points",
+                        "Error message"));
+            } else {
+                bw.write(format.formatRow(Arrays.asList("Field number", "Number of points", "Error message")));
+                bw.write("\n");
+            }
+            for (int i = 0, end = fields.size(); i < end; i++) {
+                String value = fields.get(i).replace("..", ".");
+                String error = checkField(fields.get(i));
+                if (format == ResultFormat.TXT) {
+                    bw.write(String.format("%12d\t%-20s", i, value));
+                    if (error != null) {
+                        bw.write(String.format("\t%-100s", error));
+                    }
+                } else {
+                    bw.write(format.formatRow(Arrays.asList(String.valueOf(i), value, error == null ? "" : error)));
+                }
+                bw.write("\n");
+            }
+        }
+    }
+
+    /**
+     * Method creates error message for table field if some error has been detected.
+     *
+     * @param string
+     *            field string
+     * @return error or warning message if there is something wrong with the given field, null otherwise
+     */
+    private static String checkField(String string) {
+        char[] characters = string.toCharArray();
+        int dotNum = 0;
+        for (int i = 0; i < characters.length; i++) {
+            if (characters[i] == '.') {
+                dotNum++;
+            }
+        }
+        if (dotNum > 1) {
+            return "ERROR: Multiple decimal separators";
+        }
+        if (characters.length > 2 && characters[0] == '0' && characters[1] != '.') {
+            return "WARNING: Possible missclassification leading zero detected";
+        }
+        return null;
+    }
+}
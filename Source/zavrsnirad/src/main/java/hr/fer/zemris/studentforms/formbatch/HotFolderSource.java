@@ -0,0 +1,369 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Source of scanned forms that watches a directory, for example a shared directory where scanners save form images.
+ * Images that are in the directory when watching starts and images that are created later are provided to the
+ * pipeline, so forms are processed a few seconds after they are scanned. Changes of the directory are detected with
+ * {@link WatchService}.
+ *
+ * Scanners write images gradually, so a new image is provided only when its size and modification time haven't
+ * changed for the settle time. Every image is provided only once, unless it is deleted and created again, for example
+ * when a form is scanned again under the same name. Source provides forms until it is closed, after that the
+ * pipeline completes forms that are already being processed.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 7.7.2017.
+ */
+public class HotFolderSource implements IFormSource, Closeable {
+
+    /**
+     * Default time in milliseconds that an image has to stay unchanged before it is processed.
+     */
+    public static final long DEFAULT_SETTLE_MILLIS = 1000;
+
+    /**
+     * Time in milliseconds between two checks of images that are being written.
+     */
+    private static final long POLL_INTERVAL = 200;
+
+    /**
+     * Suffixes of image files that can be read.
+     */
+    private static final Set<String> IMAGE_SUFFIXES = new HashSet<>();
+
+    static {
+        for (String suffix : ImageIO.getReaderFileSuffixes()) {
+            IMAGE_SUFFIXES.add(suffix.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Watched directory.
+     */
+    private final Path directory;
+
+    /**
+     * Filter of images that should be processed.
+     */
+    private final Predicate<File> filter;
+
+    /**
+     * Time in milliseconds that an image has to stay unchanged before it is processed.
+     */
+    private final long settleMillis;
+
+    /**
+     * Service that watches the directory.
+     */
+    private final WatchService watchService;
+
+    /**
+     * Images that are being written, with their last observed state.
+     */
+    private final Map<Path, FileState> pending = new LinkedHashMap<>();
+
+    /**
+     * Written images that weren't yet provided.
+     */
+    private final Queue<Path> ready = new ArrayDeque<>();
+
+    /**
+     * Images that were provided or are waiting to be provided.
+     */
+    private final Set<Path> accepted = new HashSet<>();
+
+    /**
+     * Number of known forms.
+     */
+    private volatile int knownForms;
+
+    /**
+     * Flag that shows if the source is closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor that starts watching a directory with default settle time. All images are processed.
+     *
+     * @param directory
+     *            watched directory
+     * @throws IOException
+     *             if directory cannot be watched
+     */
+    public HotFolderSource(File directory) throws IOException {
+        this(directory, file -> true, DEFAULT_SETTLE_MILLIS);
+    }
+
+    /**
+     * Constructor that starts watching a directory. Images that are already in the directory are processed first.
+     *
+     * @param directory
+     *            watched directory
+     * @param filter
+     *            filter of images that should be processed, for example images without results
+     * @param settleMillis
+     *            time in milliseconds that an image has to stay unchanged before it is processed
+     * @throws IOException
+     *             if directory cannot be watched
+     * @throws IllegalArgumentException
+     *             if directory doesn't exist or settle time is negative
+     */
+    public HotFolderSource(File directory, Predicate<File> filter, long settleMillis) throws IOException,
+            IllegalArgumentException {
+        if (directory == null || !directory.isDirectory()) {
+            throw new IllegalArgumentException("Watched directory " + directory + " doesn't exist.");
+        }
+        if (settleMillis < 0) {
+            throw new IllegalArgumentException("Settle time can't be negative.");
+        }
+        this.directory = directory.toPath();
+        this.filter = filter;
+        this.settleMillis = settleMillis;
+        watchService = this.directory.getFileSystem().newWatchService();
+        // directory is registered before it is listed, so images created in between are not missed
+        this.directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        scanDirectory();
+    }
+
+    /**
+     * Method checks if file is an image that can be read, judging by its suffix.
+     *
+     * @param file
+     *            checked file
+     * @return true if file has suffix of a readable image
+     */
+    public static boolean isImageFile(File file) {
+        String name = file.getName();
+        return IMAGE_SUFFIXES.contains(name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Method creates filter of images that don't have a current result. Image is processed if its result file doesn't
+     * exist or isn't newer than the image, so a form that is scanned again under the same name is processed again.
+     *
+     * @param resultFile
+     *            function that obtains result file of an image
+     * @return filter of images without current result
+     */
+    public static Predicate<File> withoutCurrentResult(Function<File, File> resultFile) {
+        return form -> {
+            File result = resultFile.apply(form);
+            return !result.exists() || result.lastModified() <= form.lastModified();
+        };
+    }
+
+    /**
+     * {@inheritDoc} Method waits until a new image is completely written or the source is closed.
+     *
+     * @return next form file or null if the source is closed
+     */
+    @Override
+    public File nextForm() throws InterruptedException {
+        while (ready.isEmpty()) {
+            if (closed) {
+                return null;
+            }
+            WatchKey key;
+            try {
+                key = watchService.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (ClosedWatchServiceException e) {
+                return null;
+            }
+            if (key != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // some events were lost, so the whole directory is checked
+                        scanDirectory();
+                    } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        forget(directory.resolve((Path) event.context()));
+                    } else {
+                        track(directory.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    // watched directory was deleted
+                    close();
+                }
+            }
+            checkPending();
+        }
+        return closed ? null : ready.poll().toFile();
+    }
+
+    @Override
+    public int getKnownForms() {
+        return knownForms;
+    }
+
+    /**
+     * Method obtains watched directory.
+     *
+     * @return watched directory
+     */
+    public File getDirectory() {
+        return directory.toFile();
+    }
+
+    /**
+     * Method checks if the source is closed.
+     *
+     * @return true if the source is closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Method stops watching the directory. Pipeline doesn't receive new forms after that. Method can be invoked from
+     * any thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // watching is stopped anyway
+        }
+    }
+
+    /**
+     * Method starts tracking all images in the watched directory.
+     */
+    private void scanDirectory() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                track(file);
+            }
+        } catch (IOException e) {
+            // images that cannot be listed are tracked when they change
+        }
+    }
+
+    /**
+     * Method starts tracking an image or updates state of an image that is being written.
+     *
+     * @param file
+     *            created or modified file
+     */
+    private void track(Path file) {
+        if (accepted.contains(file)) {
+            // state of images that are being written is updated when they are checked
+            return;
+        }
+        File form = file.toFile();
+        if (isImageFile(form) && !form.getName().startsWith(".") && filter.test(form)) {
+            pending.put(file, new FileState());
+            accepted.add(file);
+            knownForms++;
+        }
+    }
+
+    /**
+     * Method stops tracking a deleted or moved image. Image that wasn't provided yet is no longer counted and image
+     * that was provided is provided again if an image with the same name is created later.
+     *
+     * @param file
+     *            deleted file
+     */
+    private void forget(Path file) {
+        if (!accepted.remove(file)) {
+            return;
+        }
+        if (pending.remove(file) != null || ready.remove(file)) {
+            knownForms--;
+        }
+    }
+
+    /**
+     * Method moves images that didn't change for the settle time to ready images.
+     */
+    private void checkPending() {
+        long now = System.currentTimeMillis();
+        List<Path> removed = new ArrayList<>();
+        for (Iterator<Map.Entry<Path, FileState>> it = pending.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Path, FileState> entry = it.next();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(entry.getKey(), BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                removed.add(entry.getKey());
+                continue;
+            } catch (IOException e) {
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                removed.add(entry.getKey());
+                continue;
+            }
+            FileState state = entry.getValue();
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (size != state.size || modified != state.modified) {
+                state.size = size;
+                state.modified = modified;
+                state.unchangedSince = now;
+            } else if (size > 0 && now - state.unchangedSince >= settleMillis) {
+                it.remove();
+                ready.add(entry.getKey());
+            }
+        }
+        for (Path file : removed) {
+            forget(file);
+        }
+    }
+
+    /**
+     * Last observed state of an image that is being written.
+     *
+     * @author Domagoj Pluscec
+     * @version v1.0, 7.7.2017.
+     */
+    private static class FileState {
+
+        /**
+         * Image size in bytes.
+         */
+        private long size = -1;
+
+        /**
+         * Last modification time of the image.
+         */
+        private long modified = -1;
+
+        /**
+         * Time when the image was observed to change last.
+         */
+        private long unchangedSince;
+    }
+}
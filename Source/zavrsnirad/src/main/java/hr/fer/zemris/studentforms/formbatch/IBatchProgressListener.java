@@ -0,0 +1,18 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+/**
+ * Interface defines listener of batch form processing progress.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 4.7.2017.
+ */
+public interface IBatchProgressListener {
+
+    /**
+     * Method is invoked after a form is processed or fails. Method is invoked from processing threads.
+     *
+     * @param progress
+     *            batch progress
+     */
+    void progressUpdate(BatchProgress progress);
+}
@@ -0,0 +1,31 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import java.io.File;
+
+/**
+ * Interface defines source of scanned forms for {@link BatchPipeline}. Source can contain a fixed list of forms or it
+ * can provide forms as they arrive, for example from a scanner directory.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 7.7.2017.
+ */
+public interface IFormSource {
+
+    /**
+     * Method obtains next scanned form. Method waits until a form is available and it is always invoked from one
+     * thread.
+     *
+     * @return next form file or null if there are no more forms
+     * @throws InterruptedException
+     *             if waiting thread is interrupted
+     */
+    File nextForm() throws InterruptedException;
+
+    /**
+     * Method obtains number of forms known to the source, it is the total number of forms used for batch progress.
+     * Number can grow while forms are processed.
+     *
+     * @return number of known forms
+     */
+    int getKnownForms();
+}
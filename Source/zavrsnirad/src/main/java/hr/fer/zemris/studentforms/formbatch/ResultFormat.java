@@ -0,0 +1,83 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import java.util.List;
+
+/**
+ * Format of batch result files.
+ *
+ * @author Domagoj Pluscec
+ * @version v1.0, 6.7.2017.
+ */
+public enum ResultFormat {
+
+    /**
+     * Text tables with tab separated columns.
+     */
+    TXT("txt"),
+
+    /**
+     * Comma separated values, values that contain commas, quotes or new lines are quoted.
+     */
+    CSV("csv");
+
+    /**
+     * Quote character of CSV values.
+     */
+    private static final String QUOTE = "\"";
+
+    /**
+     * Extension of result files.
+     */
+    private final String extension;
+
+    /**
+     * Constructor that initializes format with file extension.
+     *
+     * @param extension
+     *            extension of result files
+     */
+    ResultFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Method obtains extension of result files.
+     *
+     * @return file extension without dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Method formats one row of values, row doesn't end with new line.
+     *
+     * @param values
+     *            row values
+     * @return formatted row
+     */
+    public String formatRow(List<String> values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0, end = values.size(); i < end; i++) {
+            if (i > 0) {
+                sb.append(this == CSV ? ',' : '\t');
+            }
+            sb.append(this == CSV ? quote(values.get(i)) : values.get(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Method quotes CSV value if it contains separator, quote or new line.
+     *
+     * @param value
+     *            value
+     * @return quoted value
+     */
+    private static String quote(String value) {
+        if (value.contains(",") || value.contains(QUOTE) || value.contains("\n") || value.contains("\r")) {
+            return QUOTE + value.replace(QUOTE, QUOTE + QUOTE) + QUOTE;
+        }
+        return value;
+    }
+}
@@ -9,9 +9,9 @@ import hr.fer.zemris.image.binarization.GlobalThresholdAlgorithm;
 import hr.fer.zemris.image.binarization.IBinarizationAlgorithm;
 import hr.fer.zemris.image.binary.BinaryImageUtility;
 import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
 import hr.fer.zemris.image.geometry.CoordinateSystem2D;
 import hr.fer.zemris.image.geometry.GeometryUtility;
-import hr.fer.zemris.image.geometry.Region;
 import hr.fer.zemris.image.grayscale.AverageAlgorithm;
 import hr.fer.zemris.image.grayscale.IGrayscaleAlgorithm;
 import hr.fer.zemris.image.transformation.RotateImageCenterAlgorithm;
@@ -22,6 +22,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 import javax.swing.SwingUtilities;
@@ -78,7 +79,7 @@ public class FormDetectionDataModel {
     /**
      * Algorithm used for binarization.
      */
-    private IBinarizationAlgorithm binaryAlgorithm = new GlobalThresholdAlgorithm(250);
+    private IBinarizationAlgorithm binaryAlgorithm = new GlobalThresholdAlgorithm(250, ForkJoinPool.commonPool());
 
     /**
      * Current form node.
@@ -289,8 +290,8 @@ public class FormDetectionDataModel {
      * @return list of segment images
      */
     public List<BufferedImage> getSegmentedImages(int imageIndex) {
-        Predicate<Region> segmentsFilter = i -> i.getBoundingRectangle().width > 2
-                && i.getBoundingRectangle().height > 2 && i.getPoints().size() > 10
+        Predicate<ConnectedComponent> segmentsFilter = i -> i.getBoundingRectangle().width > 2
+                && i.getBoundingRectangle().height > 2 && i.getPixelCount() > 10
                 && i.getBoundingRectangle().width * i.getBoundingRectangle().height > 6;
 
                 List<IBinaryImage> segments = FormNodeUtility.segmentField(regionImages.get(imageIndex), segmentsFilter);
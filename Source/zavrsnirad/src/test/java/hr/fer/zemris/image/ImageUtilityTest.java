@@ -0,0 +1,100 @@
+package hr.fer.zemris.image;
+
+import hr.fer.zemris.image.binarization.AbstractBandBinarizationAlgorithm;
+import hr.fer.zemris.image.binarization.GlobalThresholdAlgorithm;
+import hr.fer.zemris.image.binarization.NiblackMethod;
+import hr.fer.zemris.image.binarization.OtsuAlgorithm;
+import hr.fer.zemris.image.binarization.SauvolaMethod;
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.binary.PackedBinaryImage;
+import hr.fer.zemris.image.grayscale.AbstractRasterGrayscaleAlgorithm;
+import hr.fer.zemris.image.grayscale.AverageAlgorithm;
+import hr.fer.zemris.image.grayscale.BlueChannelAlgorithm;
+import hr.fer.zemris.image.grayscale.DesaturationAlgorithm;
+import hr.fer.zemris.image.grayscale.GreenChannelAlgorithm;
+import hr.fer.zemris.image.grayscale.LuminanceAlgorithm;
+import hr.fer.zemris.image.grayscale.MaximalDecompositionAlgorithm;
+import hr.fer.zemris.image.grayscale.MinimalDecompositionAlgorithm;
+import hr.fer.zemris.image.grayscale.RedChannelAlgorithm;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImageUtilityTest {
+
+    private static final int[] IMAGE_TYPES = { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_BYTE_GRAY };
+
+    // widths aren't divisible by the 64 pixels of a packed image word
+    private static final int[][] SIZES = { { 65, 70 }, { 100, 33 }, { 130, 131 } };
+
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+
+    @After
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    private static AbstractRasterGrayscaleAlgorithm[] grayAlgorithms() {
+        return new AbstractRasterGrayscaleAlgorithm[] { new AverageAlgorithm(), new RedChannelAlgorithm(),
+                new GreenChannelAlgorithm(), new BlueChannelAlgorithm(), new LuminanceAlgorithm(),
+                new DesaturationAlgorithm(), new MaximalDecompositionAlgorithm(),
+                new MinimalDecompositionAlgorithm() };
+    }
+
+    private AbstractBandBinarizationAlgorithm[] binaryAlgorithms() {
+        return new AbstractBandBinarizationAlgorithm[] { new GlobalThresholdAlgorithm(150),
+                new GlobalThresholdAlgorithm(150, pool), new OtsuAlgorithm(), new OtsuAlgorithm(pool),
+                new NiblackMethod(-0.2, 2), new NiblackMethod(-0.2, 2, pool), new SauvolaMethod(0.2, 4),
+                new SauvolaMethod(0.2, 4, pool) };
+    }
+
+    private static BufferedImage randomImage(int width, int height, int type, Random random) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // mostly light pixels with dark strokes, channels differ so grayscale algorithms give different values
+                int base = random.nextInt(6) == 0 ? 30 + random.nextInt(90) : 160 + random.nextInt(60);
+                int red = Math.min(255, base + random.nextInt(36));
+                int green = Math.min(255, base + random.nextInt(36));
+                int blue = Math.min(255, base + random.nextInt(36));
+                image.setRGB(x, y, red << 16 | green << 8 | blue);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void fusedBinarizationMatchesSeparateAlgorithms() {
+        Random random = new Random(42);
+        for (int type : IMAGE_TYPES) {
+            for (int[] size : SIZES) {
+                BufferedImage image = randomImage(size[0], size[1], type, random);
+                for (AbstractRasterGrayscaleAlgorithm grayAlgorithm : grayAlgorithms()) {
+                    for (AbstractBandBinarizationAlgorithm binaryAlgorithm : binaryAlgorithms()) {
+                        String message = String.format("type %d, %dx%d, %s, %s", type, size[0], size[1],
+                                grayAlgorithm, binaryAlgorithm);
+                        IBinaryImage expected = new PackedBinaryImage(binaryAlgorithm.toBinary(grayAlgorithm
+                                .toGrayscale(image)));
+
+                        IBinaryImage fused = ImageUtility.toBinary(image, grayAlgorithm, binaryAlgorithm);
+
+                        Assert.assertTrue(message, fused instanceof PackedBinaryImage);
+                        Assert.assertEquals(message, size[0], fused.getWidth());
+                        Assert.assertEquals(message, size[1], fused.getHeight());
+                        for (int y = 0; y < size[1]; y++) {
+                            for (int x = 0; x < size[0]; x++) {
+                                Assert.assertEquals(message, expected.getPixel(x, y), fused.getPixel(x, y));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
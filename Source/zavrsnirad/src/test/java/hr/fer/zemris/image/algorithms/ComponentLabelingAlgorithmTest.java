@@ -0,0 +1,69 @@
+package hr.fer.zemris.image.algorithms;
+
+import hr.fer.zemris.image.binary.BinaryImage;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ComponentLabelingAlgorithmTest {
+
+    private static BinaryImage image(String... rows) {
+        boolean[][] pixels = new boolean[rows.length][rows[0].length()];
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                pixels[y][x] = rows[y].charAt(x) != '#';
+            }
+        }
+        return new BinaryImage(pixels, false);
+    }
+
+    @Test
+    public void shapesMergedThroughLaterRows() {
+        BinaryImage image = image(
+                "#.#.#...#",
+                "#.#.#..#.",
+                "#####.#..",
+                ".........",
+                "........#");
+        List<ConnectedComponent> components = ComponentLabelingAlgorithm.labelComponents(image, true);
+
+        Assert.assertEquals(3, components.size());
+        ConnectedComponent comb = components.get(0);
+        Assert.assertEquals(new Rectangle(0, 0, 4, 2), comb.getBoundingRectangle());
+        Assert.assertEquals(11, comb.getPixelCount());
+        Assert.assertEquals(2, comb.getRegionCenter().getX());
+        Assert.assertEquals(1, comb.getRegionCenter().getY());
+
+        ConnectedComponent diagonal = components.get(1);
+        Assert.assertEquals(new Rectangle(6, 0, 2, 2), diagonal.getBoundingRectangle());
+        Assert.assertArrayEquals(new int[] { 8, 16, 24 }, diagonal.getPixels());
+        Assert.assertEquals(7, diagonal.getCentroidX(), 1E-9);
+
+        Assert.assertEquals(new Rectangle(8, 4, 0, 0), components.get(2).getBoundingRectangle());
+    }
+
+    @Test
+    public void binaryImageOfComponent() {
+        BinaryImage image = image(
+                "..#",
+                ".#.",
+                "..#");
+        ConnectedComponent component = ComponentLabelingAlgorithm.labelComponents(image, true).get(0);
+        BinaryImage segment = (BinaryImage) component.toBinaryImage();
+
+        Assert.assertEquals(2, segment.getWidth());
+        Assert.assertEquals(3, segment.getHeight());
+        Assert.assertFalse(segment.getPixel(1, 0));
+        Assert.assertFalse(segment.getPixel(0, 1));
+        Assert.assertTrue(segment.getPixel(0, 0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void pixelsNotStored() {
+        ComponentLabelingAlgorithm.labelComponents(image("#"), false).get(0).getPixels();
+    }
+}
@@ -0,0 +1,206 @@
+package hr.fer.zemris.image.algorithms;
+
+import hr.fer.zemris.image.binary.IBinaryImage;
+import hr.fer.zemris.image.binary.PackedBinaryImage;
+import hr.fer.zemris.image.geometry.ConnectedComponent;
+import hr.fer.zemris.image.geometry.Point;
+import hr.fer.zemris.image.geometry.Region;
+
+import java.awt.Rectangle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FloodFillAlgorithmTest {
+
+    private static final int[] WIDTHS = { 1, 5, 63, 64, 65, 130, 200 };
+
+    private static final int[] HEIGHTS = { 1, 7, 33 };
+
+    private static final double[] TARGET_PROBABILITIES = { 0, 0.1, 0.35, 0.6 };
+
+    private static final int FILLS_PER_IMAGE = 6;
+
+    private static IBinaryImage randomImage(int width, int height, double targetProbability, boolean targetMark,
+            Random random) {
+        PackedBinaryImage image = new PackedBinaryImage(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setPixel(x, y, random.nextDouble() < targetProbability ? targetMark : !targetMark);
+            }
+        }
+        return image;
+    }
+
+    // breadth first flood through 8-connected pixels, region contains flooded pixels and all their neighbors
+    private static boolean[][] referenceRegion(IBinaryImage image, int startX, int startY, boolean targetMark) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean[][] flooded = new boolean[height][width];
+        boolean[][] region = new boolean[height][width];
+        Queue<int[]> queue = new ArrayDeque<>();
+        flooded[startY][startX] = true;
+        queue.add(new int[] { startX, startY });
+        while (!queue.isEmpty()) {
+            int[] pixel = queue.poll();
+            for (int y = Math.max(0, pixel[1] - 1); y <= Math.min(height - 1, pixel[1] + 1); y++) {
+                for (int x = Math.max(0, pixel[0] - 1); x <= Math.min(width - 1, pixel[0] + 1); x++) {
+                    region[y][x] = true;
+                    if (!flooded[y][x] && image.getPixel(x, y) != targetMark) {
+                        flooded[y][x] = true;
+                        queue.add(new int[] { x, y });
+                    }
+                }
+            }
+        }
+        return region;
+    }
+
+    private static void assertComponent(String message, boolean[][] expected, ConnectedComponent component,
+            int width) {
+        int count = 0;
+        long sumX = 0;
+        long sumY = 0;
+        int xMin = Integer.MAX_VALUE;
+        int yMin = Integer.MAX_VALUE;
+        int xMax = -1;
+        int yMax = -1;
+        int[] indexes = new int[expected.length * width];
+        for (int y = 0; y < expected.length; y++) {
+            for (int x = 0; x < width; x++) {
+                if (expected[y][x]) {
+                    indexes[count++] = y * width + x;
+                    sumX += x;
+                    sumY += y;
+                    xMin = Math.min(xMin, x);
+                    yMin = Math.min(yMin, y);
+                    xMax = Math.max(xMax, x);
+                    yMax = Math.max(yMax, y);
+                }
+            }
+        }
+        Assert.assertEquals(message, count, component.getPixelCount());
+        Assert.assertEquals(message, new Rectangle(xMin, yMin, xMax - xMin, yMax - yMin),
+                component.getBoundingRectangle());
+        Assert.assertEquals(message, (double) sumX / count, component.getCentroidX(), 1E-9);
+        Assert.assertEquals(message, (double) sumY / count, component.getCentroidY(), 1E-9);
+        Assert.assertEquals(message, new Point((int) (sumX / count), (int) (sumY / count)),
+                component.getRegionCenter());
+        Assert.assertEquals(message, width, component.getImageWidth());
+        Assert.assertArrayEquals(message, Arrays.copyOf(indexes, count), component.getPixels());
+        assertRuns(message, expected, component.toRegion(), width);
+    }
+
+    // runs must be ordered by rows and columns and contain maximal horizontal spans of region pixels
+    private static void assertRuns(String message, boolean[][] expected, Region region, int width) {
+        int run = 0;
+        for (int y = 0; y < expected.length; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!expected[y][x] || (x > 0 && expected[y][x - 1])) {
+                    continue;
+                }
+                int end = x;
+                while (end + 1 < width && expected[y][end + 1]) {
+                    end++;
+                }
+                Assert.assertTrue(message, run < region.getRunCount());
+                Assert.assertEquals(message, y, region.getRunY(run));
+                Assert.assertEquals(message, x, region.getRunStart(run));
+                Assert.assertEquals(message, end, region.getRunEnd(run));
+                run++;
+            }
+        }
+        Assert.assertEquals(message, run, region.getRunCount());
+    }
+
+    @Test
+    public void fillMatchesBreadthFirstFlood() {
+        Random random = new Random(42);
+        for (boolean targetMark : new boolean[] { false, true }) {
+            for (int width : WIDTHS) {
+                for (int height : HEIGHTS) {
+                    for (double probability : TARGET_PROBABILITIES) {
+                        IBinaryImage image = randomImage(width, height, probability, targetMark, random);
+                        // one instance is used for all fills, so masks have to be cleared after every fill
+                        FloodFillAlgorithm algorithm = new FloodFillAlgorithm(image);
+                        for (int i = 0; i < FILLS_PER_IMAGE; i++) {
+                            int x = random.nextInt(width);
+                            int y = random.nextInt(height);
+                            if (image.getPixel(x, y) == targetMark) {
+                                continue;
+                            }
+                            String message = String.format("%dx%d, p=%.2f, target %b, start (%d, %d)", width,
+                                    height, probability, targetMark, x, y);
+                            boolean[][] expected = referenceRegion(image, x, y, targetMark);
+
+                            assertComponent(message, expected, algorithm.fill(new Point(x, y), targetMark), width);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void extractedRegionMatchesBreadthFirstFlood() {
+        Random random = new Random(7);
+        for (boolean targetMark : new boolean[] { false, true }) {
+            IBinaryImage image = randomImage(150, 40, 0.3, targetMark, random);
+            FloodFillAlgorithm algorithm = new FloodFillAlgorithm(image);
+            for (int i = 0; i < 20; i++) {
+                int x = random.nextInt(image.getWidth());
+                int y = random.nextInt(image.getHeight());
+                if (image.getPixel(x, y) == targetMark) {
+                    continue;
+                }
+                boolean[][] expected = referenceRegion(image, x, y, targetMark);
+
+                Region region = algorithm.extractRegion(new Point(x, y), targetMark);
+
+                int count = 0;
+                for (int py = 0; py < image.getHeight(); py++) {
+                    for (int px = 0; px < image.getWidth(); px++) {
+                        Assert.assertEquals(expected[py][px], region.contains(px, py));
+                        count += expected[py][px] ? 1 : 0;
+                    }
+                }
+                Assert.assertEquals(count, region.getPointCount());
+            }
+        }
+    }
+
+    @Test
+    public void runsCrossingWordBoundariesAndImageBorders() {
+        int width = 200;
+        int height = 5;
+        PackedBinaryImage image = new PackedBinaryImage(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setPixel(x, y, true);
+            }
+        }
+        // vertical wall of target pixels that ends one row above the bottom border
+        for (int y = 0; y < height - 1; y++) {
+            image.setPixel(128, y, false);
+        }
+        FloodFillAlgorithm algorithm = new FloodFillAlgorithm(image);
+
+        ConnectedComponent component = algorithm.fill(new Point(0, 0), false);
+
+        boolean[][] all = new boolean[height][width];
+        for (boolean[] row : all) {
+            Arrays.fill(row, true);
+        }
+        assertComponent("wall", all, component, width);
+        Assert.assertEquals(height, component.toRegion().getRunCount());
+
+        // wall pixels are flooded and its neighbors on both sides of the word boundary are in the region
+        ConnectedComponent wall = algorithm.fill(new Point(128, 0), true);
+        Assert.assertEquals(new Rectangle(127, 0, 2, 4), wall.getBoundingRectangle());
+        assertComponent("wall pixels", referenceRegion(image, 128, 0, true), wall, width);
+    }
+}
@@ -0,0 +1,55 @@
+package hr.fer.zemris.image.algorithms;
+
+import hr.fer.zemris.math.StatisticsUtility;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IntegralImageTest {
+
+    private static final int WIDTH = 23;
+    private static final int HEIGHT = 19;
+
+    @Test
+    public void windowStatisticsSameAsStatisticsUtility() {
+        byte[] intensities = new byte[WIDTH * HEIGHT];
+        new Random(1).nextBytes(intensities);
+        IntegralImage integral = new IntegralImage(intensities, WIDTH, HEIGHT);
+
+        int[][] windows = { { 0, 0, WIDTH, HEIGHT }, { 3, 4, 4, 5 }, { 5, 0, 17, 11 }, { 0, 7, 9, HEIGHT } };
+        for (int[] w : windows) {
+            int[] xs = new int[(w[2] - w[0]) * (w[3] - w[1])];
+            int k = 0;
+            long sum = 0;
+            for (int y = w[1]; y < w[3]; y++) {
+                for (int x = w[0]; x < w[2]; x++) {
+                    xs[k] = intensities[y * WIDTH + x] & 0xFF;
+                    sum += xs[k++];
+                }
+            }
+            Assert.assertEquals(sum, integral.sum(w[0], w[1], w[2], w[3]));
+            Assert.assertEquals(StatisticsUtility.mean(xs), integral.mean(w[0], w[1], w[2], w[3]), 1E-9);
+            Assert.assertEquals(StatisticsUtility.standardDeviation(xs),
+                    integral.standardDeviation(w[0], w[1], w[2], w[3]), 1E-9);
+        }
+    }
+
+    @Test
+    public void sumOfWhitePageDoesNotOverflow() {
+        final int size = 3000;
+        byte[] intensities = new byte[size * size];
+        Arrays.fill(intensities, (byte) 0xFF);
+        IntegralImage integral = new IntegralImage(intensities, size, size);
+
+        Assert.assertEquals(255L * size * size, integral.sum(0, 0, size, size));
+        Assert.assertEquals(0, integral.variance(0, 0, size, size), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyWindow() {
+        new IntegralImage(new byte[WIDTH * HEIGHT], WIDTH, HEIGHT).mean(2, 2, 2, 5);
+    }
+}
@@ -0,0 +1,84 @@
+package hr.fer.zemris.image.binarization;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class BandBinarizationTest {
+
+    private static final File PAGE = new File("../../Data/dataset/200DPI/p0000001.png");
+
+    // none of the heights is divisible by the minimal band height
+    private static final int[] HEIGHTS = { 63, 65, 130, 257, 1001 };
+
+    private static final int WIDTH = 97;
+
+    private final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+
+    private final ForkJoinPool multiThreadPool = new ForkJoinPool(4);
+
+    @After
+    public void shutdownPools() {
+        singleThreadPool.shutdown();
+        multiThreadPool.shutdown();
+    }
+
+    private static BufferedImage randomPage(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // light background with darker strokes and noise, so local and global thresholds differ
+                int value = random.nextInt(8) == 0 ? 40 + random.nextInt(80) : 180 + random.nextInt(76);
+                value = Math.max(0, value - y % 50);
+                image.setRGB(x, y, value << 16 | value << 8 | value);
+            }
+        }
+        return image;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private void assertPoolsGiveSameResult(String message, BufferedImage image,
+            Function<ForkJoinPool, AbstractBandBinarizationAlgorithm> algorithm) {
+        int[] sequential = pixels(algorithm.apply(null).toBinary(image));
+        Assert.assertArrayEquals(message + ", 1 thread", sequential,
+                pixels(algorithm.apply(singleThreadPool).toBinary(image)));
+        Assert.assertArrayEquals(message + ", 4 threads", sequential,
+                pixels(algorithm.apply(multiThreadPool).toBinary(image)));
+    }
+
+    private void assertAllAlgorithms(String message, BufferedImage image) {
+        assertPoolsGiveSameResult(message + ", global", image, pool -> new GlobalThresholdAlgorithm(150, pool));
+        assertPoolsGiveSameResult(message + ", otsu", image, OtsuAlgorithm::new);
+        assertPoolsGiveSameResult(message + ", niblack", image, pool -> new NiblackMethod(-0.2, 2, pool));
+        assertPoolsGiveSameResult(message + ", sauvola", image, pool -> new SauvolaMethod(0.2, 4, pool));
+    }
+
+    @Test
+    public void bandsGiveSameResultAsSequentialBinarization() {
+        Random random = new Random(42);
+        for (int height : HEIGHTS) {
+            assertAllAlgorithms("height " + height, randomPage(WIDTH, height, random));
+        }
+    }
+
+    @Test
+    public void bandsGiveSameResultOnScannedPage() throws Exception {
+        Assume.assumeTrue(PAGE.isFile());
+        BufferedImage page = ImageIO.read(PAGE);
+        Assert.assertNotEquals(0, page.getHeight() % 64);
+
+        assertAllAlgorithms(PAGE.getName(), page);
+    }
+}
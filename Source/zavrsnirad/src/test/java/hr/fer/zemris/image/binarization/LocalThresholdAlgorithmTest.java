@@ -0,0 +1,117 @@
+package hr.fer.zemris.image.binarization;
+
+import hr.fer.zemris.math.StatisticsUtility;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LocalThresholdAlgorithmTest {
+
+    private static final double NIBLACK_K = -0.2;
+
+    private static final double SAUVOLA_K = 0.2;
+
+    private static final double SAUVOLA_R = 128;
+
+    private static final int[] RADII = { 1, 2, 4 };
+
+    // the smallest sizes are covered by the window of every pixel, so every pixel is at an edge
+    private static final int[][] SIZES = { { 2, 2 }, { 3, 7 }, { 9, 5 }, { 40, 31 } };
+
+    private interface Formula {
+        double threshold(double mean, double deviation);
+    }
+
+    private static BufferedImage randomImage(int width, int height, int type, Random random) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // flat patches have zero deviation, so their pixels are equal to the threshold
+                int value = (x / 4 + y / 3) % 3 == 0 ? 200 : random.nextInt(256);
+                image.setRGB(x, y, new Color(value, value, value).getRGB());
+            }
+        }
+        return image;
+    }
+
+    // per-pixel computation of the original algorithms, window is [x - r, min(x + r, w - 1)) in both directions
+    private static int[][] referenceBinary(BufferedImage image, int radius, Formula formula) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[][] binary = new int[height][width];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int xMin = Math.max(0, x - radius);
+                int xMax = Math.min(x + radius, width - 1);
+                int yMin = Math.max(0, y - radius);
+                int yMax = Math.min(y + radius, height - 1);
+                int[] xs = new int[(xMax - xMin) * (yMax - yMin)];
+                int k = 0;
+                for (int i = xMin; i < xMax; i++) {
+                    for (int j = yMin; j < yMax; j++) {
+                        xs[k++] = new Color(image.getRGB(i, j)).getRed();
+                    }
+                }
+                double threshold = formula.threshold(StatisticsUtility.mean(xs),
+                        StatisticsUtility.standardDeviation(xs));
+                binary[y][x] = new Color(image.getRGB(x, y)).getRed() >= threshold ? 255 : 0;
+            }
+        }
+        return binary;
+    }
+
+    private static void assertSameAsReference(String message, AbstractLocalThresholdAlgorithm algorithm,
+            BufferedImage image, int radius, Formula formula) {
+        int[][] expected = referenceBinary(image, radius, formula);
+
+        BufferedImage binary = algorithm.toBinary(image);
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                Assert.assertEquals(message + " at (" + x + ", " + y + ")", expected[y][x],
+                        new Color(binary.getRGB(x, y)).getRed());
+            }
+        }
+    }
+
+    @Test
+    public void outputSameAsPerPixelWindowStatistics() {
+        Random random = new Random(42);
+        for (int type : new int[] { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_BYTE_GRAY }) {
+            for (int[] size : SIZES) {
+                BufferedImage image = randomImage(size[0], size[1], type, random);
+                for (int radius : RADII) {
+                    String message = String.format("type %d, %dx%d, r=%d", type, size[0], size[1], radius);
+                    assertSameAsReference("Niblack " + message, new NiblackMethod(NIBLACK_K, radius), image, radius,
+                            (mean, deviation) -> mean + NIBLACK_K * deviation);
+                    assertSameAsReference("Sauvola " + message, new SauvolaMethod(SAUVOLA_K, radius), image, radius,
+                            (mean, deviation) -> mean * (1 + SAUVOLA_K * (deviation / SAUVOLA_R - 1)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pixelEqualToThresholdIsWhite() {
+        BufferedImage image = new BufferedImage(5, 4, BufferedImage.TYPE_INT_RGB);
+        int gray = new Color(90, 90, 90).getRGB();
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, gray);
+            }
+        }
+
+        // deviation of a flat image is zero, so Niblack threshold is equal to every pixel
+        BufferedImage binary = new NiblackMethod(NIBLACK_K, 1).toBinary(image);
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                Assert.assertEquals(255, new Color(binary.getRGB(x, y)).getRed());
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package hr.fer.zemris.image.binary;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BinaryImageResamplerTest {
+
+    private static BinaryImage image(int width, int height, boolean value) {
+        boolean[][] pixels = new boolean[height][width];
+        for (boolean[] row : pixels) {
+            Arrays.fill(row, value);
+        }
+        return new BinaryImage(pixels, false);
+    }
+
+    @Test
+    public void downscaledImageIsAreaAveraged() {
+        boolean[][] pixels = new boolean[4][4];
+        // left half white
+        for (int y = 0; y < 4; y++) {
+            pixels[y][0] = true;
+            pixels[y][1] = true;
+        }
+        pixels[0][2] = true;
+        double[] output = new double[4];
+
+        new BinaryImageResampler(2).resample(new BinaryImage(pixels, false), output);
+
+        Assert.assertArrayEquals(new double[] { 1, 0.25, 1, 0 }, output, 1e-12);
+    }
+
+    @Test
+    public void narrowImageIsCenteredOnWhite() {
+        double[] output = new double[9];
+
+        new BinaryImageResampler(3).resample(image(2, 6, false), output);
+
+        Assert.assertArrayEquals(new double[] { 1, 0, 1, 1, 0, 1, 1, 0, 1 }, output, 1e-12);
+    }
+
+    @Test
+    public void upscaledImageKeepsPixelValues() {
+        boolean[][] pixels = { { true, false } };
+        double[] output = new double[16];
+
+        new BinaryImageResampler(4).toNetworkInput(new BinaryImage(pixels, false), output);
+
+        Assert.assertArrayEquals(new double[] { 1, 1, 1, 1, 1, 1, 0, 0, 1, 1, 0, 0, 1, 1, 1, 1 }, output, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void smallBufferIsRejected() {
+        new BinaryImageResampler(4).resample(image(2, 2, true), new double[15]);
+    }
+}
@@ -0,0 +1,93 @@
+package hr.fer.zemris.image.binary;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PackedBinaryImageTest {
+
+    private static final int WIDTH = 131;
+    private static final int HEIGHT = 17;
+
+    @Test
+    public void pixelsSameAsBooleanImage() {
+        BinaryImage expected = randomImage(WIDTH, HEIGHT, 1);
+        PackedBinaryImage packed = new PackedBinaryImage(expected);
+
+        Assert.assertEquals(WIDTH, packed.getWidth());
+        Assert.assertEquals(HEIGHT, packed.getHeight());
+        assertSamePixels(expected, packed);
+        Assert.assertArrayEquals(expected.getPixels(), packed.getPixels(), 0);
+        Assert.assertEquals(expected.getPixels(false), packed.getPixels(false));
+        Assert.assertEquals(expected.getPixels(true), packed.getPixels(true));
+    }
+
+    @Test
+    public void histogramsSameAsBooleanImage() {
+        BinaryImage expected = randomImage(WIDTH, HEIGHT, 2);
+        PackedBinaryImage packed = new PackedBinaryImage(expected);
+
+        Assert.assertArrayEquals(BinaryImageUtility.calcHorizontalHistogram(expected),
+                BinaryImageUtility.calcHorizontalHistogram(packed));
+        Assert.assertArrayEquals(BinaryImageUtility.calcVerticalHistogram(expected),
+                BinaryImageUtility.calcVerticalHistogram(packed));
+    }
+
+    @Test
+    public void subimageCopiesPixels() {
+        BinaryImage expected = randomImage(WIDTH, HEIGHT, 3);
+        PackedBinaryImage packed = new PackedBinaryImage(expected);
+
+        int[][] subimages = { { 0, 0, WIDTH, HEIGHT }, { 1, 2, 64, 5 }, { 63, 0, 68, HEIGHT }, { 70, 3, 1, 1 },
+                { 64, 1, 67, 10 } };
+        for (int[] s : subimages) {
+            assertSamePixels(expected.getSubimage(s[0], s[1], s[2], s[3]), packed.getSubimage(s[0], s[1], s[2], s[3]));
+        }
+    }
+
+    @Test
+    public void toImageRoundTrip() {
+        PackedBinaryImage packed = new PackedBinaryImage(randomImage(WIDTH, HEIGHT, 4));
+        assertSamePixels(packed, new BinaryImage(packed.toImage()));
+        assertSamePixels(packed, new PackedBinaryImage(packed.toImage()));
+    }
+
+    @Test
+    public void setPixel() {
+        PackedBinaryImage packed = new PackedBinaryImage(WIDTH, HEIGHT);
+        packed.setPixel(WIDTH - 1, HEIGHT - 1, true);
+        packed.setPixel(64, 0, true);
+        packed.setPixel(64, 0, false);
+
+        Assert.assertTrue(packed.getPixel(WIDTH - 1, HEIGHT - 1));
+        Assert.assertFalse(packed.getPixel(64, 0));
+        Assert.assertEquals(1, packed.getPixels(true).size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pixelOutsideOfImage() {
+        new PackedBinaryImage(WIDTH, HEIGHT).getPixel(WIDTH, 0);
+    }
+
+    private static BinaryImage randomImage(int width, int height, long seed) {
+        Random random = new Random(seed);
+        boolean[][] pixels = new boolean[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y][x] = random.nextBoolean();
+            }
+        }
+        return new BinaryImage(pixels, false);
+    }
+
+    private static void assertSamePixels(IBinaryImage expected, IBinaryImage actual) {
+        Assert.assertEquals(expected.getWidth(), actual.getWidth());
+        Assert.assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Assert.assertEquals(expected.getPixel(x, y), actual.getPixel(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package hr.fer.zemris.image.geometry;
+
+import hr.fer.zemris.image.binary.IBinaryImage;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RegionTest {
+
+    @Test
+    public void pointsAreJoinedIntoRuns() {
+        Region region = new Region(Arrays.asList(new Point(3, 1), new Point(1, 1), new Point(2, 1), new Point(2, 1),
+                new Point(5, 1), new Point(0, 2)));
+
+        Assert.assertEquals(5, region.getPointCount());
+        Assert.assertEquals(3, region.getRunCount());
+        Assert.assertEquals(1, region.getRunStart(0));
+        Assert.assertEquals(3, region.getRunEnd(0));
+        Assert.assertEquals(new Rectangle(0, 1, 5, 1), region.getBoundingRectangle());
+        Assert.assertEquals(new Point(2, 1), region.getRegionCenter());
+        Assert.assertTrue(region.getPoints().contains(new Point(5, 1)));
+        Assert.assertFalse(region.contains(4, 1));
+        Assert.assertEquals(5, new HashSet<>(region.getPoints()).size());
+    }
+
+    @Test
+    public void mergedRegionAndMask() {
+        Region first = new Region(new int[] { 0, 0, 1, 2, 4, 4 }, 2);
+        Region second = new Region(new int[] { 0, 2, 3, 1, 1, 1 }, 2);
+        Region merged = RegionUtility.mergeRegions(first, second);
+
+        Set<Point> expected = new HashSet<>(first.getPoints());
+        expected.addAll(second.getPoints());
+        Assert.assertEquals(expected, merged.getPoints());
+        Assert.assertEquals(3, merged.getRunCount());
+
+        IBinaryImage mask = merged.getMask(true, false);
+        boolean[][] matrix = RegionUtility.regionToBooleanArray(merged, true, false);
+        Assert.assertEquals(matrix.length, mask.getHeight());
+        for (int y = 0; y < matrix.length; y++) {
+            for (int x = 0; x < matrix[y].length; x++) {
+                Assert.assertEquals(matrix[y][x], mask.getPixel(x, y));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsortedRuns() {
+        new Region(new int[] { 1, 0, 0, 0, 0, 0 }, 2);
+    }
+}
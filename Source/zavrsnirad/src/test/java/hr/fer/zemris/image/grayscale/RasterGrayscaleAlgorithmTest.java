@@ -0,0 +1,107 @@
+package hr.fer.zemris.image.grayscale;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RasterGrayscaleAlgorithmTest {
+
+    private static final int WIDTH = 37;
+
+    private static final int HEIGHT = 23;
+
+    private static final int[] IMAGE_TYPES = { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_USHORT_565_RGB,
+            BufferedImage.TYPE_BYTE_GRAY };
+
+    private interface Reference {
+        int gray(int red, int green, int blue);
+    }
+
+    private static Map<AbstractRasterGrayscaleAlgorithm, Reference> algorithms() {
+        Map<AbstractRasterGrayscaleAlgorithm, Reference> algorithms = new LinkedHashMap<>();
+        algorithms.put(new AverageAlgorithm(), (r, g, b) -> (r + g + b) / 3);
+        algorithms.put(new RedChannelAlgorithm(), (r, g, b) -> r);
+        algorithms.put(new GreenChannelAlgorithm(), (r, g, b) -> g);
+        algorithms.put(new BlueChannelAlgorithm(), (r, g, b) -> b);
+        algorithms.put(new LuminanceAlgorithm(), (r, g, b) -> (int) (0.21 * r + 0.71 * g + 0.07 * b));
+        algorithms.put(new DesaturationAlgorithm(), (r, g, b) -> (Math.max(r, Math.max(g, b))
+                + Math.min(r, Math.min(g, b))) / 2);
+        algorithms.put(new MaximalDecompositionAlgorithm(), (r, g, b) -> Math.max(r, Math.max(g, b)));
+        algorithms.put(new MinimalDecompositionAlgorithm(), (r, g, b) -> Math.min(r, Math.min(g, b)));
+        return algorithms;
+    }
+
+    private static BufferedImage randomImage(int type, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    // per-pixel computation of the original algorithms
+    private static BufferedImage referenceGrayscale(BufferedImage original, Reference reference) {
+        BufferedImage gray = new BufferedImage(original.getWidth(), original.getHeight(), original.getType());
+        for (int x = 0; x < original.getWidth(); x++) {
+            for (int y = 0; y < original.getHeight(); y++) {
+                Color color = new Color(original.getRGB(x, y));
+                int value = reference.gray(color.getRed(), color.getGreen(), color.getBlue());
+                gray.setRGB(x, y, new Color(value, value, value, color.getAlpha()).getRGB());
+            }
+        }
+        return gray;
+    }
+
+    @Test
+    public void grayscaleMatchesPerPixelComputation() {
+        for (Map.Entry<AbstractRasterGrayscaleAlgorithm, Reference> entry : algorithms().entrySet()) {
+            for (int type : IMAGE_TYPES) {
+                BufferedImage image = randomImage(type, type);
+                BufferedImage expected = referenceGrayscale(image, entry.getValue());
+
+                BufferedImage actual = entry.getKey().toGrayscale(image);
+
+                String message = entry.getKey() + ", image type " + type;
+                Assert.assertEquals(message, type, actual.getType());
+                for (int y = 0; y < HEIGHT; y++) {
+                    for (int x = 0; x < WIDTH; x++) {
+                        Assert.assertEquals(message, expected.getRGB(x, y), actual.getRGB(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void intensitiesMatchPerPixelComputation() {
+        for (Map.Entry<AbstractRasterGrayscaleAlgorithm, Reference> entry : algorithms().entrySet()) {
+            for (int type : IMAGE_TYPES) {
+                BufferedImage image = randomImage(type, type);
+                BufferedImage expected = referenceGrayscale(image, entry.getValue());
+
+                byte[] intensities = entry.getKey().toIntensities(image);
+                byte[] stored = new byte[WIDTH * HEIGHT];
+                entry.getKey().intensityReader(image).readIntensities(0, HEIGHT, stored);
+
+                String message = entry.getKey() + ", image type " + type;
+                for (int y = 0, i = 0; y < HEIGHT; y++) {
+                    for (int x = 0; x < WIDTH; x++, i++) {
+                        Color color = new Color(image.getRGB(x, y));
+                        int value = entry.getValue().gray(color.getRed(), color.getGreen(), color.getBlue());
+                        Assert.assertEquals(message, value, intensities[i] & 0xFF);
+                        Assert.assertEquals(message, new Color(expected.getRGB(x, y)).getRed(), stored[i] & 0xFF);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -40,6 +40,22 @@ public class FeedForwardNetworkTest {
 
     }
 
+    @Test
+    public void batchOutputsEqualSingleOutputs() {
+        FeedForwardNetwork network = initilizeNetworkFourLayersTests();
+        double[][] inputs = new double[7][];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new double[] { i, 1. / (i + 1), -i };
+        }
+        double[][] outputs = network.calcOutputs(inputs);
+
+        Assert.assertEquals(inputs.length, outputs.length);
+        for (int i = 0; i < inputs.length; i++) {
+            network.calcOutput(inputs[i]);
+            Assert.assertArrayEquals(network.getNetworkOutput(), outputs[i], 0);
+        }
+    }
+
     @Test
     public void fourLayersNetworkTest() {
         FeedForwardNetwork network = initilizeNetworkFourLayersTests();
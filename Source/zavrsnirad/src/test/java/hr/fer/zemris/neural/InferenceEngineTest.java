@@ -0,0 +1,73 @@
+package hr.fer.zemris.neural;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InferenceEngineTest {
+
+    private static FeedForwardNetwork createNetwork() {
+        FeedForwardNetwork network = new FeedForwardNetwork();
+        network.addLayer(16);
+        network.addLayer(8);
+        network.addLayer(3);
+        Random random = new Random(42);
+        network.setWeights(randomValues(random, network.getWeights().size()));
+        network.setThresholdWeights(randomValues(random, network.getThresholdWeights().size()));
+        return network;
+    }
+
+    // same range as setRandomWeights, but reproducible
+    private static List<Double> randomValues(Random random, int size) {
+        double factor = 2.4 / (16 + 1);
+        List<Double> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add((random.nextDouble() * 2 - 1) * factor);
+        }
+        return values;
+    }
+
+    private static double[][] createInputs(int samples, int inputSize) {
+        Random random = new Random(7);
+        double[][] inputs = new double[samples][inputSize];
+        for (double[] input : inputs) {
+            for (int i = 0; i < inputSize; i++) {
+                input[i] = random.nextBoolean() ? 1 : 0;
+            }
+        }
+        return inputs;
+    }
+
+    private static void assertClose(double[][] expected, double[][] actual, double delta) {
+        Assert.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertArrayEquals(expected[i], actual[i], delta);
+        }
+    }
+
+    @Test
+    public void floatNetworkMatchesDoubleNetwork() {
+        FeedForwardNetwork network = createNetwork();
+        double[][] inputs = createInputs(7, 16);
+
+        assertClose(network.calcOutputs(inputs), new FloatNetwork(network).calcOutputs(inputs), 1e-5);
+    }
+
+    @Test
+    public void quantizedNetworkIsCloseToDoubleNetwork() {
+        FeedForwardNetwork network = createNetwork();
+        double[][] inputs = createInputs(7, 16);
+        QuantizedNetwork quantized = new QuantizedNetwork(network, inputs);
+
+        Assert.assertEquals(16, quantized.getInputSize());
+        assertClose(network.calcOutputs(inputs), quantized.calcOutputs(inputs), 0.05);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantizedNetworkNeedsCalibrationInputs() {
+        new QuantizedNetwork(createNetwork(), new double[0][]);
+    }
+}
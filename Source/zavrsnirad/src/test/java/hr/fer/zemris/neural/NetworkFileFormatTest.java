@@ -0,0 +1,48 @@
+package hr.fer.zemris.neural;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NetworkFileFormatTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writtenNetworkIsReadUnchanged() throws IOException {
+        FeedForwardNetwork network = new FeedForwardNetwork();
+        network.addLayer(3);
+        network.addLayer(4);
+        network.addLayer(2);
+        network.setRandomWeights();
+        Path file = folder.newFile("network.ann").toPath();
+
+        NetworkFileFormat.write(network, file);
+        FeedForwardNetwork read = NetworkFileFormat.read(file);
+
+        Assert.assertTrue(NetworkFileFormat.isNetworkFile(file));
+        Assert.assertEquals(network.getWeights(), read.getWeights());
+        Assert.assertEquals(network.getThresholdWeights(), read.getThresholdWeights());
+        Assert.assertEquals(2, read.getNetworkOutput().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFileIsRejected() throws IOException {
+        FeedForwardNetwork network = new FeedForwardNetwork();
+        network.addLayer(3);
+        network.addLayer(2);
+        Path file = folder.newFile("network.ann").toPath();
+        NetworkFileFormat.write(network, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        NetworkFileFormat.read(file);
+    }
+}
@@ -0,0 +1,76 @@
+package hr.fer.zemris.neural.datastructures;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TrainingRecordCacheTest {
+
+    private static final int DIMENSION = 8;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void writeImage(File file, int lineX, int size) throws IOException {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, size, size);
+        g.setColor(Color.BLACK);
+        g.fillRect(lineX, 0, 2, size);
+        g.dispose();
+        ImageIO.write(image, "png", file);
+    }
+
+    @Test
+    public void cachedImageIsReadUnchanged() throws IOException {
+        File image = folder.newFile("digit.png");
+        writeImage(image, 3, 16);
+        Path cacheFile = folder.getRoot().toPath().resolve("set.cache");
+        double[] expected = TrainingRecordUtility.loadImageData(image, DIMENSION);
+
+        TrainingRecordCache cache = new TrainingRecordCache(cacheFile, DIMENSION);
+        Assert.assertArrayEquals(expected, cache.loadImageData(image), 0);
+        cache.save();
+
+        Assert.assertTrue(Files.exists(cacheFile));
+        Assert.assertArrayEquals(expected, new TrainingRecordCache(cacheFile, DIMENSION).loadImageData(image), 0);
+    }
+
+    @Test
+    public void changedImageIsDecodedAgain() throws IOException {
+        File image = folder.newFile("digit.png");
+        writeImage(image, 3, 16);
+        Path cacheFile = folder.getRoot().toPath().resolve("set.cache");
+        TrainingRecordCache cache = new TrainingRecordCache(cacheFile, DIMENSION);
+        cache.loadImageData(image);
+        cache.save();
+
+        writeImage(image, 10, 20);
+        double[] expected = TrainingRecordUtility.loadImageData(image, DIMENSION);
+
+        Assert.assertArrayEquals(expected, new TrainingRecordCache(cacheFile, DIMENSION).loadImageData(image), 0);
+    }
+
+    @Test
+    public void damagedCacheFileIsIgnored() throws IOException {
+        File image = folder.newFile("digit.png");
+        writeImage(image, 3, 16);
+        Path cacheFile = folder.newFile("set.cache").toPath();
+        Files.write(cacheFile, new byte[] { 'S', 'F', 'T', 'C', 1 });
+
+        Assert.assertArrayEquals(TrainingRecordUtility.loadImageData(image, DIMENSION), new TrainingRecordCache(
+                cacheFile, DIMENSION).loadImageData(image), 0);
+    }
+}
@@ -0,0 +1,92 @@
+package hr.fer.zemris.neural.datastructures;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TrainingRecordUtilityTest {
+
+    private static final int DIMENSION = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createDirectory(String name, int images) throws IOException {
+        File directory = folder.newFolder(name);
+        for (int i = 0; i < images; i++) {
+            ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", new File(directory, i + ".png"));
+        }
+        return directory;
+    }
+
+    @Test
+    public void recordsAreLoadedInFileOrder() throws IOException {
+        File zeros = createDirectory("zeros", 12);
+        File ones = createDirectory("ones", 3);
+        File trainingSet = folder.newFile("set.xml");
+        String content = "# digits\n<training_input>\n\t<dir>" + zeros + "</dir>\n"
+                + "\t<expected_output>0</expected_output>\n</training_input>\n"
+                + "<TRAINING_INPUT>\n<DIR> " + ones + " </DIR>\n"
+                + "<EXPECTED_OUTPUT>1</EXPECTED_OUTPUT>\n</TRAINING_INPUT>\n";
+        Files.write(trainingSet.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        List<TrainingRecord> expected = new ArrayList<>();
+        for (File directory : new File[] { zeros, ones }) {
+            TrainingInput input = new TrainingInput();
+            input.setTrainingInputDirectory(directory.toPath());
+            input.setExpectedOutput(directory == zeros ? "0" : "1");
+            expected.addAll(input.toTrainingRecords(DIMENSION));
+        }
+        List<Integer> progress = new ArrayList<>();
+
+        List<TrainingRecord> records = TrainingRecordUtility.fromFile(trainingSet, DIMENSION,
+                (loaded, total) -> progress.add(loaded));
+
+        Assert.assertEquals(expected.size(), records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Assert.assertEquals(expected.get(i).getTrainingFilePath(), records.get(i).getTrainingFilePath());
+            Assert.assertEquals(expected.get(i).getExpectedOutput(), records.get(i).getExpectedOutput());
+            Assert.assertArrayEquals(expected.get(i).getInput(), records.get(i).getInput(), 0);
+        }
+        Assert.assertEquals(Integer.valueOf(records.size()), progress.get(progress.size() - 1));
+        // files of a directory are ordered by name, whatever the file system listing order is
+        for (int i = 1; i < 12; i++) {
+            String previous = records.get(i - 1).getTrainingFilePath().getFileName().toString();
+            Assert.assertTrue(previous.compareTo(records.get(i).getTrainingFilePath().getFileName().toString()) < 0);
+        }
+    }
+
+    @Test
+    public void commentsAndAmpersandsOfOlderFilesAreRead() throws IOException {
+        File digits = createDirectory("zeros & ones", 2);
+        File trainingSet = folder.newFile("set.xml");
+        String content = "# <digits> & letters\n<training_input>\n\t<dir>" + digits + "</dir>\n"
+                + "\t# <dir>elsewhere</dir>\n\t<expected_output>0 &amp; 1</expected_output>\n</training_input>\n";
+        Files.write(trainingSet.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        List<TrainingRecord> records = TrainingRecordUtility.fromFile(trainingSet, DIMENSION);
+
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals(digits.toPath(), records.get(0).getTrainingFilePath().getParent());
+        Assert.assertEquals("0 & 1", records.get(0).getExpectedOutput());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void directoryOutsideTrainingInputIsRejected() throws IOException {
+        File trainingSet = folder.newFile("set.xml");
+        Files.write(trainingSet.toPath(), "<dir>images</dir>\n".getBytes(StandardCharsets.UTF_8));
+
+        TrainingRecordUtility.fromFile(trainingSet, DIMENSION);
+    }
+}
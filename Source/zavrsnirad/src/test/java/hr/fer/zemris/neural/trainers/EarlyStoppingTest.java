@@ -0,0 +1,63 @@
+package hr.fer.zemris.neural.trainers;
+
+import hr.fer.zemris.neural.FeedForwardNetwork;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EarlyStoppingTest {
+
+    @Test
+    public void stopsAfterPatienceAndRestoresBestWeights() {
+        FeedForwardNetwork network = initializeNetwork();
+        EarlyStopping earlyStopping = new EarlyStopping(2, 0.01);
+
+        Assert.assertFalse(earlyStopping.update(1.0, 0, network));
+        double bestWeight = network.getWeights().get(0);
+        network.setWeight(0, bestWeight + 1);
+        Assert.assertFalse(earlyStopping.update(0.995, 1, network));
+        Assert.assertTrue(earlyStopping.update(1.0, 2, network));
+
+        earlyStopping.restoreBestWeights(network);
+        Assert.assertEquals(bestWeight, network.getWeights().get(0), 0);
+        Assert.assertEquals(0, earlyStopping.getBestEpoch());
+        Assert.assertEquals(1.0, earlyStopping.getBestError(), 0);
+    }
+
+    @Test
+    public void trainerEndsWithBestValidationWeights() {
+        double[][] inputs = { { 0, 0 }, { 0, 1 }, { 1, 0 }, { 1, 1 } };
+        double[][] outputs = { { 0 }, { 1 }, { 1 }, { 0 } };
+        double[][] validationOutputs = { { 1 }, { 0 }, { 0 }, { 1 } };
+        FeedForwardNetwork network = initializeNetwork();
+        EarlyStopping earlyStopping = new EarlyStopping(3, 0);
+
+        new ClassicBackPropagationTrainer(network, 0.5).train(inputs, outputs, inputs, validationOutputs, 1000, 1,
+                earlyStopping);
+
+        FeedForwardNetwork restored = initializeNetwork();
+        restored.setWeights(network.getWeights());
+        restored.setThresholdWeights(network.getThresholdWeights());
+        double[][] validation = restored.calcOutputs(inputs);
+        double error = 0;
+        for (int i = 0; i < inputs.length; i++) {
+            error += Math.pow(validationOutputs[i][0] - validation[i][0], 2) / 2;
+        }
+        Assert.assertEquals(earlyStopping.getBestError(), error / inputs.length, 1e-12);
+        Assert.assertTrue(earlyStopping.getBestEpoch() < 1000 - 3);
+    }
+
+    private FeedForwardNetwork initializeNetwork() {
+        FeedForwardNetwork network = new FeedForwardNetwork();
+        network.addLayer(2);
+        network.addLayer(3);
+        network.addLayer(1);
+        Random random = new Random(3);
+        for (int i = 0; i < network.getWeights().size(); i++) {
+            network.setWeight(i, random.nextDouble() * 2 - 1);
+        }
+        return network;
+    }
+}
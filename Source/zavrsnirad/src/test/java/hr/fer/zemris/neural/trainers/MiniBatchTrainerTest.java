@@ -0,0 +1,54 @@
+package hr.fer.zemris.neural.trainers;
+
+import hr.fer.zemris.neural.FeedForwardNetwork;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MiniBatchTrainerTest {
+
+    private static final double[][] INPUTS = { { 0, 0 }, { 0, 1 }, { 1, 0 }, { 1, 1 } };
+
+    private static final double[][] OUTPUTS = { { 0 }, { 1 }, { 1 }, { 0 } };
+
+    @Test
+    public void momentumTrainerLearnsXor() {
+        FeedForwardNetwork network = initializeNetwork();
+        new MomentumTrainer(network, 0.5, 0.9, 2, new Random(1)).train(INPUTS, OUTPUTS, 3000);
+        assertLearned(network);
+    }
+
+    @Test
+    public void adamTrainerLearnsXor() {
+        FeedForwardNetwork network = initializeNetwork();
+        new AdamTrainer(network, 0.05, 2, AdamTrainer.DEFAULT_BETA1, AdamTrainer.DEFAULT_BETA2,
+                AdamTrainer.DEFAULT_EPSILON, new Random(1)).train(INPUTS, OUTPUTS, 3000);
+        assertLearned(network);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchSizeMustBePositive() {
+        new MomentumTrainer(initializeNetwork(), 0.5, 0.9, 0);
+    }
+
+    private FeedForwardNetwork initializeNetwork() {
+        FeedForwardNetwork network = new FeedForwardNetwork();
+        network.addLayer(2);
+        network.addLayer(4);
+        network.addLayer(1);
+        Random random = new Random(2);
+        for (int i = 0; i < network.getWeights().size(); i++) {
+            network.setWeight(i, random.nextDouble() * 2 - 1);
+        }
+        return network;
+    }
+
+    private void assertLearned(FeedForwardNetwork network) {
+        double[][] outputs = network.calcOutputs(INPUTS);
+        for (int i = 0; i < INPUTS.length; i++) {
+            Assert.assertEquals(OUTPUTS[i][0], outputs[i][0], 0.2);
+        }
+    }
+}
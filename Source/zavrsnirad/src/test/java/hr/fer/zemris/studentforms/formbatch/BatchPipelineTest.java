@@ -0,0 +1,152 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import hr.fer.zemris.form.FormTemplateParameters;
+import hr.fer.zemris.image.binarization.OtsuAlgorithm;
+import hr.fer.zemris.image.grayscale.AverageAlgorithm;
+import hr.fer.zemris.neural.IInferenceEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BatchPipelineTest {
+
+    private static final int FORMS = 50;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<File> forms(int number) {
+        List<File> forms = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            forms.add(new File("form" + i + ".png"));
+        }
+        return forms;
+    }
+
+    private static class RecordingProcessor extends FormProcessor {
+
+        private final Map<Integer, List<BatchStage>> stages = new ConcurrentHashMap<>();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        RecordingProcessor() {
+            super(new FormTemplateParameters(null, 0, null, 0, 0), new IInferenceEngine() {
+                @Override
+                public double[][] calcOutputs(double[][] inputs) {
+                    return inputs;
+                }
+
+                @Override
+                public int getInputSize() {
+                    return 4;
+                }
+            }, new File("."), new AverageAlgorithm(), new OtsuAlgorithm());
+        }
+
+        @Override
+        public void process(BatchStage stage, FormJob job) throws IOException {
+            stages.computeIfAbsent(job.getIndex(), i -> Collections.synchronizedList(new ArrayList<>())).add(stage);
+            if (stage == BatchStage.DECODE) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            }
+            if (stage == BatchStage.CLASSIFY) {
+                job.setFields(Arrays.asList("1.5", String.valueOf(job.getIndex())));
+            }
+            if (stage == BatchStage.ALIGN && job.getIndex() % 7 == 3) {
+                throw new IllegalStateException("markers not found");
+            }
+            if (stage == BatchStage.DECODE && job.getIndex() == 10) {
+                throw new IOException();
+            }
+        }
+    }
+
+    @Test
+    public void allFormsPassAllStagesInOrder() throws InterruptedException {
+        List<File> forms = forms(FORMS);
+        RecordingProcessor processor = new RecordingProcessor();
+        BatchPipeline pipeline = new BatchPipeline(processor);
+        pipeline.setQueueCapacity(1);
+        pipeline.setParallelism(BatchStage.SEGMENT, 3);
+        pipeline.setParallelism(BatchStage.WRITE, 2);
+        List<BatchProgress> progress = Collections.synchronizedList(new ArrayList<>());
+        pipeline.addProgressListener(progress::add);
+
+        List<FormJob> jobs = pipeline.process(forms);
+
+        Assert.assertEquals(FORMS, jobs.size());
+        int failed = 0;
+        for (int i = 0; i < FORMS; i++) {
+            FormJob job = jobs.get(i);
+            Assert.assertEquals(i, job.getIndex());
+            List<BatchStage> jobStages = processor.stages.get(i);
+            if (i == 10) {
+                Assert.assertEquals("Decode: IOException", job.getError());
+                Assert.assertEquals(1, jobStages.size());
+            } else if (i % 7 == 3) {
+                Assert.assertEquals("Align: markers not found", job.getError());
+                Assert.assertEquals(BatchStage.ALIGN.ordinal() + 1, jobStages.size());
+            } else {
+                Assert.assertFalse(job.isFailed());
+                Assert.assertEquals(BatchStage.values().length, jobStages.size());
+            }
+            for (int s = 0; s < jobStages.size(); s++) {
+                Assert.assertEquals(BatchStage.values()[s], jobStages.get(s));
+            }
+            failed += job.isFailed() ? 1 : 0;
+        }
+        Assert.assertEquals(FORMS, progress.size());
+        BatchProgress last = progress.get(FORMS - 1);
+        Assert.assertTrue(last.isFinished());
+        Assert.assertEquals(failed, last.getFailed());
+        Assert.assertEquals(FORMS, last.getStageProcessed(BatchStage.DECODE));
+        Assert.assertEquals(FORMS - failed, last.getStageProcessed(BatchStage.WRITE));
+    }
+
+    @Test
+    public void streamedResultsAreWrittenIncrementally() throws InterruptedException, IOException {
+        int forms = 200;
+        RecordingProcessor processor = new RecordingProcessor();
+        BatchPipeline pipeline = new BatchPipeline(processor);
+        pipeline.setQueueCapacity(2);
+        Set<Integer> completed = new HashSet<>();
+        BatchProgress progress;
+
+        try (BatchResultWriter writer = new BatchResultWriter(folder.getRoot())) {
+            progress = pipeline.process(forms(forms), job -> {
+                Assert.assertTrue(completed.add(job.getIndex()));
+                processor.inFlight.decrementAndGet();
+                writer.accept(job);
+            });
+            Assert.assertEquals(forms, writer.getWritten());
+            Assert.assertEquals(progress.getFailed(), writer.getFailed());
+        }
+
+        Assert.assertTrue(progress.isFinished());
+        Assert.assertEquals(forms, completed.size());
+        Assert.assertTrue(processor.maxInFlight.get() <= pipeline.getMaxFormsInFlight());
+        List<String> lines = Files.readAllLines(folder.getRoot().toPath().resolve(
+                BatchResultWriter.RESULTS_FILE_NAME + ".txt"), StandardCharsets.UTF_8);
+        Assert.assertEquals(forms + 1, lines.size());
+        Assert.assertTrue(lines.contains("0\tform0\tOK\t1.5\t0"));
+        Assert.assertTrue(lines.contains("3\tform3\tFAILED\tAlign: markers not found"));
+    }
+}
@@ -0,0 +1,143 @@
+package hr.fer.zemris.studentforms.formbatch;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HotFolderSourceTest {
+
+    private static final long SETTLE_MILLIS = 1000;
+
+    private static final long POLL_MARGIN = 250;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void existingAndNewImagesAreProvidedOnce() throws Exception {
+        File directory = folder.newFolder("scans");
+        Files.write(new File(directory, "old.png").toPath(), new byte[] { 1 });
+        Files.write(new File(directory, "done.png").toPath(), new byte[] { 1 });
+        Files.write(new File(directory, "notes.txt").toPath(), new byte[] { 1 });
+
+        HotFolderSource source = new HotFolderSource(directory, form -> !form.getName().equals("done.png"),
+                SETTLE_MILLIS);
+        CompletableFuture<File> next;
+        try {
+            Assert.assertEquals("old.png", source.nextForm().getName());
+
+            File scan = new File(directory, "new.png");
+            Files.write(scan.toPath(), new byte[] { 2 });
+            Assert.assertEquals("new.png", source.nextForm().getName());
+            Assert.assertEquals(2, source.getKnownForms());
+
+            Files.write(scan.toPath(), new byte[] { 3 });
+            next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return source.nextForm();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(2 * SETTLE_MILLIS);
+        } finally {
+            source.close();
+        }
+        Assert.assertNull(next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void recreatedImageIsProvidedAgain() throws Exception {
+        File directory = folder.newFolder("scans");
+        File scan = new File(directory, "scan.png");
+        Files.write(scan.toPath(), new byte[] { 1 });
+
+        try (HotFolderSource source = new HotFolderSource(directory, form -> true, SETTLE_MILLIS)) {
+            Assert.assertEquals(scan, source.nextForm());
+
+            Files.delete(scan.toPath());
+            CompletableFuture<File> next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return source.nextForm();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(SETTLE_MILLIS);
+            Files.write(scan.toPath(), new byte[] { 2 });
+
+            Assert.assertEquals(scan, next.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(2, source.getKnownForms());
+        }
+    }
+
+    @Test
+    public void rescannedImageWithResultIsProvidedAgain() throws Exception {
+        File directory = folder.newFolder("scans");
+        File results = folder.newFolder("results");
+        File done = new File(directory, "done.png");
+        File scan = new File(directory, "scan.png");
+        Files.write(done.toPath(), new byte[] { 1 });
+        Files.write(scan.toPath(), new byte[] { 1 });
+        Assert.assertTrue(done.setLastModified(System.currentTimeMillis() - 10 * SETTLE_MILLIS));
+        Files.write(new File(results, "done.png.txt").toPath(), new byte[] { 1 });
+
+        try (HotFolderSource source = new HotFolderSource(directory,
+                HotFolderSource.withoutCurrentResult(form -> new File(results, form.getName() + ".txt")),
+                SETTLE_MILLIS)) {
+            Assert.assertEquals(scan, source.nextForm());
+            Assert.assertEquals(1, source.getKnownForms());
+            Files.write(new File(results, "scan.png.txt").toPath(), new byte[] { 1 });
+
+            Files.delete(scan.toPath());
+            CompletableFuture<File> next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return source.nextForm();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(SETTLE_MILLIS);
+            Files.write(scan.toPath(), new byte[] { 2 });
+
+            Assert.assertEquals(scan, next.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals(2, source.getKnownForms());
+        }
+    }
+
+    @Test
+    public void imageIsProvidedWhenWritingIsFinished() throws Exception {
+        File directory = folder.newFolder("scans");
+        File scan = new File(directory, "scan.png");
+
+        try (HotFolderSource source = new HotFolderSource(directory, form -> true, SETTLE_MILLIS)) {
+            CompletableFuture<File> next = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return source.nextForm();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            try (OutputStream os = Files.newOutputStream(scan.toPath())) {
+                for (int i = 0; i < 5; i++) {
+                    os.write(new byte[1024]);
+                    os.flush();
+                    Thread.sleep(SETTLE_MILLIS / 10);
+                    Assert.assertFalse(next.isDone());
+                }
+            }
+            long finished = System.currentTimeMillis();
+
+            Assert.assertEquals(scan, next.get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(System.currentTimeMillis() - finished >= SETTLE_MILLIS - POLL_MARGIN);
+            Assert.assertEquals(5 * 1024, scan.length());
+        }
+    }
+}